@@ -2,6 +2,8 @@ package org.hswebframework.web.authorization;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.Collection;
 
@@ -28,6 +30,22 @@ public interface DimensionProvider {
      */
     Flux<? extends Dimension> getDimensionByUserId(String userId);
 
+    /**
+     * 批量获取多个用户的维度信息,默认逐个调用{@link #getDimensionByUserId(String)},
+     * 实现类可以重写此方法使用一次查询获取全部用户的维度.
+     *
+     * @param userIdList 用户ID
+     * @return 用户ID以及维度
+     * @since 4.0.16
+     */
+    default Flux<Tuple2<String, Dimension>> getDimensionsByUserId(Collection<String> userIdList) {
+        return Flux
+                .fromIterable(userIdList)
+                .flatMap(userId -> this
+                        .getDimensionByUserId(userId)
+                        .map(dimension -> Tuples.of(userId, (Dimension) dimension)));
+    }
+
     /**
      * 根据维度类型和ID获取维度信息
      *
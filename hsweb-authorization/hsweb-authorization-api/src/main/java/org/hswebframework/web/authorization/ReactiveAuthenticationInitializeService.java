@@ -19,8 +19,11 @@
 package org.hswebframework.web.authorization;
 
 import org.hswebframework.web.authorization.events.AuthorizationInitializeEvent;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 /**
  * 授权信息初始化服务接口,使用该接口初始化用的权限信息
  *
@@ -37,4 +40,19 @@ public interface ReactiveAuthenticationInitializeService {
      */
     Mono<Authentication> initUserAuthorization(String userId);
 
+    /**
+     * 根据用户ID批量初始化权限信息,默认逐个调用{@link #initUserAuthorization(String)}.
+     * 不存在的用户将被忽略.
+     *
+     * @param userIdList 用户ID
+     * @return 权限信息
+     * @see AuthorizationInitializeEvent
+     * @since 4.0.16
+     */
+    default Flux<Authentication> initUserAuthorization(Collection<String> userIdList) {
+        return Flux
+                .fromIterable(userIdList)
+                .flatMap(userId -> initUserAuthorization(userId));
+    }
+
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.collections.CollectionUtils;
+import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.Permission;
 import org.hswebframework.web.authorization.annotation.Logical;
 
@@ -66,6 +67,39 @@ public class ResourcesDefinition {
         return resources.isEmpty();
     }
 
+    /**
+     * 判断权限信息是否满足资源定义,通过{@link Authentication#getPermission(String)}按资源ID获取权限,
+     * 不需要对全部权限建立映射.
+     *
+     * @param authentication 权限信息
+     * @return 是否满足
+     * @since 4.0.16
+     */
+    public boolean hasPermission(Authentication authentication) {
+        if (CollectionUtils.isEmpty(resources)) {
+            return true;
+        }
+        List<Permission> permissions = authentication.getPermissions();
+        if (CollectionUtils.isEmpty(permissions)) {
+            return false;
+        }
+        if (permissions.size() == 1) {
+            return hasPermission(permissions.get(0));
+        }
+        if (logical == Logical.AND) {
+            return resources.stream()
+                    .allMatch(resource -> authentication
+                            .getPermission(resource.getId())
+                            .map(per -> resource.hasAction(per.getActions()))
+                            .orElse(false));
+        }
+        return resources.stream()
+                .anyMatch(resource -> authentication
+                        .getPermission(resource.getId())
+                        .map(per -> resource.hasAction(per.getActions()))
+                        .orElse(false));
+    }
+
     public boolean hasPermission(Collection<Permission> permissions) {
 
         if (CollectionUtils.isEmpty(resources)) {
@@ -0,0 +1,237 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.*;
+import org.springframework.util.StringUtils;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * 不可变并建立了索引的权限信息,权限按ID索引,维度按类型和ID索引,权限和维度的判断时间复杂度为O(1).
+ * <p>
+ * 创建后不能再修改权限和维度信息,{@link #merge(Authentication)}和{@link #copy(BiPredicate, Predicate)}将返回新的对象.
+ * 序列化时将转换为{@link SimpleAuthentication},与原有的序列化格式保持兼容.
+ *
+ * <pre>{@code
+ *   Authentication authentication = IndexedAuthentication.of(simpleAuthentication);
+ * }</pre>
+ *
+ * @author zhouhao
+ * @see SimpleAuthentication
+ * @since 4.0.16
+ */
+public class IndexedAuthentication implements Authentication {
+
+    private static final long serialVersionUID = -5418394725367426893L;
+
+    private final User user;
+
+    private final List<Permission> permissions;
+
+    private final List<Dimension> dimensions;
+
+    private final Map<String, Serializable> attributes;
+
+    //权限ID -> 权限
+    private final transient Map<String, Permission> permissionIndex;
+
+    //权限ID -> 操作
+    private final transient Map<String, Set<String>> actionIndex;
+
+    //维度类型 -> 维度列表
+    private final transient Map<String, List<Dimension>> dimensionTypeIndex;
+
+    //维度类型 -> 维度ID -> 维度
+    private final transient Map<String, Map<String, Dimension>> dimensionIndex;
+
+    //小写的维度类型 -> 维度ID -> 维度
+    private final transient Map<String, Map<String, Dimension>> dimensionIgnoreCaseIndex;
+
+    /**
+     * 根据权限信息创建索引,如果已经是{@link IndexedAuthentication}则直接返回.
+     *
+     * @param authentication 权限信息
+     * @return IndexedAuthentication
+     */
+    public static IndexedAuthentication of(Authentication authentication) {
+        if (authentication instanceof IndexedAuthentication) {
+            return ((IndexedAuthentication) authentication);
+        }
+        return new IndexedAuthentication(authentication);
+    }
+
+    private IndexedAuthentication(Authentication authentication) {
+        this.user = authentication.getUser();
+        this.permissions = Collections.unmodifiableList(new ArrayList<>(authentication.getPermissions()));
+        this.dimensions = Collections.unmodifiableList(new ArrayList<>(authentication.getDimensions()));
+        this.attributes = Collections.unmodifiableMap(new HashMap<>(authentication.getAttributes()));
+
+        this.permissionIndex = new HashMap<>(permissions.size() * 2);
+        this.actionIndex = new HashMap<>(permissions.size() * 2);
+        for (Permission permission : permissions) {
+            if (permissionIndex.putIfAbsent(permission.getId(), permission) == null) {
+                actionIndex.put(permission.getId(), Collections.unmodifiableSet(new HashSet<>(permission.getActions())));
+            }
+        }
+
+        this.dimensionTypeIndex = new HashMap<>();
+        this.dimensionIndex = new HashMap<>();
+        this.dimensionIgnoreCaseIndex = new HashMap<>();
+        for (Dimension dimension : dimensions) {
+            if (dimension.getType() == null) {
+                continue;
+            }
+            String type = dimension.getType().getId();
+            dimensionTypeIndex
+                    .computeIfAbsent(type, ignore -> new ArrayList<>())
+                    .add(dimension);
+            dimensionIndex
+                    .computeIfAbsent(type, ignore -> new HashMap<>())
+                    .putIfAbsent(dimension.getId(), dimension);
+            dimensionIgnoreCaseIndex
+                    .computeIfAbsent(type.toLowerCase(), ignore -> new HashMap<>())
+                    .putIfAbsent(dimension.getId(), dimension);
+        }
+    }
+
+    @Override
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public List<Dimension> getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public List<Permission> getPermissions() {
+        return permissions;
+    }
+
+    @Override
+    public boolean hasDimension(String type, Collection<String> id) {
+        if (id.isEmpty()) {
+            return !getDimensions(type).isEmpty();
+        }
+        Map<String, Dimension> mapping = dimensionIndex.get(type);
+        if (mapping == null) {
+            return false;
+        }
+        for (String _id : id) {
+            if (mapping.containsKey(_id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<Dimension> getDimension(String type, String id) {
+        if (StringUtils.isEmpty(type)) {
+            return Optional.empty();
+        }
+        Map<String, Dimension> mapping = dimensionIgnoreCaseIndex.get(type.toLowerCase());
+        return mapping == null ? Optional.empty() : Optional.ofNullable(mapping.get(id));
+    }
+
+    @Override
+    public Optional<Dimension> getDimension(DimensionType type, String id) {
+        if (type == null) {
+            return Optional.empty();
+        }
+        Map<String, Dimension> mapping = dimensionIndex.get(type.getId());
+        return mapping == null ? Optional.empty() : Optional.ofNullable(mapping.get(id));
+    }
+
+    @Override
+    public List<Dimension> getDimensions(String type) {
+        if (StringUtils.isEmpty(type)) {
+            return Collections.emptyList();
+        }
+        List<Dimension> list = dimensionTypeIndex.get(type);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public List<Dimension> getDimensions(DimensionType type) {
+        if (type == null) {
+            return Collections.emptyList();
+        }
+        return getDimensions(type.getId());
+    }
+
+    @Override
+    public Optional<Permission> getPermission(String id) {
+        if (null == id) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(permissionIndex.get(id));
+    }
+
+    @Override
+    public boolean hasPermission(String permissionId, Collection<String> actions) {
+        if (null == permissionId) {
+            return false;
+        }
+        Set<String> allowed = actionIndex.get(permissionId);
+        return allowed != null && (actions.isEmpty() || allowed.containsAll(actions));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Serializable> Optional<T> getAttribute(String name) {
+        return Optional.ofNullable((T) attributes.get(name));
+    }
+
+    @Override
+    public Map<String, Serializable> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Authentication merge(Authentication source) {
+        return of(toSimpleAuthentication().merge(source));
+    }
+
+    @Override
+    public Authentication copy(BiPredicate<Permission, String> permissionFilter,
+                               Predicate<Dimension> dimension) {
+        return of(toSimpleAuthentication().copy(permissionFilter, dimension));
+    }
+
+    /**
+     * 转换为可修改的{@link SimpleAuthentication},权限信息将被复制.
+     *
+     * @return SimpleAuthentication
+     */
+    public SimpleAuthentication toSimpleAuthentication() {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        if (user != null) {
+            authentication.setUser(user);
+        }
+        List<Dimension> dimensions = new ArrayList<>(this.dimensions.size());
+        for (Dimension dimension : this.dimensions) {
+            //用户信息已经在setUser时添加
+            if (dimension != user) {
+                dimensions.add(dimension);
+            }
+        }
+        authentication.setDimensions(dimensions);
+        List<Permission> permissions = new ArrayList<>(this.permissions.size());
+        for (Permission permission : this.permissions) {
+            permissions.add(permission.copy());
+        }
+        authentication.setPermissions(permissions);
+        authentication.getAttributes().putAll(attributes);
+        return authentication;
+    }
+
+    //序列化为SimpleAuthentication,保持兼容
+    private Object writeReplace() throws ObjectStreamException {
+        return toSimpleAuthentication();
+    }
+}
@@ -0,0 +1,252 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Dimension;
+import org.hswebframework.web.authorization.DimensionType;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.User;
+import org.hswebframework.web.codec.CompactObjectCodec;
+import org.hswebframework.web.codec.CompressedObjectCodec;
+import org.hswebframework.web.codec.ObjectCodec;
+import org.hswebframework.web.codec.TypeCodec;
+
+import java.util.*;
+
+/**
+ * 权限信息相关类型的紧凑编解码器,用于减小用户令牌,权限缓存等数据的大小以及提升解码速度.
+ * <pre>{@code
+ * new RedisUserTokenManager(connectionFactory, SimpleAuthenticationCodecs.createCodec());
+ * }</pre>
+ *
+ * @author zhouhao
+ * @see CompactObjectCodec
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+public class SimpleAuthenticationCodecs {
+
+    public static final int AUTHENTICATION = 1;
+    public static final int USER = 2;
+    public static final int PERMISSION = 3;
+    public static final int DIMENSION = 4;
+    public static final int DIMENSION_TYPE = 5;
+    public static final int ROLE = 6;
+    public static final int INDEXED_AUTHENTICATION = 7;
+
+    /**
+     * 创建注册了权限信息类型,并启用了压缩的编解码器
+     *
+     * @return 编解码器
+     */
+    public static ObjectCodec createCodec() {
+        return new CompressedObjectCodec(register(new CompactObjectCodec()));
+    }
+
+    public static CompactObjectCodec register(CompactObjectCodec codec) {
+        return codec
+                .register(AUTHENTICATION, new AuthenticationCodec())
+                .register(USER, new UserCodec())
+                .register(PERMISSION, new PermissionCodec())
+                .register(DIMENSION, new DimensionCodec())
+                .register(DIMENSION_TYPE, new DimensionTypeCodec())
+                .register(ROLE, new RoleCodec())
+                .register(INDEXED_AUTHENTICATION, new IndexedAuthenticationCodec());
+    }
+
+    static class AuthenticationCodec implements TypeCodec<SimpleAuthentication> {
+
+        @Override
+        public Class<SimpleAuthentication> getType() {
+            return SimpleAuthentication.class;
+        }
+
+        @Override
+        public void encode(SimpleAuthentication value, CompactObjectCodec.Output output) {
+            encodeAuthentication(value, output);
+        }
+
+        @Override
+        public SimpleAuthentication decode(CompactObjectCodec.Input input) {
+            return decodeAuthentication(input);
+        }
+    }
+
+    static class IndexedAuthenticationCodec implements TypeCodec<IndexedAuthentication> {
+
+        @Override
+        public Class<IndexedAuthentication> getType() {
+            return IndexedAuthentication.class;
+        }
+
+        @Override
+        public void encode(IndexedAuthentication value, CompactObjectCodec.Output output) {
+            encodeAuthentication(value, output);
+        }
+
+        @Override
+        public IndexedAuthentication decode(CompactObjectCodec.Input input) {
+            return IndexedAuthentication.of(decodeAuthentication(input));
+        }
+    }
+
+    static void encodeAuthentication(Authentication value, CompactObjectCodec.Output output) {
+        User user = value.getUser();
+        output.writeObject(user);
+        output.writeCollection(value.getPermissions());
+        //用户信息也在维度中,解码时会重新添加
+        List<Dimension> dimensions = new ArrayList<>(value.getDimensions().size());
+        for (Dimension dimension : value.getDimensions()) {
+            if (dimension != user) {
+                dimensions.add(dimension);
+            }
+        }
+        output.writeCollection(dimensions);
+        output.writeMap(value.getAttributes());
+    }
+
+    static SimpleAuthentication decodeAuthentication(CompactObjectCodec.Input input) {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        User user = (User) input.readObject();
+        if (user != null) {
+            authentication.setUser(user);
+        }
+        authentication.setPermissions(input.readCollection(new ArrayList<Permission>()));
+        authentication.setDimensions(input.readCollection(new ArrayList<Dimension>()));
+        input.readMap((Map) authentication.getAttributes());
+        return authentication;
+    }
+
+    static class UserCodec implements TypeCodec<SimpleUser> {
+
+        @Override
+        public Class<SimpleUser> getType() {
+            return SimpleUser.class;
+        }
+
+        @Override
+        public void encode(SimpleUser value, CompactObjectCodec.Output output) {
+            output.writeString(value.getId());
+            output.writeString(value.getUsername());
+            output.writeString(value.getName());
+            output.writeString(value.getUserType());
+            output.writeObject(value.getOptions());
+        }
+
+        @Override
+        public SimpleUser decode(CompactObjectCodec.Input input) {
+            SimpleUser user = new SimpleUser();
+            user.setId(input.readString());
+            user.setUsername(input.readString());
+            user.setName(input.readString());
+            user.setUserType(input.readString());
+            user.setOptions((Map<String, Object>) input.readObject());
+            return user;
+        }
+    }
+
+    static class PermissionCodec implements TypeCodec<SimplePermission> {
+
+        @Override
+        public Class<SimplePermission> getType() {
+            return SimplePermission.class;
+        }
+
+        @Override
+        public void encode(SimplePermission value, CompactObjectCodec.Output output) {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+            Set<String> actions = value.getActions();
+            output.writeVarInt(actions.size());
+            for (String action : actions) {
+                output.writeString(action);
+            }
+            output.writeCollection(value.getDataAccesses());
+            output.writeObject(value.getOptions());
+        }
+
+        @Override
+        public SimplePermission decode(CompactObjectCodec.Input input) {
+            SimplePermission permission = new SimplePermission();
+            permission.setId(input.readString());
+            permission.setName(input.readString());
+            int size = input.readVarInt();
+            Set<String> actions = new HashSet<>(Math.max(16, size * 2));
+            for (int i = 0; i < size; i++) {
+                actions.add(input.readString());
+            }
+            permission.setActions(actions);
+            permission.setDataAccesses(input.readCollection(new HashSet<>()));
+            permission.setOptions((Map<String, Object>) input.readObject());
+            return permission;
+        }
+    }
+
+    static class DimensionCodec implements TypeCodec<SimpleDimension> {
+
+        @Override
+        public Class<SimpleDimension> getType() {
+            return SimpleDimension.class;
+        }
+
+        @Override
+        public void encode(SimpleDimension value, CompactObjectCodec.Output output) {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+            output.writeObject(value.getType());
+            output.writeObject(value.getOptions());
+        }
+
+        @Override
+        public SimpleDimension decode(CompactObjectCodec.Input input) {
+            SimpleDimension dimension = new SimpleDimension();
+            dimension.setId(input.readString());
+            dimension.setName(input.readString());
+            dimension.setType((DimensionType) input.readObject());
+            dimension.setOptions((Map<String, Object>) input.readObject());
+            return dimension;
+        }
+    }
+
+    static class DimensionTypeCodec implements TypeCodec<SimpleDimensionType> {
+
+        @Override
+        public Class<SimpleDimensionType> getType() {
+            return SimpleDimensionType.class;
+        }
+
+        @Override
+        public void encode(SimpleDimensionType value, CompactObjectCodec.Output output) {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+        }
+
+        @Override
+        public SimpleDimensionType decode(CompactObjectCodec.Input input) {
+            return SimpleDimensionType.of(input.readString(), input.readString());
+        }
+    }
+
+    static class RoleCodec implements TypeCodec<SimpleRole> {
+
+        @Override
+        public Class<SimpleRole> getType() {
+            return SimpleRole.class;
+        }
+
+        @Override
+        public void encode(SimpleRole value, CompactObjectCodec.Output output) {
+            output.writeString(value.getId());
+            output.writeString(value.getName());
+            output.writeObject(value.getOptions());
+        }
+
+        @Override
+        public SimpleRole decode(CompactObjectCodec.Input input) {
+            SimpleRole role = new SimpleRole();
+            role.setId(input.readString());
+            role.setName(input.readString());
+            role.setOptions((Map<String, Object>) input.readObject());
+            return role;
+        }
+    }
+}
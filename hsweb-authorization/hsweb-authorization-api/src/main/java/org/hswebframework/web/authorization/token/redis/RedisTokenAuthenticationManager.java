@@ -2,6 +2,8 @@ package org.hswebframework.web.authorization.token.redis;
 
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.token.TokenAuthenticationManager;
+import org.hswebframework.web.codec.ObjectCodec;
+import org.hswebframework.web.codec.ObjectCodecRedisSerializer;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
@@ -27,6 +29,26 @@ public class RedisTokenAuthenticationManager implements TokenAuthenticationManag
         ));
     }
 
+    /**
+     * 使用指定的编解码器序列化权限信息
+     *
+     * @param connectionFactory 连接工厂
+     * @param codec             编解码器
+     * @see org.hswebframework.web.authorization.simple.SimpleAuthenticationCodecs#createCodec()
+     * @since 4.0.16
+     */
+    @SuppressWarnings("all")
+    public RedisTokenAuthenticationManager(ReactiveRedisConnectionFactory connectionFactory, ObjectCodec codec) {
+        this(new ReactiveRedisTemplate<>(
+                connectionFactory, RedisSerializationContext.<String, Authentication>newSerializationContext()
+                .key(RedisSerializer.string())
+                .value((RedisSerializer) new ObjectCodecRedisSerializer(codec))
+                .hashKey(RedisSerializer.string())
+                .hashValue(new ObjectCodecRedisSerializer(codec))
+                .build()
+        ));
+    }
+
     public RedisTokenAuthenticationManager(ReactiveRedisOperations<String, Authentication> operations) {
         this.operations = operations;
     }
@@ -9,6 +9,8 @@ import org.hswebframework.web.authorization.token.event.UserTokenChangedEvent;
 import org.hswebframework.web.authorization.token.event.UserTokenCreatedEvent;
 import org.hswebframework.web.authorization.token.event.UserTokenRemovedEvent;
 import org.hswebframework.web.bean.FastBeanCopier;
+import org.hswebframework.web.codec.ObjectCodec;
+import org.hswebframework.web.codec.ObjectCodecRedisSerializer;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.*;
@@ -78,6 +80,27 @@ public class RedisUserTokenManager implements UserTokenManager {
         ));
     }
 
+    /**
+     * 使用指定的编解码器序列化令牌信息
+     *
+     * @param connectionFactory 连接工厂
+     * @param codec             编解码器
+     * @see org.hswebframework.web.authorization.simple.SimpleAuthenticationCodecs#createCodec()
+     * @since 4.0.16
+     */
+    @SuppressWarnings("all")
+    public RedisUserTokenManager(ReactiveRedisConnectionFactory connectionFactory, ObjectCodec codec) {
+        this(new ReactiveRedisTemplate<>(connectionFactory,
+                                         RedisSerializationContext
+                                                 .newSerializationContext()
+                                                 .key((RedisSerializer) RedisSerializer.string())
+                                                 .value(new ObjectCodecRedisSerializer(codec))
+                                                 .hashKey(RedisSerializer.string())
+                                                 .hashValue(new ObjectCodecRedisSerializer(codec))
+                                                 .build()
+        ));
+    }
+
     @Getter
     @Setter
     private Map<String, AllopatricLoginMode> allopatricLoginModes = new HashMap<>();
@@ -0,0 +1,106 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.DefaultDimensionType;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.simple.builder.SimpleAuthenticationBuilder;
+import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
+import org.hswebframework.web.codec.JavaObjectCodec;
+import org.hswebframework.web.codec.ObjectCodec;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class IndexedAuthenticationTest {
+
+    private Authentication createAuthentication() {
+        SimpleDataAccessConfigBuilderFactory builderFactory = new SimpleDataAccessConfigBuilderFactory();
+        builderFactory.init();
+
+        return new SimpleAuthenticationBuilder(builderFactory)
+                .user("{\"id\":\"admin\",\"username\":\"admin\",\"name\":\"Administrator\",\"userType\":\"default\"}")
+                .role("[{\"id\":\"admin-role\",\"name\":\"admin\"},{\"id\":\"test-role\",\"name\":\"test\"}]")
+                .permission("[{\"id\":\"user-manager\",\"actions\":[\"query\",\"get\",\"update\"]}" +
+                                    ",{\"id\":\"role-manager\",\"actions\":[\"query\"]}]")
+                .build();
+    }
+
+    @Test
+    public void testIndex() {
+        Authentication source = createAuthentication();
+        IndexedAuthentication authentication = IndexedAuthentication.of(source);
+
+        assertSame(authentication, IndexedAuthentication.of(authentication));
+        assertEquals(source.getPermissions().size(), authentication.getPermissions().size());
+        assertEquals(source.getDimensions().size(), authentication.getDimensions().size());
+
+        assertTrue(authentication.hasPermission("user-manager"));
+        assertTrue(authentication.hasPermission("user-manager", "query", "get"));
+        assertFalse(authentication.hasPermission("user-manager", "delete"));
+        assertFalse(authentication.hasPermission("dict-manager"));
+        assertFalse(authentication.getPermission(null).isPresent());
+
+        assertTrue(authentication.hasDimension("role", "admin-role"));
+        assertTrue(authentication.hasDimension("role", "none", "test-role"));
+        assertTrue(authentication.hasDimension("role"));
+        assertFalse(authentication.hasDimension("role", "none"));
+        assertFalse(authentication.hasDimension("org"));
+        assertTrue(authentication.hasDimension(DefaultDimensionType.role, "admin-role"));
+        assertTrue(authentication.getDimension("ROLE", "admin-role").isPresent());
+        assertEquals(2, authentication.getDimensions("role").size());
+        assertEquals(2, authentication.getDimensions(DefaultDimensionType.role).size());
+        assertTrue(authentication.getDimension(DefaultDimensionType.user, "admin").isPresent());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        IndexedAuthentication
+                .of(createAuthentication())
+                .getPermissions()
+                .add(new SimplePermission());
+    }
+
+    @Test
+    public void testMerge() {
+        IndexedAuthentication authentication = IndexedAuthentication.of(createAuthentication());
+
+        SimpleAuthentication other = new SimpleAuthentication();
+        other.setPermissions(Collections.singletonList(SimplePermission
+                                                               .builder()
+                                                               .id("user-manager")
+                                                               .actions(Collections.singleton("delete"))
+                                                               .build()));
+        Authentication merged = authentication.merge(other);
+
+        assertNotSame(authentication, merged);
+        assertTrue(merged instanceof IndexedAuthentication);
+        assertTrue(merged.hasPermission("user-manager", "delete"));
+        //原始的权限信息不变
+        assertFalse(authentication.hasPermission("user-manager", "delete"));
+
+        Authentication copy = authentication.copy((permission, action) -> !"get".equals(action), dimension -> true);
+        assertFalse(copy.hasPermission("user-manager", "get"));
+        assertTrue(copy.hasPermission("user-manager", "query"));
+    }
+
+    @Test
+    public void testSerialize() {
+        IndexedAuthentication authentication = IndexedAuthentication.of(createAuthentication());
+
+        //java序列化兼容SimpleAuthentication
+        Object decoded = JavaObjectCodec.INSTANCE.decode(JavaObjectCodec.INSTANCE.encode(authentication));
+        assertTrue(decoded instanceof SimpleAuthentication);
+        assertTrue(((Authentication) decoded).hasPermission("user-manager", "get"));
+        assertEquals(authentication.getDimensions().size(), ((Authentication) decoded).getDimensions().size());
+
+        ObjectCodec codec = SimpleAuthenticationCodecs.createCodec();
+        Authentication compact = (Authentication) codec.decode(codec.encode(authentication));
+        assertTrue(compact instanceof IndexedAuthentication);
+        assertTrue(compact.hasDimension("role", "admin-role"));
+        for (Permission permission : authentication.getPermissions()) {
+            assertTrue(compact.hasPermission(permission.getId(), permission.getActions()));
+        }
+    }
+}
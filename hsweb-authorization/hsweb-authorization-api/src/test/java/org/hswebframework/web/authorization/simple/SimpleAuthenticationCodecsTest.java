@@ -0,0 +1,46 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.simple.builder.SimpleAuthenticationBuilder;
+import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
+import org.hswebframework.web.codec.JavaObjectCodec;
+import org.hswebframework.web.codec.ObjectCodec;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SimpleAuthenticationCodecsTest {
+
+    @Test
+    public void test() {
+        SimpleDataAccessConfigBuilderFactory builderFactory = new SimpleDataAccessConfigBuilderFactory();
+        builderFactory.init();
+
+        Authentication authentication = new SimpleAuthenticationBuilder(builderFactory)
+                .user("{\"id\":\"admin\",\"username\":\"admin\",\"name\":\"Administrator\",\"userType\":\"default\"}")
+                .role("[{\"id\":\"admin-role\",\"name\":\"admin\"}]")
+                .permission("[{\"id\":\"user-manager\",\"actions\":[\"query\",\"get\",\"update\"]" +
+                                    ",\"dataAccesses\":[{\"action\":\"query\",\"field\":\"test\",\"fields\":[\"1\",\"2\",\"3\"],\"scopeType\":\"CUSTOM_SCOPE\",\"type\":\"DENY_FIELDS\"}]}]")
+                .build();
+
+        ObjectCodec codec = SimpleAuthenticationCodecs.createCodec();
+
+        byte[] compact = codec.encode(authentication);
+        byte[] java = JavaObjectCodec.INSTANCE.encode(authentication);
+        assertTrue(compact.length < java.length);
+
+        Authentication decoded = (Authentication) codec.decode(compact);
+
+        assertEquals("admin", decoded.getUser().getId());
+        assertEquals("Administrator", decoded.getUser().getName());
+        assertEquals(authentication.getDimensions().size(), decoded.getDimensions().size());
+        assertTrue(decoded.hasDimension("role", "admin-role"));
+        assertTrue(decoded.hasPermission("user-manager", "get"));
+        assertFalse(decoded.hasPermission("user-manager", "delete"));
+        assertEquals(1, decoded.getPermission("user-manager").get().getDataAccesses().size());
+
+        //兼容java序列化的数据
+        Authentication fromJava = (Authentication) codec.decode(java);
+        assertEquals("admin", fromJava.getUser().getId());
+    }
+}
@@ -105,7 +105,7 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
 
         ResourcesDefinition resources = definition.getResources();
 
-        if (!resources.hasPermission(authentication.getPermissions())) {
+        if (!resources.hasPermission(authentication)) {
             throw new AccessDenyException(definition.getMessage(),definition.getDescription());
         }
     }
@@ -28,7 +28,7 @@ public class ServletUserTokenGenPar implements UserTokenParser, UserTokenGenerat
 
     @Override
     public GeneratedToken generate(Authentication authentication) {
-        String token = IDGenerator.MD5.generate();
+        String token = IDGenerator.SECURE_TOKEN.generate();
 
         return new GeneratedToken() {
             @Override
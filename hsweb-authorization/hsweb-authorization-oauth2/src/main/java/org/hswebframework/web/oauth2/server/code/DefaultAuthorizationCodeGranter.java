@@ -51,7 +51,7 @@ public class DefaultAuthorizationCodeGranter implements AuthorizationCodeGranter
         OAuth2Client client = request.getClient();
         Authentication authentication = request.getAuthentication();
         AuthorizationCodeCache codeCache = new AuthorizationCodeCache();
-        String code = IDGenerator.MD5.generate();
+        String code = IDGenerator.SECURE_TOKEN.generate();
         request.getParameter(OAuth2Constants.scope).map(String::valueOf).ifPresent(codeCache::setScope);
         codeCache.setCode(code);
         codeCache.setClientId(client.getClientId());
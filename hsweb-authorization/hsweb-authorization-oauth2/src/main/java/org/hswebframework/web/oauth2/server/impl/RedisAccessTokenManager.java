@@ -2,11 +2,11 @@ package org.hswebframework.web.oauth2.server.impl;
 
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.token.AuthenticationUserToken;
 import org.hswebframework.web.authorization.token.UserTokenManager;
 import org.hswebframework.web.authorization.token.redis.RedisUserTokenManager;
+import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.oauth2.ErrorType;
 import org.hswebframework.web.oauth2.OAuth2Exception;
 import org.hswebframework.web.oauth2.server.AccessToken;
@@ -22,7 +22,6 @@ import reactor.core.publisher.Mono;
 import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
 
 public class RedisAccessTokenManager implements AccessTokenManager {
 
@@ -88,8 +87,8 @@ public class RedisAccessTokenManager implements AccessTokenManager {
     }
 
     private Mono<RedisAccessToken> doCreateAccessToken(String clientId, Authentication authentication, boolean singleton) {
-        String token = DigestUtils.md5Hex(UUID.randomUUID().toString());
-        String refresh = DigestUtils.md5Hex(UUID.randomUUID().toString());
+        String token = IDGenerator.SECURE_TOKEN.generate();
+        String refresh = IDGenerator.SECURE_TOKEN.generate();
         RedisAccessToken accessToken = new RedisAccessToken(clientId, token, refresh, System.currentTimeMillis(), authentication, singleton);
 
         return storeToken(accessToken).thenReturn(accessToken);
@@ -171,7 +170,7 @@ public class RedisAccessTokenManager implements AccessTokenManager {
                         return Mono.error(new OAuth2Exception(ErrorType.ILLEGAL_CLIENT_ID));
                     }
                     //生成新token
-                    String accessToken = DigestUtils.md5Hex(UUID.randomUUID().toString());
+                    String accessToken = IDGenerator.SECURE_TOKEN.generate();
                     token.setAccessToken(accessToken);
                     token.setCreateTime(System.currentTimeMillis());
                     return storeToken(token)
@@ -0,0 +1,50 @@
+package org.hswebframework.web.api.crud.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 游标分页查询结果,不包含数据总数.使用{@link #getCursor()}作为下一页查询参数{@link QueryParamEntity#getCursor()}.
+ *
+ * @param <E> 结果类型
+ * @author zhouhao
+ * @see CursorPaging
+ * @since 4.0.16
+ */
+@Getter
+@Setter
+public class CursorPagerResult<E> {
+
+    /**
+     * 创建一个游标分页结果
+     *
+     * @param cursor 下一页的游标,没有更多数据时为null
+     * @param list   当前页数据列表
+     * @param <E>    结果类型
+     * @return CursorPagerResult
+     */
+    public static <E> CursorPagerResult<E> of(String cursor, List<E> list, int pageSize) {
+        CursorPagerResult<E> result = new CursorPagerResult<>();
+        result.setCursor(cursor);
+        result.setData(list);
+        result.setPageSize(pageSize);
+        return result;
+    }
+
+    @Schema(description = "每页数据量")
+    private int pageSize;
+
+    @Schema(description = "下一页的游标,没有更多数据时为空")
+    private String cursor;
+
+    @Schema(description = "数据列表")
+    private List<E> data;
+
+    @Schema(description = "是否还有更多数据")
+    public boolean isHasMore() {
+        return cursor != null;
+    }
+}
@@ -0,0 +1,287 @@
+package org.hswebframework.web.api.crud.entity;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.apache.commons.collections.CollectionUtils;
+import org.hswebframework.ezorm.core.param.Sort;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.hswebframework.web.exception.ValidationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 游标(keyset)分页工具类.
+ * <p>
+ * 游标中记录了上一页最后一条数据的排序字段值,查询下一页时将其转换为条件:
+ * <pre>
+ *   where (a > ?) or (a = ? and b > ?) ... order by a,b limit pageSize
+ * </pre>
+ * 不使用offset,也不执行count,深度分页时性能稳定.
+ * 排序字段中必须包含唯一字段(默认为实体类的主键,不包含时自动追加),并且排序字段的值不能为null,
+ * 由于不同数据库对null值的排序规则不一致,排序字段值为null时将抛出{@link ValidationException}.
+ * 排序字段可以为属性名或者列名.
+ *
+ * @author zhouhao
+ * @see QueryParamEntity#getCursor()
+ * @see CursorPagerResult
+ * @since 4.0.16
+ */
+public final class CursorPaging {
+
+    /**
+     * 默认的唯一排序字段,实体类没有使用{@link Id}注解时使用
+     */
+    public static final String DEFAULT_KEY = "id";
+
+    //实体类型 -> (属性名,列名) -> 属性名
+    private static final Map<Class<?>, Map<String, String>> PROPERTIES = new ConcurrentHashMap<>();
+
+    //实体类型 -> 主键属性名
+    private static final Map<Class<?>, String> KEYS = new ConcurrentHashMap<>();
+
+    private CursorPaging() {
+    }
+
+    /**
+     * 根据查询参数中的游标创建实际执行的查询参数,查询数量为pageSize+1,用于判断是否还有下一页.
+     *
+     * @param param 查询参数
+     * @param key   唯一字段
+     * @return 新的查询参数
+     */
+    public static QueryParamEntity prepare(QueryParamEntity param, String key) {
+        QueryParamEntity query = param.clone();
+        List<Sort> sorts = normalizeSorts(query.getSorts(), key);
+        query.setSorts(sorts);
+        query.setCursor(null);
+        if (StringUtils.hasText(param.getCursor())) {
+            Object[] values = decode(param.getCursor(), sorts);
+            List<Term> terms = new ArrayList<>();
+            List<Term> origin = query.getTerms();
+            //将原有条件嵌套,防止与游标条件的优先级不一致
+            if (CollectionUtils.isNotEmpty(origin)) {
+                Term nest = new Term();
+                nest.setTerms(new ArrayList<>(origin));
+                terms.add(nest);
+            }
+            terms.add(createSeekTerm(sorts, values));
+            query.setTerms(terms);
+        }
+        query.setPaging(true);
+        query.setPageIndex(query.getFirstPageIndex());
+        query.setPageSize(param.getPageSize() + 1);
+        return query;
+    }
+
+    /**
+     * 根据{@link #prepare(QueryParamEntity, String)}的查询结果创建分页结果
+     *
+     * @param prepared 通过{@link #prepare(QueryParamEntity, String)}创建的查询参数
+     * @param rows     查询结果
+     * @param mapper   结果转换器
+     * @return 分页结果
+     */
+    public static <E, T> CursorPagerResult<T> toResult(QueryParamEntity prepared,
+                                                       List<E> rows,
+                                                       Function<E, T> mapper) {
+        int pageSize = prepared.getPageSize() - 1;
+        String cursor = null;
+        List<E> page = rows;
+        if (rows.size() > pageSize) {
+            page = rows.subList(0, pageSize);
+            if (pageSize > 0) {
+                cursor = encode(prepared.getSorts(), page.get(pageSize - 1));
+            }
+        }
+        List<T> data = new ArrayList<>(page.size());
+        for (E row : page) {
+            data.add(mapper.apply(row));
+        }
+        return CursorPagerResult.of(cursor, data, pageSize);
+    }
+
+    /**
+     * 获取实体类中使用{@link Id}注解的属性作为唯一排序字段,没有时返回{@link #DEFAULT_KEY}
+     *
+     * @param entityType 实体类型
+     * @return 唯一字段
+     */
+    public static String resolveKey(Class<?> entityType) {
+        return KEYS.computeIfAbsent(ClassUtils.getUserClass(entityType), CursorPaging::findKey);
+    }
+
+    private static String findKey(Class<?> type) {
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+            if (descriptor.getReadMethod() == null || "class".equals(descriptor.getName())) {
+                continue;
+            }
+            if (AnnotatedElementUtils.hasAnnotation(descriptor.getReadMethod(), Id.class)) {
+                return descriptor.getName();
+            }
+            Field field = ReflectionUtils.findField(type, descriptor.getName());
+            if (field != null && AnnotatedElementUtils.hasAnnotation(field, Id.class)) {
+                return descriptor.getName();
+            }
+        }
+        return DEFAULT_KEY;
+    }
+
+    static List<Sort> normalizeSorts(List<Sort> sorts, String key) {
+        List<Sort> list = sorts == null ? new ArrayList<>() : new ArrayList<>(sorts);
+        boolean containsKey = list
+                .stream()
+                .anyMatch(sort -> key.equalsIgnoreCase(sort.getName()));
+        if (!containsKey) {
+            Sort sort = new Sort();
+            sort.setName(key);
+            sort.setOrder("asc");
+            list.add(sort);
+        }
+        return list;
+    }
+
+    private static boolean isDesc(Sort sort) {
+        return "desc".equalsIgnoreCase(sort.getOrder());
+    }
+
+    private static String sortsKey(List<Sort> sorts) {
+        return sorts
+                .stream()
+                .map(sort -> sort.getName() + (isDesc(sort) ? " desc" : " asc"))
+                .collect(Collectors.joining(","));
+    }
+
+    private static Term createTerm(String column, String termType, Object value) {
+        Term term = new Term();
+        term.setType(Term.Type.and);
+        term.setColumn(column);
+        term.setTermType(termType);
+        term.setValue(value);
+        return term;
+    }
+
+    // (a > ?) or (a = ? and b > ?) or (a = ? and b = ? and c > ?)
+    static Term createSeekTerm(List<Sort> sorts, Object[] values) {
+        List<Term> branches = new ArrayList<>(sorts.size());
+        for (int i = 0; i < sorts.size(); i++) {
+            List<Term> terms = new ArrayList<>(i + 1);
+            for (int j = 0; j < i; j++) {
+                terms.add(createTerm(sorts.get(j).getName(), TermType.eq, values[j]));
+            }
+            Sort sort = sorts.get(i);
+            terms.add(createTerm(sort.getName(), isDesc(sort) ? TermType.lt : TermType.gt, values[i]));
+
+            Term branch = new Term();
+            branch.setType(Term.Type.or);
+            branch.setTerms(terms);
+            branches.add(branch);
+        }
+        Term seek = new Term();
+        seek.setType(Term.Type.and);
+        seek.setTerms(branches);
+        return seek;
+    }
+
+    static String encode(List<Sort> sorts, Object row) {
+        JSONArray values = new JSONArray(sorts.size());
+        for (Sort sort : sorts) {
+            Object value = FastBeanCopier.getProperty(row, resolveProperty(row, sort.getName()));
+            if (value == null) {
+                throw new ValidationException(sort.getName(), "error.cursor_sort_value_can_not_be_null", sort.getName());
+            }
+            values.add(value);
+        }
+        JSONObject cursor = new JSONObject();
+        cursor.put("s", sortsKey(sorts));
+        cursor.put("v", values);
+        return Base64
+                .getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(cursor.toJSONString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    //排序字段可能为列名,转换为对应的属性名
+    static String resolveProperty(Object row, String name) {
+        if (row instanceof Map) {
+            return name;
+        }
+        Map<String, String> properties = PROPERTIES
+                .computeIfAbsent(ClassUtils.getUserClass(row), CursorPaging::createPropertyMapping);
+        if (properties.containsKey(name)) {
+            return properties.get(name);
+        }
+        String property = properties.get(name.toLowerCase());
+        if (property == null) {
+            property = properties.get(normalize(name));
+        }
+        return property == null ? name : property;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase();
+    }
+
+    private static Map<String, String> createPropertyMapping(Class<?> type) {
+        Map<String, String> properties = new HashMap<>();
+        Map<String, String> columns = new HashMap<>();
+        Map<String, String> normalized = new HashMap<>();
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+            if (descriptor.getReadMethod() == null || "class".equals(descriptor.getName())) {
+                continue;
+            }
+            String name = descriptor.getName();
+            properties.put(name, name);
+            normalized.putIfAbsent(normalize(name), name);
+
+            Method getter = descriptor.getReadMethod();
+            Column column = AnnotatedElementUtils.findMergedAnnotation(getter, Column.class);
+            if (column == null) {
+                Field field = ReflectionUtils.findField(type, name);
+                column = field == null ? null : AnnotatedElementUtils.findMergedAnnotation(field, Column.class);
+            }
+            if (column != null && StringUtils.hasText(column.name())) {
+                columns.put(column.name().toLowerCase(), name);
+            }
+        }
+        //优先级: 属性名 > 列名 > 忽略下划线和大小写后的名称
+        Map<String, String> mapping = new HashMap<>(normalized);
+        mapping.putAll(columns);
+        mapping.putAll(properties);
+        return mapping;
+    }
+
+    static Object[] decode(String token, List<Sort> sorts) {
+        JSONObject cursor;
+        try {
+            cursor = JSON.parseObject(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (Throwable e) {
+            throw new ValidationException("cursor", "error.illegal_cursor");
+        }
+        JSONArray values = cursor == null ? null : cursor.getJSONArray("v");
+        //排序方式发生变化时,游标无效
+        if (values == null
+                || values.size() != sorts.size()
+                || values.contains(null)
+                || !Objects.equals(sortsKey(sorts), cursor.getString("s"))) {
+            throw new ValidationException("cursor", "error.illegal_cursor");
+        }
+        return values.toArray();
+    }
+}
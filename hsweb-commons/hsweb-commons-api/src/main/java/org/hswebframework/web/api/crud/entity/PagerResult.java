@@ -101,6 +101,14 @@ public class PagerResult<E> {
     @Schema(description = "数据列表")
     private List<E> data;
 
+    /**
+     * 使用缓存或者估算的总数时为false
+     *
+     * @since 4.0.16
+     */
+    @Schema(description = "数据总量是否为精确值")
+    private boolean exactTotal = true;
+
     public PagerResult() {
     }
 
@@ -69,6 +69,17 @@ public class QueryParamEntity extends QueryParam {
     @Schema(description = "是否进行并行分页")
     private boolean parallelPager = false;
 
+    /**
+     * 游标分页时,上一页查询结果返回的游标
+     *
+     * @see CursorPaging
+     * @since 4.0.16
+     */
+    @Getter
+    @Setter
+    @Schema(description = "游标分页时,上一页返回的游标,为空时查询第一页")
+    private String cursor;
+
     @Override
     @Hidden
     public boolean isForUpdate() {
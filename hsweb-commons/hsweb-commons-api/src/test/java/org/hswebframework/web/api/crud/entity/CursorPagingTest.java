@@ -0,0 +1,185 @@
+package org.hswebframework.web.api.crud.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.ezorm.core.param.Sort;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.web.exception.ValidationException;
+import org.junit.Test;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class CursorPagingTest {
+
+    @Test
+    public void testFirstPage() {
+        QueryParamEntity param = new QueryParamEntity();
+        param.setPageSize(2);
+        param.setOrderBy("age desc");
+
+        QueryParamEntity prepared = CursorPaging.prepare(param, CursorPaging.DEFAULT_KEY);
+        assertEquals(3, prepared.getPageSize());
+        assertEquals(2, prepared.getSorts().size());
+        assertEquals("id", prepared.getSorts().get(1).getName());
+
+        CursorPagerResult<Row> result = CursorPaging.toResult(
+                prepared,
+                Arrays.asList(new Row("a", 3), new Row("b", 2), new Row("c", 1)),
+                Function.identity());
+
+        assertEquals(2, result.getData().size());
+        assertTrue(result.isHasMore());
+        assertNotNull(result.getCursor());
+
+        //最后一页
+        CursorPagerResult<Row> last = CursorPaging.toResult(prepared, Arrays.asList(new Row("c", 1)), Function.identity());
+        assertFalse(last.isHasMore());
+        assertNull(last.getCursor());
+    }
+
+    @Test
+    public void testNextPage() {
+        QueryParamEntity param = new QueryParamEntity();
+        param.setPageSize(2);
+        param.setOrderBy("age desc");
+        param.setWhere("name = test or name = test2");
+
+        QueryParamEntity prepared = CursorPaging.prepare(param, CursorPaging.DEFAULT_KEY);
+        String cursor = CursorPaging.encode(prepared.getSorts(), new Row("b", 2));
+
+        param.setCursor(cursor);
+        QueryParamEntity next = CursorPaging.prepare(param, CursorPaging.DEFAULT_KEY);
+
+        List<Term> terms = next.getTerms();
+        assertEquals(2, terms.size());
+        //原有条件被嵌套
+        assertEquals(2, terms.get(0).getTerms().size());
+
+        // (age < 2) or (age = 2 and id > 'b')
+        Term seek = terms.get(1);
+        assertEquals(2, seek.getTerms().size());
+
+        Term first = seek.getTerms().get(0).getTerms().get(0);
+        assertEquals("age", first.getColumn());
+        assertEquals(TermType.lt, first.getTermType());
+        assertEquals(2, first.getValue());
+
+        List<Term> second = seek.getTerms().get(1).getTerms();
+        assertEquals(TermType.eq, second.get(0).getTermType());
+        assertEquals("id", second.get(1).getColumn());
+        assertEquals(TermType.gt, second.get(1).getTermType());
+        assertEquals("b", second.get(1).getValue());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testSortChanged() {
+        QueryParamEntity param = new QueryParamEntity();
+        param.setOrderBy("age desc");
+        String cursor = CursorPaging.encode(CursorPaging.prepare(param, "id").getSorts(), new Row("b", 2));
+
+        param.setOrderBy("age asc");
+        param.setCursor(cursor);
+        CursorPaging.prepare(param, "id");
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testIllegalCursor() {
+        QueryParamEntity param = new QueryParamEntity();
+        param.setCursor("illegal");
+        CursorPaging.prepare(param, "id");
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNullSortValue() {
+        QueryParamEntity param = new QueryParamEntity();
+        param.setOrderBy("age desc");
+        CursorPaging.encode(CursorPaging.prepare(param, "id").getSorts(), new Row("a", null));
+    }
+
+    @Test
+    public void testColumnNameSort() {
+        assertEquals("createTime", CursorPaging.resolveProperty(new ColumnRow(), "create_time"));
+        assertEquals("createTime", CursorPaging.resolveProperty(new ColumnRow(), "createTime"));
+        assertEquals("userName", CursorPaging.resolveProperty(new ColumnRow(), "u_name"));
+        assertEquals("u_name", CursorPaging.resolveProperty(Collections.emptyMap(), "u_name"));
+
+        ColumnRow row = new ColumnRow();
+        row.setId("a");
+        row.setCreateTime(100L);
+        row.setUserName("test");
+
+        QueryParamEntity param = new QueryParamEntity();
+        param.setOrderBy("create_time desc,u_name");
+        List<Sort> sorts = CursorPaging.prepare(param, "id").getSorts();
+        param.setCursor(CursorPaging.encode(sorts, row));
+
+        Term seek = CursorPaging.prepare(param, "id").getTerms().get(0);
+        List<Term> last = seek.getTerms().get(2).getTerms();
+        assertEquals(100L, ((Number) last.get(0).getValue()).longValue());
+        assertEquals("test", last.get(1).getValue());
+        assertEquals("a", last.get(2).getValue());
+    }
+
+    @Test
+    public void testResolveKey() {
+        assertEquals("code", CursorPaging.resolveKey(CodeRow.class));
+        assertEquals("id", CursorPaging.resolveKey(ColumnRow.class));
+        assertEquals("id", CursorPaging.resolveKey(GenericEntity.class));
+
+        QueryParamEntity param = new QueryParamEntity();
+        param.setPageSize(1);
+        param.setOrderBy("name");
+        String key = CursorPaging.resolveKey(CodeRow.class);
+        QueryParamEntity prepared = CursorPaging.prepare(param, key);
+        assertEquals("code", prepared.getSorts().get(1).getName());
+
+        CursorPagerResult<CodeRow> result = CursorPaging.toResult(
+                prepared,
+                Arrays.asList(new CodeRow("c1", "a"), new CodeRow("c2", "b")),
+                Function.identity());
+        param.setCursor(result.getCursor());
+
+        // (name > 'a') or (name = 'a' and code > 'c1')
+        List<Term> second = CursorPaging.prepare(param, key).getTerms().get(0).getTerms().get(1).getTerms();
+        assertEquals("code", second.get(1).getColumn());
+        assertEquals("c1", second.get(1).getValue());
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class CodeRow {
+        @Id
+        private String code;
+
+        private String name;
+    }
+
+    @Getter
+    @Setter
+    public static class ColumnRow {
+        private String id;
+
+        private Long createTime;
+
+        @Column(name = "u_name")
+        private String userName;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Row {
+        private String id;
+        private Integer age;
+    }
+}
@@ -0,0 +1,58 @@
+package org.hswebframework.web.crud.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.api.crud.entity.EntityFactory;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动时并行创建实体类与Map之间的{@link org.hswebframework.web.bean.Copier},
+ * 避免在首次请求时才创建导致响应变慢.
+ *
+ * @see FastBeanCopier#preload(Class, Class)
+ * @see EasyormProperties#isPreloadCopier()
+ * @since 4.0.16
+ */
+@Getter
+@Setter
+@Slf4j
+public class CopierPreloadProcessor implements InitializingBean {
+
+    private Set<EntityInfo> entities = new HashSet<>();
+
+    @Autowired
+    private EasyormProperties properties;
+
+    @Autowired
+    private EntityFactory entityFactory;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!properties.isPreloadCopier()) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        AtomicInteger count = new AtomicInteger();
+        entities
+                .parallelStream()
+                .map(entity -> entityFactory.getInstanceType(entity.getRealType(), true))
+                .forEach(type -> {
+                    try {
+                        FastBeanCopier.preload(type, Map.class);
+                        FastBeanCopier.preload(Map.class, type);
+                        count.addAndGet(2);
+                    } catch (Throwable e) {
+                        log.warn("preload copier for {} failed", type, e);
+                    }
+                });
+        log.debug("preload {} copiers in {}ms", count.get(), System.currentTimeMillis() - time);
+    }
+}
@@ -21,6 +21,10 @@ import org.hswebframework.ezorm.rdb.operator.DatabaseOperator;
 import org.hswebframework.ezorm.rdb.operator.DefaultDatabaseOperator;
 import org.hswebframework.web.api.crud.entity.EntityFactory;
 import org.hswebframework.web.crud.annotation.EnableEasyormRepository;
+import org.hswebframework.web.crud.count.CachedPagerCountStrategy;
+import org.hswebframework.web.crud.count.EstimatedPagerCountStrategy;
+import org.hswebframework.web.crud.count.PagerCountStrategies;
+import org.hswebframework.web.crud.count.PagerCountStrategy;
 import org.hswebframework.web.crud.entity.factory.EntityMappingCustomizer;
 import org.hswebframework.web.crud.entity.factory.MapperEntityFactory;
 import org.hswebframework.web.crud.events.*;
@@ -51,6 +55,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableConfigurationProperties(EasyormProperties.class)
@@ -103,6 +108,26 @@ public class EasyormConfiguration {
         return new DefaultQueryHelper(databaseOperator);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public CachedPagerCountStrategy cachedPagerCountStrategy() {
+        return new CachedPagerCountStrategy(properties.getCountCacheTtl(), properties.getCountCacheMaximumSize());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EstimatedPagerCountStrategy estimatedPagerCountStrategy(DatabaseOperator databaseOperator) {
+        return new EstimatedPagerCountStrategy(databaseOperator, properties.getEstimatedCountThreshold());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PagerCountStrategies pagerCountStrategies(ObjectProvider<PagerCountStrategy> strategies) {
+        return new PagerCountStrategies(strategies.orderedStream().collect(Collectors.toList()),
+                                        properties.getCountStrategy(),
+                                        properties.getCountStrategies());
+    }
+
     @Bean
     public BeanPostProcessor autoRegisterFeature(RDBDatabaseMetadata metadata) {
         CompositeEventListener eventListener = new CompositeEventListener();
@@ -14,8 +14,11 @@ import org.hswebframework.ezorm.rdb.supports.oracle.OracleSchemaMetadata;
 import org.hswebframework.ezorm.rdb.supports.postgres.PostgresqlSchemaMetadata;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 @ConfigurationProperties(prefix = "easyorm")
@@ -32,6 +35,24 @@ public class EasyormProperties {
 
     private boolean allowTypeAlter = true;
 
+    //启动时预先创建实体类与Map之间的Copier
+    private boolean preloadCopier = true;
+
+    //分页查询获取总数的默认策略: exact,cached,estimated
+    private String countStrategy = "exact";
+
+    //按表名或者实体类全名指定分页查询获取总数的策略
+    private Map<String, String> countStrategies = new HashMap<>();
+
+    //分页查询使用cached策略时,count结果的缓存时间
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    //分页查询使用cached策略时,每个节点最多缓存多少个查询条件的count结果
+    private int countCacheMaximumSize = 10000;
+
+    //分页查询使用estimated策略时,估算数量小于此值时执行精确的count
+    private long estimatedCountThreshold = 100000;
+
     private DialectEnum dialect = DialectEnum.h2;
 
     private Class<? extends Dialect> dialectType;
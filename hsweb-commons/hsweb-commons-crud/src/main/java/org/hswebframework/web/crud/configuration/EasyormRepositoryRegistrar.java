@@ -174,6 +174,17 @@ public class EasyormRepositoryRegistrar implements ImportBeanDefinitionRegistrar
             registry.registerBeanDefinition(AutoDDLProcessor.class.getName() + "_" + count.incrementAndGet(), definition);
         }
 
+        if (!entityInfos.isEmpty()) {
+            RootBeanDefinition definition = new RootBeanDefinition();
+            definition.setTargetType(CopierPreloadProcessor.class);
+            definition.setBeanClass(CopierPreloadProcessor.class);
+            definition.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
+            definition.getPropertyValues().add("entities", entityInfos);
+            definition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+            definition.setSynthetic(true);
+            registry.registerBeanDefinition(CopierPreloadProcessor.class.getName() + "_" + count.incrementAndGet(), definition);
+        }
+
     }
 
     static AtomicInteger count = new AtomicInteger();
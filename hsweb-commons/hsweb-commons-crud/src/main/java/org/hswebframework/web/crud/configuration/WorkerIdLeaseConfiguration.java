@@ -0,0 +1,93 @@
+package org.hswebframework.web.crud.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.web.crud.generator.JdbcWorkerIdLeaseManager;
+import org.hswebframework.web.crud.generator.RedisWorkerIdLeaseManager;
+import org.hswebframework.web.id.SnowflakeIdGenerator;
+import org.hswebframework.web.id.WorkerIdLease;
+import org.hswebframework.web.id.WorkerIdLeaseKeeper;
+import org.hswebframework.web.id.WorkerIdLeaseManager;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * 集群下分配雪花算法的workerId,通过配置<code>hsweb.id.worker-lease.type</code>启用.
+ *
+ * @see WorkerIdLeaseProperties
+ * @since 4.0.16
+ */
+@Configuration
+@Slf4j
+@AutoConfigureAfter(name = {
+        "org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration",
+        "org.hswebframework.web.crud.configuration.JdbcSqlExecutorConfiguration",
+        "org.hswebframework.web.crud.configuration.R2dbcSqlExecutorConfiguration"
+})
+@EnableConfigurationProperties(WorkerIdLeaseProperties.class)
+public class WorkerIdLeaseConfiguration {
+
+    @Configuration
+    @ConditionalOnClass(ReactiveStringRedisTemplate.class)
+    @ConditionalOnProperty(prefix = "hsweb.id.worker-lease", name = "type", havingValue = "redis")
+    static class RedisWorkerIdLeaseConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(ReactiveStringRedisTemplate.class)
+        public WorkerIdLeaseManager redisWorkerIdLeaseManager(ReactiveStringRedisTemplate template,
+                                                              WorkerIdLeaseProperties properties) {
+            return new RedisWorkerIdLeaseManager(template, properties.getRedisPrefix());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "hsweb.id.worker-lease", name = "type", havingValue = "jdbc")
+    static class JdbcWorkerIdLeaseConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(ReactiveSqlExecutor.class)
+        public WorkerIdLeaseManager jdbcWorkerIdLeaseManager(ReactiveSqlExecutor sqlExecutor,
+                                                             WorkerIdLeaseProperties properties) {
+            return new JdbcWorkerIdLeaseManager(sqlExecutor, properties.getTable());
+        }
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnBean(WorkerIdLeaseManager.class)
+    public WorkerIdLeaseKeeper workerIdLeaseKeeper(WorkerIdLeaseManager manager,
+                                                   WorkerIdLeaseProperties properties) {
+        WorkerIdLeaseKeeper keeper = new WorkerIdLeaseKeeper(manager,
+                                                             properties.getInstanceId(),
+                                                             properties.getLeaseTime(),
+                                                             properties.getRenewInterval());
+        WorkerIdLease lease;
+        Throwable error = null;
+        try {
+            lease = keeper.start().block(properties.getAcquireTimeout());
+        } catch (RuntimeException e) {
+            lease = null;
+            error = e;
+        }
+        if (lease != null) {
+            return keeper;
+        }
+        if (properties.isFallbackToRandom()) {
+            SnowflakeIdGenerator generator = SnowflakeIdGenerator.getInstance();
+            log.warn("acquire snowflake worker id lease failed, fallback to random worker id {}-{}",
+                     generator.getDataCenterId(), generator.getWorkerId(), error);
+            return keeper;
+        }
+        keeper.dispose();
+        throw new IllegalStateException("acquire snowflake worker id lease failed, " +
+                                                "set hsweb.id.worker-lease.fallback-to-random=true to start with a random worker id", error);
+    }
+}
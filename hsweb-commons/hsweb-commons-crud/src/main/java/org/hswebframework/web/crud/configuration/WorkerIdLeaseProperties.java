@@ -0,0 +1,69 @@
+package org.hswebframework.web.crud.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * 雪花算法workerId租约配置
+ *
+ * <pre>
+ * hsweb:
+ *   id:
+ *     worker-lease:
+ *       type: redis # redis或者jdbc
+ *       instance-id: ${HOSTNAME}
+ * </pre>
+ *
+ * @since 4.0.16
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hsweb.id.worker-lease")
+public class WorkerIdLeaseProperties {
+
+    //租约类型,不配置时不启用
+    private Type type;
+
+    //实例ID,相同实例ID重启后优先使用之前的workerId
+    private String instanceId;
+
+    //租约有效期
+    private Duration leaseTime = Duration.ofMinutes(1);
+
+    //续期间隔
+    private Duration renewInterval = Duration.ofSeconds(15);
+
+    //启动时获取租约的超时时间
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+
+    //启动时未能获取到租约时,是否使用随机的workerId继续启动. 为false时启动失败
+    private boolean fallbackToRandom = false;
+
+    //redis key前缀
+    private String redisPrefix = "hsweb:snowflake-worker:";
+
+    //jdbc表名
+    private String table = "s_snowflake_worker";
+
+    public String getInstanceId() {
+        if (StringUtils.hasText(instanceId)) {
+            return instanceId;
+        }
+        String hostname = System.getenv("HOSTNAME");
+        if (StringUtils.hasText(hostname)) {
+            return hostname;
+        }
+        //pid@hostname,重启后无法复用之前的workerId
+        return ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    public enum Type {
+        redis,
+        jdbc
+    }
+}
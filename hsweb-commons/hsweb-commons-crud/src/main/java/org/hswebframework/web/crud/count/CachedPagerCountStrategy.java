@@ -0,0 +1,144 @@
+package org.hswebframework.web.crud.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按查询条件缓存count结果,在缓存有效期内相同条件的分页查询不再执行count.
+ * 使用缓存中的总数时,{@link PagerCount#isExact()}为false.
+ * <p>
+ * count结果缓存在当前节点的内存中,最多缓存{@code maximumSize}个查询条件,超过时淘汰最久未使用的条件,
+ * 过期的结果在读取时移除.
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+public class CachedPagerCountStrategy implements PagerCountStrategy {
+
+    public static final String ID = "cached";
+
+    private final Duration ttl;
+
+    private final Map<String, CachedCount> cache;
+
+    public CachedPagerCountStrategy(Duration ttl, int maximumSize) {
+        this.ttl = ttl;
+        this.cache = new LinkedHashMap<String, CachedCount>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public Mono<PagerCount> count(Class<?> entityType, QueryParamEntity param, Mono<Integer> exactCount) {
+        //无法确定实体类型时,直接count
+        if (entityType == null) {
+            return exactCount.map(PagerCount::exact);
+        }
+        String key = createKey(entityType, param.getTerms());
+        return Mono
+                .fromSupplier(() -> getCached(key))
+                .map(PagerCount::estimated)
+                .switchIfEmpty(Mono.defer(() -> exactCount
+                        .doOnNext(total -> putCached(key, total))
+                        .map(PagerCount::exact)));
+    }
+
+    private Integer getCached(String key) {
+        synchronized (cache) {
+            CachedCount cached = cache.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.getExpireAt() <= System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+            return cached.getTotal();
+        }
+    }
+
+    private void putCached(String key, int total) {
+        synchronized (cache) {
+            cache.put(key, new CachedCount(total, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    static String createKey(Class<?> entityType, List<Term> terms) {
+        StringBuilder builder = new StringBuilder();
+        appendTerms(builder, terms);
+        return entityType.getName() + ":" + DigestUtils.md5Hex(builder.toString());
+    }
+
+    //将条件转为统一的格式,如: and(name$eq$[张三])
+    private static void appendTerms(StringBuilder builder, List<Term> terms) {
+        if (terms == null) {
+            return;
+        }
+        for (Term term : terms) {
+            builder.append(term.getType())
+                   .append('(')
+                   .append(term.getColumn())
+                   .append('$')
+                   .append(term.getTermType());
+            if (term.getOptions() != null) {
+                for (String option : term.getOptions()) {
+                    builder.append('$').append(option);
+                }
+            }
+            builder.append("$[");
+            appendValue(builder, term.getValue());
+            builder.append(']');
+            appendTerms(builder, term.getTerms());
+            builder.append(')');
+        }
+    }
+
+    private static void appendValue(StringBuilder builder, Object value) {
+        if (value instanceof Collection) {
+            for (Object val : ((Collection<?>) value)) {
+                appendValue(builder, val);
+                builder.append(',');
+            }
+        } else if (value != null && value.getClass().isArray()) {
+            for (int i = 0, len = Array.getLength(value); i < len; i++) {
+                appendValue(builder, Array.get(value, i));
+                builder.append(',');
+            }
+        } else {
+            builder.append(value);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class CachedCount {
+        private final int total;
+
+        private final long expireAt;
+    }
+}
@@ -0,0 +1,93 @@
+package org.hswebframework.web.crud.count;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.ezorm.rdb.executor.SqlRequests;
+import org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrappers;
+import org.hswebframework.ezorm.rdb.metadata.RDBSchemaMetadata;
+import org.hswebframework.ezorm.rdb.operator.DatabaseOperator;
+import org.hswebframework.ezorm.rdb.supports.mysql.MysqlSchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.postgres.PostgresqlSchemaMetadata;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import javax.persistence.Table;
+
+/**
+ * 无查询条件时,使用数据库的统计信息估算总数,不执行count.
+ * <p>
+ * 目前支持mysql(information_schema.tables)和postgresql(pg_class),其他数据库或者有查询条件时执行精确的count.
+ * 估算的总数小于阈值时,也执行精确的count.
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+@Slf4j
+public class EstimatedPagerCountStrategy implements PagerCountStrategy {
+
+    public static final String ID = "estimated";
+
+    static final String MYSQL_SQL = "select table_rows from information_schema.tables" +
+            " where lower(table_schema) = lower(?) and lower(table_name) = lower(?)";
+
+    static final String POSTGRES_SQL = "select cast(c.reltuples as bigint) from pg_class c" +
+            " join pg_namespace n on n.oid = c.relnamespace" +
+            " where lower(n.nspname) = lower(?) and lower(c.relname) = lower(?)";
+
+    private final DatabaseOperator database;
+
+    //估算数量小于此值时,执行精确的count
+    private final long exactThreshold;
+
+    public EstimatedPagerCountStrategy(DatabaseOperator database, long exactThreshold) {
+        this.database = database;
+        this.exactThreshold = exactThreshold;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public Mono<PagerCount> count(Class<?> entityType, QueryParamEntity param, Mono<Integer> exactCount) {
+        Mono<PagerCount> exact = exactCount.map(PagerCount::exact);
+        if (entityType == null || !CollectionUtils.isEmpty(param.getTerms())) {
+            return exact;
+        }
+        Table table = AnnotatedElementUtils.findMergedAnnotation(entityType, Table.class);
+        if (table == null) {
+            return exact;
+        }
+        RDBSchemaMetadata schema = StringUtils.hasText(table.schema())
+                ? database.getMetadata().getSchema(table.schema()).orElse(null)
+                : database.getMetadata().getCurrentSchema();
+        String sql;
+        if (schema instanceof MysqlSchemaMetadata) {
+            sql = MYSQL_SQL;
+        } else if (schema instanceof PostgresqlSchemaMetadata) {
+            sql = POSTGRES_SQL;
+        } else {
+            return exact;
+        }
+        return database
+                .sql()
+                .reactive()
+                .select(SqlRequests.of(sql, schema.getName(), table.name()), ResultWrappers.map())
+                .take(1)
+                .singleOrEmpty()
+                .flatMap(row -> Mono.justOrEmpty(row.values().stream().findFirst()))
+                .filter(Number.class::isInstance)
+                .map(value -> ((Number) value).longValue())
+                //没有统计信息时,如postgresql未执行analyze时为-1
+                .filter(estimated -> estimated >= exactThreshold)
+                .map(estimated -> PagerCount.estimated((int) Math.min(estimated, Integer.MAX_VALUE)))
+                .onErrorResume(err -> {
+                    log.warn("estimate count of [{}] error", table.name(), err);
+                    return Mono.empty();
+                })
+                .switchIfEmpty(exact);
+    }
+}
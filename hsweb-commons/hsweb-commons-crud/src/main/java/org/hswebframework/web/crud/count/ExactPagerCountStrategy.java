@@ -0,0 +1,25 @@
+package org.hswebframework.web.crud.count;
+
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import reactor.core.publisher.Mono;
+
+/**
+ * 每次都执行count获取精确的总数
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+public class ExactPagerCountStrategy implements PagerCountStrategy {
+
+    public static final String ID = "exact";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public Mono<PagerCount> count(Class<?> entityType, QueryParamEntity param, Mono<Integer> exactCount) {
+        return exactCount.map(PagerCount::exact);
+    }
+}
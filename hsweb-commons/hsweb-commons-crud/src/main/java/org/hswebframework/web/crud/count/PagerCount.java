@@ -0,0 +1,31 @@
+package org.hswebframework.web.crud.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 分页查询的数据总数
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+@Getter
+@ToString
+@AllArgsConstructor(staticName = "of")
+public class PagerCount {
+
+    //总数
+    private final int total;
+
+    //是否为精确值
+    private final boolean exact;
+
+    public static PagerCount exact(int total) {
+        return of(total, true);
+    }
+
+    public static PagerCount estimated(int total) {
+        return of(total, false);
+    }
+}
@@ -0,0 +1,128 @@
+package org.hswebframework.web.crud.count;
+
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.crud.service.ReactiveCrudService;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import javax.persistence.Table;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页总数策略,由服务端配置每个实体使用的策略,不允许通过查询参数指定.
+ * <pre>{@code
+ * easyorm:
+ *   count-strategy: exact # 默认策略
+ *   count-strategies:
+ *     s_user: estimated # 表名或者实体类全名
+ * }</pre>
+ *
+ * @author zhouhao
+ * @see PagerCountStrategy
+ * @since 4.0.16
+ */
+public class PagerCountStrategies {
+
+    private final Map<String, PagerCountStrategy> strategies = new HashMap<>();
+
+    private final PagerCountStrategy defaultStrategy;
+
+    //表名或者实体类全名 -> 策略
+    private final Map<String, PagerCountStrategy> entityStrategies = new HashMap<>();
+
+    //服务类型 -> 实体类型
+    private final Map<Class<?>, Optional<Class<?>>> entityTypes = new ConcurrentHashMap<>();
+
+    //实体类型 -> 策略
+    private final Map<Class<?>, PagerCountStrategy> selected = new ConcurrentHashMap<>();
+
+    public PagerCountStrategies(Collection<? extends PagerCountStrategy> strategies,
+                                String defaultStrategy,
+                                Map<String, String> entityStrategies) {
+        PagerCountStrategy exact = new ExactPagerCountStrategy();
+        this.strategies.put(exact.getId(), exact);
+        for (PagerCountStrategy strategy : strategies) {
+            this.strategies.put(strategy.getId(), strategy);
+        }
+        this.defaultStrategy = StringUtils.hasText(defaultStrategy) ? getStrategy(defaultStrategy) : exact;
+        if (entityStrategies != null) {
+            entityStrategies.forEach((entity, id) -> this.entityStrategies.put(entity, getStrategy(id)));
+        }
+    }
+
+    private PagerCountStrategy getStrategy(String id) {
+        PagerCountStrategy strategy = strategies.get(id);
+        if (strategy == null) {
+            throw new IllegalArgumentException("unsupported pager count strategy: " + id + ", available: " + strategies.keySet());
+        }
+        return strategy;
+    }
+
+    /**
+     * 判断服务是否使用精确的count
+     *
+     * @param serviceType {@link ReactiveCrudService}的实现类
+     * @return 是否使用精确的count
+     */
+    public boolean isExact(Class<?> serviceType) {
+        return lookup(resolveEntityType(serviceType)) instanceof ExactPagerCountStrategy;
+    }
+
+    /**
+     * 使用服务对应实体配置的策略获取总数
+     *
+     * @param serviceType {@link ReactiveCrudService}的实现类
+     * @param param       查询参数
+     * @param exactCount  精确查询总数
+     * @return 数据总数
+     */
+    public Mono<PagerCount> count(Class<?> serviceType,
+                                  QueryParamEntity param,
+                                  Mono<Integer> exactCount) {
+        Class<?> entityType = resolveEntityType(serviceType);
+        return lookup(entityType).count(entityType, param, exactCount);
+    }
+
+    /**
+     * 获取实体使用的策略,优先使用表名配置的策略,其次是实体类全名,都未配置时使用默认策略.
+     *
+     * @param entityType 实体类型,为null时返回默认策略
+     * @return 策略
+     */
+    public PagerCountStrategy lookup(Class<?> entityType) {
+        if (entityType == null) {
+            return defaultStrategy;
+        }
+        return selected.computeIfAbsent(entityType, type -> {
+            Table table = AnnotatedElementUtils.findMergedAnnotation(type, Table.class);
+            PagerCountStrategy strategy = null;
+            if (table != null && StringUtils.hasText(table.name())) {
+                strategy = entityStrategies.get(table.name());
+            }
+            if (strategy == null) {
+                strategy = entityStrategies.get(type.getName());
+            }
+            return strategy == null ? defaultStrategy : strategy;
+        });
+    }
+
+    /**
+     * 根据泛型获取服务对应的实体类型
+     *
+     * @param serviceType {@link ReactiveCrudService}的实现类
+     * @return 实体类型, 无法获取时返回null
+     */
+    public Class<?> resolveEntityType(Class<?> serviceType) {
+        return entityTypes
+                .computeIfAbsent(ClassUtils.getUserClass(serviceType), type -> Optional.ofNullable(
+                        ResolvableType
+                                .forClass(type)
+                                .as(ReactiveCrudService.class)
+                                .resolveGeneric(0)))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,33 @@
+package org.hswebframework.web.crud.count;
+
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import reactor.core.publisher.Mono;
+
+/**
+ * 分页查询时获取数据总数的策略,通过配置{@code easyorm.count-strategy}和{@code easyorm.count-strategies}指定使用的策略.
+ * 实现此接口并注入到spring中即可使用.
+ *
+ * @author zhouhao
+ * @see PagerCountStrategies
+ * @see org.hswebframework.web.crud.service.ReactiveCrudService#queryPager(QueryParamEntity)
+ * @since 4.0.16
+ */
+public interface PagerCountStrategy {
+
+    /**
+     * @return 策略ID
+     */
+    String getId();
+
+    /**
+     * 获取数据总数
+     *
+     * @param entityType 实体类型,无法获取时为null
+     * @param param      查询参数
+     * @param exactCount 精确查询总数,订阅时才会执行count
+     * @return 数据总数
+     */
+    Mono<PagerCount> count(Class<?> entityType,
+                           QueryParamEntity param,
+                           Mono<Integer> exactCount);
+}
@@ -0,0 +1,114 @@
+package org.hswebframework.web.crud.events;
+
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 按批次保存的数据快照,用于在执行后发送事件.
+ * <p>
+ * after阶段的事件需要执行前的数据(删除后数据已不存在),所以快照会一直保留到after阶段,占用的内存与匹配的数据量成正比.
+ * 数据量超过阈值时,只保留主键,并且不再保留修改后的数据,在读取时才根据主键创建,以减少内存占用.
+ * after阶段通过{@link #drain()}逐批取出,已发送的批次不再被引用.
+ *
+ * @author zhouhao
+ * @see EntityEventSnapshotOptions
+ * @since 4.0.16
+ */
+class ChunkedSnapshots {
+
+    private final int idOnlyThreshold;
+
+    //转换为只包含主键的数据
+    private final Function<List<Object>, List<Object>> idOnlyMapper;
+
+    //根据修改前的数据创建修改后的数据,删除时为null
+    private final Function<List<Object>, List<Object>> afterBuilder;
+
+    private final Deque<Chunk> chunks = new ArrayDeque<>();
+
+    private long total;
+
+    private boolean idOnly;
+
+    ChunkedSnapshots(int idOnlyThreshold,
+                     Function<List<Object>, List<Object>> idOnlyMapper,
+                     Function<List<Object>, List<Object>> afterBuilder) {
+        this.idOnlyThreshold = idOnlyThreshold;
+        this.idOnlyMapper = idOnlyMapper;
+        this.afterBuilder = afterBuilder;
+    }
+
+    synchronized void add(List<Object> before, List<Object> after) {
+        total += before.size();
+        if (!idOnly && idOnlyThreshold > 0 && total > idOnlyThreshold) {
+            idOnly = true;
+            for (Chunk chunk : chunks) {
+                chunk.toIdOnly();
+            }
+        }
+        Chunk chunk = new Chunk(before, after);
+        if (idOnly) {
+            chunk.toIdOnly();
+        }
+        chunks.add(chunk);
+    }
+
+    synchronized List<Tuple2<List<Object>, List<Object>>> getChunks() {
+        List<Tuple2<List<Object>, List<Object>>> list = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            list.add(chunk.toTuple());
+        }
+        return list;
+    }
+
+    private synchronized Chunk poll() {
+        return chunks.poll();
+    }
+
+    /**
+     * 逐批取出并移除快照
+     *
+     * @return 快照
+     */
+    Flux<Tuple2<List<Object>, List<Object>>> drain() {
+        return Flux.generate(sink -> {
+            Chunk chunk = poll();
+            if (chunk == null) {
+                sink.complete();
+            } else {
+                sink.next(chunk.toTuple());
+            }
+        });
+    }
+
+    private class Chunk {
+        private List<Object> before;
+
+        //只保留主键时为null,读取时再创建
+        private List<Object> after;
+
+        private Chunk(List<Object> before, List<Object> after) {
+            this.before = before;
+            this.after = after == null ? new ArrayList<>(0) : after;
+        }
+
+        private void toIdOnly() {
+            before = idOnlyMapper.apply(before);
+            after = null;
+        }
+
+        private Tuple2<List<Object>, List<Object>> toTuple() {
+            if (after != null) {
+                return Tuples.of(before, after);
+            }
+            return Tuples.of(before, afterBuilder == null ? new ArrayList<>(0) : afterBuilder.apply(before));
+        }
+    }
+}
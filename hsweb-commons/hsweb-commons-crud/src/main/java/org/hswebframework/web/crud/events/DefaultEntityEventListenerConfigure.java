@@ -12,6 +12,10 @@ public class DefaultEntityEventListenerConfigure implements EntityEventListenerC
 
     private final Map<Class<? extends Entity>, Map<EntityEventType, Set<EntityEventPhase>>> enabledFeatures = new ConcurrentHashMap<>();
     private final Map<Class<? extends Entity>, Map<EntityEventType, Set<EntityEventPhase>>> disabledFeatures = new ConcurrentHashMap<>();
+    //合并了snapshotProperties后的快照配置
+    private final Map<Class<? extends Entity>, EntityEventSnapshotOptions> snapshotOptions = new ConcurrentHashMap<>();
+    //通过addSnapshotProperties声明的属性,设置快照配置时不会被覆盖
+    private final Map<Class<? extends Entity>, Set<String>> snapshotProperties = new ConcurrentHashMap<>();
 
     @Override
     public void enable(Class<? extends Entity> entityType) {
@@ -71,6 +75,33 @@ public class DefaultEntityEventListenerConfigure implements EntityEventListenerC
         }
     }
 
+    @Override
+    public void setSnapshotOptions(Class<? extends Entity> entityType, EntityEventSnapshotOptions options) {
+        snapshotOptions.compute(entityType, (type, ignore) -> {
+            Set<String> properties = snapshotProperties.get(type);
+            if (options == null) {
+                return properties == null ? null : EntityEventSnapshotOptions.DEFAULT.withProperties(properties);
+            }
+            return properties == null ? options : options.withProperties(properties);
+        });
+    }
+
+    @Override
+    public void addSnapshotProperties(Class<? extends Entity> entityType, String... properties) {
+        snapshotOptions.compute(entityType, (type, options) -> {
+            snapshotProperties
+                    .computeIfAbsent(type, ignore -> ConcurrentHashMap.newKeySet())
+                    .addAll(Arrays.asList(properties));
+            return (options == null ? EntityEventSnapshotOptions.DEFAULT : options)
+                    .withProperties(Arrays.asList(properties));
+        });
+    }
+
+    @Override
+    public EntityEventSnapshotOptions getSnapshotOptions(Class<? extends Entity> entityType) {
+        return snapshotOptions.getOrDefault(entityType, EntityEventSnapshotOptions.DEFAULT);
+    }
+
     @Override
     public boolean isEnabled(Class<? extends Entity> entityType) {
         if (!enabledFeatures.containsKey(entityType)) {
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import org.apache.commons.beanutils.BeanUtilsBean;
 import org.apache.commons.collections.CollectionUtils;
 import org.hswebframework.ezorm.core.GlobalConfig;
+import org.hswebframework.ezorm.core.ObjectPropertyOperator;
 import org.hswebframework.ezorm.core.param.QueryParam;
 import org.hswebframework.ezorm.rdb.events.*;
 import org.hswebframework.ezorm.rdb.events.EventListener;
@@ -23,6 +24,7 @@ import org.hswebframework.web.event.AsyncEvent;
 import org.hswebframework.web.event.GenericsPayloadApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.function.Function3;
 import reactor.util.function.Tuple2;
@@ -199,6 +201,18 @@ public class EntityEventListener implements EventListener, Ordered {
                 .orElseThrow(UnsupportedOperationException::new);
         Class entityType = (Class) mapping.getEntityType();
         if (repo instanceof ReactiveRepository) {
+            EntityEventSnapshotOptions options = listenerConfigure.getSnapshotOptions(entityType);
+            //按批次加载数据
+            if (options.isChunked()) {
+                context.get(MappingContextKeys.reactiveResultHolder)
+                       .ifPresent(holder -> handleChunkedUpdateBefore((ReactiveRepository<Object, ?>) repo,
+                                                                      update,
+                                                                      context,
+                                                                      holder,
+                                                                      entityType,
+                                                                      options));
+                return;
+            }
 
             context.get(MappingContextKeys.reactiveResultHolder)
                    .ifPresent(holder -> {
@@ -212,7 +226,7 @@ public class EntityEventListener implements EventListener, Ordered {
                            holder.before(
                                    this.doAsyncEvent(() -> ((ReactiveRepository<Object, ?>) repo)
                                            .createQuery()
-                                           .setParam(update.toQueryParam())
+                                           .setParam(createModifySnapshotParam(update, context, options))
                                            .fetch()
                                            .collectList()
                                            .flatMap((list) -> {
@@ -290,6 +304,18 @@ public class EntityEventListener implements EventListener, Ordered {
                .ifPresent(dslUpdate -> {
                    Object repo = context.get(MappingContextKeys.repository).orElse(null);
                    if (repo instanceof ReactiveRepository) {
+                       EntityEventSnapshotOptions options = listenerConfigure.getSnapshotOptions(entityType);
+                       //按批次加载数据
+                       if (options.isChunked()) {
+                           context.get(MappingContextKeys.reactiveResultHolder)
+                                  .ifPresent(holder -> handleChunkedDeleteBefore((ReactiveRepository<Object, ?>) repo,
+                                                                                 dslUpdate,
+                                                                                 context,
+                                                                                 holder,
+                                                                                 (Class) mapping.getEntityType(),
+                                                                                 options));
+                           return;
+                       }
                        context.get(MappingContextKeys.reactiveResultHolder)
                               .ifPresent(holder -> {
                                   AtomicReference<List<Object>> deleted = new AtomicReference<>();
@@ -336,6 +362,169 @@ public class EntityEventListener implements EventListener, Ordered {
                });
     }
 
+    /**
+     * 按批次流式加载要修改的数据,并按批次发送修改事件
+     *
+     * @see EntityEventSnapshotOptions
+     */
+    protected void handleChunkedUpdateBefore(ReactiveRepository<Object, ?> repo,
+                                             DSLUpdate<?, ?> update,
+                                             EventContext context,
+                                             ReactiveResultHolder holder,
+                                             Class<Object> entityType,
+                                             EntityEventSnapshotOptions options) {
+        boolean prepare = isEnabled(entityType, EntityEventType.modify, EntityEventPhase.prepare);
+        boolean before = isEnabled(entityType, EntityEventType.modify, EntityEventPhase.before);
+        boolean after = isEnabled(entityType, EntityEventType.modify, EntityEventPhase.after);
+        if (!prepare && !before && !after) {
+            return;
+        }
+        ChunkedSnapshots snapshots = new ChunkedSnapshots(options.getIdOnlyThreshold(),
+                                                          list -> createIdOnlyData(list, context),
+                                                          list -> createAfterData(list, context));
+        //prepare
+        holder.before(
+                this.doAsyncEvent(() -> loadSnapshots(repo, createModifySnapshotParam(update, context, options), options)
+                        .concatMap(list -> {
+                            List<Object> afterData = createAfterData(list, context);
+                            if (before || after) {
+                                snapshots.add(list, afterData);
+                            }
+                            if (prepare) {
+                                return sendUpdateEvent(list, afterData, entityType, EntityPrepareModifyEvent::new);
+                            }
+                            return Mono.empty();
+                        })
+                        .then())
+        );
+        //before
+        if (before) {
+            holder.invoke(this.doAsyncEvent(() -> Flux
+                    .fromIterable(snapshots.getChunks())
+                    .concatMap(chunk -> sendUpdateEvent(chunk.getT1(), chunk.getT2(), entityType, EntityBeforeModifyEvent::new))
+                    .then()));
+        }
+        //after
+        if (after) {
+            holder.after(v -> this
+                    .doAsyncEvent(() -> snapshots
+                            .drain()
+                            .concatMap(chunk -> sendUpdateEvent(chunk.getT1(), chunk.getT2(), entityType, EntityModifyEvent::new))
+                            .then()));
+        }
+    }
+
+    /**
+     * 按批次流式加载要删除的数据,并按批次发送删除事件.
+     * 此模式下不会设置{@link #readyToDeleteContextKey}.
+     *
+     * @see EntityEventSnapshotOptions
+     */
+    protected void handleChunkedDeleteBefore(ReactiveRepository<Object, ?> repo,
+                                             DSLDelete delete,
+                                             EventContext context,
+                                             ReactiveResultHolder holder,
+                                             Class<Object> entityType,
+                                             EntityEventSnapshotOptions options) {
+        boolean before = isEnabled(entityType, EntityEventType.delete, EntityEventPhase.before);
+        boolean after = isEnabled(entityType, EntityEventType.delete, EntityEventPhase.after);
+        if (!before && !after) {
+            return;
+        }
+        ChunkedSnapshots snapshots = new ChunkedSnapshots(options.getIdOnlyThreshold(),
+                                                          list -> createIdOnlyData(list, context),
+                                                          null);
+        holder.before(
+                this.doAsyncEvent(() -> loadSnapshots(repo, delete.toQueryParam(), options)
+                        .concatMap(list -> {
+                            if (after) {
+                                snapshots.add(list, null);
+                            }
+                            if (before) {
+                                return sendDeleteEvent(list, entityType, EntityBeforeDeleteEvent::new);
+                            }
+                            return Mono.empty();
+                        })
+                        .then())
+        );
+        if (after) {
+            holder.after(v -> this
+                    .doAsyncEvent(() -> snapshots
+                            .drain()
+                            .concatMap(chunk -> sendDeleteEvent(chunk.getT1(), entityType, EntityDeletedEvent::new))
+                            .then()));
+        }
+    }
+
+    protected Flux<List<Object>> loadSnapshots(ReactiveRepository<Object, ?> repo,
+                                               QueryParam param,
+                                               EntityEventSnapshotOptions options) {
+        return repo
+                .createQuery()
+                .setParam(param)
+                .fetch()
+                .buffer(options.getEffectiveChunkSize());
+    }
+
+    /**
+     * 创建查询修改前数据的查询参数,使用projection时只查询主键、修改的字段以及声明的字段.
+     *
+     * @see EntityEventSnapshotOptions#isProjection()
+     */
+    protected QueryParam createModifySnapshotParam(DSLUpdate<?, ?> update,
+                                                   EventContext context,
+                                                   EntityEventSnapshotOptions options) {
+        QueryParam param = update.toQueryParam();
+        if (!options.isProjection()) {
+            return param;
+        }
+        EntityColumnMapping mapping = context
+                .get(MappingContextKeys.columnMapping)
+                .orElseThrow(UnsupportedOperationException::new);
+        Set<String> includes = new LinkedHashSet<>();
+        for (RDBColumnMetadata column : mapping.getTable().getColumns()) {
+            if (column.isPrimaryKey()) {
+                includes.add(column.getAlias());
+            }
+        }
+        context.get(MappingContextKeys.updateColumnInstance)
+               .ifPresent(columns -> {
+                   for (String column : columns.keySet()) {
+                       mapping.getColumnByName(column)
+                              .ifPresent(metadata -> includes.add(metadata.getAlias()));
+                   }
+               });
+        includes.addAll(options.getProperties());
+        param.setIncludes(includes);
+        return param;
+    }
+
+    /**
+     * 创建只包含主键的数据
+     */
+    protected List<Object> createIdOnlyData(List<Object> olds, EventContext context) {
+        EntityColumnMapping mapping = context
+                .get(MappingContextKeys.columnMapping)
+                .orElseThrow(UnsupportedOperationException::new);
+        List<RDBColumnMetadata> primaryKeys = new ArrayList<>(1);
+        for (RDBColumnMetadata column : mapping.getTable().getColumns()) {
+            if (column.isPrimaryKey()) {
+                primaryKeys.add(column);
+            }
+        }
+        ObjectPropertyOperator operator = GlobalConfig.getPropertyOperator();
+        List<Object> newValues = new ArrayList<>(olds.size());
+        for (Object old : olds) {
+            Object data = mapping.newInstance();
+            for (RDBColumnMetadata primaryKey : primaryKeys) {
+                operator.getProperty(old, primaryKey.getAlias())
+                        .ifPresent(id -> operator.setProperty(data, primaryKey.getAlias(), id));
+            }
+            newValues.add(data);
+        }
+        return newValues;
+    }
+
     protected void handleUpdateAfter(EventContext context) {
 
     }
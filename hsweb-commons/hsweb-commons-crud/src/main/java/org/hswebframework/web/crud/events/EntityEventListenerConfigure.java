@@ -2,6 +2,8 @@ package org.hswebframework.web.crud.events;
 
 import org.hswebframework.web.api.crud.entity.Entity;
 
+import java.util.Arrays;
+
 /**
  * 实体事件监听器配置
  * <pre>
@@ -70,4 +72,37 @@ public interface EntityEventListenerConfigure {
      */
     boolean isEnabled(Class<? extends Entity> entityType, EntityEventType type, EntityEventPhase phase);
 
+    /**
+     * 设置修改和删除事件中数据快照的加载方式,用于大批量修改或删除数据的场景.
+     * 默认实现忽略此配置,始终使用{@link EntityEventSnapshotOptions#DEFAULT}.
+     *
+     * @param entityType 实体类
+     * @param options    快照配置
+     * @since 4.0.16
+     */
+    default void setSnapshotOptions(Class<? extends Entity> entityType, EntityEventSnapshotOptions options) {
+    }
+
+    /**
+     * 获取修改和删除事件中数据快照的加载方式
+     *
+     * @param entityType 实体类
+     * @return 快照配置
+     * @since 4.0.16
+     */
+    default EntityEventSnapshotOptions getSnapshotOptions(Class<? extends Entity> entityType) {
+        return EntityEventSnapshotOptions.DEFAULT;
+    }
+
+    /**
+     * 声明修改事件中需要的属性,在使用{@link EntityEventSnapshotOptions#isProjection()}时,将额外查询这些属性.
+     *
+     * @param entityType 实体类
+     * @param properties 属性
+     * @since 4.0.16
+     */
+    default void addSnapshotProperties(Class<? extends Entity> entityType, String... properties) {
+        setSnapshotOptions(entityType, getSnapshotOptions(entityType).withProperties(Arrays.asList(properties)));
+    }
+
 }
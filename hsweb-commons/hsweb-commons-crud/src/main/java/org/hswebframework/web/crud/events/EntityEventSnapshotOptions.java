@@ -0,0 +1,89 @@
+package org.hswebframework.web.crud.events;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 修改和删除事件中数据快照的加载方式.
+ * <p>
+ * 默认一次性加载全部匹配的数据,并在一个事件中发送.
+ * 设置了{@link #getChunkSize()}后,按批次流式加载数据,并按批次发送事件.
+ * 设置了{@link #getIdOnlyThreshold()}后,匹配的数据量超过此值时,用于发送before和after阶段事件的数据只保留主键,
+ * 修改事件的after数据只包含主键和修改的字段.
+ * 注意: 启用了after阶段的事件时,快照需要保留到执行完成后,内存占用仍与匹配的数据量成正比,
+ * 设置{@link #getIdOnlyThreshold()}只能将每条数据的占用减少为主键.
+ * <p>
+ * 设置了{@link #isProjection()}后,修改事件查询修改前的数据时,只查询主键、修改的字段以及{@link #getProperties()}中的字段,
+ * 事件中的before和after数据只包含这些字段.
+ *
+ * <pre>{@code
+ *  configure.setSnapshotOptions(MyEntity.class,
+ *                               EntityEventSnapshotOptions
+ *                                  .builder()
+ *                                  .chunkSize(1000)
+ *                                  .idOnlyThreshold(10000)
+ *                                  .build());
+ * }</pre>
+ *
+ * @author zhouhao
+ * @see EntityEventListenerConfigure#setSnapshotOptions(Class, EntityEventSnapshotOptions)
+ * @since 4.0.16
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EntityEventSnapshotOptions {
+
+    public static final EntityEventSnapshotOptions DEFAULT = builder().build();
+
+    //每批次加载的数据量,小于等于0时一次性加载全部数据
+    private final int chunkSize;
+
+    //只保留主键的数据量阈值,小于等于0时不限制
+    private final int idOnlyThreshold;
+
+    //修改事件是否只查询主键和修改的字段
+    private final boolean projection;
+
+    //使用projection时,额外查询的属性
+    @Builder.Default
+    private final Set<String> properties = Collections.emptySet();
+
+    /**
+     * 添加使用projection时额外查询的属性,返回新的配置
+     *
+     * @param properties 属性
+     * @return 新的配置
+     */
+    public EntityEventSnapshotOptions withProperties(Collection<String> properties) {
+        Set<String> merged = new HashSet<>(this.properties);
+        merged.addAll(properties);
+        return toBuilder()
+                .properties(Collections.unmodifiableSet(merged))
+                .build();
+    }
+
+    /**
+     * @return 是否按批次加载数据
+     */
+    public boolean isChunked() {
+        return chunkSize > 0 || idOnlyThreshold > 0;
+    }
+
+    /**
+     * @return 实际使用的批次大小
+     */
+    public int getEffectiveChunkSize() {
+        if (chunkSize > 0) {
+            return chunkSize;
+        }
+        return idOnlyThreshold > 0 ? Math.min(idOnlyThreshold, 1000) : Integer.MAX_VALUE;
+    }
+}
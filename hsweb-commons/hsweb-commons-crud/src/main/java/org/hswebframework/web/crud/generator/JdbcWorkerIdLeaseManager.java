@@ -0,0 +1,153 @@
+package org.hswebframework.web.crud.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.ezorm.rdb.executor.SqlRequests;
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrappers;
+import org.hswebframework.web.id.WorkerIdLease;
+import org.hswebframework.web.id.WorkerIdLeaseManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于数据库表的workerId租约管理器,使用当前配置的数据源.
+ * <p>
+ * 每个槽位对应表中的一行,通过带条件的update语句抢占过期或者属于自己的槽位.
+ *
+ * @since 4.0.16
+ */
+@Slf4j
+public class JdbcWorkerIdLeaseManager implements WorkerIdLeaseManager {
+
+    private final ReactiveSqlExecutor sqlExecutor;
+
+    private final String table;
+
+    private volatile boolean initialized;
+
+    public JdbcWorkerIdLeaseManager(ReactiveSqlExecutor sqlExecutor) {
+        this(sqlExecutor, "s_snowflake_worker");
+    }
+
+    public JdbcWorkerIdLeaseManager(ReactiveSqlExecutor sqlExecutor, String table) {
+        this.sqlExecutor = sqlExecutor;
+        this.table = table;
+    }
+
+    @Override
+    public Mono<WorkerIdLease> acquire(String instanceId, Duration leaseTime) {
+        int preferred = WorkerIdLease.preferredSlot(instanceId);
+        return this
+                .loadSlots()
+                .flatMap(slots -> Flux
+                        .range(0, WorkerIdLease.MAX_SLOTS)
+                        .map(i -> (preferred + i) % WorkerIdLease.MAX_SLOTS)
+                        .filter(slot -> isAvailable(slots.get(slot), instanceId))
+                        .concatMap(slot -> tryAcquire(slot, slots.containsKey(slot), instanceId, leaseTime)
+                                .filter(success -> success)
+                                .map(ignore -> new WorkerIdLease(slot, instanceId)))
+                        .next());
+    }
+
+    @Override
+    public Mono<Boolean> renew(WorkerIdLease lease, Duration leaseTime) {
+        return sqlExecutor
+                .update(SqlRequests.of("update " + table + " set expire_time = ? where slot = ? and instance_id = ?",
+                                       System.currentTimeMillis() + leaseTime.toMillis(),
+                                       lease.getSlot(),
+                                       lease.getInstanceId()))
+                .map(i -> i > 0);
+    }
+
+    @Override
+    public Mono<Void> release(WorkerIdLease lease) {
+        return sqlExecutor
+                .update(SqlRequests.of("update " + table + " set expire_time = 0 where slot = ? and instance_id = ?",
+                                       lease.getSlot(),
+                                       lease.getInstanceId()))
+                .then();
+    }
+
+    private boolean isAvailable(Lease lease, String instanceId) {
+        return lease == null
+                || instanceId.equals(lease.instanceId)
+                || lease.expireTime < System.currentTimeMillis();
+    }
+
+    private Mono<Boolean> tryAcquire(int slot, boolean exists, String instanceId, Duration leaseTime) {
+        long now = System.currentTimeMillis();
+        long expireTime = now + leaseTime.toMillis();
+        if (exists) {
+            return sqlExecutor
+                    .update(SqlRequests.of("update " + table + " set instance_id = ?, expire_time = ? " +
+                                                   "where slot = ? and (instance_id = ? or expire_time < ?)",
+                                           instanceId, expireTime, slot, instanceId, now))
+                    .map(i -> i > 0);
+        }
+        return sqlExecutor
+                .update(SqlRequests.of("insert into " + table + " (slot, instance_id, expire_time) values (?, ?, ?)",
+                                       slot, instanceId, expireTime))
+                .map(i -> i > 0)
+                //被其他实例抢先插入
+                .onErrorResume(err -> Mono.just(false));
+    }
+
+    private Mono<Map<Integer, Lease>> loadSlots() {
+        return this
+                .init()
+                .thenMany(sqlExecutor.select(SqlRequests.of("select slot, instance_id, expire_time from " + table),
+                                             ResultWrappers.map()))
+                .collectMap(row -> getNumber(row, "slot").intValue(),
+                            row -> new Lease(String.valueOf(getValue(row, "instance_id")), getNumber(row, "expire_time").longValue()),
+                            HashMap::new);
+    }
+
+    //表不存在时创建表
+    private Mono<Void> init() {
+        if (initialized) {
+            return Mono.empty();
+        }
+        return sqlExecutor
+                .select(SqlRequests.of("select count(1) from " + table), ResultWrappers.map())
+                .then()
+                .onErrorResume(err -> {
+                    log.info("create snowflake worker id table [{}]", table);
+                    return sqlExecutor
+                            .execute(SqlRequests.of("create table " + table + " (" +
+                                                            "slot integer not null primary key," +
+                                                            "instance_id varchar(128) not null," +
+                                                            "expire_time bigint not null)"));
+                })
+                .doOnSuccess(ignore -> initialized = true);
+    }
+
+    private static Object getValue(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value == null) {
+            value = row.get(column.toUpperCase());
+        }
+        return value;
+    }
+
+    private static Number getNumber(Map<String, Object> row, String column) {
+        Object value = getValue(row, column);
+        if (value instanceof Number) {
+            return ((Number) value);
+        }
+        return Long.parseLong(String.valueOf(value));
+    }
+
+    private static class Lease {
+        private final String instanceId;
+        private final long expireTime;
+
+        private Lease(String instanceId, long expireTime) {
+            this.instanceId = instanceId;
+            this.expireTime = expireTime;
+        }
+    }
+}
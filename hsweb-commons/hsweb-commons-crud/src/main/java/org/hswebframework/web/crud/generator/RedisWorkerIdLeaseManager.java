@@ -0,0 +1,80 @@
+package org.hswebframework.web.crud.generator;
+
+import org.hswebframework.web.id.WorkerIdLease;
+import org.hswebframework.web.id.WorkerIdLeaseManager;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 基于redis的workerId租约管理器,每个槽位对应一个带有过期时间的key,值为持有租约的实例ID.
+ *
+ * @since 4.0.16
+ */
+public class RedisWorkerIdLeaseManager implements WorkerIdLeaseManager {
+
+    private static final RedisScript<Long> ACQUIRE = RedisScript.of(
+            "local v = redis.call('get', KEYS[1]);" +
+                    "if v == false or v == ARGV[1] then " +
+                    "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]); return 1; " +
+                    "end; return 0;", Long.class);
+
+    private static final RedisScript<Long> RENEW = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('pexpire', KEYS[1], ARGV[2]); " +
+                    "end; return 0;", Long.class);
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('del', KEYS[1]); " +
+                    "end; return 0;", Long.class);
+
+    private final ReactiveRedisOperations<String, String> operations;
+
+    private final String prefix;
+
+    public RedisWorkerIdLeaseManager(ReactiveRedisOperations<String, String> operations) {
+        this(operations, "hsweb:snowflake-worker:");
+    }
+
+    public RedisWorkerIdLeaseManager(ReactiveRedisOperations<String, String> operations, String prefix) {
+        this.operations = operations;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Mono<WorkerIdLease> acquire(String instanceId, Duration leaseTime) {
+        int preferred = WorkerIdLease.preferredSlot(instanceId);
+        return Flux
+                .range(0, WorkerIdLease.MAX_SLOTS)
+                .map(i -> (preferred + i) % WorkerIdLease.MAX_SLOTS)
+                .concatMap(slot -> execute(ACQUIRE, slot, instanceId, String.valueOf(leaseTime.toMillis()))
+                        .filter(success -> success)
+                        .map(ignore -> new WorkerIdLease(slot, instanceId)))
+                .next();
+    }
+
+    @Override
+    public Mono<Boolean> renew(WorkerIdLease lease, Duration leaseTime) {
+        return execute(RENEW, lease.getSlot(), lease.getInstanceId(), String.valueOf(leaseTime.toMillis()));
+    }
+
+    @Override
+    public Mono<Void> release(WorkerIdLease lease) {
+        return execute(RELEASE, lease.getSlot(), lease.getInstanceId())
+                .then();
+    }
+
+    private Mono<Boolean> execute(RedisScript<Long> script, int slot, String... args) {
+        return operations
+                .execute(script, Collections.singletonList(prefix + slot), Arrays.asList(args))
+                .next()
+                .map(result -> result > 0)
+                .defaultIfEmpty(false);
+    }
+}
@@ -0,0 +1,85 @@
+package org.hswebframework.web.crud.query;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.hswebframework.ezorm.rdb.operator.builder.fragments.NativeSql;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 预编译的查询,SQL和列映射只解析一次,线程安全,可以重复执行.
+ * 查询条件中使用{@link #param(String)}声明参数,执行时只需要传入参数值.
+ *
+ * <pre>{@code
+ *   CompiledQuery<R> query = helper
+ *      .select(R.class)
+ *      .all(A.class)
+ *      .from(A.class)
+ *      .where(dsl -> dsl.is(A::getName, CompiledQuery.param("name")))
+ *      .compile();
+ *
+ *   query.fetch(Collections.singletonMap("name", "test"));
+ * }</pre>
+ *
+ * <p>
+ * 参数占位以{@link NativeSql}的方式渲染为{@code ?},不会经过列的类型转换,所以可以用于任意类型的列.
+ * 参数值将直接传递给数据库,需要传入与列类型匹配的值,并且只能用于单值的条件,如:is,gt,lt等.
+ *
+ * @param <R> 查询结果类型
+ * @author zhouhao
+ * @see QueryHelper.ExecuteSpec#compile()
+ * @see QueryHelper#compile(String, java.util.function.Function)
+ * @since 4.0.16
+ */
+public interface CompiledQuery<R> {
+
+    /**
+     * 声明一个参数,在执行{@link #fetch(Map)}时传入参数值.
+     *
+     * @param name 参数名
+     * @return 参数占位
+     */
+    static Object param(String name) {
+        return NativeSql.of("?", new Parameter(name));
+    }
+
+    /**
+     * @return 预编译的SQL
+     */
+    String getSql();
+
+    /**
+     * 使用指定的参数执行查询
+     *
+     * @param parameters 参数,key为{@link #param(String)}声明的参数名
+     * @return 数据流
+     */
+    Flux<R> fetch(Map<String, Object> parameters);
+
+    /**
+     * 执行查询,用于没有声明参数的查询
+     *
+     * @return 数据流
+     */
+    default Flux<R> fetch() {
+        return fetch(Collections.emptyMap());
+    }
+
+    /**
+     * 参数占位
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    final class Parameter {
+        private final String name;
+
+        @Override
+        public String toString() {
+            return ":" + name;
+        }
+    }
+}
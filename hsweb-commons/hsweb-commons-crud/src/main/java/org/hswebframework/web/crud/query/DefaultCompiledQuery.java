@@ -0,0 +1,92 @@
+package org.hswebframework.web.crud.query;
+
+import org.hswebframework.ezorm.rdb.executor.SqlRequest;
+import org.hswebframework.ezorm.rdb.executor.SqlRequests;
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrapper;
+import org.hswebframework.ezorm.rdb.operator.builder.fragments.NativeSql;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * 默认的预编译查询,缓存渲染后的SQL和参数位置,执行时只替换参数值.
+ *
+ * @param <R> 查询结果类型
+ * @author zhouhao
+ * @since 4.0.16
+ */
+class DefaultCompiledQuery<R> implements CompiledQuery<R> {
+
+    private final ReactiveSqlExecutor executor;
+
+    private final ResultWrapper<R, ?> wrapper;
+
+    private final String sql;
+
+    //渲染时的参数,参数占位的位置在执行时替换
+    private final Object[] parameters;
+
+    //参数位置 -> 参数名,为null时表示固定值
+    private final String[] slots;
+
+    DefaultCompiledQuery(ReactiveSqlExecutor executor,
+                         ResultWrapper<R, ?> wrapper,
+                         SqlRequest request) {
+        this.executor = executor;
+        this.wrapper = wrapper;
+        this.sql = request.getSql();
+        this.parameters = request.getParameters() == null ? new Object[0] : request.getParameters().clone();
+        this.slots = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = getParameter(parameters[i]);
+            if (parameter != null) {
+                slots[i] = parameter.getName();
+            }
+        }
+    }
+
+    //条件不支持NativeSql时,参数占位会作为参数值传入
+    private static Parameter getParameter(Object value) {
+        if (value instanceof Parameter) {
+            return (Parameter) value;
+        }
+        if (value instanceof NativeSql) {
+            Object[] parameters = ((NativeSql) value).getParameters();
+            if (parameters != null && parameters.length == 1 && parameters[0] instanceof Parameter) {
+                return (Parameter) parameters[0];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public Flux<R> fetch(Map<String, Object> parameters) {
+        return Flux.defer(() -> executor.select(SqlRequests.prepare(sql, bind(parameters)), wrapper));
+    }
+
+    private Object[] bind(Map<String, Object> args) {
+        Object[] values = parameters.clone();
+        for (int i = 0; i < slots.length; i++) {
+            String name = slots[i];
+            if (name == null) {
+                continue;
+            }
+            if (!args.containsKey(name)) {
+                throw new IllegalArgumentException("parameter [" + name + "] not specified");
+            }
+            values[i] = args.get(name);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
@@ -28,6 +28,7 @@ import javax.persistence.Table;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrappers.column;
 
@@ -38,6 +39,12 @@ public class DefaultQueryHelper implements QueryHelper {
 
     private final Map<Class<?>, Table> nameMapping = new ConcurrentHashMap<>();
 
+    //最多缓存的预编译查询数量,超过时淘汰最久未使用的查询
+    public static final int MAX_COMPILED_QUERIES = 1024;
+
+    //预编译的查询,获取时不加锁,新增查询超过数量限制时才淘汰
+    private final Map<String, CompiledEntry> compiled = new ConcurrentHashMap<>();
+
     @Override
     public <R> SelectColumnMapperSpec<R> select(Class<R> resultType) {
         return new QuerySpec<>(resultType, this);
@@ -52,6 +59,60 @@ public class DefaultQueryHelper implements QueryHelper {
         return querySpec;
     }
 
+    @Override
+    @SuppressWarnings("all")
+    public <R> CompiledQuery<R> compile(String key, Function<QueryHelper, ExecuteSpec<R>> builder) {
+        CompiledEntry entry = compiled.get(key);
+        if (entry != null) {
+            entry.lastAccess = System.nanoTime();
+            return (CompiledQuery<R>) entry.query;
+        }
+        //在锁外构造,构造器中可能再次调用compile
+        CompiledQuery<R> newQuery = builder.apply(this).compile();
+        entry = compiled.putIfAbsent(key, new CompiledEntry(newQuery));
+        if (entry != null) {
+            return (CompiledQuery<R>) entry.query;
+        }
+        if (compiled.size() > MAX_COMPILED_QUERIES) {
+            evictCompiled();
+        }
+        return newQuery;
+    }
+
+    //淘汰最久未使用的查询
+    private synchronized void evictCompiled() {
+        while (compiled.size() > MAX_COMPILED_QUERIES) {
+            String eldest = null;
+            long eldestAccess = 0;
+            for (Map.Entry<String, CompiledEntry> entry : compiled.entrySet()) {
+                long access = entry.getValue().lastAccess;
+                if (eldest == null || access - eldestAccess < 0) {
+                    eldest = entry.getKey();
+                    eldestAccess = access;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            compiled.remove(eldest);
+        }
+    }
+
+    int compiledSize() {
+        return compiled.size();
+    }
+
+    private static class CompiledEntry {
+        private final CompiledQuery<?> query;
+
+        //最后一次获取的时间,用于淘汰最久未使用的查询
+        private volatile long lastAccess = System.nanoTime();
+
+        private CompiledEntry(CompiledQuery<?> query) {
+            this.query = query;
+        }
+    }
+
     TableOrViewMetadata getTable(Class<?> type) {
         Table table = nameMapping.computeIfAbsent(type, this::parseTableName);
         if (StringUtils.hasText(table.schema())) {
@@ -101,6 +162,16 @@ public class DefaultQueryHelper implements QueryHelper {
 
         abstract void applyValue(R result, String[] column, Object sqlValue);
 
+        /**
+         * 根据列名预先解析列信息,返回用于设置值的绑定,在同一个结果集中重复使用.
+         *
+         * @param column 拆分后的列名
+         * @return 绑定
+         */
+        ColumnBinding<R> compile(String[] column) {
+            return (result, sqlValue) -> applyValue(result, column, sqlValue);
+        }
+
         static class All<R, V> extends ColumnMapping<R> {
             private final String table;
             private final Class<?> tableType;
@@ -154,6 +225,27 @@ public class DefaultQueryHelper implements QueryHelper {
                 }
             }
 
+            @Override
+            ColumnBinding<R> compile(String[] column) {
+                RDBColumnMetadata metadata = target.getColumn(column[1]).orElse(null);
+                if (metadata == null) {
+                    return ColumnBinding.noop();
+                }
+                String property = metadata.getName();
+                if (targetProperty == null) {
+                    return (result, sqlValue) -> GlobalConfig
+                            .getPropertyOperator()
+                            .setProperty(result, property, metadata.decode(sqlValue));
+                }
+                String nestProperty = column[1];
+                return (result, sqlValue) -> {
+                    ObjectPropertyOperator operator = GlobalConfig.getPropertyOperator();
+                    operator.setProperty(operator.getPropertyOrNew(result, targetProperty),
+                                         nestProperty,
+                                         metadata.decode(sqlValue));
+                };
+            }
+
             SelectColumnSupplier[] toColumns(TableOrViewMetadata table,
                                              String owner) {
 
@@ -223,6 +315,20 @@ public class DefaultQueryHelper implements QueryHelper {
                 GlobalConfig.getPropertyOperator().setProperty(result, column[0], metadata.decode(sqlValue));
             }
 
+            @Override
+            @SuppressWarnings("all")
+            ColumnBinding<R> compile(String[] column) {
+                RDBColumnMetadata metadata = this.metadata;
+                if (setter != null) {
+                    Setter<R, V> setter = this.setter;
+                    return (result, sqlValue) -> setter.accept(result, (V) metadata.decode(sqlValue));
+                }
+                String property = column[0];
+                return (result, sqlValue) -> GlobalConfig
+                        .getPropertyOperator()
+                        .setProperty(result, property, metadata.decode(sqlValue));
+            }
+
             @Override
             SelectColumnSupplier[] forSelect() {
                 this.alias = this.alias != null ?
@@ -258,6 +364,35 @@ public class DefaultQueryHelper implements QueryHelper {
         }
     }
 
+    /**
+     * 已解析的列绑定,将sql结果设置到行对象中
+     */
+    interface ColumnBinding<R> {
+
+        ColumnBinding<?> NOOP = (result, sqlValue) -> {
+        };
+
+        @SuppressWarnings("all")
+        static <R> ColumnBinding<R> noop() {
+            return (ColumnBinding<R>) NOOP;
+        }
+
+        void apply(R result, Object sqlValue);
+    }
+
+    /**
+     * 按列索引缓存的列绑定,列名相同时直接复用,避免每个单元格都拆分列名并遍历查找映射.
+     */
+    static class CompiledColumn<R> {
+        final String label;
+        final ColumnBinding<R> binding;
+
+        CompiledColumn(String label, ColumnBinding<R> binding) {
+            this.label = label;
+            this.binding = binding;
+        }
+    }
+
     static class QuerySpec<R> implements SelectSpec<R>, FromSpec<R>, SortSpec<R>, ResultWrapper<R, R>, SelectColumnMapperSpec<R> {
 
         private final Class<R> clazz;
@@ -277,6 +412,10 @@ public class DefaultQueryHelper implements QueryHelper {
 
         private QueryParamEntity param;
 
+        //按列索引缓存的列绑定
+        @SuppressWarnings("all")
+        private volatile CompiledColumn<R>[] compiled = new CompiledColumn[0];
+
 
         public QuerySpec(Class<R> clazz, DefaultQueryHelper parent) {
             this.clazz = clazz;
@@ -326,6 +465,8 @@ public class DefaultQueryHelper implements QueryHelper {
             for (ColumnMapping<R> mapping : mappings) {
                 query.select(mapping.forSelect());
             }
+            //列信息可能发生了变化,重新解析
+            resetCompiled();
             return query;
 
         }
@@ -373,6 +514,13 @@ public class DefaultQueryHelper implements QueryHelper {
             );
         }
 
+        @Override
+        public CompiledQuery<R> compile() {
+            return new DefaultCompiledQuery<>(parent.database.sql().reactive(),
+                                              this,
+                                              createQuery().getSql());
+        }
+
         @Override
         public SortSpec<R> where(QueryParamEntity param) {
             query.setParam(this.param = refactorParam(param.clone()));
@@ -469,14 +617,43 @@ public class DefaultQueryHelper implements QueryHelper {
             if (context.getResult() == null) {
                 return;
             }
-            String[] column = context.getColumnLabel().split("[.]");
-            ColumnMapping<R> mapping = getMappingByColumn(column);
-            if (null == mapping) {
-                return;
-            }
+            getBinding(context.getColumnIndex(), context.getColumnLabel())
+                    .apply(context.getRowInstance(), context.getResult());
+        }
 
-            mapping.applyValue(context.getRowInstance(), column, context.getResult());
+        @SuppressWarnings("all")
+        private void resetCompiled() {
+            compiled = new CompiledColumn[0];
+        }
 
+        private ColumnBinding<R> getBinding(int index, String label) {
+            CompiledColumn<R>[] compiled = this.compiled;
+            if (index >= 0 && index < compiled.length) {
+                CompiledColumn<R> column = compiled[index];
+                if (column != null && label.equals(column.label)) {
+                    return column.binding;
+                }
+            }
+            return compile(index, label);
+        }
+
+        //首次读取到此列时解析,同一个结果集的后续行直接使用解析结果
+        @SuppressWarnings("all")
+        private synchronized ColumnBinding<R> compile(int index, String label) {
+            String[] column = label.split("[.]");
+            ColumnMapping<R> mapping = getMappingByColumn(column);
+            ColumnBinding<R> binding = mapping == null ? ColumnBinding.noop() : mapping.compile(column);
+            if (index >= 0) {
+                CompiledColumn<R>[] compiled = this.compiled;
+                if (index >= compiled.length) {
+                    compiled = Arrays.copyOf(compiled, index + 1);
+                } else {
+                    compiled = compiled.clone();
+                }
+                compiled[index] = new CompiledColumn<>(label, binding);
+                this.compiled = compiled;
+            }
+            return binding;
         }
 
         @Override
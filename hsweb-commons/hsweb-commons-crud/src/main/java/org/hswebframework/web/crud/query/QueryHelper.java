@@ -57,6 +57,31 @@ public interface QueryHelper {
     <R> SelectSpec<R> select(Class<R> resultType,
                              Consumer<ColumnMapperSpec<R, ?>> mapperSpec);
 
+    /**
+     * 获取预编译的查询,相同的key只构造和编译一次,用于频繁执行的固定查询.
+     * 默认实现最多缓存{@link DefaultQueryHelper#MAX_COMPILED_QUERIES}个查询,key不能包含动态的值.
+     * 查询条件中使用{@link CompiledQuery#param(String)}声明参数.
+     *
+     * <pre>{@code
+     *   helper
+     *      .compile("my-query", h -> h
+     *          .select(R.class)
+     *          .all(A.class)
+     *          .from(A.class)
+     *          .where(dsl -> dsl.is(A::getName, CompiledQuery.param("name"))))
+     *      .fetch(Collections.singletonMap("name", "test"));
+     * }</pre>
+     *
+     * @param key     查询的唯一标识
+     * @param builder 查询构造器
+     * @param <R>     类型
+     * @return 预编译的查询
+     */
+    default <R> CompiledQuery<R> compile(String key,
+                                         Function<QueryHelper, ExecuteSpec<R>> builder) {
+        return builder.apply(this).compile();
+    }
+
 
     interface SelectSpec<R> {
 
@@ -313,6 +338,17 @@ public interface QueryHelper {
          * @return 分页结果
          */
         Mono<PagerResult<R>> fetchPaged(int pageIndex, int pageSize);
+
+        /**
+         * 编译为可以重复执行的查询,编译后不能再修改查询条件.
+         *
+         * @return 预编译的查询
+         * @see CompiledQuery
+         * @since 4.0.16
+         */
+        default CompiledQuery<R> compile() {
+            throw new UnsupportedOperationException("compile is not supported by " + getClass().getName());
+        }
     }
 
     interface SelectColumnMapperSpec<R> extends ColumnMapperSpec<R, SelectColumnMapperSpec<R>>, SelectSpec<R> {
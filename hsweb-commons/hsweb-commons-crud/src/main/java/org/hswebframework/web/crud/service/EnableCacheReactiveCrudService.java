@@ -9,12 +9,38 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collection;
-import java.util.function.Function;
+import java.util.Collections;
+import java.util.stream.Collectors;
 
+/**
+ * 开启缓存的增删改查服务,根据ID查询时使用缓存,写操作完成后清除受影响数据的缓存.
+ * <p>
+ * 缓存在写操作完成后才在后台清除,清除完成以及其他节点收到通知前,仍然可能读取到修改前的数据.
+ * 使用redis缓存并清空全部缓存时,其他节点在收到通知或者定时检查版本号前,
+ * 仍然使用旧的缓存代数(generation)读取数据,最长时间为缓存配置的版本检查间隔.
+ *
+ * @param <E> 实体类型
+ * @param <K> 主键类型
+ * @see EntityCacheEvictor
+ */
 public interface EnableCacheReactiveCrudService<E, K> extends ReactiveCrudService<E, K> {
 
     ReactiveCache<E> getCache();
 
+    /**
+     * 数据变更后清除指定ID的缓存,可重写此方法来清除更多自定义的缓存.
+     *
+     * @param ids 发生变更的数据ID
+     * @return void
+     */
+    default Mono<Void> evictCache(Collection<?> ids) {
+        return getCache()
+                .evictAll(ids
+                                  .stream()
+                                  .map(id -> "id:" + id)
+                                  .collect(Collectors.toList()));
+    }
+
     default Mono<E> findById(K id) {
         return this.getCache()
                    .mono("id:" + id)
@@ -28,44 +54,76 @@ public interface EnableCacheReactiveCrudService<E, K> extends ReactiveCrudServic
 
     @Override
     default Mono<Integer> updateById(K id, Mono<E> entityPublisher) {
-        return ReactiveCrudService.super
-                .updateById(id, entityPublisher)
-                .doFinally(i -> getCache().evict("id:" + id).subscribe());
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            evictor.addIds(Collections.singletonList(id));
+            return ReactiveCrudService.super
+                    .updateById(id, entityPublisher)
+                    .doFinally(i -> evictor.evictLater());
+        });
     }
 
     @Override
     default Mono<SaveResult> save(E data) {
-        return ReactiveCrudService.super
-                .save(data)
-                .doFinally(i -> getCache().clear().subscribe());
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            evictor.addEntity(data);
+            return ReactiveCrudService.super
+                    .save(data)
+                    .doFinally(i -> evictor.evictLater());
+        });
+    }
+
+    @Override
+    default Mono<SaveResult> save(Collection<E> collection) {
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            evictor.addEntities(collection);
+            return ReactiveCrudService.super
+                    .save(collection)
+                    .doFinally(i -> evictor.evictLater());
+        });
     }
 
     @Override
     default Mono<SaveResult> save(Publisher<E> entityPublisher) {
-        return ReactiveCrudService.super
-                .save(entityPublisher)
-                .doFinally(i -> getCache().clear().subscribe());
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            return ReactiveCrudService.super
+                    .save(Flux.from(entityPublisher).doOnNext(evictor::addEntity))
+                    .doFinally(i -> evictor.evictLater());
+        });
     }
 
     @Override
     default Mono<Integer> insert(E data) {
-        return ReactiveCrudService.super
-                .insert(data)
-                .doFinally(i -> getCache().clear().subscribe());
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            evictor.addEntity(data);
+            return ReactiveCrudService.super
+                    .insert(data)
+                    .doFinally(i -> evictor.evictLater());
+        });
     }
 
     @Override
     default Mono<Integer> insert(Publisher<E> entityPublisher) {
-        return ReactiveCrudService.super
-                .insert(entityPublisher)
-                .doFinally(i -> getCache().clear().subscribe());
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            return ReactiveCrudService.super
+                    .insert(Flux.from(entityPublisher).doOnNext(evictor::addEntity))
+                    .doFinally(i -> evictor.evictLater());
+        });
     }
 
     @Override
     default Mono<Integer> insertBatch(Publisher<? extends Collection<E>> entityPublisher) {
-        return ReactiveCrudService.super
-                .insertBatch(entityPublisher)
-                .doFinally(i -> getCache().clear().subscribe());
+        return Mono.defer(() -> {
+            EntityCacheEvictor<E> evictor = new EntityCacheEvictor<>(this);
+            return ReactiveCrudService.super
+                    .insertBatch(Flux.<Collection<E>>from(entityPublisher).doOnNext(evictor::addEntities))
+                    .doFinally(i -> evictor.evictLater());
+        });
     }
 
     @Override
@@ -76,17 +134,27 @@ public interface EnableCacheReactiveCrudService<E, K> extends ReactiveCrudServic
                 .as(ReactiveCrudService.super::deleteById);
     }
 
+    /**
+     * 创建动态更新,只清除更新条件匹配到的数据的缓存,没有条件时清空全部缓存.
+     *
+     * @return 动态更新接口
+     */
     @Override
     default ReactiveUpdate<E> createUpdate() {
         return ReactiveCrudService.super
                 .createUpdate()
-                .onExecute((update, s) -> s.doFinally((__) -> getCache().clear().subscribe()));
+                .onExecute((update, s) -> new EntityCacheEvictor<>(this).evictAfter(update.toQueryParam(), s));
     }
 
+    /**
+     * 创建动态删除,只清除删除条件匹配到的数据的缓存,没有条件时清空全部缓存.
+     *
+     * @return 动态删除接口
+     */
     @Override
     default ReactiveDelete createDelete() {
         return ReactiveCrudService.super
                 .createDelete()
-                .onExecute((update, s) -> s.doFinally((__) -> getCache().clear().subscribe()));
+                .onExecute((delete, s) -> new EntityCacheEvictor<>(this).evictAfter(delete.toQueryParam(), s));
     }
 }
@@ -0,0 +1,237 @@
+package org.hswebframework.web.crud.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.ezorm.core.param.QueryParam;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.web.api.crud.entity.GenericEntity;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录写操作影响到的实体ID,在操作完成后只清除对应ID的缓存.
+ * 无法确定影响范围时,回退为清空全部缓存.
+ * <p>
+ * 主键属性通过实体类上的{@link Id}注解获取,未找到时使用{@code id}.
+ *
+ * @param <E> 实体类型
+ * @see EnableCacheReactiveCrudService
+ * @since 4.0.16
+ */
+@Slf4j
+class EntityCacheEvictor<E> {
+
+    static final String ID_PROPERTY = "id";
+
+    //根据条件清除缓存时,最多查询的受影响数据数量,超过时清空全部缓存
+    static final int MAX_SELECT_IDS = 1000;
+
+    //实体类型 -> [主键属性名,主键列名]
+    private static final Map<Class<?>, String[]> ID_COLUMNS = new ConcurrentHashMap<>();
+
+    private final EnableCacheReactiveCrudService<E, ?> service;
+
+    //主键属性名
+    private final String idProperty;
+
+    //主键列名
+    private final String idColumn;
+
+    private final Set<Object> ids = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean clearAll;
+
+    EntityCacheEvictor(EnableCacheReactiveCrudService<E, ?> service) {
+        this.service = service;
+        Class<?> entityType = ResolvableType
+                .forClass(ClassUtils.getUserClass(service.getClass()))
+                .as(EnableCacheReactiveCrudService.class)
+                .resolveGeneric(0);
+        String[] idColumn = entityType == null
+                ? new String[]{ID_PROPERTY, ID_PROPERTY}
+                : ID_COLUMNS.computeIfAbsent(entityType, EntityCacheEvictor::resolveIdColumn);
+        this.idProperty = idColumn[0];
+        this.idColumn = idColumn[1];
+    }
+
+    //获取注解了@Id的属性以及对应的列名
+    static String[] resolveIdColumn(Class<?> entityType) {
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(entityType)) {
+            Method getter = descriptor.getReadMethod();
+            Field field = ReflectionUtils.findField(entityType, descriptor.getName());
+            boolean isId = (getter != null && AnnotatedElementUtils.hasAnnotation(getter, Id.class))
+                    || (field != null && AnnotatedElementUtils.hasAnnotation(field, Id.class));
+            if (!isId) {
+                continue;
+            }
+            Column column = getter == null ? null : AnnotatedElementUtils.findMergedAnnotation(getter, Column.class);
+            if (column == null && field != null) {
+                column = AnnotatedElementUtils.findMergedAnnotation(field, Column.class);
+            }
+            String columnName = column != null && StringUtils.hasText(column.name()) ? column.name() : descriptor.getName();
+            return new String[]{descriptor.getName(), columnName};
+        }
+        return new String[]{ID_PROPERTY, ID_PROPERTY};
+    }
+
+    void addEntity(Object entity) {
+        if (clearAll || entity == null) {
+            return;
+        }
+        Object id;
+        if (entity instanceof GenericEntity && ID_PROPERTY.equals(idProperty)) {
+            id = ((GenericEntity<?>) entity).getId();
+        } else {
+            try {
+                id = FastBeanCopier.getProperty(entity, idProperty);
+            } catch (Throwable e) {
+                //无法获取ID,清空全部缓存
+                clearAll = true;
+                return;
+            }
+        }
+        //没有ID的实体为新增数据,不存在对应的缓存
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    void addEntities(Collection<?> entities) {
+        for (Object entity : entities) {
+            addEntity(entity);
+        }
+    }
+
+    void addIds(Collection<?> ids) {
+        this.ids.addAll(ids);
+    }
+
+    void clearAll() {
+        clearAll = true;
+    }
+
+    Mono<Void> evict() {
+        if (clearAll) {
+            return service.getCache().clear();
+        }
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return service.evictCache(new ArrayList<>(ids));
+    }
+
+    /**
+     * 在后台清除缓存,在操作完成后调用.清除失败时只记录日志,不影响操作的结果,
+     * 对应的缓存将在过期后或者下一次变更时被清除.
+     */
+    void evictLater() {
+        evict().subscribe(null, error -> log.warn("evict entity cache error", error));
+    }
+
+    /**
+     * 在执行更新或者删除操作后,清除受影响数据的缓存.
+     * <ul>
+     *     <li>条件中包含根据ID的等于或者in条件时,直接清除对应ID的缓存</li>
+     *     <li>没有任何条件时,清空全部缓存</li>
+     *     <li>其他条件,执行前先查询出受影响数据的ID,最多查询{@link #MAX_SELECT_IDS}条,超过时清空全部缓存</li>
+     *     <li>查询后到执行前其他操作使更多数据满足条件时,执行结果中的数量会大于查询到的ID数量,此时清空全部缓存</li>
+     * </ul>
+     *
+     * @param param   更新或者删除的条件
+     * @param execute 执行操作
+     * @return 执行结果
+     */
+    <T> Mono<T> evictAfter(QueryParam param, Mono<T> execute) {
+        List<Term> terms = param.getTerms();
+        if (CollectionUtils.isEmpty(terms)) {
+            clearAll();
+            return execute.doFinally(s -> evictLater());
+        }
+        Collection<Object> idTerms = resolveIdTerms(terms, idProperty, idColumn);
+        if (idTerms != null) {
+            addIds(idTerms);
+            return execute.doFinally(s -> evictLater());
+        }
+        //多查询一条,用于判断是否超过限制
+        param.setPaging(true);
+        param.setPageIndex(0);
+        param.setPageSize(MAX_SELECT_IDS + 1);
+        return service
+                .createQuery()
+                .setParam(param)
+                .select(idProperty)
+                .fetch()
+                .collectList()
+                .flatMap(list -> {
+                    if (list.size() > MAX_SELECT_IDS) {
+                        clearAll();
+                    } else {
+                        addEntities(list);
+                    }
+                    int selected = list.size();
+                    return execute
+                            .doOnNext(result -> {
+                                //执行前有新的数据满足了条件
+                                if (result instanceof Number && ((Number) result).longValue() > selected) {
+                                    clearAll();
+                                }
+                            })
+                            .doFinally(s -> evictLater());
+                });
+    }
+
+    /**
+     * 从顶层的and条件中获取ID条件,如果没有ID条件或者存在or条件则返回<code>null</code>
+     */
+    static Collection<Object> resolveIdTerms(List<Term> terms, String idProperty, String idColumn) {
+        //第一个条件的类型不影响条件的组合
+        for (int i = 1; i < terms.size(); i++) {
+            if (terms.get(i).getType() == Term.Type.or) {
+                return null;
+            }
+        }
+        for (Term term : terms) {
+            if (!(idProperty.equals(term.getColumn()) || idColumn.equals(term.getColumn()))
+                    || !CollectionUtils.isEmpty(term.getOptions())
+                    || !CollectionUtils.isEmpty(term.getTerms())) {
+                continue;
+            }
+            String termType = term.getTermType();
+            if (TermType.eq.equals(termType) || TermType.in.equals(termType)) {
+                return convertValue(term.getValue(), TermType.in.equals(termType));
+            }
+        }
+        return null;
+    }
+
+    private static Collection<Object> convertValue(Object value, boolean multiple) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>(((Collection<?>) value));
+        }
+        if (value instanceof Object[]) {
+            return Arrays.asList(((Object[]) value));
+        }
+        if (multiple && value instanceof String) {
+            return Arrays.asList((Object[]) StringUtils.commaDelimitedListToStringArray((String) value));
+        }
+        return Collections.singletonList(value);
+    }
+}
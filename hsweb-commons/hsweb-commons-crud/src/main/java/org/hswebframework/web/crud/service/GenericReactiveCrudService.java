@@ -1,6 +1,7 @@
 package org.hswebframework.web.crud.service;
 
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.web.crud.count.PagerCountStrategies;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public abstract class GenericReactiveCrudService<E, K> implements ReactiveCrudService<E, K> {
@@ -8,9 +9,17 @@ public abstract class GenericReactiveCrudService<E, K> implements ReactiveCrudSe
     @Autowired
     private ReactiveRepository<E, K> repository;
 
+    @Autowired(required = false)
+    private PagerCountStrategies pagerCountStrategies;
+
     @Override
     public ReactiveRepository<E, K> getRepository() {
         return repository;
     }
 
+    @Override
+    public PagerCountStrategies getPagerCountStrategies() {
+        return pagerCountStrategies;
+    }
+
 }
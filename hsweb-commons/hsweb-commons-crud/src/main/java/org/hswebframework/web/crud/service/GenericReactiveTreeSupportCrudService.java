@@ -1,6 +1,8 @@
 package org.hswebframework.web.crud.service;
 
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.ezorm.rdb.operator.DatabaseOperator;
+import org.hswebframework.ezorm.rdb.operator.builder.fragments.NativeSql;
 import org.hswebframework.web.api.crud.entity.TreeSortSupportEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -9,9 +11,23 @@ public abstract class GenericReactiveTreeSupportCrudService<E extends TreeSortSu
     @Autowired
     private ReactiveRepository<E, K> repository;
 
+    @Autowired(required = false)
+    private DatabaseOperator databaseOperator;
+
     @Override
     public ReactiveRepository<E, K> getRepository() {
         return repository;
     }
 
+    /**
+     * 根据当前数据库方言创建替换子节点path前缀的SQL表达式,不支持的数据库使用逐条更新
+     */
+    @Override
+    public NativeSql createChildPathExpression(String newPath, int oldPathLength) {
+        if (databaseOperator == null) {
+            return null;
+        }
+        return TreePaths.childPathExpression(databaseOperator.getMetadata().getCurrentSchema(), newPath, oldPathLength);
+    }
+
 }
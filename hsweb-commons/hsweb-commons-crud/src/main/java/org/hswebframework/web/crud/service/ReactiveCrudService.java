@@ -5,9 +5,12 @@ import org.hswebframework.ezorm.rdb.mapping.ReactiveQuery;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveUpdate;
 import org.hswebframework.ezorm.rdb.mapping.defaults.SaveResult;
+import org.hswebframework.web.api.crud.entity.CursorPagerResult;
+import org.hswebframework.web.api.crud.entity.CursorPaging;
 import org.hswebframework.web.api.crud.entity.PagerResult;
 import org.hswebframework.web.api.crud.entity.QueryParamEntity;
 import org.hswebframework.web.api.crud.entity.TransactionManagers;
+import org.hswebframework.web.crud.count.PagerCountStrategies;
 import org.reactivestreams.Publisher;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
@@ -35,6 +38,16 @@ public interface ReactiveCrudService<E, K> {
      */
     ReactiveRepository<E, K> getRepository();
 
+    /**
+     * 分页查询时获取总数的策略,为null时执行精确的count
+     *
+     * @return 分页总数策略
+     * @since 4.0.16
+     */
+    default PagerCountStrategies getPagerCountStrategies() {
+        return null;
+    }
+
     /**
      * 创建一个DSL的动态查询接口,可使用DSL方式进行链式调用来构造动态查询条件.例如:
      * <pre>{@code
@@ -205,6 +218,29 @@ public interface ReactiveCrudService<E, K> {
                     .collectList()
                     .map(list -> PagerResult.of(query.getTotal(), list, query));
         }
+        //使用缓存或者估算的总数
+        PagerCountStrategies countStrategies = getPagerCountStrategies();
+        if (countStrategies != null && !countStrategies.isExact(getClass())) {
+            return countStrategies
+                    .count(getClass(),
+                           query.clone(),
+                           createQuery().setParam(query.clone()).count())
+                    .flatMap(count -> {
+                        if (count.getTotal() == 0 && count.isExact()) {
+                            return Mono.just(PagerResult.<T>of(0, new ArrayList<>(), query));
+                        }
+                        //总数不精确时不进行重新分页,防止跳转到错误的页码
+                        QueryParamEntity pagingQuery = count.isExact() ? query.clone().rePaging(count.getTotal()) : query.clone();
+                        return query(pagingQuery)
+                                .map(mapper)
+                                .collectList()
+                                .map(list -> {
+                                    PagerResult<T> result = PagerResult.of(count.getTotal(), list, pagingQuery);
+                                    result.setExactTotal(count.isExact());
+                                    return result;
+                                });
+                    });
+        }
         //并行分页,更快,所在页码无数据时,会返回空list.
         if (query.isParallelPager()) {
             return Mono
@@ -243,6 +279,33 @@ public interface ReactiveCrudService<E, K> {
         return queryPager(queryParamMono, Function.identity());
     }
 
+    /**
+     * 游标分页查询,不执行count,也不使用offset,适用于深度分页.
+     * 查询下一页时,将上一页结果中的{@link CursorPagerResult#getCursor()}设置到{@link QueryParamEntity#setCursor(String)}.
+     * 使用实体类的主键作为唯一排序字段.
+     *
+     * @param query  查询参数
+     * @param mapper 结果转换器
+     * @return 分页结果
+     * @see CursorPaging
+     * @since 4.0.16
+     */
+    @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
+    default <T> Mono<CursorPagerResult<T>> queryCursorPager(QueryParamEntity query, Function<E, T> mapper) {
+        return Mono.defer(() -> {
+            String key = CursorPaging.resolveKey(getRepository().newInstance().getClass());
+            QueryParamEntity prepared = CursorPaging.prepare(query, key);
+            return query(prepared)
+                    .collectList()
+                    .map(list -> CursorPaging.toResult(prepared, list, mapper));
+        });
+    }
+
+    @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
+    default Mono<CursorPagerResult<E>> queryCursorPager(QueryParamEntity query) {
+        return queryCursorPager(query, Function.identity());
+    }
+
     @Transactional(readOnly = true, transactionManager = TransactionManagers.reactiveTransactionManager)
     default Mono<Integer> count(QueryParamEntity queryParam) {
         return getRepository()
@@ -1,7 +1,7 @@
 package org.hswebframework.web.crud.service;
 
 import org.hswebframework.ezorm.rdb.mapping.defaults.SaveResult;
-import org.hswebframework.ezorm.rdb.operator.dml.Terms;
+import org.hswebframework.ezorm.rdb.operator.builder.fragments.NativeSql;
 import org.hswebframework.utils.RandomUtil;
 import org.hswebframework.web.api.crud.entity.QueryParamEntity;
 import org.hswebframework.web.api.crud.entity.TreeSortSupportEntity;
@@ -15,6 +15,7 @@ import reactor.core.publisher.Mono;
 import reactor.math.MathFlux;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -75,18 +76,9 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
      * @return 树形结构
      */
     default Flux<E> queryIncludeChildren(Collection<K> idList) {
-        Set<String> duplicateCheck = new HashSet<>();
-
         return findById(idList)
-                .concatMap(e -> StringUtils
-                        .isEmpty(e.getPath()) || !duplicateCheck.add(e.getPath())
-                        ? Mono.just(e)
-                        : createQuery()
-                        .where()
-                        //使用path快速查询
-                        .like$("path", e.getPath())
-                        .fetch())
-                .distinct(TreeSupportEntity::getId);
+                .collectList()
+                .flatMapMany(this::includeChildren);
     }
 
     /**
@@ -96,20 +88,9 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
      * @return 树形结构
      */
     default Flux<E> queryIncludeParent(Collection<K> idList) {
-        Set<String> duplicateCheck = new HashSet<>();
-
         return findById(idList)
-                .concatMap(e -> StringUtils
-                        .isEmpty(e.getPath()) || !duplicateCheck.add(e.getPath())
-                        ? Mono.just(e)
-                        : createQuery()
-                        .where()
-                        //where ? like path and path !='' and path not null
-                        .accept(Terms.Like.reversal("path", e.getPath(), false, true))
-                        .notEmpty("path")
-                        .notNull("path")
-                        .fetch())
-                .distinct(TreeSupportEntity::getId);
+                .collectList()
+                .flatMapMany(this::includeParent);
     }
 
     /**
@@ -119,20 +100,72 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
      * @return 树形结构
      */
     default Flux<E> queryIncludeChildren(QueryParamEntity queryParam) {
-        Set<String> duplicateCheck = new HashSet<>();
-
         return query(queryParam)
-                .concatMap(e -> StringUtils
-                        .isEmpty(e.getPath()) || !duplicateCheck.add(e.getPath())
-                        ? Mono.just(e)
-                        : createQuery()
-                        .where()
-                        .like$("path", e.getPath())
-                        .fetch()
+                .collectList()
+                .flatMapMany(this::includeChildren);
+    }
+
+    /**
+     * 查询节点以及对应的全部子节点,多个节点的path将合并为一次查询:
+     * <pre>
+     *     where path like 'a%' or path like 'b%' ...
+     * </pre>
+     * 每次查询的path数量由{@link #getPathBatchSize()}控制.
+     *
+     * @param nodes 节点
+     * @return 节点以及子节点
+     */
+    default Flux<E> includeChildren(List<E> nodes) {
+        return Flux
+                .concat(
+                        //没有path的节点直接返回
+                        Flux.fromIterable(nodes)
+                            .filter(e -> StringUtils.isEmpty(e.getPath())),
+                        Flux.fromIterable(TreePaths.topmost(TreePaths.paths(nodes)))
+                            .buffer(getPathBatchSize())
+                            .concatMap(paths -> createQuery()
+                                    .where()
+                                    .accept(TreePaths.childrenTerm(paths))
+                                    .fetch())
                 )
                 .distinct(TreeSupportEntity::getId);
     }
 
+    /**
+     * 查询节点以及对应的全部父节点,多个节点的path将合并为一次查询:
+     * <pre>
+     *     where ('a-b' like concat(path,'%') or 'c-d' like concat(path,'%') ...) and path !='' and path not null
+     * </pre>
+     *
+     * @param nodes 节点
+     * @return 节点以及父节点
+     */
+    default Flux<E> includeParent(List<E> nodes) {
+        return Flux
+                .concat(
+                        Flux.fromIterable(nodes)
+                            .filter(e -> StringUtils.isEmpty(e.getPath())),
+                        Flux.fromIterable(TreePaths.deepest(TreePaths.paths(nodes)))
+                            .buffer(getPathBatchSize())
+                            .concatMap(paths -> createQuery()
+                                    .where()
+                                    .accept(TreePaths.parentTerm(paths))
+                                    .notEmpty("path")
+                                    .notNull("path")
+                                    .fetch())
+                )
+                .distinct(TreeSupportEntity::getId);
+    }
+
+    /**
+     * 根据path批量查询时,每次查询的最大path数量,防止SQL过长.
+     *
+     * @return 最大path数量
+     */
+    default int getPathBatchSize() {
+        return 200;
+    }
+
     @Override
     default Mono<Integer> insert(Publisher<E> entityPublisher) {
         return insertBatch(Flux.from(entityPublisher).collectList());
@@ -143,21 +176,54 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
         return this.getRepository()
                    .insertBatch(Flux.from(entityPublisher)
                                     .flatMap(Flux::fromIterable)
-                                    .flatMap(this::applyTreeProperty)
+                                    .collectList()
+                                    .flatMapMany(this::applyTreeProperties)
                                     .flatMap(e -> Flux.fromIterable(TreeSupportEntity.expandTree2List(e, getIDGenerator())))
                                     .collectList());
     }
 
     default Mono<E> applyTreeProperty(E ele) {
-        if (StringUtils.hasText(ele.getPath()) ||
-                StringUtils.isEmpty(ele.getParentId())) {
-            return Mono.just(ele);
-        }
+        return this
+                .applyTreeProperties(Collections.singletonList(ele))
+                .then(Mono.just(ele));
+    }
 
-        return this.checkCyclicDependency(ele.getId(), ele)
-                   .then(this.findById(ele.getParentId())
-                             .doOnNext(parent -> ele.setPath(parent.getPath() + "-" + RandomUtil.randomChar(4))))
-                   .thenReturn(ele);
+    /**
+     * 批量设置节点的path,一次性查询出全部父节点以及节点的旧数据,并校验是否存在循环依赖.
+     *
+     * @param elements 节点
+     * @return 节点
+     */
+    default Flux<E> applyTreeProperties(List<E> elements) {
+        Set<K> idList = new HashSet<>();
+        for (E ele : elements) {
+            if (StringUtils.hasText(ele.getPath()) || StringUtils.isEmpty(ele.getParentId())) {
+                continue;
+            }
+            idList.add(ele.getParentId());
+            if (!StringUtils.isEmpty(ele.getId())) {
+                idList.add(ele.getId());
+            }
+        }
+        if (idList.isEmpty()) {
+            return Flux.fromIterable(elements);
+        }
+        return this
+                .findById(idList)
+                .collectMap(TreeSupportEntity::getId, Function.identity())
+                .flatMapIterable(mapping -> {
+                    for (E ele : elements) {
+                        if (StringUtils.hasText(ele.getPath()) || StringUtils.isEmpty(ele.getParentId())) {
+                            continue;
+                        }
+                        E parent = mapping.get(ele.getParentId());
+                        checkCyclicDependency(ele.getId() == null ? null : mapping.get(ele.getId()), ele, parent);
+                        if (parent != null) {
+                            ele.setPath(parent.getPath() + "-" + RandomUtil.randomChar(4));
+                        }
+                    }
+                    return elements;
+                });
     }
 
     //校验是否有循环依赖,修改父节点为自己的子节点?
@@ -175,7 +241,34 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                 .then(Mono.just(ele));
     }
 
-    //重构子节点的path
+    /**
+     * 使用已经查询出的数据校验是否有循环依赖,父节点的path以节点的path开头时,说明父节点为自己的子节点.
+     *
+     * @param old    节点的旧数据,为null时表示新增
+     * @param ele    节点
+     * @param parent 父节点,为null时表示父节点不存在
+     */
+    default void checkCyclicDependency(E old, E ele, E parent) {
+        if (ele.getId() != null && Objects.equals(ele.getId(), ele.getParentId())) {
+            throw new IllegalArgumentException("不能修改父节点为自己或者自己的子节点");
+        }
+        if (old == null || parent == null
+                || StringUtils.isEmpty(old.getPath())
+                || StringUtils.isEmpty(parent.getPath())) {
+            return;
+        }
+        if (parent.getPath().startsWith(old.getPath())) {
+            throw new IllegalArgumentException("不能修改父节点为自己或者自己的子节点");
+        }
+    }
+
+    /**
+     * 逐级查询子节点并重构path,子节点没有path时使用.
+     *
+     * @see #refactorChildPath(String, TreeSortSupportEntity)
+     * @deprecated 每个节点都会执行一次查询, 请使用{@link #refactorChildPath(String, TreeSortSupportEntity)}
+     */
+    @Deprecated
     default Mono<Void> refactorChildPath(K id, String path, Consumer<E> pathAccepter) {
         return this
                 .createQuery()
@@ -199,6 +292,60 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                 .then();
     }
 
+    /**
+     * 将全部子节点path的前缀替换为节点新的path,子节点原有的path后缀保持不变.
+     * <p>
+     * {@link #createChildPathExpression(String, int)}返回了SQL表达式时,使用一条update语句更新:
+     * <pre>
+     *     update table set path = concat(?,substr(path,?)) where path like 'oldPath-%'
+     * </pre>
+     * 否则查询出全部子节点后逐条更新.
+     *
+     * @param oldPath 节点旧的path
+     * @param node    节点,path为新的path
+     * @return 更新的子节点数量
+     */
+    default Mono<Integer> refactorChildPath(String oldPath, E node) {
+        String newPath = node.getPath();
+        if (StringUtils.isEmpty(oldPath) || StringUtils.isEmpty(newPath) || Objects.equals(oldPath, newPath)) {
+            return Mono.just(0);
+        }
+        NativeSql expression = createChildPathExpression(newPath, oldPath.length());
+        if (expression != null) {
+            return this
+                    .createUpdate()
+                    .set("path", expression)
+                    .where()
+                    .like$("path", oldPath + "-")
+                    .execute();
+        }
+        return this
+                .createQuery()
+                .select("id", "path")
+                .where()
+                .like$("path", oldPath + "-")
+                .fetch()
+                .concatMap(child -> this
+                        .createUpdate()
+                        .set("path", TreePaths.replacePrefix(child.getPath(), oldPath, newPath))
+                        .where("id", child.getId())
+                        .execute())
+                .as(MathFlux::sumInt);
+    }
+
+    /**
+     * 创建替换子节点path前缀的SQL表达式,字符串函数在不同的数据库中不同,
+     * 默认返回null,使用逐条更新的方式.
+     *
+     * @param newPath       新的path前缀
+     * @param oldPathLength 旧的path前缀长度
+     * @return SQL表达式
+     * @see GenericReactiveTreeSupportCrudService#createChildPathExpression(String, int)
+     */
+    default NativeSql createChildPathExpression(String newPath, int oldPathLength) {
+        return null;
+    }
+
     @Override
     default Mono<SaveResult> save(Publisher<E> entityPublisher) {
         return Flux
@@ -234,10 +381,11 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                 .collectMap(TreeSupportEntity::getId, Function.identity())
                 .defaultIfEmpty(Collections.emptyMap());
 
-        //查询出旧数据
+        //查询出旧数据以及父节点,避免逐个查询
         Mono<Map<K, E>> olds = cache
-                .filter(e -> null != e.getId())
-                .map(TreeSupportEntity::getId)
+                .flatMapIterable(e -> Arrays.asList(e.getId(), e.getParentId()))
+                .filter(id -> !StringUtils.isEmpty(id))
+                .distinct()
                 .as(this::findById)
                 .collectMap(TreeSupportEntity::getId, Function.identity())
                 .defaultIfEmpty(Collections.emptyMap());
@@ -248,6 +396,8 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                 .flatMapMany(tp2 -> {
                     Map<K, E> map = tp2.getT1();
                     Map<K, E> oldMap = tp2.getT2();
+                    //父节点发生变化的节点,key为旧的path
+                    Map<String, E> moved = new ConcurrentHashMap<>();
 
                     return cache
                             .flatMap(data -> {
@@ -258,7 +408,22 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                                     K newParentId = data.getParentId();
                                     //父节点发生变化，更新所有子节点path
                                     if (!Objects.equals(parentId, newParentId)) {
-                                        List<Mono<Void>> jobs = new ArrayList<>();
+                                        //变更到了顶级节点
+                                        if (isRootNode(data)) {
+                                            data.setPath(RandomUtil.randomChar(4));
+                                        } else {
+                                            E newParent = oldMap.get(newParentId);
+                                            if (newParent == null) {
+                                                return Mono.just(data);
+                                            }
+                                            checkCyclicDependency(old, data, newParent);
+                                            data.setPath(newParent.getPath() + "-" + RandomUtil.randomChar(4));
+                                        }
+                                        if (StringUtils.hasText(old.getPath())) {
+                                            moved.put(old.getPath(), data);
+                                            return Mono.just(data);
+                                        }
+                                        //旧数据没有path,只能逐级更新
                                         Consumer<E> childConsumer = child -> {
                                             //更新了父节点,但是同时也传入的对应的子节点
                                             E readyToUpdate = map.get(child.getId());
@@ -266,57 +431,63 @@ public interface ReactiveTreeSortEntityService<E extends TreeSortSupportEntity<K
                                                 readyToUpdate.setPath(child.getPath());
                                             }
                                         };
-
-                                        //变更到了顶级节点
-                                        if (isRootNode(data)) {
-                                            data.setPath(RandomUtil.randomChar(4));
-                                            jobs.add(this.refactorChildPath(old.getId(), data.getPath(), childConsumer));
-                                        } else {
-                                            if (null != oldParent) {
-                                                data.setPath(oldParent.getPath() + "-" + RandomUtil.randomChar(4));
-                                                jobs.add(this.refactorChildPath(old.getId(), data.getPath(), childConsumer));
-                                            } else {
-                                                jobs.add(this.findById(newParentId)
-                                                             .flatMap(parent -> {
-                                                                 data.setPath(parent.getPath() + "-" + RandomUtil.randomChar(4));
-                                                                 return this.refactorChildPath(data.getId(), data.getPath(), childConsumer);
-                                                             })
-                                                );
-                                            }
-                                        }
-                                        return Flux.merge(jobs)
-                                                   .then(Mono.just(data));
+                                        return this
+                                                .refactorChildPath(old.getId(), data.getPath(), childConsumer)
+                                                .thenReturn(data);
                                     } else {
                                         //父节点未变化则使用原始的path
-                                        Consumer<E> pathRefactor = (parent) -> {
-                                            if (old.getPath().startsWith(parent.getPath())) {
+                                        if (oldParent != null) {
+                                            if (old.getPath().startsWith(oldParent.getPath())) {
                                                 data.setPath(old.getPath());
                                             } else {
-                                                data.setPath(parent.getPath() + "-" + RandomUtil.randomChar(4));
+                                                data.setPath(oldParent.getPath() + "-" + RandomUtil.randomChar(4));
                                             }
-                                        };
-                                        if (oldParent != null) {
-                                            pathRefactor.accept(oldParent);
                                         } else if (parentId != null) {
-                                            return findById(parentId)
-                                                    .switchIfEmpty(Mono.fromRunnable(() -> {
-                                                        data.setParentId(null);
-                                                        data.setLevel(1);
-                                                        data.setPath(old.getPath());
-                                                    }))
-                                                    .doOnNext(pathRefactor)
-                                                    .thenReturn(data);
+                                            //父节点已经不存在
+                                            data.setParentId(null);
+                                            data.setLevel(1);
+                                            data.setPath(old.getPath());
                                         } else {
                                             data.setPath(old.getPath());
                                         }
-
                                     }
                                 }
                                 return Mono.just(data);
-                            });
+                            })
+                            .collectList()
+                            .flatMapMany(list -> refactorMovedPath(moved, list));
                 });
     }
 
+    /**
+     * 重构父节点发生变化的节点的子节点path,按层级从深到浅依次执行,
+     * 保证嵌套移动的节点(父节点和子节点同时移动)能得到正确的path.
+     * <p>
+     * 同时传入的子节点在内存中替换path,数据库中的子节点通过{@link #refactorChildPath(String, TreeSortSupportEntity)}替换.
+     *
+     * @param moved    父节点发生变化的节点,key为旧的path
+     * @param elements 本次保存的全部节点
+     * @return 本次保存的全部节点
+     */
+    default Flux<E> refactorMovedPath(Map<String, E> moved, List<E> elements) {
+        if (moved.isEmpty()) {
+            return Flux.fromIterable(elements);
+        }
+        List<String> oldPaths = new ArrayList<>(moved.keySet());
+        oldPaths.sort(Comparator.comparingInt(String::length).reversed());
+
+        return Flux
+                .fromIterable(oldPaths)
+                .concatMap(oldPath -> {
+                    E node = moved.get(oldPath);
+                    for (E element : elements) {
+                        element.setPath(TreePaths.replacePrefix(element.getPath(), oldPath, node.getPath()));
+                    }
+                    return this.refactorChildPath(oldPath, node);
+                })
+                .thenMany(Flux.fromIterable(elements));
+    }
+
     @Override
     default Mono<SaveResult> save(Collection<E> collection) {
         return save(Flux.fromIterable(collection));
@@ -0,0 +1,156 @@
+package org.hswebframework.web.crud.service;
+
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.ezorm.rdb.metadata.RDBSchemaMetadata;
+import org.hswebframework.ezorm.rdb.operator.builder.fragments.NativeSql;
+import org.hswebframework.ezorm.rdb.operator.dml.Terms;
+import org.hswebframework.ezorm.rdb.supports.h2.H2SchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.mssql.SqlServerSchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.mysql.MysqlSchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.oracle.OracleSchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.postgres.PostgresqlSchemaMetadata;
+import org.hswebframework.web.api.crud.entity.TreeSupportEntity;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+
+/**
+ * 树形结构path相关的工具类,用于将多个path合并为一次查询.
+ *
+ * @author zhouhao
+ * @see ReactiveTreeSortEntityService
+ * @since 4.0.16
+ */
+final class TreePaths {
+
+    private TreePaths() {
+    }
+
+    static List<String> paths(Collection<? extends TreeSupportEntity<?>> nodes) {
+        List<String> paths = new ArrayList<>(nodes.size());
+        for (TreeSupportEntity<?> node : nodes) {
+            paths.add(node.getPath());
+        }
+        return paths;
+    }
+
+    /**
+     * 获取最上层的path,子节点的path已经包含在父节点的前缀中,无需重复查询.
+     * <p>
+     * 排序后前缀相同的path是连续的,只需要和上一个保留的path比较.
+     *
+     * @param paths path集合
+     * @return 去重后的path
+     */
+    static List<String> topmost(Collection<String> paths) {
+        List<String> sorted = sort(paths);
+        List<String> result = new ArrayList<>(sorted.size());
+        String last = null;
+        for (String path : sorted) {
+            if (last != null && path.startsWith(last)) {
+                continue;
+            }
+            result.add(last = path);
+        }
+        return result;
+    }
+
+    /**
+     * 获取最下层的path,父节点的全部上级节点已经包含在子节点的上级节点中,无需重复查询.
+     *
+     * @param paths path集合
+     * @return 去重后的path
+     */
+    static List<String> deepest(Collection<String> paths) {
+        List<String> sorted = sort(paths);
+        List<String> result = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            String path = sorted.get(i);
+            if (i + 1 < sorted.size() && sorted.get(i + 1).startsWith(path)) {
+                continue;
+            }
+            result.add(path);
+        }
+        return result;
+    }
+
+    // path like ? or path like ? ...
+    static Term childrenTerm(Collection<String> paths) {
+        List<Term> terms = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            Term term = new Term();
+            term.setType(Term.Type.or);
+            term.setColumn("path");
+            term.setTermType(TermType.like);
+            term.setValue(path + "%");
+            terms.add(term);
+        }
+        return nest(terms);
+    }
+
+    // ? like concat(path,'%') or ? like concat(path,'%') ...
+    static Term parentTerm(Collection<String> paths) {
+        List<Term> terms = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            Term term = Terms.Like.reversal("path", path, false, true);
+            term.setType(Term.Type.or);
+            terms.add(term);
+        }
+        return nest(terms);
+    }
+
+    /**
+     * 替换path的前缀
+     *
+     * @param path      path
+     * @param oldPrefix 旧的前缀
+     * @param newPrefix 新的前缀
+     * @return 替换后的path, 前缀不匹配时返回原始path
+     */
+    static String replacePrefix(String path, String oldPrefix, String newPrefix) {
+        if (path == null || !path.startsWith(oldPrefix + "-")) {
+            return path;
+        }
+        return newPrefix + path.substring(oldPrefix.length());
+    }
+
+    /**
+     * 根据数据库方言创建替换path前缀的SQL表达式
+     *
+     * @param schema        数据库schema
+     * @param newPath       新的path前缀
+     * @param oldPathLength 旧的path前缀长度
+     * @return SQL表达式, 不支持的数据库返回null
+     */
+    static NativeSql childPathExpression(RDBSchemaMetadata schema, String newPath, int oldPathLength) {
+        if (schema instanceof SqlServerSchemaMetadata) {
+            //SQL Server的substring必须指定长度
+            return NativeSql.of("concat(?,substring(path,?,len(path)))", newPath, oldPathLength + 1);
+        }
+        if (schema instanceof MysqlSchemaMetadata
+                || schema instanceof PostgresqlSchemaMetadata
+                || schema instanceof H2SchemaMetadata
+                || schema instanceof OracleSchemaMetadata) {
+            return NativeSql.of("concat(?,substr(path,?))", newPath, oldPathLength + 1);
+        }
+        return null;
+    }
+
+    private static Term nest(List<Term> terms) {
+        Term nest = new Term();
+        nest.setType(Term.Type.and);
+        nest.setTerms(terms);
+        return nest;
+    }
+
+    private static List<String> sort(Collection<String> paths) {
+        Set<String> set = new TreeSet<>();
+        for (String path : paths) {
+            if (StringUtils.hasText(path)) {
+                set.add(path);
+            }
+        }
+        return new ArrayList<>(set);
+    }
+}
@@ -2,6 +2,7 @@ package org.hswebframework.web.crud.web.reactive;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import org.hswebframework.web.api.crud.entity.CursorPagerResult;
 import org.hswebframework.web.api.crud.entity.PagerResult;
 import org.hswebframework.web.api.crud.entity.QueryNoPagingOperation;
 import org.hswebframework.web.api.crud.entity.QueryOperation;
@@ -138,6 +139,49 @@ public interface ReactiveServiceQueryController<E, K> {
         return query.flatMap(q -> queryPager(q));
     }
 
+    /**
+     * GET方式游标分页查询,不返回总数.查询下一页时传入上一页结果中的cursor.
+     *
+     * <pre>
+     *    GET /_query/cursor?pageSize=20&where=name is 张三&orderBy=createTime desc&cursor=xxx
+     * </pre>
+     *
+     * @param query 查询条件
+     * @return 分页查询结果
+     * @see CursorPagerResult
+     */
+    @GetMapping("/_query/cursor")
+    @QueryAction
+    @QueryOperation(summary = "使用GET方式游标分页动态查询(不返回总数)")
+    default Mono<CursorPagerResult<E>> queryCursorPager(@Parameter(hidden = true) QueryParamEntity query) {
+        return getService().queryCursorPager(query);
+    }
+
+    /**
+     * POST方式游标分页查询,不返回总数.
+     *
+     * <pre>
+     *     POST /_query/cursor
+     *
+     *     {
+     *         "pageSize":20,
+     *         "cursor":"上一页返回的cursor",
+     *         "where":"name like 张%",
+     *         "orderBy":"createTime desc"
+     *     }
+     * </pre>
+     *
+     * @param query 查询条件
+     * @return 分页查询结果
+     * @see CursorPagerResult
+     */
+    @PostMapping("/_query/cursor")
+    @QueryAction
+    @Operation(summary = "使用POST方式游标分页动态查询(不返回总数)")
+    default Mono<CursorPagerResult<E>> queryCursorPager(@RequestBody Mono<QueryParamEntity> query) {
+        return query.flatMap(q -> queryCursorPager(q));
+    }
+
     /**
      * POST方式动态查询数量.
      *
@@ -0,0 +1,92 @@
+package org.hswebframework.web.crud.count;
+
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachedPagerCountStrategyTest {
+
+    @Test
+    public void testCache() {
+        CachedPagerCountStrategy strategy = new CachedPagerCountStrategy(Duration.ofMinutes(1), 100);
+
+        AtomicInteger counter = new AtomicInteger();
+        Mono<Integer> exact = Mono.fromSupplier(() -> {
+            counter.incrementAndGet();
+            return 10;
+        });
+
+        QueryParamEntity param = QueryParamEntity.of("name", "test");
+
+        strategy.count(TestEntity.class, param, exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(count -> count.getTotal() == 10 && count.isExact())
+                .verifyComplete();
+
+        //相同的条件使用缓存
+        strategy.count(TestEntity.class, QueryParamEntity.of("name", "test"), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(count -> count.getTotal() == 10 && !count.isExact())
+                .verifyComplete();
+        assertEquals(1, counter.get());
+
+        //不同的条件
+        strategy.count(TestEntity.class, QueryParamEntity.of("name", "test2"), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(PagerCount::isExact)
+                .verifyComplete();
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testExpired() {
+        CachedPagerCountStrategy strategy = new CachedPagerCountStrategy(Duration.ZERO, 100);
+
+        AtomicInteger counter = new AtomicInteger();
+        Mono<Integer> exact = Mono.fromSupplier(counter::incrementAndGet);
+
+        for (int i = 0; i < 2; i++) {
+            strategy.count(TestEntity.class, QueryParamEntity.of(), exact)
+                    .as(StepVerifier::create)
+                    .expectNextMatches(PagerCount::isExact)
+                    .verifyComplete();
+        }
+        assertEquals(2, counter.get());
+        //过期的结果已移除
+        assertEquals(0, strategy.size());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        CachedPagerCountStrategy strategy = new CachedPagerCountStrategy(Duration.ofMinutes(1), 2);
+        for (int i = 0; i < 10; i++) {
+            strategy.count(TestEntity.class, QueryParamEntity.of("name", "test" + i), Mono.just(i))
+                    .as(StepVerifier::create)
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+        assertEquals(2, strategy.size());
+
+        //最早的条件已被淘汰
+        strategy.count(TestEntity.class, QueryParamEntity.of("name", "test0"), Mono.just(0))
+                .as(StepVerifier::create)
+                .expectNextMatches(PagerCount::isExact)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals(CachedPagerCountStrategy.createKey(TestEntity.class, QueryParamEntity.of("name", "a").getTerms()),
+                     CachedPagerCountStrategy.createKey(TestEntity.class, QueryParamEntity.of("name", "a").getTerms()));
+
+        assertNotEquals(CachedPagerCountStrategy.createKey(TestEntity.class, QueryParamEntity.of("name", "a").getTerms()),
+                        CachedPagerCountStrategy.createKey(TestEntity.class, QueryParamEntity.of("name", "b").getTerms()));
+    }
+}
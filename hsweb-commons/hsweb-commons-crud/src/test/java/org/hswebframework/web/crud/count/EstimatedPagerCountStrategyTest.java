@@ -0,0 +1,159 @@
+package org.hswebframework.web.crud.count;
+
+import org.hswebframework.ezorm.rdb.executor.SqlRequest;
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrapper;
+import org.hswebframework.ezorm.rdb.metadata.RDBDatabaseMetadata;
+import org.hswebframework.ezorm.rdb.metadata.RDBSchemaMetadata;
+import org.hswebframework.ezorm.rdb.metadata.dialect.Dialect;
+import org.hswebframework.ezorm.rdb.operator.DefaultDatabaseOperator;
+import org.hswebframework.ezorm.rdb.supports.h2.H2SchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.mysql.MysqlSchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.postgres.PostgresqlSchemaMetadata;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EstimatedPagerCountStrategyTest {
+
+    private final AtomicInteger exactCounter = new AtomicInteger();
+
+    private final Mono<Integer> exact = Mono.fromSupplier(() -> {
+        exactCounter.incrementAndGet();
+        return 10;
+    });
+
+    private EstimatedPagerCountStrategy create(RDBSchemaMetadata schema, StatisticsExecutor executor) {
+        RDBDatabaseMetadata metadata = new RDBDatabaseMetadata(Dialect.H2);
+        metadata.addSchema(schema);
+        metadata.setCurrentSchema(schema);
+        metadata.addFeature(executor);
+        return new EstimatedPagerCountStrategy(DefaultDatabaseOperator.of(metadata), 1000);
+    }
+
+    @Test
+    public void testMysqlEstimated() {
+        StatisticsExecutor executor = new StatisticsExecutor(Flux.just(5000L));
+        create(new MysqlSchemaMetadata("test"), executor)
+                .count(TestEntity.class, QueryParamEntity.of(), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(count -> count.getTotal() == 5000 && !count.isExact())
+                .verifyComplete();
+        //使用统计信息,不执行count
+        assertEquals(0, exactCounter.get());
+        assertEquals(1, executor.requests.size());
+        assertEquals(EstimatedPagerCountStrategy.MYSQL_SQL, executor.requests.get(0).getSql());
+        assertEquals(Arrays.asList("test", "s_test"), Arrays.asList(executor.requests.get(0).getParameters()));
+    }
+
+    @Test
+    public void testPostgresEstimated() {
+        StatisticsExecutor executor = new StatisticsExecutor(Flux.just(2000L));
+        create(new PostgresqlSchemaMetadata("public"), executor)
+                .count(TestEntity.class, QueryParamEntity.of(), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(count -> count.getTotal() == 2000 && !count.isExact())
+                .verifyComplete();
+        assertEquals(0, exactCounter.get());
+        assertEquals(EstimatedPagerCountStrategy.POSTGRES_SQL, executor.requests.get(0).getSql());
+    }
+
+    @Test
+    public void testBelowThreshold() {
+        //小于阈值以及没有统计信息(-1)时执行精确的count
+        for (long estimated : new long[]{10, -1}) {
+            create(new MysqlSchemaMetadata("test"), new StatisticsExecutor(Flux.just(estimated)))
+                    .count(TestEntity.class, QueryParamEntity.of(), exact)
+                    .as(StepVerifier::create)
+                    .expectNextMatches(count -> count.getTotal() == 10 && count.isExact())
+                    .verifyComplete();
+        }
+        assertEquals(2, exactCounter.get());
+    }
+
+    @Test
+    public void testWithTerms() {
+        StatisticsExecutor executor = new StatisticsExecutor(Flux.just(5000L));
+        create(new MysqlSchemaMetadata("test"), executor)
+                .count(TestEntity.class, QueryParamEntity.of("name", "test"), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(PagerCount::isExact)
+                .verifyComplete();
+        //有查询条件时不查询统计信息
+        assertTrue(executor.requests.isEmpty());
+        assertEquals(1, exactCounter.get());
+    }
+
+    @Test
+    public void testUnsupportedDatabase() {
+        StatisticsExecutor executor = new StatisticsExecutor(Flux.just(5000L));
+        EstimatedPagerCountStrategy strategy = create(new H2SchemaMetadata("PUBLIC"), executor);
+        strategy.count(TestEntity.class, QueryParamEntity.of(), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(PagerCount::isExact)
+                .verifyComplete();
+        //没有@Table注解
+        strategy.count(String.class, QueryParamEntity.of(), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(PagerCount::isExact)
+                .verifyComplete();
+        assertTrue(executor.requests.isEmpty());
+    }
+
+    @Test
+    public void testError() {
+        create(new MysqlSchemaMetadata("test"), new StatisticsExecutor(Flux.error(new IllegalStateException("test"))))
+                .count(TestEntity.class, QueryParamEntity.of(), exact)
+                .as(StepVerifier::create)
+                .expectNextMatches(count -> count.getTotal() == 10 && count.isExact())
+                .verifyComplete();
+    }
+
+    //返回指定的统计信息
+    static class StatisticsExecutor implements ReactiveSqlExecutor {
+        private final Flux<Long> estimated;
+
+        private final List<SqlRequest> requests = new ArrayList<>();
+
+        StatisticsExecutor(Flux<Long> estimated) {
+            this.estimated = estimated;
+        }
+
+        @Override
+        public Mono<Integer> update(Publisher<SqlRequest> request) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        public Mono<Void> execute(Publisher<SqlRequest> request) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        @SuppressWarnings("all")
+        public <E> Flux<E> select(Publisher<SqlRequest> request, ResultWrapper<E, ?> wrapper) {
+            return Flux
+                    .from(request)
+                    .doOnNext(requests::add)
+                    .thenMany(estimated)
+                    .map(value -> {
+                        E row = wrapper.newRowInstance();
+                        ((Map<String, Object>) row).put("table_rows", value);
+                        wrapper.completedWrapRow(row);
+                        return row;
+                    });
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.hswebframework.web.crud.count;
+
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.hswebframework.web.crud.service.TestEntityService;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PagerCountStrategiesTest {
+
+    @Test
+    public void testResolveEntityType() {
+        PagerCountStrategies strategies = new PagerCountStrategies(Collections.emptyList(), null, null);
+        assertEquals(TestEntity.class, strategies.resolveEntityType(TestEntityService.class));
+        assertTrue(strategies.isExact(TestEntityService.class));
+    }
+
+    @Test
+    public void testServerSideStrategy() {
+        CachedPagerCountStrategy cached = new CachedPagerCountStrategy(Duration.ofMinutes(1), 100);
+        PagerCountStrategies strategies = new PagerCountStrategies(
+                Collections.singletonList(cached),
+                ExactPagerCountStrategy.ID,
+                Collections.singletonMap(TestEntity.class.getName(), CachedPagerCountStrategy.ID));
+
+        assertSame(cached, strategies.lookup(TestEntity.class));
+        assertFalse(strategies.isExact(TestEntityService.class));
+        assertTrue(strategies.lookup(String.class) instanceof ExactPagerCountStrategy);
+
+        //按表名配置
+        PagerCountStrategies byTable = new PagerCountStrategies(
+                Collections.singletonList(cached),
+                null,
+                Collections.singletonMap("s_test", CachedPagerCountStrategy.ID));
+        assertSame(cached, byTable.lookup(TestEntity.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedStrategy() {
+        new PagerCountStrategies(Collections.emptyList(), "unknown", null);
+    }
+}
@@ -0,0 +1,82 @@
+package org.hswebframework.web.crud.events;
+
+import org.junit.Test;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ChunkedSnapshotsTest {
+
+    @Test
+    public void testChunks() {
+        ChunkedSnapshots snapshots = new ChunkedSnapshots(0, this::idOnly, this::after);
+
+        snapshots.add(Arrays.asList("a", "b"), Arrays.asList("a_new", "b_new"));
+        snapshots.add(Arrays.asList("c"), Arrays.asList("c_new"));
+
+        List<Tuple2<List<Object>, List<Object>>> chunks = snapshots.getChunks();
+        assertEquals(2, chunks.size());
+        assertEquals(Arrays.asList("a", "b"), chunks.get(0).getT1());
+        assertEquals(Arrays.asList("c_new"), chunks.get(1).getT2());
+
+        assertEquals(2, snapshots.drain().count().block().intValue());
+        assertTrue(snapshots.getChunks().isEmpty());
+    }
+
+    @Test
+    public void testIdOnly() {
+        ChunkedSnapshots snapshots = new ChunkedSnapshots(2, this::idOnly, this::after);
+
+        snapshots.add(Arrays.asList("a", "b"), Arrays.asList("a_new", "b_new"));
+        assertEquals(Arrays.asList("a", "b"), snapshots.getChunks().get(0).getT1());
+
+        //超过阈值后,已有的数据也转为只包含主键
+        snapshots.add(Arrays.asList("c"), Arrays.asList("c_new"));
+
+        List<Tuple2<List<Object>, List<Object>>> chunks = snapshots.getChunks();
+        assertEquals(Arrays.asList("id:a", "id:b"), chunks.get(0).getT1());
+        assertEquals(Arrays.asList("id:a_new", "id:b_new"), chunks.get(0).getT2());
+        assertEquals(Arrays.asList("id:c"), chunks.get(1).getT1());
+    }
+
+    @Test
+    public void testDrain() {
+        ChunkedSnapshots snapshots = new ChunkedSnapshots(0, this::idOnly, this::after);
+        snapshots.add(Arrays.asList("a"), Arrays.asList("a_new"));
+        snapshots.add(Arrays.asList("b"), Arrays.asList("b_new"));
+
+        //逐批取出,已取出的批次立即移除
+        snapshots.drain()
+                 .as(StepVerifier::create)
+                 .assertNext(chunk -> {
+                     assertEquals(Arrays.asList("a"), chunk.getT1());
+                     assertEquals(1, snapshots.getChunks().size());
+                 })
+                 .assertNext(chunk -> assertEquals(Arrays.asList("b_new"), chunk.getT2()))
+                 .verifyComplete();
+        assertTrue(snapshots.getChunks().isEmpty());
+    }
+
+    @Test
+    public void testDelete() {
+        ChunkedSnapshots snapshots = new ChunkedSnapshots(1, this::idOnly, null);
+        snapshots.add(Arrays.asList("a", "b"), null);
+
+        Tuple2<List<Object>, List<Object>> chunk = snapshots.getChunks().get(0);
+        assertEquals(Arrays.asList("id:a", "id:b"), chunk.getT1());
+        assertTrue(chunk.getT2().isEmpty());
+    }
+
+    private List<Object> idOnly(List<Object> list) {
+        return list.stream().map(s -> "id:" + s).collect(Collectors.toList());
+    }
+
+    private List<Object> after(List<Object> list) {
+        return list.stream().map(s -> s + "_new").collect(Collectors.toList());
+    }
+}
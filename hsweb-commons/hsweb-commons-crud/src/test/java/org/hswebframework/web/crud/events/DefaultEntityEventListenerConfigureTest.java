@@ -3,6 +3,9 @@ package org.hswebframework.web.crud.events;
 import org.hswebframework.web.crud.entity.EventTestEntity;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 import static org.junit.Assert.*;
 
 public class DefaultEntityEventListenerConfigureTest {
@@ -20,4 +23,46 @@ public class DefaultEntityEventListenerConfigureTest {
         assertFalse(configure.isEnabled(EventTestEntity.class, EntityEventType.create, EntityEventPhase.after));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSnapshotOptions() {
+        DefaultEntityEventListenerConfigure configure = new DefaultEntityEventListenerConfigure();
+        assertSame(EntityEventSnapshotOptions.DEFAULT, configure.getSnapshotOptions(EventTestEntity.class));
+
+        configure.setSnapshotOptions(EventTestEntity.class,
+                                     EntityEventSnapshotOptions
+                                             .builder()
+                                             .projection(true)
+                                             .build());
+        configure.addSnapshotProperties(EventTestEntity.class, "name");
+        configure.addSnapshotProperties(EventTestEntity.class, "age");
+
+        EntityEventSnapshotOptions options = configure.getSnapshotOptions(EventTestEntity.class);
+        assertTrue(options.isProjection());
+        assertFalse(options.isChunked());
+        assertEquals(new HashSet<>(Arrays.asList("name", "age")), options.getProperties());
+    }
+
+    @Test
+    public void testSetSnapshotOptionsKeepProperties() {
+        DefaultEntityEventListenerConfigure configure = new DefaultEntityEventListenerConfigure();
+        configure.addSnapshotProperties(EventTestEntity.class, "name");
+
+        //之后设置的配置不会覆盖已声明的属性
+        configure.setSnapshotOptions(EventTestEntity.class,
+                                     EntityEventSnapshotOptions
+                                             .builder()
+                                             .projection(true)
+                                             .chunkSize(100)
+                                             .build());
+        EntityEventSnapshotOptions options = configure.getSnapshotOptions(EventTestEntity.class);
+        assertTrue(options.isProjection());
+        assertEquals(100, options.getChunkSize());
+        assertEquals(new HashSet<>(Arrays.asList("name")), options.getProperties());
+
+        configure.setSnapshotOptions(EventTestEntity.class, null);
+        options = configure.getSnapshotOptions(EventTestEntity.class);
+        assertFalse(options.isProjection());
+        assertEquals(new HashSet<>(Arrays.asList("name")), options.getProperties());
+    }
+}
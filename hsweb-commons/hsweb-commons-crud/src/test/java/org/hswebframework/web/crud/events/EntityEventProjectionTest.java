@@ -0,0 +1,107 @@
+package org.hswebframework.web.crud.events;
+
+import org.hswebframework.ezorm.rdb.executor.SqlRequest;
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.ezorm.rdb.executor.wrapper.ResultWrapper;
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.web.crud.TestApplication;
+import org.hswebframework.web.crud.configuration.EasyormProperties;
+import org.hswebframework.web.crud.entity.EventTestEntity;
+import org.hswebframework.web.crud.sql.DefaultR2dbcExecutor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {TestApplication.class, EntityEventProjectionTest.ProjectionConfiguration.class})
+public class EntityEventProjectionTest {
+
+    //执行过的查询语句
+    static final Queue<String> SELECTS = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    private ReactiveRepository<EventTestEntity, String> reactiveRepository;
+
+    @Test
+    public void testProjection() {
+        reactiveRepository
+                .insert(EventTestEntity.of("projection_test", 10))
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        SELECTS.clear();
+        reactiveRepository
+                .createUpdate()
+                .set("age", 11)
+                .where().is("name", "projection_test")
+                .execute()
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        //查询修改前数据时,只查询主键和修改的字段
+        List<String> columns = SELECTS
+                .stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.contains("s_test_event"))
+                .map(sql -> sql.split("\\sfrom\\s")[0])
+                .collect(Collectors.toList());
+        assertFalse(columns.isEmpty());
+        for (String column : columns) {
+            assertTrue(column, column.contains("id"));
+            assertTrue(column, column.contains("age"));
+            assertFalse(column, column.contains("name"));
+        }
+    }
+
+    @Configuration
+    public static class ProjectionConfiguration {
+
+        @Bean
+        public EntityEventListenerCustomizer projectionCustomizer() {
+            return configure -> configure
+                    .setSnapshotOptions(EventTestEntity.class,
+                                        EntityEventSnapshotOptions
+                                                .builder()
+                                                .projection(true)
+                                                .build());
+        }
+
+        //记录执行的查询语句
+        @Bean
+        public ReactiveSqlExecutor reactiveSqlExecutor(EasyormProperties properties) {
+            RecordSelectExecutor executor = new RecordSelectExecutor();
+            executor.setBindSymbol(properties.getDialect().getBindSymbol());
+            executor.setBindCustomSymbol(!executor.getBindSymbol().equals("?"));
+            return executor;
+        }
+    }
+
+    public static class RecordSelectExecutor extends DefaultR2dbcExecutor {
+        @Override
+        public <E> Flux<E> select(Publisher<SqlRequest> request, ResultWrapper<E, ?> wrapper) {
+            return super.select(Flux.from(request).doOnNext(sql -> SELECTS.add(sql.getSql())), wrapper);
+        }
+
+        @Override
+        public <E> Flux<E> select(SqlRequest sqlRequest, ResultWrapper<E, ?> wrapper) {
+            SELECTS.add(sqlRequest.getSql());
+            return super.select(sqlRequest, wrapper);
+        }
+    }
+}
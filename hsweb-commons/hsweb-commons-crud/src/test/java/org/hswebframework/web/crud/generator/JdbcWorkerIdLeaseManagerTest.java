@@ -0,0 +1,60 @@
+package org.hswebframework.web.crud.generator;
+
+import org.hswebframework.ezorm.rdb.executor.reactive.ReactiveSqlExecutor;
+import org.hswebframework.web.crud.TestApplication;
+import org.hswebframework.web.id.WorkerIdLease;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = TestApplication.class)
+public class JdbcWorkerIdLeaseManagerTest {
+
+    @Autowired
+    private ReactiveSqlExecutor sqlExecutor;
+
+    @Test
+    public void test() {
+        JdbcWorkerIdLeaseManager manager = new JdbcWorkerIdLeaseManager(sqlExecutor, "s_snowflake_worker_test");
+
+        WorkerIdLease lease = manager.acquire("node-1", Duration.ofMinutes(1)).block();
+        assertNotNull(lease);
+        assertEquals(WorkerIdLease.preferredSlot("node-1"), lease.getSlot());
+
+        //相同实例重启后复用之前的槽位
+        WorkerIdLease reacquired = manager.acquire("node-1", Duration.ofMinutes(1)).block();
+        assertNotNull(reacquired);
+        assertEquals(lease.getSlot(), reacquired.getSlot());
+
+        //其他实例不能获取已经被占用的槽位
+        WorkerIdLease other = manager.acquire("node-2", Duration.ofMinutes(1)).block();
+        assertNotNull(other);
+        assertNotEquals(lease.getSlot(), other.getSlot());
+
+        manager.renew(lease, Duration.ofMinutes(1))
+               .as(StepVerifier::create)
+               .expectNext(true)
+               .verifyComplete();
+
+        manager.renew(new WorkerIdLease(lease.getSlot(), "node-2"), Duration.ofMinutes(1))
+               .as(StepVerifier::create)
+               .expectNext(false)
+               .verifyComplete();
+
+        manager.release(lease)
+               .as(StepVerifier::create)
+               .verifyComplete();
+
+        //释放后可以被其他实例获取
+        WorkerIdLease released = manager.acquire("node-3", Duration.ofMinutes(1)).block();
+        assertNotNull(released);
+    }
+}
@@ -18,6 +18,8 @@ import reactor.test.StepVerifier;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.*;
+import java.util.Collections;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +83,148 @@ class DefaultQueryHelperTest {
 
     }
 
+    @Test
+    public void testCompileNumberParameter() {
+        for (int i = 0; i < 3; i++) {
+            database.dml()
+                    .insert("s_test")
+                    .value("id", "helper_compiled_number_" + i)
+                    .value("name", "compiled_number")
+                    .value("age", 30 + i)
+                    .execute()
+                    .sync();
+        }
+
+        CompiledQuery<TestInfo> query = new DefaultQueryHelper(database)
+                .select(TestInfo.class)
+                .all(TestEntity.class)
+                .from(TestEntity.class)
+                .where(dsl -> dsl
+                        .is(TestEntity::getName, "compiled_number")
+                        .gte(TestEntity::getAge, CompiledQuery.param("age")))
+                .compile();
+
+        query.fetch(Collections.singletonMap("age", 31))
+             .map(TestInfo::getAge)
+             .sort()
+             .as(StepVerifier::create)
+             .expectNext(31, 32)
+             .verifyComplete();
+
+        query.fetch(Collections.singletonMap("age", 32))
+             .map(TestInfo::getId)
+             .as(StepVerifier::create)
+             .expectNext("helper_compiled_number_2")
+             .verifyComplete();
+    }
+
+    @Test
+    public void testCompiledLimit() {
+        DefaultQueryHelper helper = new DefaultQueryHelper(database);
+        for (int i = 0; i < DefaultQueryHelper.MAX_COMPILED_QUERIES + 10; i++) {
+            helper.compile("limit_" + i, h -> h
+                    .select(TestInfo.class)
+                    .all(TestEntity.class)
+                    .from(TestEntity.class));
+        }
+        assertEquals(DefaultQueryHelper.MAX_COMPILED_QUERIES, helper.compiledSize());
+    }
+
+    @Test
+    public void testCompiledEvictEldest() {
+        DefaultQueryHelper helper = new DefaultQueryHelper(database);
+        Function<QueryHelper, QueryHelper.ExecuteSpec<TestInfo>> builder = h -> h
+                .select(TestInfo.class)
+                .all(TestEntity.class)
+                .from(TestEntity.class);
+        CompiledQuery<TestInfo> first = helper.compile("evict_0", builder);
+        for (int i = 1; i < DefaultQueryHelper.MAX_COMPILED_QUERIES; i++) {
+            helper.compile("evict_" + i, builder);
+        }
+        //最近使用过的查询不会被淘汰
+        assertSame(first, helper.compile("evict_0", builder));
+        CompiledQuery<TestInfo> second = helper.compile("evict_1", builder);
+        helper.compile("evict_new", builder);
+
+        assertEquals(DefaultQueryHelper.MAX_COMPILED_QUERIES, helper.compiledSize());
+        assertSame(first, helper.compile("evict_0", builder));
+        assertSame(second, helper.compile("evict_1", builder));
+    }
+
+    @Test
+    public void testCompiledMapping() {
+        for (int i = 0; i < 10; i++) {
+            database.dml()
+                    .insert("s_test")
+                    .value("id", "helper_compile_" + i)
+                    .value("name", "compile")
+                    .value("age", i)
+                    .execute()
+                    .sync();
+        }
+
+        DefaultQueryHelper.QuerySpec<TestInfo> spec = (DefaultQueryHelper.QuerySpec<TestInfo>) new DefaultQueryHelper(database)
+                .select(TestInfo.class)
+                .as(TestEntity::getId, TestInfo::setId)
+                .as(TestEntity::getName, "name")
+                .as(TestEntity::getAge, TestInfo::setAge)
+                .from(TestEntity.class)
+                .where(dsl -> dsl.is(TestEntity::getName, "compile"))
+                .orderByAsc(TestEntity::getAge);
+
+        //多次执行,列绑定在每次查询时重新解析并在行之间复用
+        for (int i = 0; i < 2; i++) {
+            spec.fetch()
+                .doOnNext(info -> {
+                    assertEquals("compile", info.getName());
+                    assertEquals("helper_compile_" + info.getAge(), info.getId());
+                })
+                .as(StepVerifier::create)
+                .expectNextCount(10)
+                .verifyComplete();
+        }
+    }
+
+    @Test
+    public void testCompile() {
+        database.dml()
+                .insert("s_test")
+                .value("id", "helper_compiled")
+                .value("name", "compiled")
+                .value("age", 20)
+                .execute()
+                .sync();
+
+        DefaultQueryHelper helper = new DefaultQueryHelper(database);
+
+        CompiledQuery<TestInfo> query = helper
+                .compile("test", h -> h
+                        .select(TestInfo.class)
+                        .all(TestEntity.class)
+                        .from(TestEntity.class)
+                        .where(dsl -> dsl.is(TestEntity::getName, CompiledQuery.param("name"))));
+
+        assertSame(query, helper.compile("test", h -> {
+            throw new IllegalStateException();
+        }));
+
+        query.fetch(Collections.singletonMap("name", "compiled"))
+             .map(TestInfo::getId)
+             .as(StepVerifier::create)
+             .expectNext("helper_compiled")
+             .verifyComplete();
+
+        query.fetch(Collections.singletonMap("name", "not_exists"))
+             .as(StepVerifier::create)
+             .expectNextCount(0)
+             .verifyComplete();
+
+        query.fetch()
+             .as(StepVerifier::create)
+             .expectError(IllegalArgumentException.class)
+             .verify();
+    }
+
     @Getter
     @Setter
     @ToString
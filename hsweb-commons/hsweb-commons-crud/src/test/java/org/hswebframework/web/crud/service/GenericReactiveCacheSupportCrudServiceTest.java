@@ -1,5 +1,9 @@
 package org.hswebframework.web.crud.service;
 
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
 import org.hswebframework.web.cache.ReactiveCacheManager;
 import org.hswebframework.web.crud.TestApplication;
 import org.hswebframework.web.crud.entity.TestEntity;
@@ -9,9 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import javax.persistence.Column;
+import javax.persistence.Id;
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 
 @SpringBootTest(classes = TestApplication.class, args = "--hsweb.cache.type=guava")
@@ -61,4 +70,74 @@ public class GenericReactiveCacheSupportCrudServiceTest {
                 .verify();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testEvictOnlyAffectedIds() {
+        TestEntity entity = TestEntity.of("test3", 100);
+        TestEntity other = TestEntity.of("test4", 100);
+
+        entityService.insert(Flux.just(entity, other))
+                     .as(StepVerifier::create)
+                     .expectNext(2)
+                     .verifyComplete();
+
+        Flux.just(entity, other)
+            .flatMap(e -> entityService.findById(e.getId()))
+            .as(StepVerifier::create)
+            .expectNextCount(2)
+            .verifyComplete();
+
+        entityService.createUpdate()
+                     .set("age", 120)
+                     .where("name", entity.getName())
+                     .execute()
+                     .as(StepVerifier::create)
+                     .expectNext(1)
+                     .verifyComplete();
+
+        entityService.getCache()
+                     .getMono("id:".concat(entity.getId()))
+                     .as(StepVerifier::create)
+                     .verifyComplete();
+
+        entityService.getCache()
+                     .getMono("id:".concat(other.getId()))
+                     .map(TestEntity::getId)
+                     .as(StepVerifier::create)
+                     .expectNext(other.getId())
+                     .verifyComplete();
+
+        entityService.save(other)
+                     .then()
+                     .as(StepVerifier::create)
+                     .verifyComplete();
+
+        entityService.getCache()
+                     .getMono("id:".concat(other.getId()))
+                     .as(StepVerifier::create)
+                     .verifyComplete();
+    }
+
+    @Test
+    public void testResolveIdColumn() {
+        assertArrayEquals(new String[]{"id", "id"}, EntityCacheEvictor.resolveIdColumn(TestEntity.class));
+        assertArrayEquals(new String[]{"userId", "user_id"}, EntityCacheEvictor.resolveIdColumn(CustomIdEntity.class));
+
+        Term term = new Term();
+        term.setColumn("user_id");
+        term.setTermType(TermType.eq);
+        term.setValue("1");
+        assertEquals(Collections.singletonList("1"),
+                     EntityCacheEvictor.resolveIdTerms(Collections.singletonList(term), "userId", "user_id"));
+    }
+
+    @Getter
+    @Setter
+    public static class CustomIdEntity {
+        @Id
+        @Column(name = "user_id")
+        private String userId;
+
+        private String name;
+    }
+
+}
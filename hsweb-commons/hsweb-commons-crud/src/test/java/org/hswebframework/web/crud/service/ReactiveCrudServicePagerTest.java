@@ -0,0 +1,134 @@
+package org.hswebframework.web.crud.service;
+
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
+import org.hswebframework.web.crud.TestApplication;
+import org.hswebframework.web.crud.count.PagerCount;
+import org.hswebframework.web.crud.count.PagerCountStrategies;
+import org.hswebframework.web.crud.count.PagerCountStrategy;
+import org.hswebframework.web.crud.entity.TestEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = TestApplication.class)
+public class ReactiveCrudServicePagerTest {
+
+    @Autowired
+    private ReactiveRepository<TestEntity, String> repository;
+
+    @Before
+    public void init() {
+        repository
+                .createDelete()
+                .where(TestEntity::getName, "pager_test")
+                .execute()
+                .thenMany(Flux.range(0, 3))
+                .flatMap(i -> repository.insert(TestEntity.of("pager_test", i)))
+                .then()
+                .as(StepVerifier::create)
+                .verifyComplete();
+    }
+
+    private QueryParamEntity query(int pageIndex) {
+        QueryParamEntity query = QueryParamEntity.of("name", "pager_test");
+        query.setPageIndex(pageIndex);
+        query.setPageSize(10);
+        return query;
+    }
+
+    @Test
+    public void testEstimatedTotal() {
+        PagerService service = new PagerService(repository, (param, exact) -> Mono.just(PagerCount.estimated(1000)));
+
+        service.queryPager(query(0))
+               .as(StepVerifier::create)
+               .assertNext(result -> {
+                   assertEquals(1000, result.getTotal());
+                   assertFalse(result.isExactTotal());
+                   assertEquals(3, result.getData().size());
+               })
+               .verifyComplete();
+
+        //总数不精确时不重新分页
+        service.queryPager(query(5))
+               .as(StepVerifier::create)
+               .assertNext(result -> {
+                   assertEquals(5, result.getPageIndex());
+                   assertFalse(result.isExactTotal());
+                   assertTrue(result.getData().isEmpty());
+               })
+               .verifyComplete();
+    }
+
+    @Test
+    public void testExactTotalFromStrategy() {
+        PagerService service = new PagerService(repository, (param, exact) -> exact.map(PagerCount::exact));
+
+        //总数精确时重新分页,跳转到最后一页
+        service.queryPager(query(5))
+               .as(StepVerifier::create)
+               .assertNext(result -> {
+                   assertEquals(3, result.getTotal());
+                   assertTrue(result.isExactTotal());
+                   assertEquals(0, result.getPageIndex());
+                   assertEquals(3, result.getData().size());
+               })
+               .verifyComplete();
+
+        QueryParamEntity empty = QueryParamEntity.of("name", "pager_test_none");
+        service.queryPager(empty)
+               .as(StepVerifier::create)
+               .assertNext(result -> {
+                   assertEquals(0, result.getTotal());
+                   assertTrue(result.getData().isEmpty());
+               })
+               .verifyComplete();
+    }
+
+    interface CountFunction {
+        Mono<PagerCount> count(QueryParamEntity param, Mono<Integer> exactCount);
+    }
+
+    static class PagerService implements ReactiveCrudService<TestEntity, String> {
+        private final ReactiveRepository<TestEntity, String> repository;
+
+        private final PagerCountStrategies strategies;
+
+        PagerService(ReactiveRepository<TestEntity, String> repository, CountFunction function) {
+            this.repository = repository;
+            this.strategies = new PagerCountStrategies(Collections.singletonList(new PagerCountStrategy() {
+                @Override
+                public String getId() {
+                    return "test";
+                }
+
+                @Override
+                public Mono<PagerCount> count(Class<?> entityType, QueryParamEntity param, Mono<Integer> exactCount) {
+                    return function.count(param, exactCount);
+                }
+            }), "test", null);
+        }
+
+        @Override
+        public ReactiveRepository<TestEntity, String> getRepository() {
+            return repository;
+        }
+
+        @Override
+        public PagerCountStrategies getPagerCountStrategies() {
+            return strategies;
+        }
+    }
+}
@@ -9,11 +9,11 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
@@ -139,4 +139,78 @@ public class ReactiveTreeSortEntityServiceTest {
                 .expectNext(firstPath)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMoveSubtree() {
+        TestTreeSortEntity root = createNode("bulk_a", null);
+        List<TestTreeSortEntity> children = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TestTreeSortEntity child = createNode("bulk_a_" + i, root.getId());
+            List<TestTreeSortEntity> grandChildren = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                grandChildren.add(createNode(child.getId() + "_" + j, child.getId()));
+            }
+            child.setChildren(grandChildren);
+            children.add(child);
+        }
+        root.setChildren(children);
+        TestTreeSortEntity another = createNode("bulk_b", null);
+
+        sortEntityService
+                .insert(Flux.just(root, another))
+                .as(StepVerifier::create)
+                .expectNext(112)
+                .verifyComplete();
+
+        //一次查询多个节点的子节点
+        sortEntityService
+                .queryIncludeChildren(Arrays.asList("bulk_a", "bulk_a_1", "bulk_b"))
+                .as(StepVerifier::create)
+                .expectNextCount(112)
+                .verifyComplete();
+
+        //移动子树
+        TestTreeSortEntity moved = createNode("bulk_a_1", "bulk_b");
+        sortEntityService
+                .save(moved)
+                .then()
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        String path = sortEntityService
+                .findById("bulk_b")
+                .map(TestTreeSortEntity::getPath)
+                .block();
+        assertNotNull(path);
+
+        sortEntityService
+                .queryIncludeChildren(Collections.singletonList("bulk_b"))
+                .doOnNext(e -> assertTrue(e.getPath().startsWith(path)))
+                .as(StepVerifier::create)
+                .expectNextCount(12)
+                .verifyComplete();
+
+        sortEntityService
+                .queryIncludeParent(Arrays.asList("bulk_a_1_1", "bulk_a_2_1"))
+                .map(TestTreeSortEntity::getId)
+                .collectList()
+                .map(HashSet::new)
+                .as(StepVerifier::create)
+                .expectNext(new HashSet<>(Arrays.asList("bulk_b", "bulk_a_1", "bulk_a_1_1", "bulk_a", "bulk_a_2", "bulk_a_2_1")))
+                .verifyComplete();
+
+        sortEntityService
+                .deleteById(Flux.just("bulk_a", "bulk_b"))
+                .as(StepVerifier::create)
+                .expectNext(112)
+                .verifyComplete();
+    }
+
+    private TestTreeSortEntity createNode(String id, String parentId) {
+        TestTreeSortEntity entity = new TestTreeSortEntity();
+        entity.setId(id);
+        entity.setName(id);
+        entity.setParentId(parentId);
+        return entity;
+    }
+}
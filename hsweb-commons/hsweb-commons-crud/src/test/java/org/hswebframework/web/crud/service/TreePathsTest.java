@@ -0,0 +1,48 @@
+package org.hswebframework.web.crud.service;
+
+import org.hswebframework.ezorm.rdb.operator.builder.fragments.NativeSql;
+import org.hswebframework.ezorm.rdb.supports.h2.H2SchemaMetadata;
+import org.hswebframework.ezorm.rdb.supports.mssql.SqlServerSchemaMetadata;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TreePathsTest {
+
+    @Test
+    public void testTopmost() {
+        assertEquals(Arrays.asList("aaaa", "bbbb-cccc"),
+                     TreePaths.topmost(Arrays.asList("aaaa-bbbb", "bbbb-cccc", "aaaa", null, "aaaa-bbbb-cccc", "bbbb-cccc-dddd")));
+    }
+
+    @Test
+    public void testDeepest() {
+        assertEquals(Arrays.asList("aaaa-bbbb-cccc", "bbbb-cccc-dddd"),
+                     TreePaths.deepest(Arrays.asList("aaaa-bbbb", "bbbb-cccc", "aaaa", "", "aaaa-bbbb-cccc", "bbbb-cccc-dddd")));
+    }
+
+    @Test
+    public void testReplacePrefix() {
+        assertEquals("xxxx-bbbb-cccc", TreePaths.replacePrefix("aaaa-bbbb-cccc", "aaaa", "xxxx"));
+        assertEquals("xxxx-yyyy-cccc", TreePaths.replacePrefix("aaaa-bbbb-cccc", "aaaa-bbbb", "xxxx-yyyy"));
+        //节点自身以及前缀相同的兄弟节点不替换
+        assertEquals("aaaa", TreePaths.replacePrefix("aaaa", "aaaa", "xxxx"));
+        assertEquals("aaaab", TreePaths.replacePrefix("aaaab", "aaaa", "xxxx"));
+        assertNull(TreePaths.replacePrefix(null, "aaaa", "xxxx"));
+    }
+
+    @Test
+    public void testChildPathExpression() {
+        NativeSql h2 = TreePaths.childPathExpression(new H2SchemaMetadata("PUBLIC"), "xxxx", 4);
+        assertEquals("concat(?,substr(path,?))", h2.getSql());
+        assertArrayEquals(new Object[]{"xxxx", 5}, h2.getParameters());
+
+        NativeSql mssql = TreePaths.childPathExpression(new SqlServerSchemaMetadata("dbo"), "xxxx", 4);
+        assertEquals("concat(?,substring(path,?,len(path)))", mssql.getSql());
+
+        //不支持的数据库逐条更新
+        assertNull(TreePaths.childPathExpression(null, "xxxx", 4));
+    }
+}
@@ -6,8 +6,13 @@ import lombok.Getter;
 import lombok.Setter;
 import org.hswebframework.web.cache.ReactiveCache;
 import org.hswebframework.web.cache.ReactiveCacheManager;
+import org.hswebframework.web.cache.supports.AbstractReactiveCacheManager;
 import org.hswebframework.web.cache.supports.CaffeineReactiveCacheManager;
 import org.hswebframework.web.cache.supports.GuavaReactiveCacheManager;
+import org.hswebframework.web.cache.supports.HashRedisCacheStorage;
+import org.hswebframework.web.cache.supports.KeyValueRedisCacheStorage;
+import org.hswebframework.web.cache.supports.RedisCacheStorage;
+import org.hswebframework.web.cache.supports.ShardedHashRedisCacheStorage;
 import org.hswebframework.web.cache.supports.RedisLocalReactiveCacheManager;
 import org.hswebframework.web.cache.supports.UnSupportedReactiveCache;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -18,6 +23,10 @@ import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @ConfigurationProperties(prefix = "hsweb.cache")
 @Getter
@@ -33,6 +42,8 @@ public class ReactiveCacheProperties {
 
     private RedisProperties redis = new RedisProperties();
 
+    private SingleFlightProperties singleFlight = new SingleFlightProperties();
+
 
     public boolean anyProviderPresent() {
         return ClassUtils.isPresent("com.google.common.cache.Cache", this.getClass().getClassLoader())
@@ -61,6 +72,7 @@ public class ReactiveCacheProperties {
             };
         }
 
+        AbstractReactiveCacheManager cacheManager;
         if (type == Type.redis) {
             ReactiveRedisOperations<Object, Object> operations;
             if (StringUtils.hasText(redis.getBeanName())) {
@@ -68,13 +80,22 @@ public class ReactiveCacheProperties {
             } else {
                 operations = (ReactiveRedisOperations) context.getBeanProvider(ResolvableType.forClassWithGenerics(ReactiveRedisOperations.class, Object.class, Object.class)).getIfAvailable();
             }
-            return new RedisLocalReactiveCacheManager(operations, createCacheManager(redis.localCacheType));
+            ReactiveCacheManager localCacheManager = createCacheManager(redis.localCacheType);
+            RedisLocalReactiveCacheManager redisCacheManager = new RedisLocalReactiveCacheManager(operations, localCacheManager == null ? createUnsupported() : localCacheManager);
+            redisCacheManager.setVersionCheckInterval(redis.getVersionCheckInterval());
+            redisCacheManager.setStorageFactory((name, redisKey) -> redis.createStorage(operations, name, redisKey));
+            cacheManager = redisCacheManager;
+        } else {
+            cacheManager = createCacheManager(type);
         }
-
-        return createCacheManager(type);
+        if (cacheManager == null) {
+            return createUnsupported();
+        }
+        cacheManager.setSingleFlight(singleFlight::isEnabled);
+        return cacheManager;
     }
 
-    private ReactiveCacheManager createCacheManager(Type type) {
+    private AbstractReactiveCacheManager createCacheManager(Type type) {
         switch (type) {
             case guava:
                 return getGuava().createCacheManager();
@@ -82,10 +103,24 @@ public class ReactiveCacheProperties {
                 return getCaffeine().createCacheManager();
 
         }
-        return createUnsupported();
+        return null;
     }
 
 
+    @Getter
+    @Setter
+    public static class SingleFlightProperties {
+        //是否开启并发未命中请求合并
+        private boolean enabled = false;
+
+        //开启的缓存名称,为空时对全部缓存开启
+        private Set<String> caches = new HashSet<>();
+
+        public boolean isEnabled(String cacheName) {
+            return enabled && (caches.isEmpty() || caches.contains(cacheName));
+        }
+    }
+
     @Getter
     @Setter
     public static class RedisProperties {
@@ -93,6 +128,43 @@ public class ReactiveCacheProperties {
 
         private Type localCacheType = Type.caffeine;
 
+        //定时检查缓存版本号的间隔,版本号不一致时清空本地缓存
+        private Duration versionCheckInterval = Duration.ofMinutes(1);
+
+        //缓存存储方式
+        private RedisCacheStorage.Type storage = RedisCacheStorage.Type.hash;
+
+        //sharded存储方式的分片数量
+        private int shards = 16;
+
+        //缓存过期时间,hash存储方式不支持过期时间,sharded存储方式的过期时间作用于分片
+        private Duration ttl = Duration.ofHours(6);
+
+        //指定缓存的过期时间,key为缓存名称
+        private Map<String, Duration> ttls = new HashMap<>();
+
+        //清空缓存后旧数据保留的时间,为检查版本号间隔的2倍,保证其他节点同步到新代数前旧数据仍然存在
+        Duration getCleanupDelay() {
+            if (versionCheckInterval == null || versionCheckInterval.isZero() || versionCheckInterval.isNegative()) {
+                return Duration.ofMinutes(2);
+            }
+            return versionCheckInterval.multipliedBy(2);
+        }
+
+        public Duration getTtl(String cacheName) {
+            return ttls.getOrDefault(cacheName, ttl);
+        }
+
+        RedisCacheStorage createStorage(ReactiveRedisOperations<Object, Object> operations, String name, String redisKey) {
+            switch (storage) {
+                case sharded:
+                    return new ShardedHashRedisCacheStorage(operations, redisKey, shards, getTtl(name), getCleanupDelay());
+                case key:
+                    return new KeyValueRedisCacheStorage(operations, redisKey, getTtl(name));
+            }
+            return new HashRedisCacheStorage(operations, redisKey);
+        }
+
     }
 
     @Getter
@@ -105,7 +177,7 @@ public class ReactiveCacheProperties {
         Strength keyStrength = Strength.SOFT;
         Strength valueStrength = Strength.SOFT;
 
-        ReactiveCacheManager createCacheManager() {
+        AbstractReactiveCacheManager createCacheManager() {
             return new GuavaReactiveCacheManager(createBuilder());
         }
 
@@ -136,7 +208,7 @@ public class ReactiveCacheProperties {
         Strength keyStrength = Strength.SOFT;
         Strength valueStrength = Strength.SOFT;
 
-        ReactiveCacheManager createCacheManager() {
+        AbstractReactiveCacheManager createCacheManager() {
             return new CaffeineReactiveCacheManager(createBuilder());
         }
 
@@ -0,0 +1,77 @@
+package org.hswebframework.web.cache.supports;
+
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 使用代数(generation)作为命名空间的缓存存储,清空缓存时只需要递增代数,
+ * 旧代数的数据不再被访问,由过期时间或者后台任务进行清理.
+ * <p>
+ * 代数缓存在本地,其他节点在收到清空通知或者定时检查版本号({@link RedisReactiveCache#syncVersion()})后才会刷新,
+ * 在此之前仍然读写旧代数的数据,写入的数据在旧代数被清理或者过期后丢失.
+ *
+ * @since 4.0.16
+ */
+public abstract class AbstractGenerationRedisCacheStorage implements RedisCacheStorage {
+
+    protected final ReactiveRedisOperations<Object, Object> operations;
+
+    protected final String redisKey;
+
+    private final String generationKey;
+
+    private final AtomicLong generation = new AtomicLong(-1);
+
+    public AbstractGenerationRedisCacheStorage(ReactiveRedisOperations<Object, Object> operations, String redisKey) {
+        this.operations = operations;
+        this.redisKey = redisKey;
+        this.generationKey = redisKey + ":_generation";
+    }
+
+    protected Mono<Long> generation() {
+        long gen = generation.get();
+        if (gen >= 0) {
+            return Mono.just(gen);
+        }
+        return loadGeneration();
+    }
+
+    private Mono<Long> loadGeneration() {
+        return operations
+                .opsForValue()
+                .increment(generationKey, 0)
+                .doOnNext(generation::set);
+    }
+
+    @Override
+    public Mono<Void> refresh() {
+        return loadGeneration().then();
+    }
+
+    @Override
+    public Mono<Void> clear() {
+        return operations
+                .opsForValue()
+                .increment(generationKey)
+                .doOnNext(gen -> {
+                    generation.set(gen);
+                    //后台清理上一代数据
+                    cleanup(gen - 1).subscribe();
+                })
+                .then();
+    }
+
+    /**
+     * 清理旧代数的数据
+     *
+     * @param generation 代数
+     * @return void
+     */
+    protected abstract Mono<Void> cleanup(long generation);
+
+    protected String namespace(long generation) {
+        return redisKey + ":" + generation + ":";
+    }
+}
@@ -1,18 +1,38 @@
 package org.hswebframework.web.cache.supports;
 
+import lombok.Getter;
+import lombok.Setter;
 import org.hswebframework.web.cache.ReactiveCache;
 import org.hswebframework.web.cache.ReactiveCacheManager;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 public abstract class AbstractReactiveCacheManager implements ReactiveCacheManager {
     private Map<String, ReactiveCache> caches = new ConcurrentHashMap<>();
 
+    /**
+     * 判断指定名称的缓存是否开启single-flight,开启后并发未命中的请求将共享同一个加载结果
+     *
+     * @see SingleFlightReactiveCache
+     */
+    @Getter
+    @Setter
+    private Predicate<String> singleFlight = name -> false;
+
     @Override
     @SuppressWarnings("all")
     public <E> ReactiveCache<E> getCache(String name) {
-        return caches.computeIfAbsent(name, this::createCache);
+        return caches.computeIfAbsent(name, this::createCacheWrapper);
+    }
+
+    private <E> ReactiveCache<E> createCacheWrapper(String name) {
+        ReactiveCache<E> cache = createCache(name);
+        if (singleFlight.test(name)) {
+            return new SingleFlightReactiveCache<>(cache);
+        }
+        return cache;
     }
 
     protected abstract <E> ReactiveCache<E> createCache(String name);
@@ -0,0 +1,74 @@
+package org.hswebframework.web.cache.supports;
+
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * 将全部缓存存储在同一个hash中
+ *
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+public class HashRedisCacheStorage implements RedisCacheStorage {
+
+    private final ReactiveRedisOperations<Object, Object> operations;
+
+    private final String redisKey;
+
+    public HashRedisCacheStorage(ReactiveRedisOperations<Object, Object> operations, String redisKey) {
+        this.operations = operations;
+        this.redisKey = redisKey;
+    }
+
+    @Override
+    public Mono<Object> get(Object key) {
+        return operations
+                .opsForHash()
+                .get(redisKey, key);
+    }
+
+    @Override
+    public Flux<Object> getAll(Collection<?> keys) {
+        return operations
+                .opsForHash()
+                .multiGet(redisKey, new ArrayList<>(keys))
+                .flatMapIterable(list -> list)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Flux<Object> getAll() {
+        return operations
+                .opsForHash()
+                .values(redisKey);
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Object value) {
+        return operations
+                .opsForHash()
+                .put(redisKey, key, value)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> remove(Collection<?> keys) {
+        return operations
+                .opsForHash()
+                .remove(redisKey, keys.toArray())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> clear() {
+        return operations
+                .opsForHash()
+                .delete(redisKey)
+                .then();
+    }
+}
@@ -0,0 +1,129 @@
+package org.hswebframework.web.cache.supports;
+
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 每一个缓存使用单独的key进行存储,每一个缓存单独过期.
+ * 清空缓存时只递增代数,旧代数的数据由过期时间进行清理,因此应该设置过期时间.
+ *
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+public class KeyValueRedisCacheStorage extends AbstractGenerationRedisCacheStorage {
+
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private final Duration ttl;
+
+    public KeyValueRedisCacheStorage(ReactiveRedisOperations<Object, Object> operations,
+                                     String redisKey,
+                                     Duration ttl) {
+        super(operations, redisKey);
+        this.ttl = ttl;
+    }
+
+    protected String entryKey(long generation, Object key) {
+        return namespace(generation) + key;
+    }
+
+    private List<Object> entryKeys(long generation, Collection<?> keys) {
+        return keys
+                .stream()
+                .map(key -> entryKey(generation, key))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Object> get(Object key) {
+        return generation()
+                .flatMap(gen -> operations
+                        .opsForValue()
+                        .get(entryKey(gen, key)));
+    }
+
+    @Override
+    public Flux<Object> getAll(Collection<?> keys) {
+        return generation()
+                .flatMap(gen -> operations
+                        .opsForValue()
+                        .multiGet(entryKeys(gen, keys)))
+                .flatMapIterable(list -> list)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * 通过SCAN遍历当前代数的全部key后批量获取,需要遍历整个库,不建议频繁调用.
+     */
+    @Override
+    public Flux<Object> getAll() {
+        return generation()
+                .flatMapMany(gen -> {
+                    String namespace = namespace(gen);
+                    //key可能经过序列化,所以匹配包含命名空间的key后再进行过滤
+                    ScanOptions options = ScanOptions
+                            .scanOptions()
+                            .match("*" + escapePattern(namespace) + "*")
+                            .count(SCAN_BATCH_SIZE)
+                            .build();
+                    return operations
+                            .scan(options)
+                            .filter(key -> String.valueOf(key).startsWith(namespace))
+                            .buffer(SCAN_BATCH_SIZE)
+                            .concatMap(keys -> operations.opsForValue().multiGet(keys))
+                            .flatMapIterable(list -> list)
+                            .filter(Objects::nonNull);
+                });
+    }
+
+    static String escapePattern(String pattern) {
+        StringBuilder builder = new StringBuilder(pattern.length());
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Object value) {
+        return generation()
+                .flatMap(gen -> {
+                    if (ttl == null) {
+                        return operations
+                                .opsForValue()
+                                .set(entryKey(gen, key), value);
+                    }
+                    return operations
+                            .opsForValue()
+                            .set(entryKey(gen, key), value, ttl);
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<Void> remove(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        return generation()
+                .flatMap(gen -> operations.delete(entryKeys(gen, keys).toArray()))
+                .then();
+    }
+
+    @Override
+    protected Mono<Void> cleanup(long generation) {
+        //旧数据由过期时间清理
+        return Mono.empty();
+    }
+}
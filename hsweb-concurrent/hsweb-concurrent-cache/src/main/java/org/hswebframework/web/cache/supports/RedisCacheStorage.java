@@ -0,0 +1,53 @@
+package org.hswebframework.web.cache.supports;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * redis缓存的存储方式
+ *
+ * @see HashRedisCacheStorage
+ * @see ShardedHashRedisCacheStorage
+ * @see KeyValueRedisCacheStorage
+ * @see RedisReactiveCache
+ * @since 4.0.16
+ */
+public interface RedisCacheStorage {
+
+    Mono<Object> get(Object key);
+
+    Flux<Object> getAll(Collection<?> keys);
+
+    /**
+     * 获取全部缓存值,存储方式不支持时返回{@link UnsupportedOperationException}
+     *
+     * @return 全部缓存值
+     */
+    Flux<Object> getAll();
+
+    Mono<Void> put(Object key, Object value);
+
+    Mono<Void> remove(Collection<?> keys);
+
+    Mono<Void> clear();
+
+    /**
+     * 重新加载存储的状态,在其他节点清空了缓存时调用
+     *
+     * @return void
+     */
+    default Mono<Void> refresh() {
+        return Mono.empty();
+    }
+
+    enum Type {
+        //全部缓存存储在同一个hash中
+        hash,
+        //根据key分散存储到多个hash中
+        sharded,
+        //每一个缓存使用单独的key存储,支持单独过期
+        key
+    }
+}
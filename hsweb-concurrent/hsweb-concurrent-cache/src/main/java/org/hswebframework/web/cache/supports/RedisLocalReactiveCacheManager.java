@@ -4,14 +4,23 @@ import lombok.Getter;
 import lombok.Setter;
 import org.hswebframework.web.cache.ReactiveCache;
 import org.hswebframework.web.cache.ReactiveCacheManager;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
 
-public class RedisLocalReactiveCacheManager extends AbstractReactiveCacheManager {
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+
+public class RedisLocalReactiveCacheManager extends AbstractReactiveCacheManager implements DisposableBean {
 
     private ReactiveRedisOperations<Object, Object> operations;
 
     private ReactiveCacheManager localCacheManager;
 
+    //已创建的缓存,停止时取消订阅
+    private final List<RedisReactiveCache<?>> caches = new CopyOnWriteArrayList<>();
+
     public RedisLocalReactiveCacheManager(ReactiveRedisOperations<Object, Object> operations, ReactiveCacheManager localCacheManager) {
         this.operations = operations;
         this.localCacheManager = localCacheManager;
@@ -21,8 +30,39 @@ public class RedisLocalReactiveCacheManager extends AbstractReactiveCacheManager
     @Getter
     private String redisCachePrefix = "spring-cache:";
 
+    //定时检查缓存版本号的间隔,为0时不检查
+    @Setter
+    @Getter
+    private Duration versionCheckInterval = Duration.ofMinutes(1);
+
+    //缓存存储方式,默认将全部缓存存储在同一个hash中
+    @Setter
+    @Getter
+    private BiFunction<String, String, RedisCacheStorage> storageFactory;
+
     @Override
     protected <E> ReactiveCache<E> createCache(String name) {
-        return new RedisReactiveCache<>(redisCachePrefix.concat(name), operations, localCacheManager.getCache(name));
+        RedisReactiveCache<E> cache = new RedisReactiveCache<>(redisCachePrefix.concat(name),
+                                                               operations,
+                                                               localCacheManager.getCache(name),
+                                                               versionCheckInterval,
+                                                               createStorage(name, redisCachePrefix.concat(name)));
+        caches.add(cache);
+        return cache;
+    }
+
+    @Override
+    public void destroy() {
+        for (RedisReactiveCache<?> cache : caches) {
+            cache.dispose();
+        }
+        caches.clear();
+    }
+
+    protected RedisCacheStorage createStorage(String name, String redisKey) {
+        if (storageFactory == null) {
+            return new HashRedisCacheStorage(operations, redisKey);
+        }
+        return storageFactory.apply(name, redisKey);
     }
 }
@@ -1,22 +1,63 @@
 package org.hswebframework.web.cache.supports;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.cache.ReactiveCache;
 import org.reactivestreams.Publisher;
 import org.springframework.data.redis.connection.ReactiveSubscription;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+/**
+ * 基于redis的二级缓存,本地缓存作为一级缓存.
+ * <p>
+ * 每次变更缓存时,通过lua脚本递增redis中的缓存版本号并通过redis pub/sub通知其他节点清除本地缓存,只需要一次网络往返.
+ * 通知消息中带有版本号,当节点发现版本号不连续(丢失了通知消息)时,或者(重新)订阅确认后和定时检查时
+ * 发现版本号与redis中不一致时,清空本地缓存.
+ * <p>
+ * 不再使用时需要调用{@link #dispose()}取消订阅以及定时检查.
+ */
 @SuppressWarnings("all")
 @Slf4j
-public class RedisReactiveCache<E> implements ReactiveCache<E> {
+public class RedisReactiveCache<E> implements ReactiveCache<E>, Disposable {
+
+    static final String ALL_KEY = "___all";
+
+    //递增版本号并发送通知,通知消息为: 版本号,key
+    private static final RedisScript<Long> NOTIFY = RedisScript.of(
+            "local v = redis.call('incr', KEYS[1]);" +
+                    "redis.call('publish', ARGV[1], v .. ',' .. ARGV[2]);" +
+                    "return v;", Long.class);
+
+    //读取版本号,与NOTIFY使用相同的方式序列化key,保证读写的是同一个key
+    private static final RedisScript<Long> VERSION = RedisScript.of(
+            "return redis.call('incrby', KEYS[1], 0);", Long.class);
+
+    private static final RedisElementWriter<String> STRING_WRITER = RedisElementWriter.from(StringRedisSerializer.UTF_8);
+
+    private static final RedisElementReader<Long> LONG_READER = buffer -> Long.parseLong(StandardCharsets.UTF_8.decode(buffer).toString());
 
     private ReactiveRedisOperations<Object, Object> operations;
 
@@ -26,39 +67,215 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
 
     private String topicName;
 
+    private String versionKey;
+
+    private RedisCacheStorage storage;
+
+    //本地缓存对应的版本号
+    private final AtomicLong localVersion = new AtomicLong(-1);
+
+    private final LongAdder localHit = new LongAdder();
+    private final LongAdder localMiss = new LongAdder();
+    private final LongAdder remoteHit = new LongAdder();
+    private final LongAdder remoteMiss = new LongAdder();
+
+    //通知订阅以及定时检查任务
+    private final Disposable.Composite disposable = Disposables.composite();
+
     public RedisReactiveCache(String redisKey, ReactiveRedisOperations<Object, Object> operations, ReactiveCache<E> localCache) {
+        this(redisKey, operations, localCache, Duration.ofMinutes(1));
+    }
+
+    public RedisReactiveCache(String redisKey,
+                              ReactiveRedisOperations<Object, Object> operations,
+                              ReactiveCache<E> localCache,
+                              Duration versionCheckInterval) {
+        this(redisKey, operations, localCache, versionCheckInterval, new HashRedisCacheStorage(operations, redisKey));
+    }
+
+    public RedisReactiveCache(String redisKey,
+                              ReactiveRedisOperations<Object, Object> operations,
+                              ReactiveCache<E> localCache,
+                              Duration versionCheckInterval,
+                              RedisCacheStorage storage) {
         this.operations = operations;
+        this.storage = storage;
         this.localCache = localCache;
         this.redisKey = redisKey;
-        operations.listenToChannel(topicName = ("_cache_changed:" + redisKey))
-                .map(ReactiveSubscription.Message::getMessage)
-                .cast(String.class)
-                .subscribe(s -> {
-                    if (s.equals("___all")) {
-                        localCache.clear().subscribe();
-                        return;
+        this.versionKey = redisKey + ":_version";
+        this.topicName = "_cache_changed:" + redisKey;
+        disposable.add(listenChanged());
+        if (versionCheckInterval != null && !versionCheckInterval.isZero() && !versionCheckInterval.isNegative()) {
+            disposable.add(
+                    Flux.interval(versionCheckInterval)
+                        .onBackpressureDrop()
+                        .concatMap(ignore -> syncVersion().onErrorResume(err -> this.handleError(err)))
+                        .subscribe());
+        }
+    }
+
+    /**
+     * 订阅通知消息,在redis确认订阅后才同步版本号,防止在订阅完成前丢失通知消息.
+     * 通知消息由lua脚本发送,所以直接订阅原始消息,不使用{@link ReactiveRedisOperations}的序列化方式.
+     */
+    private Disposable listenChanged() {
+        ByteBuffer channel = StandardCharsets.UTF_8.encode(topicName);
+        return operations
+                .execute(connection -> connection
+                        .pubSubCommands()
+                        .createSubscription()
+                        .flatMapMany(subscription -> Flux
+                                .merge(subscription.receive(),
+                                       subscription
+                                               .subscribe(channel.duplicate())
+                                               //(重新)订阅确认后同步版本号,防止在断开期间丢失了通知消息
+                                               .then(syncVersion())
+                                               .thenMany(Flux.<ReactiveSubscription.Message<ByteBuffer, ByteBuffer>>empty()))
+                                .doFinally(signal -> subscription.cancel().subscribe(null, this::handleError))))
+                .map(message -> StandardCharsets.UTF_8.decode(message.getMessage()).toString())
+                .doOnNext(this::handleChanged)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                .maxBackoff(Duration.ofSeconds(30))
+                                .doBeforeRetry(signal -> log.warn("listen to redis cache channel [{}] error,retrying", topicName, signal.failure())))
+                //订阅正常结束(例如连接被关闭)后延迟重新订阅
+                .repeatWhen(signals -> signals.delayElements(Duration.ofSeconds(1)))
+                .subscribe();
+    }
+
+    @Override
+    public void dispose() {
+        disposable.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposable.isDisposed();
+    }
+
+    protected void handleChanged(Object message) {
+        String msg = String.valueOf(message);
+        String key = msg;
+        long version = -1;
+        int idx = msg.indexOf(',');
+        if (idx > 0) {
+            try {
+                version = Long.parseLong(msg.substring(0, idx));
+                key = msg.substring(idx + 1);
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        //无法识别的消息,忽略.丢失的通知由定时检查版本号处理
+        if (version < 0) {
+            log.warn("unsupported redis cache [{}] changed message: {}", redisKey, msg);
+            return;
+        }
+        long local = localVersion.getAndAccumulate(version, Math::max);
+        //版本号不连续,说明丢失了通知消息,清空全部本地缓存
+        if (local >= 0 && version > local + 1) {
+            clearLocal().subscribe(null, this::handleError);
+            return;
+        }
+        if (ALL_KEY.equals(key)) {
+            clearLocal().subscribe(null, this::handleError);
+            return;
+        }
+        //清空本地缓存
+        localCache.evict(key).subscribe(null, this::handleError);
+    }
+
+    /**
+     * 对比redis中的版本号与本地版本号,如果不一致则清空本地缓存.
+     *
+     * @return void
+     */
+    public Mono<Void> syncVersion() {
+        return operations
+                .execute(VERSION,
+                         Collections.singletonList(versionKey),
+                         Collections.emptyList(),
+                         STRING_WRITER,
+                         LONG_READER)
+                .next()
+                .flatMap(version -> {
+                    long local = localVersion.getAndSet(version);
+                    if (local != version) {
+                        log.debug("redis cache [{}] version changed {} -> {},clear local cache", redisKey, local, version);
+                        return clearLocal();
                     }
-                    //清空本地缓存
-                    localCache.evict(s).subscribe();
-                });
+                    return Mono.empty();
+                })
+                .onErrorResume(err -> this.handleError(err));
+    }
+
+    private Mono<Void> clearLocal() {
+        return storage
+                .refresh()
+                .onErrorResume(err -> this.handleError(err))
+                .then(localCache.clear());
+    }
+
+    /**
+     * 递增版本号并通知其他节点
+     *
+     * @param key 发生变化的key
+     * @return void
+     */
+    protected Mono<Void> notifyChanged(Object key) {
+        return operations
+                .execute(NOTIFY,
+                         Collections.singletonList(versionKey),
+                         Arrays.asList(topicName, String.valueOf(key)),
+                         STRING_WRITER,
+                         LONG_READER)
+                .then();
+    }
+
+    /**
+     * 从redis中读取数据并放入本地缓存,如果读取期间本地版本号发生了变化,则不放入本地缓存.
+     */
+    private <T> Mono<T> loadRemote(Object key, Function<Object, Mono<T>> loader, Function<T, Publisher<E>> toLocal) {
+        return Mono.defer(() -> {
+            localMiss.increment();
+            long version = localVersion.get();
+            return loader
+                    .apply(key)
+                    .flatMap(value -> {
+                        remoteHit.increment();
+                        if (localVersion.get() != version) {
+                            return Mono.just(value);
+                        }
+                        return localCache
+                                .put(key, toLocal.apply(value))
+                                .thenReturn(value);
+                    })
+                    .switchIfEmpty(Mono.fromRunnable(remoteMiss::increment));
+        });
     }
 
     @Override
     public Flux<E> getFlux(Object key) {
         return localCache
                 .getFlux(key)
-                .switchIfEmpty(Flux.<E>defer(() -> {
-                    return operations
-                            .opsForHash()
-                            .get(redisKey, key)
-                            .flatMapIterable(r -> {
-                                if (r instanceof Iterable) {
-                                    return ((Iterable) r);
-                                }
-                                return Collections.singletonList(r);
-                            })
-                            .map(r -> (E) r);
-                }))
+                .collectList()
+                .filter(list -> !list.isEmpty())
+                .doOnNext(ignore -> localHit.increment())
+                .switchIfEmpty(this.<List<E>>loadRemote(
+                        key,
+                        _key -> storage
+                                .get(_key)
+                                .map(r -> {
+                                    if (r instanceof List) {
+                                        return ((List<E>) r);
+                                    }
+                                    if (r instanceof Iterable) {
+                                        return StreamSupport
+                                                .stream(((Iterable<E>) r).spliterator(), false)
+                                                .collect(Collectors.toList());
+                                    }
+                                    return Collections.singletonList((E) r);
+                                }),
+                        Flux::fromIterable))
+                .flatMapIterable(Function.identity())
                 .onErrorResume(err -> this.<E>handleError((Throwable) err));
 
     }
@@ -70,12 +287,15 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
 
     @Override
     public Mono<E> getMono(Object key) {
-        return localCache.getMono(key)
-                .switchIfEmpty(operations.opsForHash()
-                        .get(redisKey, key)
-                        .map(v -> (E) v)
-                        .flatMap(r -> localCache.put(key, Mono.just(r))
-                                .thenReturn(r)))
+        return localCache
+                .getMono(key)
+                .doOnNext(ignore -> localHit.increment())
+                .switchIfEmpty(this.<E>loadRemote(
+                        key,
+                        _key -> storage
+                                .get(_key)
+                                .map(v -> (E) v),
+                        Mono::just))
                 .onErrorResume(err -> this.handleError(err));
     }
 
@@ -84,10 +304,10 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
         if (data instanceof Mono) {
             return ((Mono<?>) data)
                     .flatMap(r -> {
-                        return operations.opsForHash()
-                                .put(redisKey, key, r)
+                        return storage
+                                .put(key, r)
                                 .then(localCache.put(key, data))
-                                .then(operations.convertAndSend(topicName, key));
+                                .then(notifyChanged(key));
 
                     })
                     .then()
@@ -98,10 +318,10 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
             return ((Flux<?>) data)
                     .collectList()
                     .flatMap(r -> {
-                        return operations.opsForHash()
-                                .put(redisKey, key, r)
+                        return storage
+                                .put(key, r)
                                 .then(localCache.put(key, data))
-                                .then(operations.convertAndSend(topicName, key));
+                                .then(notifyChanged(key));
 
                     })
                     .then()
@@ -114,11 +334,11 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
 
     @Override
     public Mono<Void> evictAll(Iterable<?> key) {
-        return operations.opsForHash()
-                .remove(redisKey, StreamSupport.stream(key.spliterator(), false).toArray())
+        return storage
+                .remove(StreamSupport.stream(key.spliterator(), false).collect(Collectors.toList()))
                 .then(localCache.evictAll(key))
-                .flatMap(nil -> Flux.fromIterable(key)
-                        .flatMap(k -> operations.convertAndSend(topicName, key))
+                .then(Flux.fromIterable(key)
+                        .concatMap(k -> notifyChanged(k))
                         .then()
                 )
                 .onErrorResume(err -> this.handleError(err));
@@ -127,14 +347,12 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
     @Override
     public Flux<E> getAll(Object... keys) {
         if (keys.length == 0) {
-            return operations
-                    .opsForHash()
-                    .values(redisKey)
+            return storage
+                    .getAll()
                     .map(r -> (E) r);
         }
-        return operations.opsForHash()
-                .multiGet(redisKey, Arrays.asList(keys))
-                .flatMapIterable(Function.identity())
+        return storage
+                .getAll(Arrays.asList(keys))
                 .map(r -> (E) r)
                 .onErrorResume(err -> this.handleError(err));
     }
@@ -142,23 +360,42 @@ public class RedisReactiveCache<E> implements ReactiveCache<E> {
 
     @Override
     public Mono<Void> evict(Object key) {
-        return operations
-                .opsForHash()
-                .remove(redisKey, key)
+        return storage
+                .remove(Collections.singletonList(key))
                 .then(localCache.evict(key))
-                .then(operations.convertAndSend(topicName, key))
+                .then(notifyChanged(key))
                 .onErrorResume(err -> this.handleError(err))
                 .then();
     }
 
     @Override
     public Mono<Void> clear() {
-        return operations
-                .opsForHash()
-                .delete(redisKey)
+        return storage
+                .clear()
                 .then(localCache.clear())
-                .then(operations.convertAndSend(topicName, "___all"))
+                .then(notifyChanged(ALL_KEY))
                 .onErrorResume(err -> this.handleError(err))
                 .then();
     }
+
+    /**
+     * @return 本地缓存和redis缓存的命中统计
+     */
+    public Statistics getStatistics() {
+        return new Statistics(localHit.sum(), localMiss.sum(), remoteHit.sum(), remoteMiss.sum());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class Statistics {
+        //本地缓存命中次数
+        private final long localHit;
+        //本地缓存未命中次数
+        private final long localMiss;
+        //redis缓存命中次数
+        private final long remoteHit;
+        //redis缓存未命中次数
+        private final long remoteMiss;
+    }
 }
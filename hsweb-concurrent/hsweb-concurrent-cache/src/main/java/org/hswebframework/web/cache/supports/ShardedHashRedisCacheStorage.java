@@ -0,0 +1,173 @@
+package org.hswebframework.web.cache.supports;
+
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 根据key的hash值将缓存分散存储到多个hash中,避免整个缓存成为一个热点key.
+ * <p>
+ * 过期时间作用于分片,同一个代数的分片只在首次写入时设置过期时间,之后最多每隔过期时间的一半刷新一次,
+ * 不会每次写入都发送EXPIRE命令,分片在最后一次写入后至少保留过期时间的一半.
+ * <p>
+ * 清空缓存后,旧代数的分片不会立即删除,而是在{@code cleanupDelay}后过期,
+ * 使尚未同步到新代数的节点在此期间仍然可以读取旧代数的数据.
+ *
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+public class ShardedHashRedisCacheStorage extends AbstractGenerationRedisCacheStorage {
+
+    private final int shards;
+
+    private final Duration ttl;
+
+    private final Duration cleanupDelay;
+
+    //每个分片已经设置过期时间的代数以及下一次刷新过期时间的时间
+    private final AtomicReferenceArray<ShardExpiry> expires;
+
+    public ShardedHashRedisCacheStorage(ReactiveRedisOperations<Object, Object> operations,
+                                        String redisKey,
+                                        int shards,
+                                        Duration ttl) {
+        this(operations, redisKey, shards, ttl, Duration.ofMinutes(2));
+    }
+
+    /**
+     * @param operations   redis操作接口
+     * @param redisKey     缓存的key
+     * @param shards       分片数量
+     * @param ttl          分片的过期时间,为null时不过期
+     * @param cleanupDelay 清空缓存后,旧代数的数据保留的时间,应该不小于检查缓存版本号的间隔
+     */
+    public ShardedHashRedisCacheStorage(ReactiveRedisOperations<Object, Object> operations,
+                                        String redisKey,
+                                        int shards,
+                                        Duration ttl,
+                                        Duration cleanupDelay) {
+        super(operations, redisKey);
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be greater than 0");
+        }
+        this.shards = shards;
+        this.ttl = ttl;
+        this.cleanupDelay = cleanupDelay;
+        this.expires = new AtomicReferenceArray<>(shards);
+    }
+
+    protected int shard(Object key) {
+        //使用字符串的hashCode,保证不同节点计算结果一致
+        return Math.floorMod(String.valueOf(key).hashCode(), shards);
+    }
+
+    protected String shardKey(long generation, int shard) {
+        return namespace(generation) + shard;
+    }
+
+    private Map<Integer, List<Object>> groupByShard(Collection<?> keys) {
+        Map<Integer, List<Object>> group = new HashMap<>();
+        for (Object key : keys) {
+            group.computeIfAbsent(shard(key), ignore -> new ArrayList<>()).add(key);
+        }
+        return group;
+    }
+
+    @Override
+    public Mono<Object> get(Object key) {
+        return generation()
+                .flatMap(gen -> operations
+                        .opsForHash()
+                        .get(shardKey(gen, shard(key)), key));
+    }
+
+    @Override
+    public Flux<Object> getAll(Collection<?> keys) {
+        return generation()
+                .flatMapMany(gen -> Flux
+                        .fromIterable(groupByShard(keys).entrySet())
+                        .concatMap(entry -> operations
+                                .opsForHash()
+                                .multiGet(shardKey(gen, entry.getKey()), entry.getValue())
+                                .flatMapIterable(list -> list)
+                                .filter(Objects::nonNull)));
+    }
+
+    @Override
+    public Flux<Object> getAll() {
+        return generation()
+                .flatMapMany(gen -> Flux
+                        .range(0, shards)
+                        .concatMap(shard -> operations
+                                .opsForHash()
+                                .values(shardKey(gen, shard))));
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Object value) {
+        return generation()
+                .flatMap(gen -> {
+                    int shard = shard(key);
+                    String shardKey = shardKey(gen, shard);
+                    Mono<Boolean> put = operations
+                            .opsForHash()
+                            .put(shardKey, key, value);
+                    if (ttl == null || !markExpire(gen, shard)) {
+                        return put.then();
+                    }
+                    return put
+                            .then(operations.expire(shardKey, ttl))
+                            .then();
+                });
+    }
+
+    //判断是否需要刷新分片的过期时间,需要时更新标记并返回true
+    private boolean markExpire(long generation, int shard) {
+        long now = System.currentTimeMillis();
+        ShardExpiry current = expires.get(shard);
+        if (current != null && current.generation == generation && now < current.refreshAt) {
+            return false;
+        }
+        ShardExpiry next = new ShardExpiry(generation, now + ttl.toMillis() / 2);
+        //并发写入时只由一个请求刷新
+        return expires.compareAndSet(shard, current, next);
+    }
+
+    @Override
+    public Mono<Void> remove(Collection<?> keys) {
+        return generation()
+                .flatMap(gen -> Flux
+                        .fromIterable(groupByShard(keys).entrySet())
+                        .concatMap(entry -> operations
+                                .opsForHash()
+                                .remove(shardKey(gen, entry.getKey()), entry.getValue().toArray()))
+                        .then());
+    }
+
+    @Override
+    protected Mono<Void> cleanup(long generation) {
+        if (generation < 0) {
+            return Mono.empty();
+        }
+        //延迟删除,其他节点在同步到新代数之前仍然可能读写旧代数的数据
+        return Flux
+                .range(0, shards)
+                .flatMap(shard -> operations.expire(shardKey(generation, shard), cleanupDelay))
+                .then();
+    }
+
+    private static class ShardExpiry {
+        private final long generation;
+
+        private final long refreshAt;
+
+        private ShardExpiry(long generation, long refreshAt) {
+            this.generation = generation;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
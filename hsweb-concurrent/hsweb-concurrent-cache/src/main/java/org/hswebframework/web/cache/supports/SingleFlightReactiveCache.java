@@ -0,0 +1,123 @@
+package org.hswebframework.web.cache.supports;
+
+import org.hswebframework.web.cache.ReactiveCache;
+import org.reactivestreams.Publisher;
+import reactor.cache.CacheFlux;
+import reactor.cache.CacheMono;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 合并并发缓存未命中请求的缓存包装器.
+ * <p>
+ * 同一个key并发未命中时,只会订阅一次数据加载器,其他订阅者共享同一个加载结果,
+ * 避免热点数据失效时大量请求同时访问数据库.
+ *
+ * @param <E> 缓存值类型
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+public class SingleFlightReactiveCache<E> implements ReactiveCache<E> {
+
+    private final ReactiveCache<E> cache;
+
+    private final Map<Object, Mono<E>> monoInFlight = new ConcurrentHashMap<>();
+
+    private final Map<Object, Mono<List<E>>> fluxInFlight = new ConcurrentHashMap<>();
+
+    public SingleFlightReactiveCache(ReactiveCache<E> cache) {
+        this.cache = cache;
+    }
+
+    public ReactiveCache<E> getTarget() {
+        return cache;
+    }
+
+    @Override
+    public Flux<E> getFlux(Object key) {
+        return cache.getFlux(key);
+    }
+
+    @Override
+    public Mono<E> getMono(Object key) {
+        return cache.getMono(key);
+    }
+
+    @Override
+    public Mono<Void> put(Object key, Publisher<E> data) {
+        return cache.put(key, data);
+    }
+
+    @Override
+    public Mono<Void> evict(Object key) {
+        return cache.evict(key);
+    }
+
+    @Override
+    public Flux<E> getAll(Object... keys) {
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public Mono<Void> evictAll(Iterable<?> key) {
+        return cache.evictAll(key);
+    }
+
+    @Override
+    public Mono<Void> clear() {
+        return cache.clear();
+    }
+
+    @Override
+    public CacheFlux.FluxCacheBuilderMapMiss<E> flux(Object key) {
+        return otherSupplier -> Flux
+                .defer(() -> this
+                        .getFlux(key)
+                        .switchIfEmpty(Flux.defer(() -> loadFlux(key, otherSupplier))));
+    }
+
+    @Override
+    public CacheMono.MonoCacheBuilderMapMiss<E> mono(Object key) {
+        return otherSupplier -> Mono
+                .defer(() -> this
+                        .getMono(key)
+                        .switchIfEmpty(Mono.defer(() -> loadMono(key, otherSupplier))));
+    }
+
+    protected Mono<E> loadMono(Object key, Supplier<Mono<E>> loader) {
+        return monoInFlight
+                .computeIfAbsent(key, _key -> share(monoInFlight, _key, Mono
+                        .defer(loader)
+                        .flatMap(value -> put(_key, Mono.just(value)).thenReturn(value))));
+    }
+
+    protected Flux<E> loadFlux(Object key, Supplier<Flux<E>> loader) {
+        return fluxInFlight
+                .computeIfAbsent(key, _key -> share(fluxInFlight, _key, Flux
+                        .defer(loader)
+                        .collectList()
+                        .flatMap(values -> put(_key, Flux.fromIterable(values)).thenReturn(values))))
+                .flatMapIterable(list -> list);
+    }
+
+    //共享加载结果,全部订阅者取消后取消加载.加载完成或者取消后,移除正在加载的请求
+    private static <T> Mono<T> share(Map<Object, Mono<T>> inFlight, Object key, Mono<T> source) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> shared = source
+                //只移除自己,防止移除了之后新发起的加载请求
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .flux()
+                .replay(1)
+                .refCount()
+                .singleOrEmpty();
+        self.set(shared);
+        return shared;
+    }
+
+}
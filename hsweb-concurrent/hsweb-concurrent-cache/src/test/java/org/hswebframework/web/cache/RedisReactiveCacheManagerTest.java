@@ -1,13 +1,18 @@
 package org.hswebframework.web.cache;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hswebframework.web.cache.supports.CaffeineReactiveCacheManager;
+import org.hswebframework.web.cache.supports.KeyValueRedisCacheStorage;
 import org.hswebframework.web.cache.supports.RedisLocalReactiveCacheManager;
 import org.hswebframework.web.cache.supports.RedisReactiveCache;
+import org.hswebframework.web.cache.supports.ShardedHashRedisCacheStorage;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.junit4.rules.SpringClassRule;
@@ -15,6 +20,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+
 import static org.junit.Assert.*;
 
 
@@ -28,6 +35,126 @@ public class RedisReactiveCacheManagerTest {
     @Autowired
     ReactiveCacheManager cacheManager;
 
+    @Autowired
+    ReactiveRedisOperations<Object, Object> operations;
+
+    @Test
+    public void testKeyValueStorageGetAll() {
+        KeyValueRedisCacheStorage storage = new KeyValueRedisCacheStorage(operations, "test-key-storage", Duration.ofMinutes(1));
+        storage.clear()
+               .then(storage.put("a", "1"))
+               .then(storage.put("b", "2"))
+               .thenMany(storage.getAll())
+               .sort()
+               .as(StepVerifier::create)
+               .expectNext("1", "2")
+               .verifyComplete();
+
+        //清空后不再读取旧代数的数据
+        storage.clear()
+               .thenMany(storage.getAll())
+               .as(StepVerifier::create)
+               .expectNextCount(0)
+               .verifyComplete();
+    }
+
+    @Test
+    public void testShardedStorageCleanupLater() {
+        ShardedHashRedisCacheStorage storage = new ShardedHashRedisCacheStorage(operations, "test-sharded-storage", 1, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        storage.clear()
+               .then(storage.put("a", "1"))
+               .as(StepVerifier::create)
+               .verifyComplete();
+        String oldShard = operations
+                .opsForValue()
+                .increment("test-sharded-storage:_generation", 0)
+                .map(gen -> "test-sharded-storage:" + gen + ":0")
+                .block();
+
+        //分片设置了过期时间
+        operations.getExpire(oldShard)
+                  .as(StepVerifier::create)
+                  .assertNext(ttl -> assertTrue(ttl.getSeconds() > 60))
+                  .verifyComplete();
+
+        //清空后旧代数的数据没有立即删除,而是设置为延迟过期
+        storage.clear()
+               .then(Mono.delay(Duration.ofMillis(200)))
+               .then(operations.<Object, Object>opsForHash().get(oldShard, "a"))
+               .as(StepVerifier::create)
+               .expectNext("1")
+               .verifyComplete();
+        operations.getExpire(oldShard)
+                  .as(StepVerifier::create)
+                  .assertNext(ttl -> assertTrue(ttl.getSeconds() <= 60))
+                  .verifyComplete();
+
+        storage.getAll()
+               .as(StepVerifier::create)
+               .expectNextCount(0)
+               .verifyComplete();
+    }
+
+    @Test
+    public void testSyncVersionAfterNotify() {
+        ReactiveCache<String> local = new CaffeineReactiveCacheManager(Caffeine.newBuilder()).getCache("test-sync");
+        RedisReactiveCache<String> cache = new RedisReactiveCache<>("test-sync", operations, local, Duration.ZERO);
+        try {
+            //等待订阅完成以及自身的通知处理完成
+            Mono.delay(Duration.ofMillis(500))
+                .then(cache.put("test", Mono.just("1")))
+                .then(Mono.delay(Duration.ofMillis(500)))
+                .then(local.put("marker", Mono.just("1")))
+                //版本号没有变化,不清空本地缓存
+                .then(cache.syncVersion())
+                .then(local.getMono("marker"))
+                .as(StepVerifier::create)
+                .expectNext("1")
+                .verifyComplete();
+        } finally {
+            cache.dispose();
+        }
+    }
+
+    @Test
+    public void testNotifyChanged() {
+        //模拟两个节点
+        RedisReactiveCache<String> node1 = new RedisReactiveCache<>(
+                "test-notify", operations, new CaffeineReactiveCacheManager(Caffeine.newBuilder()).getCache("test-notify"), Duration.ZERO);
+        RedisReactiveCache<String> node2 = new RedisReactiveCache<>(
+                "test-notify", operations, new CaffeineReactiveCacheManager(Caffeine.newBuilder()).getCache("test-notify"), Duration.ZERO);
+        try {
+            node1.put("test", Mono.just("1"))
+                 .as(StepVerifier::create)
+                 .verifyComplete();
+
+            //node2加载到本地缓存
+            node2.getMono("test")
+                 .as(StepVerifier::create)
+                 .expectNext("1")
+                 .verifyComplete();
+
+            node1.put("test", Mono.just("2"))
+                 .as(StepVerifier::create)
+                 .verifyComplete();
+
+            //node2收到通知后清除本地缓存
+            Flux.interval(Duration.ofMillis(50))
+                .concatMap(ignore -> node2.getMono("test"))
+                .filter("2"::equals)
+                .take(1)
+                .timeout(Duration.ofSeconds(10))
+                .as(StepVerifier::create)
+                .expectNext("2")
+                .verifyComplete();
+        } finally {
+            node1.dispose();
+            node2.dispose();
+        }
+        Assert.assertTrue(node1.isDisposed());
+        Assert.assertTrue(node2.isDisposed());
+    }
+
     @Test
     public void test() {
         Assert.assertNotNull(cacheManager);
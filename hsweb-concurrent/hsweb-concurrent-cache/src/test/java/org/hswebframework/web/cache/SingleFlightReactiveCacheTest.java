@@ -0,0 +1,113 @@
+package org.hswebframework.web.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hswebframework.web.cache.supports.CaffeineReactiveCache;
+import org.hswebframework.web.cache.supports.SingleFlightReactiveCache;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightReactiveCacheTest {
+
+    @Test
+    public void testMono() {
+        ReactiveCache<String> cache = new SingleFlightReactiveCache<>(new CaffeineReactiveCache<>(Caffeine.newBuilder().build()));
+        AtomicInteger counter = new AtomicInteger();
+
+        Mono<String> loader = Mono
+                .fromSupplier(() -> String.valueOf(counter.incrementAndGet()))
+                .delayElement(Duration.ofMillis(100));
+
+        Flux.range(0, 100)
+            .flatMap(i -> cache.mono("test-mono").onCacheMissResume(() -> loader))
+            .as(StepVerifier::create)
+            .expectNextCount(100)
+            .verifyComplete();
+
+        Assert.assertEquals(1, counter.get());
+
+        cache.getMono("test-mono")
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+    }
+
+    @Test
+    public void testFlux() {
+        ReactiveCache<String> cache = new SingleFlightReactiveCache<>(new CaffeineReactiveCache<>(Caffeine.newBuilder().build()));
+        AtomicInteger counter = new AtomicInteger();
+
+        Flux<String> loader = Flux
+                .defer(() -> {
+                    counter.incrementAndGet();
+                    return Flux.just("1", "2", "3");
+                })
+                .delayElements(Duration.ofMillis(10));
+
+        Flux.range(0, 100)
+            .flatMap(i -> cache.flux("test-flux").onCacheMissResume(() -> loader))
+            .as(StepVerifier::create)
+            .expectNextCount(300)
+            .verifyComplete();
+
+        Assert.assertEquals(1, counter.get());
+
+        cache.getFlux("test-flux")
+             .as(StepVerifier::create)
+             .expectNext("1", "2", "3")
+             .verifyComplete();
+    }
+
+    @Test
+    public void testError() {
+        ReactiveCache<String> cache = new SingleFlightReactiveCache<>(new CaffeineReactiveCache<>(Caffeine.newBuilder().build()));
+
+        cache.mono("test-error")
+             .onCacheMissResume(() -> Mono.error(new IllegalStateException()))
+             .as(StepVerifier::create)
+             .expectError(IllegalStateException.class)
+             .verify();
+
+        //失败后不应该缓存加载请求
+        cache.mono("test-error")
+             .onCacheMissResume(() -> Mono.just("1"))
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+    }
+
+    @Test
+    public void testCancel() {
+        ReactiveCache<String> cache = new SingleFlightReactiveCache<>(new CaffeineReactiveCache<>(Caffeine.newBuilder().build()));
+        AtomicInteger cancelled = new AtomicInteger();
+
+        Disposable first = cache
+                .mono("test-cancel")
+                .onCacheMissResume(() -> Mono.<String>never().doOnCancel(cancelled::incrementAndGet))
+                .subscribe();
+        Disposable second = cache
+                .mono("test-cancel")
+                .onCacheMissResume(() -> Mono.error(new IllegalStateException()))
+                .subscribe();
+
+        //还有订阅者时不取消加载
+        first.dispose();
+        Assert.assertEquals(0, cancelled.get());
+
+        //全部订阅者取消后取消加载,不会一直占用key
+        second.dispose();
+        Assert.assertEquals(1, cancelled.get());
+
+        cache.mono("test-cancel")
+             .onCacheMissResume(() -> Mono.just("1"))
+             .as(StepVerifier::create)
+             .expectNext("1")
+             .verifyComplete();
+    }
+}
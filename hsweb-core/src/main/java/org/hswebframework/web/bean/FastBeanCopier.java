@@ -22,6 +22,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -36,6 +37,9 @@ import java.util.stream.Stream;
 public final class FastBeanCopier {
     private static final Map<CacheKey, Copier> CACHE = new NonBlockingHashMap<>();
 
+    //运行时首次复制才创建的Copier数量
+    private static final LongAdder LAZY_CREATED = new LongAdder();
+
     private static final PropertyUtilsBean propertyUtils = BeanUtilsBean.getInstance().getPropertyUtils();
 
     private static final ConvertUtilsBean convertUtils = BeanUtilsBean.getInstance().getConvertUtils();
@@ -49,6 +53,9 @@ public final class FastBeanCopier {
 
     public static final DefaultConverter DEFAULT_CONVERT;
 
+    //Copier实现方式: method-handle(默认)或者javassist
+    private static final boolean USE_METHOD_HANDLE = !"javassist".equals(System.getProperty("hsweb.bean.copier.backend"));
+
     public static void setBeanFactory(BeanFactory beanFactory) {
         BEAN_FACTORY = beanFactory;
         DEFAULT_CONVERT.setBeanFactory(beanFactory);
@@ -159,18 +166,60 @@ public final class FastBeanCopier {
         Class<?> targetType = getUserClass(target);
         CacheKey key = createCacheKey(sourceType, targetType);
         if (autoCreate) {
-            return CACHE.computeIfAbsent(key, k -> createCopier(sourceType, targetType));
+            return CACHE.computeIfAbsent(key, k -> {
+                LAZY_CREATED.increment();
+                log.debug("lazy create copier {}->{}", sourceType, targetType);
+                return createCopier(sourceType, targetType);
+            });
         } else {
             return CACHE.get(key);
         }
 
     }
 
+    /**
+     * 预先创建Copier,避免在首次复制时才创建. Map类型使用{@link Map}.class.
+     *
+     * @param source 源类型
+     * @param target 目标类型
+     * @return Copier
+     */
+    public static Copier preload(Class<?> source, Class<?> target) {
+        Class<?> sourceType = Map.class.isAssignableFrom(source) ? Map.class : source;
+        Class<?> targetType = Map.class.isAssignableFrom(target) ? Map.class : target;
+        return CACHE.computeIfAbsent(createCacheKey(sourceType, targetType), k -> createCopier(sourceType, targetType));
+    }
+
+    /**
+     * @return 在运行时首次复制时才创建的Copier数量, 可用于判断是否需要预先创建Copier
+     */
+    public static long getLazyCreatedCount() {
+        return LAZY_CREATED.sum();
+    }
+
+    /**
+     * @return 已经创建的Copier数量
+     */
+    public static int getCopierCount() {
+        return CACHE.size();
+    }
+
     private static CacheKey createCacheKey(Class<?> source, Class<?> target) {
         return new CacheKey(source, target);
     }
 
     public static Copier createCopier(Class<?> source, Class<?> target) {
+        if (USE_METHOD_HANDLE) {
+            try {
+                return MethodHandleCopier.create(source, target);
+            } catch (Throwable e) {
+                log.debug("create method handle copier {}->{} failed,fallback to javassist", source, target, e);
+            }
+        }
+        return createJavassistCopier(source, target);
+    }
+
+    static Copier createJavassistCopier(Class<?> source, Class<?> target) {
         String sourceName = source.getName();
         String tartName = target.getName();
         if (sourceName.startsWith("package ")) {
@@ -601,14 +650,14 @@ public final class FastBeanCopier {
 
             if (target.isEnumType()) {
                 if (target.isEnumDict()) {
-                    String strVal = String.valueOf(source);
-                    Object val = null;
-                    for (Object anEnum : target.getEnums()) {
-                        EnumDict dic = ((EnumDict) anEnum);
-                        Enum e = ((Enum<?>) anEnum);
-                        if (dic.eq(source) || e.name().equalsIgnoreCase(strVal)) {
-                            val = (T) anEnum;
-                            break;
+                    Object val = EnumDict.find((Class) targetClass, source).orElse(null);
+                    if (val == null) {
+                        String strVal = String.valueOf(source);
+                        for (Object anEnum : target.getEnums()) {
+                            if (((Enum<?>) anEnum).name().equalsIgnoreCase(strVal)) {
+                                val = anEnum;
+                                break;
+                            }
                         }
                     }
                     if (val == null) {
@@ -0,0 +1,546 @@
+package org.hswebframework.web.bean;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.hswebframework.utils.time.DateFormatter;
+import org.hswebframework.web.dict.EnumDict;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 基于{@link MethodHandle}的{@link Copier}实现,不需要动态编译源代码.
+ * <p>
+ * 在创建时根据属性类型确定转换方式:基本数据类型之间直接通过MethodHandle组合复制,不会装箱(类型不一致时仅在使用默认{@link Converter}时);
+ * 常用的包装器类型,String,Date,枚举之间使用内置的转换,其他类型才调用{@link Converter}进行转换.
+ * 使用自定义{@link Converter}时,所有类型不一致的属性都调用{@link Converter}进行转换,与动态编译的实现保持一致.
+ *
+ * @author zhouhao
+ * @see FastBeanCopier#createCopier(Class, Class)
+ * @since 4.0.16
+ */
+final class MethodHandleCopier implements Copier {
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodHandle MAP_GET;
+
+    private static final MethodHandle MAP_PUT;
+
+    //内置转换无法处理时,使用Converter转换
+    private static final Object FALLBACK = new Object();
+
+    private static final Map<Class<?>, Class<?>> wrappers = new HashMap<>();
+
+    static {
+        wrappers.put(byte.class, Byte.class);
+        wrappers.put(short.class, Short.class);
+        wrappers.put(int.class, Integer.class);
+        wrappers.put(float.class, Float.class);
+        wrappers.put(double.class, Double.class);
+        wrappers.put(char.class, Character.class);
+        wrappers.put(boolean.class, Boolean.class);
+        wrappers.put(long.class, Long.class);
+        try {
+            MAP_GET = lookup.findVirtual(Map.class, "get", MethodType.methodType(Object.class, Object.class));
+            MAP_PUT = lookup.findVirtual(Map.class, "put", MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final PropertyCopier[] properties;
+
+    private MethodHandleCopier(PropertyCopier[] properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void copy(Object source, Object target, Set<String> ignore, Converter converter) {
+        try {
+            for (PropertyCopier property : properties) {
+                if (!ignore.contains(property.name)) {
+                    property.copy(source, target, converter);
+                }
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    static Copier create(Class<?> source, Class<?> target) {
+        boolean sourceIsMap = Map.class.isAssignableFrom(source);
+        boolean targetIsMap = Map.class.isAssignableFrom(target);
+        if (sourceIsMap == targetIsMap && sourceIsMap) {
+            throw new UnsupportedOperationException("不支持的类型,source:" + source + " target:" + target);
+        }
+        Map<String, PropertyDescriptor> sourceProperties = sourceIsMap ? null : getProperties(source);
+        Map<String, PropertyDescriptor> targetProperties = targetIsMap ? null : getProperties(target);
+
+        //Map时使用另外一方的属性
+        Collection<String> names = sourceProperties == null ? targetProperties.keySet() : sourceProperties.keySet();
+
+        List<PropertyCopier> copiers = new ArrayList<>(names.size());
+        for (String name : names) {
+            PropertyDescriptor sourceProperty = sourceProperties == null ? null : sourceProperties.get(name);
+            PropertyDescriptor targetProperty = targetProperties == null ? null : targetProperties.get(name);
+            if ((sourceProperties != null && sourceProperty == null) || (targetProperties != null && targetProperty == null)) {
+                continue;
+            }
+            copiers.add(createProperty(name, target, sourceProperty, targetProperty));
+        }
+        return new MethodHandleCopier(copiers.toArray(new PropertyCopier[0]));
+    }
+
+    private static Map<String, PropertyDescriptor> getProperties(Class<?> type) {
+        List<String> fieldNames = Arrays.stream(type.getDeclaredFields())
+                                        .map(Field::getName).collect(Collectors.toList());
+
+        return Stream.of(BeanUtilsBean.getInstance().getPropertyUtils().getPropertyDescriptors(type))
+                     .filter(property -> !property
+                             .getName()
+                             .equals("class") && property.getReadMethod() != null && property.getWriteMethod() != null)
+                     //让字段有序
+                     .sorted(Comparator.comparing(property -> fieldNames.indexOf(property.getName())))
+                     .collect(Collectors.toMap(PropertyDescriptor::getName, Function.identity(), (k, k2) -> k, LinkedHashMap::new));
+    }
+
+    private static PropertyCopier createProperty(String name,
+                                                 Class<?> targetBeanType,
+                                                 PropertyDescriptor sourceProperty,
+                                                 PropertyDescriptor targetProperty) {
+        Class<?> sourceType = sourceProperty == null ? Object.class : sourceProperty.getPropertyType();
+        Class<?> targetType = targetProperty == null ? Object.class : targetProperty.getPropertyType();
+
+        MethodHandle getter = sourceProperty == null
+                ? MethodHandles.insertArguments(MAP_GET, 1, name)
+                : unreflect(sourceProperty.getReadMethod());
+        MethodHandle setter = targetProperty == null
+                ? MethodHandles.insertArguments(MAP_PUT, 1, name)
+                : unreflect(targetProperty.getWriteMethod());
+
+        Class<?> convertType = targetType.isPrimitive() ? wrappers.get(targetType) : targetType;
+        Class<?>[] generics = getGenerics(targetBeanType, name);
+
+        ReferencePropertyCopier reference = new ReferencePropertyCopier(name,
+                                                                        getter.asType(GETTER_TYPE),
+                                                                        setter.asType(SETTER_TYPE),
+                                                                        sourceProperty == null || targetProperty == null,
+                                                                        targetType,
+                                                                        generics,
+                                                                        createConversion(sourceType, targetType, convertType, generics));
+
+        //基本数据类型直接复制,不装箱
+        if (sourceType.isPrimitive()) {
+            Class<?> targetPrimitive = targetType.isPrimitive() ? targetType : unwrap(targetType);
+            if (targetPrimitive != null && isWidening(sourceType, targetPrimitive)) {
+                MethodHandle direct = MethodHandles.filterArguments(
+                        setter.asType(MethodType.methodType(void.class, Object.class, targetPrimitive)),
+                        1,
+                        getter.asType(MethodType.methodType(targetPrimitive, Object.class)));
+                return new DirectPropertyCopier(name,
+                                                MethodHandles.permuteArguments(direct, SETTER_TYPE, 1, 0),
+                                                sourceType == targetType ? null : reference);
+            }
+        }
+        return reference;
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+    }
+
+    private static Class<?>[] getGenerics(Class<?> targetBeanType, String name) {
+        Field field = ReflectionUtils.findField(targetBeanType, name);
+        if (field == null) {
+            return FastBeanCopier.EMPTY_CLASS_ARRAY;
+        }
+        return Arrays.stream(ResolvableType.forField(field).getGenerics())
+                     .map(ResolvableType::getRawClass)
+                     .filter(Objects::nonNull)
+                     .toArray(Class[]::new);
+    }
+
+    private static Class<?> unwrap(Class<?> type) {
+        for (Map.Entry<Class<?>, Class<?>> entry : wrappers.entrySet()) {
+            if (entry.getValue() == type) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    //基本数据类型拓宽转换
+    private static boolean isWidening(Class<?> from, Class<?> to) {
+        if (from == to) {
+            return true;
+        }
+        if (from == boolean.class || to == boolean.class || to == char.class || to == byte.class) {
+            return false;
+        }
+        List<Class<?>> order = Arrays.asList(byte.class, short.class, int.class, long.class, float.class, double.class);
+        if (from == char.class) {
+            return order.indexOf(to) >= order.indexOf(int.class);
+        }
+        int fromIndex = order.indexOf(from);
+        int toIndex = order.indexOf(to);
+        return fromIndex >= 0 && toIndex > fromIndex;
+    }
+
+    /**
+     * 根据属性类型创建转换方式,返回<code>null</code>表示需要调用{@link Converter}进行转换
+     */
+    private static Conversion createConversion(Class<?> sourceType,
+                                               Class<?> targetType,
+                                               Class<?> convertType,
+                                               Class<?>[] generics) {
+        if (sourceType == targetType) {
+            if (targetType.isArray()) {
+                return MethodHandleCopier::cloneArray;
+            }
+            if (Cloneable.class.isAssignableFrom(targetType)) {
+                return createClone(targetType);
+            }
+            //集合需要转换泛型
+            if ((Map.class.isAssignableFrom(targetType) || Collection.class.isAssignableFrom(targetType)) && generics.length > 0) {
+                return null;
+            }
+            return Conversion.IDENTITY;
+        }
+        if (sourceType == Object.class) {
+            //源为Map,运行时根据值的类型进行转换
+            return new RuntimeConversion(convertType);
+        }
+        return resolveConversion(sourceType.isPrimitive() ? wrappers.get(sourceType) : sourceType, convertType);
+    }
+
+    private static Conversion createClone(Class<?> type) {
+        try {
+            MethodHandle clone = lookup
+                    .findVirtual(type, "clone", MethodType.methodType(Object.class))
+                    .asType(GETTER_TYPE);
+            return value -> (Object) clone.invokeExact(value);
+        } catch (ReflectiveOperationException e) {
+            try {
+                //返回值为具体类型,如: NestObject clone()
+                Method method = type.getMethod("clone");
+                MethodHandle clone = unreflect(method).asType(GETTER_TYPE);
+                return value -> (Object) clone.invokeExact(value);
+            } catch (Exception ignore) {
+                return Conversion.IDENTITY;
+            }
+        }
+    }
+
+    private static Object cloneArray(Object array) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array).clone();
+        }
+        if (array instanceof int[]) {
+            return ((int[]) array).clone();
+        }
+        if (array instanceof long[]) {
+            return ((long[]) array).clone();
+        }
+        if (array instanceof byte[]) {
+            return ((byte[]) array).clone();
+        }
+        if (array instanceof char[]) {
+            return ((char[]) array).clone();
+        }
+        if (array instanceof double[]) {
+            return ((double[]) array).clone();
+        }
+        if (array instanceof float[]) {
+            return ((float[]) array).clone();
+        }
+        if (array instanceof short[]) {
+            return ((short[]) array).clone();
+        }
+        return ((boolean[]) array).clone();
+    }
+
+    /**
+     * 内置的类型转换,与{@link FastBeanCopier.DefaultConverter}的转换结果保持一致.
+     * 返回<code>null</code>表示不支持,需要调用{@link Converter}.
+     */
+    @SuppressWarnings("all")
+    static Conversion resolveConversion(Class<?> sourceType, Class<?> targetType) {
+        if (targetType == Object.class) {
+            return Conversion.IDENTITY;
+        }
+        //包装器类型转为对应的基本数据类型
+        if (targetType.isAssignableFrom(sourceType) && (targetType == String.class || unwrap(targetType) != null)) {
+            return Conversion.IDENTITY;
+        }
+        if (targetType == String.class) {
+            if (Date.class.isAssignableFrom(sourceType)) {
+                return value -> DateFormatter.toString(((Date) value), "yyyy-MM-dd HH:mm:ss");
+            }
+            return String::valueOf;
+        }
+        if (targetType == Date.class) {
+            if (Date.class.isAssignableFrom(sourceType)) {
+                return value -> new Date(((Date) value).getTime());
+            }
+            if (Number.class.isAssignableFrom(sourceType)) {
+                return value -> new Date(((Number) value).longValue());
+            }
+            if (sourceType == String.class) {
+                return value -> {
+                    Date date = DateFormatter.fromString((String) value);
+                    return date == null ? FALLBACK : date;
+                };
+            }
+            return null;
+        }
+        if (targetType.isEnum()) {
+            //EnumDict由Converter处理
+            if (EnumDict.class.isAssignableFrom(targetType) || sourceType != String.class) {
+                return null;
+            }
+            Map<String, Object> mapping = new HashMap<>();
+            for (Object constant : targetType.getEnumConstants()) {
+                Enum<?> e = ((Enum<?>) constant);
+                mapping.putIfAbsent(String.valueOf(e.ordinal()), e);
+            }
+            for (Object constant : targetType.getEnumConstants()) {
+                Enum<?> e = ((Enum<?>) constant);
+                mapping.putIfAbsent(e.name().toUpperCase(Locale.ROOT), e);
+            }
+            return value -> {
+                Object e = mapping.get(((String) value).toUpperCase(Locale.ROOT));
+                return e == null ? FALLBACK : e;
+            };
+        }
+        if (sourceType == String.class) {
+            return resolveStringConversion(targetType);
+        }
+        if (Number.class.isAssignableFrom(sourceType)) {
+            return resolveNumberConversion(targetType);
+        }
+        if (Date.class.isAssignableFrom(sourceType) && targetType == Long.class) {
+            return value -> ((Date) value).getTime();
+        }
+        return null;
+    }
+
+    private static Conversion resolveStringConversion(Class<?> targetType) {
+        if (targetType == Integer.class) {
+            return value -> Integer.valueOf(((String) value).trim());
+        }
+        if (targetType == Long.class) {
+            return value -> Long.valueOf(((String) value).trim());
+        }
+        if (targetType == Double.class) {
+            return value -> Double.valueOf(((String) value).trim());
+        }
+        if (targetType == Float.class) {
+            return value -> Float.valueOf(((String) value).trim());
+        }
+        if (targetType == Short.class) {
+            return value -> Short.valueOf(((String) value).trim());
+        }
+        if (targetType == Byte.class) {
+            return value -> Byte.valueOf(((String) value).trim());
+        }
+        if (targetType == Boolean.class) {
+            return value -> {
+                String str = ((String) value).trim().toLowerCase(Locale.ROOT);
+                switch (str) {
+                    case "true":
+                    case "yes":
+                    case "y":
+                    case "on":
+                    case "1":
+                        return Boolean.TRUE;
+                    case "false":
+                    case "no":
+                    case "n":
+                    case "off":
+                    case "0":
+                        return Boolean.FALSE;
+                    default:
+                        return FALLBACK;
+                }
+            };
+        }
+        return null;
+    }
+
+    private static Conversion resolveNumberConversion(Class<?> targetType) {
+        if (targetType == Integer.class) {
+            return value -> {
+                long val = ((Number) value).longValue();
+                return val > Integer.MAX_VALUE || val < Integer.MIN_VALUE ? FALLBACK : Integer.valueOf((int) val);
+            };
+        }
+        if (targetType == Long.class) {
+            return value -> ((Number) value).longValue();
+        }
+        if (targetType == Double.class) {
+            return value -> ((Number) value).doubleValue();
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    interface Conversion {
+        Conversion IDENTITY = value -> value;
+
+        Object convert(Object value) throws Throwable;
+    }
+
+    /**
+     * 源为Map时,值的类型在运行时才能确定,缓存最近一次的转换方式.
+     */
+    static class RuntimeConversion implements Conversion {
+        private final Class<?> targetType;
+
+        //类型相同时Converter也会返回原始值
+        private final boolean passThrough;
+
+        //类型和转换方式放在同一个对象中,防止并发时读取到不匹配的类型和转换方式
+        private volatile CachedConversion last;
+
+        RuntimeConversion(Class<?> targetType) {
+            this.targetType = targetType;
+            this.passThrough = targetType == String.class || unwrap(targetType) != null || targetType.isEnum();
+        }
+
+        @Override
+        public Object convert(Object value) throws Throwable {
+            Class<?> type = value.getClass();
+            if (passThrough && type == targetType) {
+                return value;
+            }
+            CachedConversion cached = last;
+            if (cached == null || cached.type != type) {
+                last = cached = new CachedConversion(type, resolveConversion(type, targetType));
+            }
+            return cached.conversion == null ? FALLBACK : cached.conversion.convert(value);
+        }
+    }
+
+    static final class CachedConversion {
+        private final Class<?> type;
+        private final Conversion conversion;
+
+        CachedConversion(Class<?> type, Conversion conversion) {
+            this.type = type;
+            this.conversion = conversion;
+        }
+    }
+
+    static abstract class PropertyCopier {
+        protected final String name;
+
+        PropertyCopier(String name) {
+            this.name = name;
+        }
+
+        abstract void copy(Object source, Object target, Converter converter) throws Throwable;
+    }
+
+    /**
+     * 基本数据类型直接复制,类型不一致并且使用自定义{@link Converter}时,通过{@link Converter}转换
+     */
+    static class DirectPropertyCopier extends PropertyCopier {
+        private final MethodHandle handle;
+
+        //类型一致时为null
+        private final PropertyCopier converting;
+
+        DirectPropertyCopier(String name, MethodHandle handle, PropertyCopier converting) {
+            super(name);
+            this.handle = handle;
+            this.converting = converting;
+        }
+
+        @Override
+        void copy(Object source, Object target, Converter converter) throws Throwable {
+            if (converting != null && converter != FastBeanCopier.DEFAULT_CONVERT) {
+                converting.copy(source, target, converter);
+                return;
+            }
+            handle.invokeExact(source, target);
+        }
+    }
+
+    static class ReferencePropertyCopier extends PropertyCopier {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        //源或者目标为Map时,总是需要转换
+        private final boolean alwaysConvert;
+        private final Class<?> targetType;
+        private final Class<?>[] generics;
+        private final Conversion conversion;
+
+        ReferencePropertyCopier(String name,
+                                MethodHandle getter,
+                                MethodHandle setter,
+                                boolean alwaysConvert,
+                                Class<?> targetType,
+                                Class<?>[] generics,
+                                Conversion conversion) {
+            super(name);
+            this.getter = getter;
+            this.setter = setter;
+            this.alwaysConvert = alwaysConvert;
+            this.targetType = targetType;
+            this.generics = generics;
+            this.conversion = conversion;
+        }
+
+        @Override
+        void copy(Object source, Object target, Converter converter) throws Throwable {
+            Object value = (Object) getter.invokeExact(source);
+            if (value == null) {
+                return;
+            }
+            value = convert(value, converter);
+            if (value != null) {
+                setter.invokeExact(target, value);
+            }
+        }
+
+        private Object convert(Object value, Converter converter) throws Throwable {
+            if (conversion == Conversion.IDENTITY && !alwaysConvert) {
+                return value;
+            }
+            if (conversion != null && converter == FastBeanCopier.DEFAULT_CONVERT) {
+                Object converted;
+                try {
+                    converted = conversion.convert(value);
+                } catch (NumberFormatException e) {
+                    converted = FALLBACK;
+                }
+                if (converted != FALLBACK) {
+                    return converted;
+                }
+            }
+            return converter.convert(value, targetType, generics);
+        }
+    }
+}
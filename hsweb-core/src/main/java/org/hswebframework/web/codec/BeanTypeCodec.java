@@ -0,0 +1,39 @@
+package org.hswebframework.web.codec;
+
+import org.hswebframework.web.bean.FastBeanCopier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 将java bean的属性作为Map进行编解码,适用于实体类等简单的java bean.
+ *
+ * @param <T> 类型
+ * @author zhouhao
+ * @since 4.0.16
+ */
+public class BeanTypeCodec<T> implements TypeCodec<T> {
+
+    private final Class<T> type;
+
+    public BeanTypeCodec(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public void encode(T value, CompactObjectCodec.Output output) {
+        output.writeObject(FastBeanCopier.copy(value, new HashMap<>()));
+    }
+
+    @Override
+    @SuppressWarnings("all")
+    public T decode(CompactObjectCodec.Input input) {
+        Map<String, Object> properties = (Map<String, Object>) input.readObject();
+        return FastBeanCopier.copy(properties, type);
+    }
+}
@@ -0,0 +1,477 @@
+package org.hswebframework.web.codec;
+
+import org.springframework.util.ClassUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑的二进制对象编解码器.
+ * <p>
+ * 基本类型,字符串,集合,枚举,日期等使用类型标记+变长编码写入.通过{@link CompactObjectCodec#register(int, TypeCodec)}
+ * 注册的类型只写入类型ID和字段值.其他类型使用java序列化.
+ * <p>
+ * 解码时兼容java序列化的数据,因此可以直接替换原有的java序列化.
+ * <p>
+ * ArrayList,HashMap,HashSet等通用集合(包括Arrays.asList,Collections.unmodifiableList等)解码为
+ * ArrayList,LinkedHashMap,LinkedHashSet,不保留不可修改等特性.
+ * EnumMap,EnumSet,LinkedList,有序集合等其他集合使用java序列化,保留具体的类型.
+ * <p>
+ * 注意: 类型ID会写入到数据中,同一个类型在所有节点上必须注册为相同的ID,1-99为框架保留ID.
+ *
+ * @author zhouhao
+ * @see TypeCodec
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+public class CompactObjectCodec implements ObjectCodec {
+
+    static final byte NULL = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte DOUBLE = 5;
+    static final byte FLOAT = 6;
+    static final byte SHORT = 7;
+    static final byte BYTE = 8;
+    static final byte CHAR = 9;
+    static final byte STRING = 10;
+    static final byte BYTES = 11;
+    static final byte LIST = 12;
+    static final byte SET = 13;
+    static final byte MAP = 14;
+    static final byte ENUM = 15;
+    static final byte DATE = 16;
+    static final byte BIG_DECIMAL = 17;
+    static final byte BIG_INTEGER = 18;
+    static final byte TYPED = 19;
+    static final byte JAVA = 20;
+
+    //java序列化数据的魔数
+    private static final byte JAVA_MAGIC_0 = (byte) 0xAC;
+    private static final byte JAVA_MAGIC_1 = (byte) 0xED;
+
+    private final Map<Class<?>, Registration> typeRegistrations = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Registration> idRegistrations = new ConcurrentHashMap<>();
+
+    private final Map<String, Class<?>> enumTypeCache = new ConcurrentHashMap<>();
+
+    private final JavaObjectCodec javaCodec;
+
+    private final ClassLoader classLoader;
+
+    public CompactObjectCodec() {
+        this(ClassUtils.getDefaultClassLoader());
+    }
+
+    public CompactObjectCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.javaCodec = new JavaObjectCodec(classLoader);
+    }
+
+    /**
+     * 注册类型编解码器
+     *
+     * @param id    类型ID,必须大于0,1-99为框架保留ID
+     * @param codec 编解码器
+     * @return this
+     */
+    public <T> CompactObjectCodec register(int id, TypeCodec<T> codec) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("type id must be greater than 0");
+        }
+        Registration registration = new Registration(id, codec);
+        Registration old = idRegistrations.putIfAbsent(id, registration);
+        if (old != null && old.codec.getType() != codec.getType()) {
+            throw new IllegalArgumentException("type id [" + id + "] already registered by " + old.codec.getType());
+        }
+        typeRegistrations.put(codec.getType(), registration);
+        return this;
+    }
+
+    /**
+     * 注册java bean类型,使用bean的属性进行编解码
+     *
+     * @param id   类型ID
+     * @param type 类型
+     * @return this
+     * @see BeanTypeCodec
+     */
+    public <T> CompactObjectCodec registerBean(int id, Class<T> type) {
+        return register(id, new BeanTypeCodec<>(type));
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        Output output = new Output(128);
+        output.writeObject(value);
+        return output.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return decode(data, 0, data.length);
+    }
+
+    public Object decode(byte[] data, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        if (length > 1 && data[offset] == JAVA_MAGIC_0 && data[offset + 1] == JAVA_MAGIC_1) {
+            return javaCodec.decode(data, offset, length);
+        }
+        return new Input(data, offset, length).readObject();
+    }
+
+    //只加载枚举类型,防止通过数据中的类名加载任意类
+    private Class<?> loadEnumType(String name) {
+        Class<?> cached = enumTypeCache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        Class<?> type;
+        try {
+            type = ClassUtils.forName(name, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        if (!type.isEnum()) {
+            throw new IllegalArgumentException("not an enum type:" + name);
+        }
+        enumTypeCache.put(name, type);
+        return type;
+    }
+
+    //解码为ArrayList,LinkedHashSet,LinkedHashMap后语义不变的集合
+    private static boolean isGeneralCollection(Class<?> type) {
+        if (type == ArrayList.class
+                || type == HashMap.class
+                || type == LinkedHashMap.class
+                || type == HashSet.class
+                || type == LinkedHashSet.class) {
+            return true;
+        }
+        //Arrays.asList,Collections.emptyList,Collections.unmodifiableMap等
+        String name = type.getName();
+        return name.startsWith("java.util.Arrays$") || name.startsWith("java.util.Collections$");
+    }
+
+    private static class Registration {
+        private final int id;
+        private final TypeCodec<Object> codec;
+
+        private Registration(int id, TypeCodec<?> codec) {
+            this.id = id;
+            this.codec = (TypeCodec<Object>) codec;
+        }
+    }
+
+    public class Output {
+        private byte[] buffer;
+
+        private int position;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        private void ensureCapacity(int len) {
+            if (position + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + len));
+            }
+        }
+
+        public void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        public void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        public void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        public void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        public void writeLong(long value) {
+            //zigzag
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        public void writeInt(int value) {
+            writeLong(value);
+        }
+
+        /**
+         * 写入可能为<code>null</code>的字符串
+         *
+         * @param value 字符串
+         */
+        public void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        public void writeCollection(Collection<?> collection) {
+            writeVarInt(collection.size());
+            for (Object o : collection) {
+                writeObject(o);
+            }
+        }
+
+        public void writeMap(Map<?, ?> map) {
+            writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        }
+
+        public void writeObject(Object value) {
+            if (value == null) {
+                writeByte(NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            Registration registration = typeRegistrations.get(type);
+            if (registration != null) {
+                writeByte(TYPED);
+                writeVarInt(registration.id);
+                registration.codec.encode(value, this);
+                return;
+            }
+            if (type == String.class) {
+                writeByte(STRING);
+                writeString((String) value);
+            } else if (type == Boolean.class) {
+                writeByte(((Boolean) value) ? TRUE : FALSE);
+            } else if (type == Integer.class) {
+                writeByte(INT);
+                writeInt((Integer) value);
+            } else if (type == Long.class) {
+                writeByte(LONG);
+                writeLong((Long) value);
+            } else if (type == Double.class) {
+                writeByte(DOUBLE);
+                writeVarLong(Double.doubleToRawLongBits((Double) value));
+            } else if (type == Float.class) {
+                writeByte(FLOAT);
+                writeVarInt(Float.floatToRawIntBits((Float) value));
+            } else if (type == Short.class) {
+                writeByte(SHORT);
+                writeInt((Short) value);
+            } else if (type == Byte.class) {
+                writeByte(BYTE);
+                writeByte((Byte) value);
+            } else if (type == Character.class) {
+                writeByte(CHAR);
+                writeVarInt((Character) value);
+            } else if (type == byte[].class) {
+                writeByte(BYTES);
+                writeBytes((byte[]) value);
+            } else if (type == Date.class) {
+                writeByte(DATE);
+                writeLong(((Date) value).getTime());
+            } else if (type == BigDecimal.class) {
+                writeByte(BIG_DECIMAL);
+                writeString(value.toString());
+            } else if (type == BigInteger.class) {
+                writeByte(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (value instanceof Enum) {
+                writeByte(ENUM);
+                writeString(((Enum<?>) value).getDeclaringClass().getName());
+                writeString(((Enum<?>) value).name());
+            } else if (value instanceof List && isGeneralCollection(type)) {
+                writeByte(LIST);
+                writeCollection((Collection<?>) value);
+            } else if (value instanceof Set && !(value instanceof SortedSet) && isGeneralCollection(type)) {
+                writeByte(SET);
+                writeCollection((Collection<?>) value);
+            } else if (value instanceof Map && !(value instanceof SortedMap) && isGeneralCollection(type)) {
+                writeByte(MAP);
+                writeMap((Map<?, ?>) value);
+            } else {
+                writeByte(JAVA);
+                writeBytes(javaCodec.encode(value));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    public class Input {
+        private final byte[] buffer;
+
+        private int position;
+
+        private final int limit;
+
+        Input(byte[] buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = offset + length;
+        }
+
+        private void checkRemaining(int len) {
+            if (len < 0 || position + len > limit) {
+                throw new IllegalArgumentException("malformed data,position:" + position + ",length:" + len);
+            }
+        }
+
+        public byte readByte() {
+            checkRemaining(1);
+            return buffer[position++];
+        }
+
+        public byte[] readBytes() {
+            int len = readVarInt();
+            checkRemaining(len);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + len);
+            position += len;
+            return bytes;
+        }
+
+        public long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("malformed var long");
+        }
+
+        public int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        public long readLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public int readInt() {
+            return (int) readLong();
+        }
+
+        public String readString() {
+            int len = readVarInt() - 1;
+            if (len < 0) {
+                return null;
+            }
+            checkRemaining(len);
+            String value = new String(buffer, position, len, StandardCharsets.UTF_8);
+            position += len;
+            return value;
+        }
+
+        public <T, C extends Collection<T>> C readCollection(C container) {
+            int size = readVarInt();
+            for (int i = 0; i < size; i++) {
+                container.add((T) readObject());
+            }
+            return container;
+        }
+
+        public <K, V> Map<K, V> readMap(Map<K, V> container) {
+            int size = readVarInt();
+            for (int i = 0; i < size; i++) {
+                container.put((K) readObject(), (V) readObject());
+            }
+            return container;
+        }
+
+        public Object readObject() {
+            byte tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case INT:
+                    return readInt();
+                case LONG:
+                    return readLong();
+                case DOUBLE:
+                    return Double.longBitsToDouble(readVarLong());
+                case FLOAT:
+                    return Float.intBitsToFloat(readVarInt());
+                case SHORT:
+                    return (short) readInt();
+                case BYTE:
+                    return readByte();
+                case CHAR:
+                    return (char) readVarInt();
+                case STRING:
+                    return readString();
+                case BYTES:
+                    return readBytes();
+                case DATE:
+                    return new Date(readLong());
+                case BIG_DECIMAL:
+                    return new BigDecimal(readString());
+                case BIG_INTEGER:
+                    return new BigInteger(readBytes());
+                case ENUM:
+                    Class enumType = loadEnumType(readString());
+                    return Enum.valueOf(enumType, readString());
+                case LIST:
+                    return readCollection(new ArrayList<>());
+                case SET:
+                    return readCollection(new LinkedHashSet<>());
+                case MAP:
+                    return readMap(new LinkedHashMap<>());
+                case TYPED:
+                    int id = readVarInt();
+                    Registration registration = idRegistrations.get(id);
+                    if (registration == null) {
+                        throw new IllegalStateException("unregistered type id:" + id);
+                    }
+                    return registration.codec.decode(this);
+                case JAVA:
+                    int len = readVarInt();
+                    checkRemaining(len);
+                    Object value = javaCodec.decode(buffer, position, len);
+                    position += len;
+                    return value;
+                default:
+                    throw new IllegalArgumentException("unknown type tag:" + tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.hswebframework.web.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 对编码后超过指定大小的数据进行压缩,压缩后的数据以2个字节的魔数开头,第3个字节标记是否压缩.
+ * 小于指定大小的数据不压缩也不添加头部,直接返回被包装的编解码器的结果.
+ * <p>
+ * 魔数与{@link CompactObjectCodec}的类型标记以及java序列化的魔数都不相同,解码时不是以魔数开头的数据直接交给被包装的编解码器.
+ * 未压缩的数据恰好以魔数开头时,仍然添加头部,防止解码时被误认为压缩数据.
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+public class CompressedObjectCodec implements ObjectCodec {
+
+    static final byte MAGIC_0 = (byte) 0xC5;
+
+    static final byte MAGIC_1 = (byte) 0x0D;
+
+    static final byte RAW = 0x00;
+
+    static final byte DEFLATE = 0x01;
+
+    //魔数+压缩标记
+    static final int HEADER_LENGTH = 3;
+
+    private final ObjectCodec codec;
+
+    private final int threshold;
+
+    private final int level;
+
+    public CompressedObjectCodec(ObjectCodec codec) {
+        this(codec, 1024, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param codec     编解码器
+     * @param threshold 数据大小超过此值时进行压缩
+     * @param level     压缩级别
+     * @see Deflater#BEST_SPEED
+     */
+    public CompressedObjectCodec(ObjectCodec codec, int threshold, int level) {
+        this.codec = codec;
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        byte[] data = codec.encode(value);
+        if (data.length >= threshold) {
+            byte[] compressed = compress(data);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        if (!startsWithMagic(data)) {
+            return data;
+        }
+        byte[] raw = new byte[data.length + HEADER_LENGTH];
+        raw[0] = MAGIC_0;
+        raw[1] = MAGIC_1;
+        raw[2] = RAW;
+        System.arraycopy(data, 0, raw, HEADER_LENGTH, data.length);
+        return raw;
+    }
+
+    @Override
+    public Object decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data.length < HEADER_LENGTH || !startsWithMagic(data)) {
+            return codec.decode(data);
+        }
+        if (data[2] == RAW) {
+            return codec.decode(Arrays.copyOfRange(data, HEADER_LENGTH, data.length));
+        }
+        if (data[2] == DEFLATE) {
+            return codec.decode(decompress(data));
+        }
+        throw new IllegalArgumentException("unknown compression flag:" + data[2]);
+    }
+
+    private static boolean startsWithMagic(byte[] data) {
+        return data.length > 1 && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+    }
+
+    //压缩后的数据没有变小时返回null
+    private byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 2 + 5);
+            outputStream.write(MAGIC_0);
+            outputStream.write(MAGIC_1);
+            outputStream.write(DEFLATE);
+            writeVarInt(outputStream, data.length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int len = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, len);
+                if (outputStream.size() >= data.length) {
+                    return null;
+                }
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(byte[] data) {
+        int position = HEADER_LENGTH;
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, position, data.length - position);
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int len = inflater.inflate(result, offset, length - offset);
+                if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += len;
+            }
+            if (offset != length) {
+                throw new IllegalArgumentException("malformed compressed data");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream outputStream, int value) {
+        while ((value & ~0x7F) != 0) {
+            outputStream.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        outputStream.write(value);
+    }
+}
@@ -0,0 +1,54 @@
+package org.hswebframework.web.codec;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.*;
+
+/**
+ * 使用java序列化进行编解码
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+public class JavaObjectCodec implements ObjectCodec {
+
+    public static final JavaObjectCodec INSTANCE = new JavaObjectCodec(null);
+
+    private final ClassLoader classLoader;
+
+    public JavaObjectCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream stream = new ObjectOutputStream(outputStream)) {
+            stream.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return decode(data, 0, data.length);
+    }
+
+    public Object decode(byte[] data, int offset, int length) {
+        try (ObjectInputStream stream = new ConfigurableObjectInputStream(new ByteArrayInputStream(data, offset, length), classLoader)) {
+            return stream.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
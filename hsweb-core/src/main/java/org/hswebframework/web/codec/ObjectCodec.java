@@ -0,0 +1,30 @@
+package org.hswebframework.web.codec;
+
+/**
+ * 对象编解码器,用于将对象序列化为字节数组进行存储或者传输,如:redis缓存,用户令牌等.
+ *
+ * @author zhouhao
+ * @see JavaObjectCodec
+ * @see CompactObjectCodec
+ * @see CompressedObjectCodec
+ * @since 4.0.16
+ */
+public interface ObjectCodec {
+
+    /**
+     * 编码对象
+     *
+     * @param value 对象
+     * @return 字节数组
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码对象
+     *
+     * @param data 字节数组
+     * @return 对象, 数据为空时返回<code>null</code>
+     */
+    Object decode(byte[] data);
+
+}
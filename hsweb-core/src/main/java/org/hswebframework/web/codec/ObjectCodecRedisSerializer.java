@@ -0,0 +1,43 @@
+package org.hswebframework.web.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 使用{@link ObjectCodec}进行redis值的序列化
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+public class ObjectCodecRedisSerializer implements RedisSerializer<Object> {
+
+    private final ObjectCodec codec;
+
+    public ObjectCodecRedisSerializer(ObjectCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            return codec.encode(value);
+        } catch (Throwable e) {
+            throw new SerializationException("serialize [" + value.getClass() + "] error", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return codec.decode(bytes);
+        } catch (Throwable e) {
+            throw new SerializationException("deserialize error", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.hswebframework.web.codec;
+
+/**
+ * 指定类型的编解码器,注册到{@link CompactObjectCodec}后,
+ * 该类型的对象只写入类型ID和字段值,不写入类名和字段名.
+ *
+ * @param <T> 类型
+ * @author zhouhao
+ * @see CompactObjectCodec#register(int, TypeCodec)
+ * @since 4.0.16
+ */
+public interface TypeCodec<T> {
+
+    /**
+     * @return 支持的类型, 只支持完全相同的类型, 不支持子类
+     */
+    Class<T> getType();
+
+    void encode(T value, CompactObjectCodec.Output output);
+
+    T decode(CompactObjectCodec.Input input);
+
+}
@@ -139,9 +139,8 @@ public interface EnumDict<V> extends JSONSerializable {
      */
     @SuppressWarnings("all")
     static <T extends Enum & EnumDict> Optional<T> find(Class<T> type, Predicate<T> predicate) {
-        ClassDescription description = ClassDescriptions.getDescription(type);
-        if (description.isEnumType()) {
-            for (Object enumDict : description.getEnums()) {
+        if (type.isEnum()) {
+            for (EnumDict enumDict : EnumDictIndex.of(type).getConstants()) {
                 if (predicate.test((T) enumDict)) {
                     return Optional.of((T) enumDict);
                 }
@@ -152,9 +151,8 @@ public interface EnumDict<V> extends JSONSerializable {
 
     @SuppressWarnings("all")
     static <T extends Enum & EnumDict> List<T> findList(Class<T> type, Predicate<T> predicate) {
-        ClassDescription description = ClassDescriptions.getDescription(type);
-        if (description.isEnumType()) {
-            return Arrays.stream(description.getEnums())
+        if (type.isEnum()) {
+            return Arrays.stream(EnumDictIndex.of(type).getConstants())
                          .map(v -> (T) v)
                          .filter(predicate)
                          .collect(Collectors.toList());
@@ -167,10 +165,12 @@ public interface EnumDict<V> extends JSONSerializable {
      *
      * @see EnumDict#find(Class, Predicate)
      */
+    @SuppressWarnings("all")
     static <T extends Enum & EnumDict<?>> Optional<T> findByValue(Class<T> type, Object value) {
-        return find(type, e -> e.getValue() == value || e.getValue().equals(value) || String
-                .valueOf(e.getValue())
-                .equalsIgnoreCase(String.valueOf(value)));
+        if (!type.isEnum()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) EnumDictIndex.of(type).findByValue(value));
     }
 
     /**
@@ -178,8 +178,12 @@ public interface EnumDict<V> extends JSONSerializable {
      *
      * @see EnumDict#find(Class, Predicate)
      */
+    @SuppressWarnings("all")
     static <T extends Enum & EnumDict> Optional<T> findByText(Class<T> type, String text) {
-        return find(type, e -> e.getText().equalsIgnoreCase(text));
+        if (!type.isEnum()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) EnumDictIndex.of(type).findByText(text));
     }
 
     /**
@@ -187,8 +191,12 @@ public interface EnumDict<V> extends JSONSerializable {
      *
      * @see EnumDict#find(Class, Predicate)
      */
+    @SuppressWarnings("all")
     static <T extends Enum & EnumDict> Optional<T> find(Class<T> type, Object target) {
-        return find(type, v -> v.eq(target));
+        if (!type.isEnum()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) EnumDictIndex.of(type).find(target));
     }
 
     @SafeVarargs
@@ -249,9 +257,9 @@ public interface EnumDict<V> extends JSONSerializable {
     }
 
 
+    @SuppressWarnings("all")
     static <T extends Enum & EnumDict> List<T> getByMask(Class<T> tClass, long mask) {
-
-        return getByMask(Arrays.asList(tClass.getEnumConstants()), mask);
+        return (List) EnumDictIndex.of(tClass).getByMask(mask);
     }
 
     /**
@@ -325,7 +333,7 @@ public interface EnumDict<V> extends JSONSerializable {
                     int intValue = lexer.intValue();
                     lexer.nextToken(JSONToken.COMMA);
 
-                    return (T) EnumDict.find((Class) type, intValue);
+                    return (T) EnumDict.find((Class) type, intValue).orElse(null);
                 } else if (token == JSONToken.LITERAL_STRING) {
                     String name = lexer.stringVal();
                     lexer.nextToken(JSONToken.COMMA);
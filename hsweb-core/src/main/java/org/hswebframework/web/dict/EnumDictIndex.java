@@ -0,0 +1,217 @@
+package org.hswebframework.web.dict;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 枚举字典索引,按枚举类缓存value和text到枚举的映射,用于快速查找枚举.
+ * <p>
+ * 查找结果与按顺序遍历枚举时的结果一致:多个枚举匹配时返回顺序靠前的枚举.
+ * 如果枚举重写了{@link EnumDict#eq(Object)},则无法使用索引,将回退为遍历查找.
+ *
+ * @author zhouhao
+ * @see EnumDict#find(Class, Object)
+ * @since 4.0.16
+ */
+@SuppressWarnings("all")
+final class EnumDictIndex {
+
+    private static final Map<Class<?>, EnumDictIndex> CACHE = new ConcurrentHashMap<>();
+
+    //掩码查询结果缓存数量上限
+    private static final int MAX_MASK_CACHE_SIZE = 1024;
+
+    private final EnumDict[] constants;
+
+    //value -> 枚举
+    private final Map<Object, EnumDict> values = new HashMap<>();
+
+    //String.valueOf(value) 忽略大小写 -> 枚举
+    private final Map<String, EnumDict> valueStrings = new HashMap<>();
+
+    //text 忽略大小写 -> 枚举
+    private final Map<String, EnumDict> texts = new HashMap<>();
+
+    //是否可以使用索引代替eq方法
+    private final boolean indexedEq;
+
+    //位 -> 枚举, 掩码不是单独的位或者顺序与ordinal不一致时为null
+    private final EnumDict[] bits;
+
+    private final Map<Long, List<EnumDict>> masks = new ConcurrentHashMap<>();
+
+    private EnumDictIndex(Class<?> type) {
+        Object[] enums = type.getEnumConstants();
+        this.constants = new EnumDict[enums.length];
+        boolean indexedEq = !overrideEq(type);
+        for (int i = 0; i < enums.length; i++) {
+            EnumDict dict = (EnumDict) enums[i];
+            constants[i] = dict;
+            Object value = dict.getValue();
+            if (value != null) {
+                values.putIfAbsent(value, dict);
+            }
+            valueStrings.putIfAbsent(normalize(String.valueOf(value)), dict);
+            if (dict.getText() != null) {
+                texts.putIfAbsent(normalize(dict.getText()), dict);
+            }
+            //枚举常量带有类体时,可能重写了eq方法
+            if (dict.getClass() != type && overrideEq(dict.getClass())) {
+                indexedEq = false;
+            }
+        }
+        this.indexedEq = indexedEq;
+        this.bits = createBits(constants);
+    }
+
+    static EnumDictIndex of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, EnumDictIndex::new);
+    }
+
+    private static boolean overrideEq(Class<?> type) {
+        try {
+            Method method = type.getMethod("eq", Object.class);
+            return method.getDeclaringClass() != EnumDict.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static EnumDict[] createBits(EnumDict[] constants) {
+        if (constants.length >= 64) {
+            return null;
+        }
+        EnumDict[] bits = new EnumDict[64];
+        int lastBit = -1;
+        for (EnumDict constant : constants) {
+            long mask = constant.getMask();
+            if (Long.bitCount(mask) != 1) {
+                return null;
+            }
+            int bit = Long.numberOfTrailingZeros(mask);
+            //位的顺序与枚举顺序不一致时,无法保证结果的顺序
+            if (bit <= lastBit || bits[bit] != null) {
+                return null;
+            }
+            lastBit = bit;
+            bits[bit] = constant;
+        }
+        return bits;
+    }
+
+    /**
+     * 转换为忽略大小写的key,与{@link String#equalsIgnoreCase(String)}规则一致
+     */
+    static String normalize(String str) {
+        char[] chars = new char[str.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(str.charAt(i)));
+        }
+        return new String(chars);
+    }
+
+    private static EnumDict first(EnumDict a, EnumDict b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.ordinal() <= b.ordinal() ? a : b;
+    }
+
+    EnumDict[] getConstants() {
+        return constants;
+    }
+
+    /**
+     * 根据value查找,规则与{@link EnumDict#findByValue(Class, Object)}一致
+     */
+    EnumDict findByValue(Object value) {
+        EnumDict byValue = value == null ? null : values.get(value);
+        return first(byValue, valueStrings.get(normalize(String.valueOf(value))));
+    }
+
+    /**
+     * 根据text查找,规则与{@link EnumDict#findByText(Class, String)}一致
+     */
+    EnumDict findByText(String text) {
+        if (text == null) {
+            return null;
+        }
+        return texts.get(normalize(text));
+    }
+
+    /**
+     * 根据value或者text查找,规则与{@link EnumDict#eq(Object)}一致
+     */
+    EnumDict find(Object target) {
+        if (target == null) {
+            return null;
+        }
+        if (!indexedEq || target instanceof Collection || target instanceof Object[]) {
+            return findByEq(target);
+        }
+        if (target instanceof Map) {
+            target = ((Map) target).getOrDefault("value", ((Map) target).get("text"));
+            if (target == null) {
+                return findByEq(null);
+            }
+        }
+        EnumDict found = null;
+        if (target instanceof EnumDict) {
+            int ordinal = ((EnumDict) target).ordinal();
+            if (ordinal >= 0 && ordinal < constants.length && constants[ordinal] == target) {
+                found = constants[ordinal];
+            }
+        }
+        String str = normalize(String.valueOf(target));
+        found = first(found, values.get(target));
+        found = first(found, valueStrings.get(str));
+        return first(found, texts.get(str));
+    }
+
+    private EnumDict findByEq(Object target) {
+        for (EnumDict constant : constants) {
+            if (constant.eq(target)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据掩码获取枚举
+     */
+    List<EnumDict> getByMask(long mask) {
+        if (constants.length >= 64) {
+            throw new UnsupportedOperationException("不支持选项超过64个数据字典!");
+        }
+        List<EnumDict> cached = masks.get(mask);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        List<EnumDict> list = new ArrayList<>();
+        if (bits != null) {
+            long remaining = mask;
+            while (remaining != 0) {
+                int bit = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                if (bits[bit] != null) {
+                    list.add(bits[bit]);
+                }
+            }
+        } else {
+            for (EnumDict constant : constants) {
+                if (constant.in(mask)) {
+                    list.add(constant);
+                }
+            }
+        }
+        if (masks.size() < MAX_MASK_CACHE_SIZE) {
+            masks.put(mask, Collections.unmodifiableList(new ArrayList<>(list)));
+        }
+        return list;
+    }
+}
@@ -55,10 +55,26 @@ public interface IDGenerator<T> {
      */
     IDGenerator<String> MD5 = () -> DigestUtils.md5Hex(UUID.generate());
 
+    /**
+     * 按时间排序的32位16进制ID,用于替代高频场景下的{@link #MD5},不能用于安全敏感的场景
+     *
+     * @see TimeOrderedIdGenerator
+     * @since 4.0.16
+     */
+    IDGenerator<String> TIME_ORDERED = TimeOrderedIdGenerator.GLOBAL;
+
+    /**
+     * 使用SecureRandom生成的32位16进制令牌,用于用户令牌,授权码等
+     *
+     * @see SecureTokenGenerator
+     * @since 4.0.16
+     */
+    IDGenerator<String> SECURE_TOKEN = SecureTokenGenerator.GLOBAL;
+
     /**
      * 雪花算法
      */
-    IDGenerator<Long> SNOW_FLAKE = SnowflakeIdGenerator.getInstance()::nextId;
+    IDGenerator<Long> SNOW_FLAKE = () -> SnowflakeIdGenerator.getInstance().nextId();
 
     /**
      * 雪花算法转String
@@ -1,18 +1,26 @@
 package org.hswebframework.web.id;
 
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法ID生成器.
+ * <p>
+ * 时间戳和序号合并存储在一个{@link AtomicLong}中,通过CAS分配序号,不使用锁.
+ * 当前毫秒的序号用完时,借用下一毫秒的序号,逻辑时钟最多领先系统时钟{@link #getMaxDriftMillis()}毫秒.
+ * 系统时钟回拨不超过{@link #getMaxDriftMillis()}毫秒时,继续使用逻辑时钟生成ID,超过时抛出异常.
+ */
 @Slf4j
 public class SnowflakeIdGenerator {
 
     private final long workerId;
     private final long dataCenterId;
-    private long sequence = 0L;
 
     private final long twepoch = 1288834974657L;
 
@@ -27,9 +35,21 @@ public class SnowflakeIdGenerator {
     private final long timestampLeftShift = sequenceBits + workerIdBits + datacenterIdBits;
     private final long sequenceMask = ~(-1L << sequenceBits);
 
-    private long lastTimestamp = -1L;
+    //允许的时钟偏差(毫秒)
+    private final long maxDriftMillis;
+
+    private final LongSupplier clock;
+
+    //最后一个已分配的 (时间戳 - twepoch) << sequenceBits | 序号
+    private final AtomicLong state = new AtomicLong(-1L);
+
+    //workerId租约丢失时暂停生成ID,防止与获得了该workerId的其他实例生成重复的ID
+    private volatile boolean suspended;
+
+    //workerId租约的截止时间(系统时钟),到达后拒绝生成ID,不依赖续期任务的执行时机
+    private volatile long leaseDeadline = Long.MAX_VALUE;
 
-    private static final SnowflakeIdGenerator generator;
+    private static volatile SnowflakeIdGenerator generator;
 
     static {
         Random random = new Random();
@@ -42,15 +62,33 @@ public class SnowflakeIdGenerator {
         return generator;
     }
 
+    /**
+     * 设置全局的ID生成器,通常在分配到workerId后调用.
+     *
+     * @param instance ID生成器
+     * @see WorkerIdLeaseKeeper
+     */
+    public static void setInstance(SnowflakeIdGenerator instance) {
+        generator = Objects.requireNonNull(instance, "instance");
+    }
+
     public static SnowflakeIdGenerator create(int workerId, int dataCenterId) {
         return new SnowflakeIdGenerator(workerId, dataCenterId);
     }
 
+    public static SnowflakeIdGenerator create(int workerId, int dataCenterId, long maxDriftMillis) {
+        return new SnowflakeIdGenerator(workerId, dataCenterId, maxDriftMillis, System::currentTimeMillis);
+    }
+
     public static SnowflakeIdGenerator create() {
         return create(ThreadLocalRandom.current().nextInt(31), ThreadLocalRandom.current().nextInt(31));
     }
 
     private SnowflakeIdGenerator(long workerId, long dataCenterId) {
+        this(workerId, dataCenterId, Long.getLong("id-max-drift-millis", 10), System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long workerId, long dataCenterId, long maxDriftMillis, LongSupplier clock) {
         // sanity check for workerId
         if (workerId > maxWorkerId || workerId < 0) {
             throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
@@ -58,43 +96,125 @@ public class SnowflakeIdGenerator {
         if (dataCenterId > maxDataCenterId || dataCenterId < 0) {
             throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDataCenterId));
         }
+        if (maxDriftMillis < 0) {
+            throw new IllegalArgumentException("max drift millis can't be less than 0");
+        }
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
+        this.maxDriftMillis = maxDriftMillis;
+        this.clock = clock;
         log.info("worker starting. timestamp left shift {}, datacenter id bits {}, worker id bits {}, sequence bits {}, workerid {}", timestampLeftShift, datacenterIdBits, workerIdBits, sequenceBits, workerId);
     }
 
-    public synchronized long nextId() {
-        long timestamp = timeGen();
+    public long getWorkerId() {
+        return workerId;
+    }
 
-        if (timestamp < lastTimestamp) {
-            log.error("clock is moving backwards.  Rejecting requests until {}.", lastTimestamp);
-            throw new UnsupportedOperationException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
-        }
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
+    public long getMaxDriftMillis() {
+        return maxDriftMillis;
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    void suspend() {
+        suspended = true;
+    }
+
+    void resume() {
+        suspended = false;
+    }
+
+    /**
+     * 设置workerId租约的截止时间,系统时钟到达此时间后拒绝生成ID,直到租约续期后重新设置.
+     *
+     * @param leaseDeadline 截止时间(毫秒时间戳)
+     */
+    void setLeaseDeadline(long leaseDeadline) {
+        this.leaseDeadline = leaseDeadline;
+    }
+
+    public long nextId() {
+        return toId(reserve(1));
+    }
 
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            if (sequence == 0) {
-                timestamp = tilNextMillis(lastTimestamp);
+    /**
+     * 一次性分配多个ID,返回的ID是递增的.
+     * <p>
+     * 每次CAS最多分配{@link #getMaxDriftMillis()}+1毫秒内的序号,保证每个ID的时间戳都不超过允许的时钟偏差,
+     * 数量超过时分多次分配.
+     *
+     * @param size 数量
+     * @return ID数组
+     */
+    public long[] nextIds(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        long[] ids = new long[size];
+        long maxBatch = (maxDriftMillis + 1) << sequenceBits;
+        int offset = 0;
+        while (offset < size) {
+            int batch = (int) Math.min(size - offset, maxBatch);
+            long first = reserve(batch);
+            for (int i = 0; i < batch; i++) {
+                //序号溢出时自动进位到时间戳
+                ids[offset + i] = toId(first + i);
             }
-        } else {
-            sequence = 0L;
+            offset += batch;
         }
+        return ids;
+    }
 
-        lastTimestamp = timestamp;
+    /**
+     * 分配连续的size个序号,最后一个序号的时间戳不超过系统时钟{@link #getMaxDriftMillis()}毫秒
+     *
+     * @param size 数量,不能超过(maxDriftMillis + 1) * 4096
+     * @return 第一个序号
+     */
+    private long reserve(int size) {
+        if (suspended) {
+            throw new IllegalStateException(String.format("snowflake worker id %d-%d is not leased, refusing to generate id", dataCenterId, workerId));
+        }
+        for (; ; ) {
+            long current = state.get();
+            long time = timeGen();
+            if (time >= leaseDeadline) {
+                throw new IllegalStateException(String.format("snowflake worker id %d-%d lease expired, refusing to generate id", dataCenterId, workerId));
+            }
+            long now = time - twepoch;
+            long lastTimestamp = current >> sequenceBits;
 
-        return ((timestamp - twepoch) << timestampLeftShift) | (dataCenterId << datacenterIdShift) | (workerId << workerIdShift) | sequence;
+            if (now < lastTimestamp - maxDriftMillis) {
+                log.error("clock is moving backwards.  Rejecting requests until {}.", lastTimestamp + twepoch);
+                throw new UnsupportedOperationException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - now));
+            }
+            long first = now > lastTimestamp ? now << sequenceBits : current + 1;
+            long last = first + size - 1;
+            //逻辑时钟领先过多,等待系统时钟追上
+            if ((last >> sequenceBits) - now > maxDriftMillis) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            if (state.compareAndSet(current, last)) {
+                return first;
+            }
+        }
     }
 
-    protected long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
-        }
-        return timestamp;
+    private long toId(long state) {
+        long timestamp = state >> sequenceBits;
+        long sequence = state & sequenceMask;
+        return (timestamp << timestampLeftShift) | (dataCenterId << datacenterIdShift) | (workerId << workerIdShift) | sequence;
     }
 
     protected long timeGen() {
-        return System.currentTimeMillis();
+        return clock.getAsLong();
     }
 
-}
\ No newline at end of file
+}
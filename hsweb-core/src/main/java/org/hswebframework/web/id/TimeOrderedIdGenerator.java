@@ -0,0 +1,66 @@
+package org.hswebframework.web.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 按时间排序的128位ID生成器,生成32位16进制字符串,与{@link IDGenerator#MD5}的长度一致.
+ * <p>
+ * 高64位为 毫秒时间戳 &lt;&lt; 16 | 序号,通过CAS分配,保证同一个生成器生成的ID单调递增.
+ * 低64位使用{@link ThreadLocalRandom}生成,用于区分不同实例生成的ID.
+ * 不使用{@link java.security.SecureRandom}和摘要算法,适用于日志ID等高频场景,不能用于生成令牌等安全敏感的值.
+ *
+ * @author zhouhao
+ * @see SecureTokenGenerator
+ * @since 4.0.16
+ */
+public class TimeOrderedIdGenerator implements IDGenerator<String> {
+
+    static final TimeOrderedIdGenerator GLOBAL = new TimeOrderedIdGenerator(System::currentTimeMillis);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final int SEQUENCE_BITS = 16;
+
+    private final LongSupplier clock;
+
+    //最后一个已分配的 时间戳 << 16 | 序号
+    private final AtomicLong state = new AtomicLong();
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public static TimeOrderedIdGenerator create() {
+        return new TimeOrderedIdGenerator(System::currentTimeMillis);
+    }
+
+    @Override
+    public String generate() {
+        long high = nextHigh();
+        long low = ThreadLocalRandom.current().nextLong();
+        char[] chars = new char[32];
+        toHex(high, chars, 0);
+        toHex(low, chars, 16);
+        return new String(chars);
+    }
+
+    //当前毫秒的序号用完或者时钟回拨时,继续使用上一个值递增
+    private long nextHigh() {
+        long now = clock.getAsLong() << SEQUENCE_BITS;
+        long last, next;
+        do {
+            last = state.get();
+            next = Math.max(last + 1, now);
+        } while (!state.compareAndSet(last, next));
+        return next;
+    }
+
+    private static void toHex(long value, char[] chars, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
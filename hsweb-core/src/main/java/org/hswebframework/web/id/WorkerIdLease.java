@@ -0,0 +1,44 @@
+package org.hswebframework.web.id;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 雪花算法workerId租约. 一个租约占用一个槽位(0-1023),低5位为workerId,高5位为dataCenterId.
+ *
+ * @see WorkerIdLeaseManager
+ * @since 4.0.16
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class WorkerIdLease {
+
+    //最大槽位数量
+    public static final int MAX_SLOTS = 1024;
+
+    //占用的槽位
+    private final int slot;
+
+    //持有租约的实例ID
+    private final String instanceId;
+
+    public int getWorkerId() {
+        return slot & 31;
+    }
+
+    public int getDataCenterId() {
+        return slot >> 5;
+    }
+
+    /**
+     * 根据实例ID计算优先尝试的槽位,实例重启后优先使用之前的槽位.
+     *
+     * @param instanceId 实例ID
+     * @return 槽位
+     */
+    public static int preferredSlot(String instanceId) {
+        return Math.floorMod(instanceId.hashCode(), MAX_SLOTS);
+    }
+}
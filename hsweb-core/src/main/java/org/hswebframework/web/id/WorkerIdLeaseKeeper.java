@@ -0,0 +1,194 @@
+package org.hswebframework.web.id;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 获取workerId租约并定时续期,获取到租约后设置全局的{@link SnowflakeIdGenerator}.
+ * 续期失败(租约被其他实例占用)时,重新获取租约.
+ * <p>
+ * 租约丢失或者超过有效期未能续期时,暂停当前的生成器,直到重新获取到租约,防止与其他实例生成重复的ID.
+ * 生成器在每次生成ID时检查租约截止时间(到期时间减去安全余量),即使续期任务延迟执行也不会在租约到期后继续生成ID.
+ *
+ * @see WorkerIdLeaseManager
+ * @see SnowflakeIdGenerator#setInstance(SnowflakeIdGenerator)
+ * @since 4.0.16
+ */
+@Slf4j
+public class WorkerIdLeaseKeeper implements Disposable {
+
+    private final WorkerIdLeaseManager manager;
+
+    private final String instanceId;
+
+    private final Duration leaseTime;
+
+    private final Duration renewInterval;
+
+    //安全余量,生成器在租约到期前的这段时间内停止生成ID
+    private final Duration safetyMargin;
+
+    @Getter
+    private volatile WorkerIdLease lease;
+
+    //根据租约创建的生成器
+    private volatile SnowflakeIdGenerator generator;
+
+    //租约到期时间
+    private volatile long expiresAt;
+
+    private volatile Disposable renewer;
+
+    public WorkerIdLeaseKeeper(WorkerIdLeaseManager manager,
+                               String instanceId,
+                               Duration leaseTime,
+                               Duration renewInterval) {
+        //默认在两次续期之间预留一半的时间作为安全余量
+        this(manager, instanceId, leaseTime, renewInterval, leaseTime.minus(renewInterval).dividedBy(2));
+    }
+
+    public WorkerIdLeaseKeeper(WorkerIdLeaseManager manager,
+                               String instanceId,
+                               Duration leaseTime,
+                               Duration renewInterval,
+                               Duration safetyMargin) {
+        if (renewInterval.compareTo(leaseTime) >= 0) {
+            throw new IllegalArgumentException("renewInterval must be less than leaseTime");
+        }
+        //余量过大时,续期之前生成器就会到达截止时间
+        if (safetyMargin.isNegative() || safetyMargin.compareTo(leaseTime.minus(renewInterval)) >= 0) {
+            throw new IllegalArgumentException("safetyMargin must be between 0 and (leaseTime - renewInterval)");
+        }
+        this.manager = manager;
+        this.instanceId = instanceId;
+        this.leaseTime = leaseTime;
+        this.renewInterval = renewInterval;
+        this.safetyMargin = safetyMargin;
+    }
+
+    /**
+     * 获取租约并开始定时续期,获取失败时也会开始定时续期,在续期时重新尝试获取租约.
+     *
+     * @return 租约, 没有可用的workerId时返回{@link Mono#empty()}
+     */
+    public Mono<WorkerIdLease> start() {
+        return acquire()
+                .doFinally(ignore -> startRenewer());
+    }
+
+    private synchronized void startRenewer() {
+        if (renewer != null) {
+            return;
+        }
+        renewer = Flux
+                .interval(renewInterval)
+                .onBackpressureDrop()
+                .concatMap(i -> renew()
+                        .onErrorResume(err -> {
+                            log.warn("renew snowflake worker id lease error", err);
+                            suspendIfExpired();
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    private Mono<WorkerIdLease> acquire() {
+        long startTime = System.currentTimeMillis();
+        return manager
+                .acquire(instanceId, leaseTime)
+                .doOnNext(lease -> apply(lease, startTime))
+                .switchIfEmpty(Mono.fromRunnable(() -> log.error("no snowflake worker id available for instance [{}]", instanceId)));
+    }
+
+    Mono<Void> renew() {
+        WorkerIdLease current = lease;
+        if (current == null) {
+            return acquire().then();
+        }
+        suspendIfExpired();
+        long startTime = System.currentTimeMillis();
+        return manager
+                .renew(current, leaseTime)
+                .flatMap(success -> {
+                    if (success) {
+                        renewed(startTime);
+                        return Mono.empty();
+                    }
+                    log.warn("snowflake worker id lease {} lost,reacquiring", current);
+                    suspend();
+                    return acquire().then();
+                });
+    }
+
+    //以发起请求的时间计算到期时间
+    private void renewed(long startTime) {
+        expiresAt = startTime + leaseTime.toMillis();
+        SnowflakeIdGenerator generator = this.generator;
+        if (generator != null) {
+            generator.setLeaseDeadline(expiresAt - safetyMargin.toMillis());
+        }
+        if (generator != null && generator.isSuspended()) {
+            log.info("snowflake worker id lease {} renewed", lease);
+            generator.resume();
+        }
+    }
+
+    private void suspendIfExpired() {
+        if (lease != null && System.currentTimeMillis() >= expiresAt) {
+            log.error("snowflake worker id lease {} expired", lease);
+            suspend();
+        }
+    }
+
+    private void suspend() {
+        SnowflakeIdGenerator generator = this.generator;
+        if (generator != null && !generator.isSuspended()) {
+            log.error("suspend snowflake id generator {}-{}", generator.getDataCenterId(), generator.getWorkerId());
+            generator.suspend();
+        }
+    }
+
+    private void apply(WorkerIdLease lease, long startTime) {
+        WorkerIdLease old = this.lease;
+        this.lease = lease;
+        //槽位未变化时继续使用原来的生成器,防止逻辑时钟回退导致ID重复
+        if (old != null && old.getSlot() == lease.getSlot() && generator != null) {
+            renewed(startTime);
+            return;
+        }
+        log.info("acquired snowflake worker id lease {}", lease);
+        expiresAt = startTime + leaseTime.toMillis();
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.create(lease.getWorkerId(), lease.getDataCenterId());
+        generator.setLeaseDeadline(expiresAt - safetyMargin.toMillis());
+        this.generator = generator;
+        SnowflakeIdGenerator.setInstance(generator);
+    }
+
+    @Override
+    public void dispose() {
+        Disposable renewer = this.renewer;
+        if (renewer != null) {
+            renewer.dispose();
+        }
+        WorkerIdLease lease = this.lease;
+        if (lease != null) {
+            manager.release(lease)
+                   .onErrorResume(err -> {
+                       log.warn("release snowflake worker id lease error", err);
+                       return Mono.empty();
+                   })
+                   .block(Duration.ofSeconds(5));
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        Disposable renewer = this.renewer;
+        return renewer != null && renewer.isDisposed();
+    }
+}
@@ -0,0 +1,43 @@
+package org.hswebframework.web.id;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 雪花算法workerId租约管理器,用于在集群中为每个实例分配不重复的workerId和dataCenterId.
+ * <p>
+ * 租约需要定时续期,过期未续期的槽位可以被其他实例获取.
+ *
+ * @see WorkerIdLeaseKeeper
+ * @since 4.0.16
+ */
+public interface WorkerIdLeaseManager {
+
+    /**
+     * 获取租约,优先获取此实例之前持有的槽位. 没有可用槽位时返回{@link Mono#empty()}.
+     *
+     * @param instanceId 实例ID
+     * @param leaseTime  租约有效期
+     * @return 租约
+     */
+    Mono<WorkerIdLease> acquire(String instanceId, Duration leaseTime);
+
+    /**
+     * 续期租约
+     *
+     * @param lease     租约
+     * @param leaseTime 租约有效期
+     * @return 是否续期成功, 租约已经被其他实例占用时返回<code>false</code>
+     */
+    Mono<Boolean> renew(WorkerIdLease lease, Duration leaseTime);
+
+    /**
+     * 释放租约
+     *
+     * @param lease 租约
+     * @return void
+     */
+    Mono<Void> release(WorkerIdLease lease);
+
+}
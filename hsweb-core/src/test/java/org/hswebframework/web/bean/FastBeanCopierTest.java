@@ -158,6 +158,22 @@ public class FastBeanCopierTest {
     }
 
 
+    @Test
+    public void testPreload() {
+        FastBeanCopier.preload(Template.class, HashMap.class);
+        FastBeanCopier.preload(Map.class, Template.class);
+
+        long lazy = FastBeanCopier.getLazyCreatedCount();
+
+        Template template = new Template();
+        template.setName("test");
+        Map<String, Object> map = FastBeanCopier.copy(template, new HashMap<>());
+        Assert.assertEquals("test", map.get("name"));
+        Assert.assertEquals("test", FastBeanCopier.copy(map, new Template()).getName());
+
+        Assert.assertEquals(lazy, FastBeanCopier.getLazyCreatedCount());
+    }
+
     public interface ProxyTest {
         String getName();
 
@@ -0,0 +1,235 @@
+package org.hswebframework.web.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MethodHandleCopierTest {
+
+    private final Copier beanCopier = MethodHandleCopier.create(Source.class, Target.class);
+
+    private final Copier javassistBeanCopier = FastBeanCopier.createJavassistCopier(Source.class, Target.class);
+
+    private Source createSource() {
+        Source source = new Source();
+        source.setAge(100);
+        source.setName("测试");
+        source.setIds(new String[]{"1", "2", "3"});
+        source.setAge2(2);
+        source.setBoy2(true);
+        source.setBoy3(true);
+        source.setColor(Color.RED);
+        source.setNestObject(new NestObject("test", 10, "1234567"));
+        return source;
+    }
+
+    @Test
+    public void testBeanToBean() {
+        Source source = createSource();
+
+        Target target = new Target();
+        beanCopier.copy(source, target, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Target expect = new Target();
+        javassistBeanCopier.copy(source, expect, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Assert.assertEquals(expect.getName(), target.getName());
+        Assert.assertArrayEquals(expect.getIds(), target.getIds());
+        Assert.assertNotSame(source.getIds(), target.getIds());
+        Assert.assertEquals(expect.getAge(), target.getAge());
+        Assert.assertEquals(expect.getAge2(), target.getAge2());
+        Assert.assertEquals(expect.getAge3(), target.getAge3());
+        Assert.assertEquals(expect.getBoy(), target.getBoy());
+        Assert.assertEquals(expect.isBoy2(), target.isBoy2());
+        Assert.assertEquals(expect.getBoy3(), target.getBoy3());
+        Assert.assertEquals(expect.getCreateTime(), target.getCreateTime());
+        Assert.assertEquals(expect.getUpdateTime(), target.getUpdateTime());
+        Assert.assertEquals(expect.getDeleteTime(), target.getDeleteTime());
+        Assert.assertNotSame(source.getDeleteTime(), target.getDeleteTime());
+        Assert.assertEquals(expect.getColor(), target.getColor());
+        Assert.assertEquals(expect.getColor2(), target.getColor2());
+        Assert.assertEquals(expect.getColor3(), target.getColor3());
+        Assert.assertEquals(expect.getArr2(), target.getArr2());
+        Assert.assertArrayEquals(expect.getArr(), target.getArr());
+        Assert.assertArrayEquals(expect.getArr3(), target.getArr3());
+        Assert.assertArrayEquals(expect.getColors(), target.getColors());
+        Assert.assertEquals(expect.getNestObject().getName(), target.getNestObject().getName());
+        Assert.assertNotSame(source.getNestObject(), target.getNestObject());
+        Assert.assertEquals(expect.getNestObject3(), target.getNestObject3());
+    }
+
+    @Test
+    public void testBeanToMap() {
+        Source source = createSource();
+
+        Map<String, Object> map = new HashMap<>();
+        MethodHandleCopier
+                .create(Source.class, Map.class)
+                .copy(source, map, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Map<String, Object> expect = new HashMap<>();
+        FastBeanCopier
+                .createJavassistCopier(Source.class, Map.class)
+                .copy(source, expect, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Assert.assertEquals(expect, map);
+        Assert.assertEquals(100, map.get("age"));
+        Assert.assertEquals(Color.RED, map.get("color"));
+    }
+
+    @Test
+    public void testMapToBean() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "test");
+        map.put("age", 10L);
+        map.put("age2", "20");
+        map.put("age3", 30);
+        map.put("boy", "true");
+        map.put("boy2", Boolean.TRUE);
+        map.put("updateTime", "2018-01-01");
+        map.put("color2", "RED");
+        map.put("color3", 2);
+        map.put("colors", "RED,BLUE");
+
+        Target target = new Target();
+        MethodHandleCopier
+                .create(Map.class, Target.class)
+                .copy(map, target, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Target expect = new Target();
+        FastBeanCopier
+                .createJavassistCopier(Map.class, Target.class)
+                .copy(map, expect, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+
+        Assert.assertEquals("test", target.getName());
+        Assert.assertEquals(10, target.getAge());
+        Assert.assertEquals(20, target.getAge2());
+        Assert.assertEquals("30", target.getAge3());
+        Assert.assertEquals(Boolean.TRUE, target.getBoy());
+        Assert.assertTrue(target.isBoy2());
+        Assert.assertEquals(expect.getUpdateTime(), target.getUpdateTime());
+        Assert.assertEquals(Color.RED, target.getColor2());
+        Assert.assertEquals(Color.BLUE, target.getColor3());
+        Assert.assertArrayEquals(expect.getColors(), target.getColors());
+    }
+
+    @Test
+    public void testIgnore() {
+        Source source = createSource();
+        Target target = new Target();
+        beanCopier.copy(source, target, "name", "age");
+
+        Assert.assertNull(target.getName());
+        Assert.assertEquals(0, target.getAge());
+        Assert.assertEquals(2, target.getAge2());
+    }
+
+    @Test
+    public void testCustomConverter() {
+        Source source = createSource();
+        Target target = new Target();
+        beanCopier.copy(source, target, Collections.emptySet(), new Converter() {
+            @Override
+            @SuppressWarnings("all")
+            public <T> T convert(Object source, Class<T> targetClass, Class[] genericType) {
+                if (targetClass == String.class) {
+                    return (T) "custom";
+                }
+                return FastBeanCopier.DEFAULT_CONVERT.convert(source, targetClass, genericType);
+            }
+        });
+        Assert.assertEquals("custom", target.getAge3());
+        //类型一致时不转换
+        Assert.assertEquals("测试", target.getName());
+    }
+
+    @Test
+    public void testCustomConverterPrimitiveType() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("age", "10");
+        Set<Class<?>> types = new HashSet<>();
+        MethodHandleCopier
+                .create(Map.class, Target.class)
+                .copy(map, new Target(), Collections.emptySet(), new Converter() {
+                    @Override
+                    public <T> T convert(Object source, Class<T> targetClass, Class[] genericType) {
+                        types.add(targetClass);
+                        return FastBeanCopier.DEFAULT_CONVERT.convert(source, targetClass, genericType);
+                    }
+                });
+        //与原有的实现一致,传入基本数据类型
+        Assert.assertTrue(types.contains(int.class));
+        Assert.assertFalse(types.contains(Integer.class));
+    }
+
+    @Test
+    public void testCustomConverterWidening() {
+        IntBean source = new IntBean();
+        source.setValue(10);
+        source.setSame(20);
+        List<Class<?>> types = new ArrayList<>();
+        Converter converter = new Converter() {
+            @Override
+            @SuppressWarnings("all")
+            public <T> T convert(Object source, Class<T> targetClass, Class[] genericType) {
+                types.add(targetClass);
+                return (T) Long.valueOf(((Number) source).longValue() + 1);
+            }
+        };
+        Copier copier = MethodHandleCopier.create(IntBean.class, LongBean.class);
+
+        //int -> long 调用自定义Converter,类型一致的属性不转换
+        LongBean target = new LongBean();
+        copier.copy(source, target, Collections.emptySet(), converter);
+        Assert.assertEquals(11L, target.getValue());
+        Assert.assertEquals(20, target.getSame());
+        Assert.assertEquals(Collections.singletonList(long.class), types);
+
+        //默认Converter直接拓宽
+        target = new LongBean();
+        copier.copy(source, target, Collections.emptySet(), FastBeanCopier.DEFAULT_CONVERT);
+        Assert.assertEquals(10L, target.getValue());
+    }
+
+    @lombok.Data
+    public static class IntBean {
+        private int value;
+        private int same;
+    }
+
+    @lombok.Data
+    public static class LongBean {
+        private long value;
+        private int same;
+    }
+
+    @Test
+    public void testRuntimeConversionConcurrent() throws Exception {
+        MethodHandleCopier.RuntimeConversion conversion = new MethodHandleCopier.RuntimeConversion(Long.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        Object value = (j + index) % 2 == 0 ? Integer.valueOf(j) : String.valueOf(j);
+                        if (!Long.valueOf(j).equals(conversion.convert(value))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.hswebframework.web.codec;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.dict.TestEnum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+public class CompactObjectCodecTest {
+
+    @Test
+    public void testBasicTypes() {
+        CompactObjectCodec codec = new CompactObjectCodec();
+
+        for (Object value : Arrays.asList(null, true, false, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                                          1L, Long.MIN_VALUE, Long.MAX_VALUE, 1.5D, 1.5F, (short) 12, (byte) 1, 'a',
+                                          "", "test", "中文", new Date(), new BigDecimal("1.2345"),
+                                          new BigInteger("123456789012345678901234567890"), TestEnum.E1)) {
+            Assert.assertEquals(value, codec.decode(codec.encode(value)));
+        }
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) codec.decode(codec.encode(new byte[]{1, 2, 3})));
+    }
+
+    @Test
+    public void testCollection() {
+        CompactObjectCodec codec = new CompactObjectCodec();
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("list", Arrays.asList(1, 2, 3));
+        map.put("set", new HashSet<>(Arrays.asList("a", "b")));
+        map.put("nest", Collections.singletonMap("key", 1L));
+        map.put("sorted", new TreeMap<>(Collections.singletonMap("a", "b")));
+
+        Object decoded = codec.decode(codec.encode(map));
+        Assert.assertEquals(map, decoded);
+        Assert.assertTrue(((Map<?, ?>) decoded).get("sorted") instanceof TreeMap);
+    }
+
+    @Test
+    public void testRegisteredType() {
+        CompactObjectCodec codec = new CompactObjectCodec();
+        codec.registerBean(100, TestBean.class);
+
+        TestBean bean = new TestBean();
+        bean.setName("test");
+        bean.setAge(10);
+
+        byte[] compact = codec.encode(bean);
+        byte[] java = JavaObjectCodec.INSTANCE.encode(bean);
+        Assert.assertTrue(compact.length < java.length);
+
+        TestBean decoded = (TestBean) codec.decode(compact);
+        Assert.assertEquals(bean.getName(), decoded.getName());
+        Assert.assertEquals(bean.getAge(), decoded.getAge());
+
+        //兼容java序列化的数据
+        TestBean fromJava = (TestBean) codec.decode(java);
+        Assert.assertEquals(bean.getName(), fromJava.getName());
+    }
+
+    @Test
+    public void testCompressed() {
+        ObjectCodec codec = new CompressedObjectCodec(new CompactObjectCodec(), 64, java.util.zip.Deflater.BEST_SPEED);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("test-compress-");
+        }
+        String value = builder.toString();
+        byte[] encoded = codec.encode(value);
+        Assert.assertEquals(CompressedObjectCodec.MAGIC_0, encoded[0]);
+        Assert.assertEquals(CompressedObjectCodec.DEFLATE, encoded[2]);
+        Assert.assertTrue(encoded.length < value.length());
+        Assert.assertEquals(value, codec.decode(encoded));
+
+        //小于阈值的数据不添加头部
+        Assert.assertArrayEquals(new CompactObjectCodec().encode("small"), codec.encode("small"));
+        Assert.assertEquals("small", codec.decode(codec.encode("small")));
+        Assert.assertEquals("java", codec.decode(JavaObjectCodec.INSTANCE.encode("java")));
+    }
+
+    @Test
+    public void testCompressedNotConfusedWithCompact() {
+        CompactObjectCodec compact = new CompactObjectCodec();
+        ObjectCodec codec = new CompressedObjectCodec(compact, 64, java.util.zip.Deflater.BEST_SPEED);
+
+        //未压缩的紧凑编码数据仍然可以读取
+        for (Object value : Arrays.asList(true, false, 1, "test")) {
+            Assert.assertEquals(value, codec.decode(compact.encode(value)));
+            Assert.assertEquals(value, codec.decode(codec.encode(value)));
+        }
+    }
+
+    @Test
+    public void testEnumTypeRestricted() {
+        CompactObjectCodec codec = new CompactObjectCodec();
+        Assert.assertEquals(TestEnum.E1, codec.decode(codec.encode(TestEnum.E1)));
+
+        //枚举的类名被替换为非枚举的类
+        CompactObjectCodec.Output output = codec.new Output(32);
+        output.writeByte(CompactObjectCodec.ENUM);
+        output.writeString(String.class.getName());
+        output.writeString("E1");
+        try {
+            codec.decode(output.toByteArray());
+            Assert.fail();
+        } catch (IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testTypedCollection() {
+        CompactObjectCodec codec = new CompactObjectCodec();
+
+        EnumMap<TestEnum, String> enumMap = new EnumMap<>(TestEnum.class);
+        enumMap.put(TestEnum.E1, "e1");
+        Object decoded = codec.decode(codec.encode(enumMap));
+        Assert.assertTrue(decoded instanceof EnumMap);
+        Assert.assertEquals(enumMap, decoded);
+
+        EnumSet<TestEnum> enumSet = EnumSet.of(TestEnum.E1);
+        Assert.assertTrue(codec.decode(codec.encode(enumSet)) instanceof EnumSet);
+
+        TreeSet<String> sortedSet = new TreeSet<>(Arrays.asList("b", "a"));
+        Assert.assertTrue(codec.decode(codec.encode(sortedSet)) instanceof TreeSet);
+
+        LinkedList<String> linkedList = new LinkedList<>(Arrays.asList("a", "b"));
+        Assert.assertTrue(codec.decode(codec.encode(linkedList)) instanceof LinkedList);
+    }
+
+    @Getter
+    @Setter
+    public static class TestBean implements java.io.Serializable {
+        private String name;
+        private int age;
+    }
+}
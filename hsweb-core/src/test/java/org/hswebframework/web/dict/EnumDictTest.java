@@ -12,6 +12,8 @@ import lombok.SneakyThrows;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -80,6 +82,25 @@ public class EnumDictTest {
 
     }
 
+    @Test
+    public void testIndex() {
+        assertEquals(TestEnum.E2, EnumDict.findByValue(TestEnum.class, "e2").orElse(null));
+        assertEquals(TestEnum.E2, EnumDict.findByValue(TestEnum.class, "E2").orElse(null));
+        assertFalse(EnumDict.findByValue(TestEnum.class, "e3").isPresent());
+
+        assertEquals(TestEnum.E1, EnumDict.findByText(TestEnum.class, "E1").orElse(null));
+        assertFalse(EnumDict.findByText(TestEnum.class, null).isPresent());
+
+        assertEquals(TestEnum.E2, EnumDict.find(TestEnum.class, TestEnum.E2).orElse(null));
+        assertEquals(TestEnum.E2, EnumDict.find(TestEnum.class, Collections.singletonMap("text", "e2")).orElse(null));
+        assertEquals(TestEnum.E1, EnumDict.find(TestEnum.class, Arrays.asList("x", "e1")).orElse(null));
+
+        long mask = EnumDict.toMask(TestEnum.E1, TestEnum.E2);
+        assertEquals(Arrays.asList(TestEnum.E1, TestEnum.E2), EnumDict.getByMask(TestEnum.class, mask));
+        assertEquals(Collections.singletonList(TestEnum.E2), EnumDict.getByMask(TestEnum.class, TestEnum.E2.getMask()));
+        assertTrue(EnumDict.getByMask(TestEnum.class, 0).isEmpty());
+    }
+
     @Getter
     @Setter
     public static class TestEntity {
@@ -0,0 +1,22 @@
+package org.hswebframework.web.id;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class SecureTokenGeneratorTest {
+
+    @Test
+    public void test() {
+        SecureTokenGenerator generator = SecureTokenGenerator.create(4);
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            String token = generator.generate();
+            Assert.assertTrue(token.matches("[0-9a-f]{32}"));
+            tokens.add(token);
+        }
+        Assert.assertEquals(10000, tokens.size());
+    }
+}
@@ -0,0 +1,114 @@
+package org.hswebframework.web.id;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SnowflakeIdGeneratorTest {
+
+    @Test
+    public void testConcurrent() throws Exception {
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.create(1, 1);
+        int threads = 16, size = 20000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet(threads * size);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    for (int j = 0; j < size; j++) {
+                        ids.add(generator.nextId());
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertEquals(threads * size, ids.size());
+    }
+
+    @Test
+    public void testNextIds() {
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.create(1, 1);
+        long[] ids = generator.nextIds(10000);
+        Assert.assertEquals(10000, ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            Assert.assertTrue(ids[i] > ids[i - 1]);
+        }
+        Assert.assertTrue(generator.nextId() > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void testNextIdsDrift() throws Exception {
+        long now = System.currentTimeMillis();
+        AtomicLong clock = new AtomicLong(now);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 2, clock::get);
+        int window = 3 * 4096;
+
+        //超过时钟偏差允许的数量,需要等待时钟前进
+        CompletableFuture<long[]> future = CompletableFuture.supplyAsync(() -> generator.nextIds(window + 100));
+        Thread.sleep(100);
+        Assert.assertFalse(future.isDone());
+
+        clock.addAndGet(10);
+        long[] ids = future.get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < ids.length; i++) {
+            long timestamp = (ids[i] >> 22) + 1288834974657L;
+            Assert.assertTrue(timestamp <= (i < window ? now : now + 10) + 2);
+            if (i > 0) {
+                Assert.assertTrue(ids[i] > ids[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testClockDrift() {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 10, clock::get);
+
+        long id = generator.nextId();
+        //时钟回拨在允许范围内
+        clock.addAndGet(-5);
+        long next = generator.nextId();
+        Assert.assertTrue(next > id);
+
+        //时钟回拨超过允许范围
+        clock.addAndGet(-100);
+        try {
+            generator.nextId();
+            Assert.fail();
+        } catch (UnsupportedOperationException ignore) {
+        }
+    }
+
+    @Test
+    public void testLeaseDeadline() {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 10, clock::get);
+        generator.setLeaseDeadline(clock.get() + 100);
+        long id = generator.nextId();
+
+        //到达租约截止时间,即使没有被暂停也拒绝生成ID
+        clock.addAndGet(100);
+        Assert.assertFalse(generator.isSuspended());
+        try {
+            generator.nextId();
+            Assert.fail();
+        } catch (IllegalStateException ignore) {
+        }
+
+        //续期后恢复
+        generator.setLeaseDeadline(clock.get() + 100);
+        Assert.assertTrue(generator.nextId() > id);
+    }
+}
@@ -0,0 +1,61 @@
+package org.hswebframework.web.id;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimeOrderedIdGeneratorTest {
+
+    @Test
+    public void testOrdered() {
+        TimeOrderedIdGenerator generator = TimeOrderedIdGenerator.create();
+        String last = generator.generate();
+        Assert.assertEquals(32, last.length());
+        for (int i = 0; i < 100000; i++) {
+            String id = generator.generate();
+            Assert.assertTrue(id.compareTo(last) > 0);
+            last = id;
+        }
+    }
+
+    @Test
+    public void testClockBackwards() {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+
+        String id = generator.generate();
+        clock.addAndGet(-1000);
+        //时钟回拨后依然递增
+        Assert.assertTrue(generator.generate().compareTo(id) > 0);
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        TimeOrderedIdGenerator generator = TimeOrderedIdGenerator.create();
+        int threads = 16, size = 20000;
+        Set<String> ids = ConcurrentHashMap.newKeySet(threads * size);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    for (int j = 0; j < size; j++) {
+                        ids.add(generator.generate());
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertEquals(threads * size, ids.size());
+    }
+}
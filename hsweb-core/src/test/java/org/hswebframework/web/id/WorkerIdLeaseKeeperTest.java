@@ -0,0 +1,72 @@
+package org.hswebframework.web.id;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public class WorkerIdLeaseKeeperTest {
+
+    private final SnowflakeIdGenerator origin = SnowflakeIdGenerator.getInstance();
+
+    private volatile WorkerIdLease available;
+
+    private volatile boolean renewable = true;
+
+    private final WorkerIdLeaseManager manager = new WorkerIdLeaseManager() {
+        @Override
+        public Mono<WorkerIdLease> acquire(String instanceId, Duration leaseTime) {
+            return Mono.justOrEmpty(available);
+        }
+
+        @Override
+        public Mono<Boolean> renew(WorkerIdLease lease, Duration leaseTime) {
+            return Mono.just(renewable);
+        }
+
+        @Override
+        public Mono<Void> release(WorkerIdLease lease) {
+            return Mono.empty();
+        }
+    };
+
+    @After
+    public void reset() {
+        SnowflakeIdGenerator.setInstance(origin);
+    }
+
+    @Test
+    public void testSuspendWhenLeaseLost() {
+        WorkerIdLeaseKeeper keeper = new WorkerIdLeaseKeeper(manager, "test", Duration.ofMinutes(1), Duration.ofMinutes(1).minusSeconds(1));
+        try {
+            available = new WorkerIdLease(33, "test");
+            Assert.assertNotNull(keeper.start().block());
+            SnowflakeIdGenerator generator = SnowflakeIdGenerator.getInstance();
+            Assert.assertEquals(1, generator.getWorkerId());
+            Assert.assertEquals(1, generator.getDataCenterId());
+            generator.nextId();
+
+            //租约丢失并且无法重新获取
+            renewable = false;
+            available = null;
+            keeper.renew().block();
+            Assert.assertTrue(generator.isSuspended());
+            try {
+                generator.nextId();
+                Assert.fail();
+            } catch (IllegalStateException ignore) {
+            }
+
+            //重新获取到相同的槽位,继续使用原来的生成器
+            available = new WorkerIdLease(33, "test");
+            keeper.renew().block();
+            Assert.assertSame(generator, SnowflakeIdGenerator.getInstance());
+            Assert.assertFalse(generator.isSuspended());
+            generator.nextId();
+        } finally {
+            keeper.dispose();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package org.hswebframework.web.datasource;
 
 import org.hswebframework.web.datasource.exception.DataSourceNotFoundException;
+import org.hswebframework.web.datasource.routing.ReadWriteRouter;
 import org.hswebframework.web.datasource.switcher.*;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+
 /**
  * 用于操作动态数据源,如获取当前使用的数据源,使用switcher切换数据源等
  *
@@ -21,6 +24,11 @@ public final class DataSourceHolder {
     static volatile JdbcSwitcher jdbcSwitcher = new DefaultJdbcSwitcher();
     static volatile R2dbcSwitcher r2dbcSwitcher = new DefaultR2dbcSwicher();
 
+    /**
+     * 读写分离路由,未开启读写分离时为null
+     */
+    static volatile ReadWriteRouter readWriteRouter;
+
     public static boolean isDynamicDataSourceReady() {
         return dynamicDataSourceService != null;
     }
@@ -67,15 +75,23 @@ public final class DataSourceHolder {
      * @return 当前使用的数据源
      */
     public static JdbcDataSource currentDataSource() {
-        return jdbcSwitcher.datasource()
-                .current()
+        Optional<String> current = jdbcSwitcher.datasource().current();
+        //没有手动切换数据源时,使用读写分离路由到的数据源
+        if (!current.isPresent() && readWriteRouter != null) {
+            current = readWriteRouter.current();
+        }
+        return current
                 .map(dynamicDataSourceService::getDataSource)
                 .orElseGet(DataSourceHolder::defaultDataSource);
     }
 
     public static Mono<R2dbcDataSource> currentR2dbc() {
-        return r2dbcSwitcher.datasource()
-                .current()
+        Mono<String> current = r2dbcSwitcher.datasource().current();
+        ReadWriteRouter router = readWriteRouter;
+        if (router != null) {
+            current = current.switchIfEmpty(router.currentReactive());
+        }
+        return current
                 .flatMap(dynamicDataSourceService::getR2dbcDataSource)
                 .switchIfEmpty(Mono.defer(() ->
                         Mono.just(dynamicDataSourceService.getDefaultDataSource())
@@ -1,10 +1,21 @@
 package org.hswebframework.web.datasource;
 
+import org.hswebframework.web.datasource.registry.DataSourceRegistryProperties;
+import org.hswebframework.web.datasource.registry.DynamicDataSourceRegistry;
+import org.hswebframework.web.datasource.routing.ReadWriteRouter;
+import org.hswebframework.web.datasource.routing.ReadWriteSplittingAdvisor;
+import org.hswebframework.web.datasource.routing.ReadWriteSplittingProperties;
+import org.hswebframework.web.datasource.routing.ReadWriteSplittingServletFilter;
+import org.hswebframework.web.datasource.routing.ReadWriteSplittingWebFilter;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +24,7 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ImportAutoConfiguration(AopDataSourceSwitcherAutoConfiguration.class)
+@EnableConfigurationProperties(DataSourceRegistryProperties.class)
 public class DynamicDataSourceAutoConfiguration {
 
     @Bean
@@ -34,11 +46,53 @@ public class DynamicDataSourceAutoConfiguration {
                 if (bean instanceof DynamicDataSourceService) {
                     DataSourceHolder.dynamicDataSourceService = ((DynamicDataSourceService) bean);
                 }
+                if (bean instanceof ReadWriteRouter) {
+                    DataSourceHolder.readWriteRouter = ((ReadWriteRouter) bean);
+                }
 
                 return bean;
             }
         };
     }
 
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.transaction.annotation.Transactional")
+    @ConditionalOnProperty(prefix = "hsweb.datasource.read-write", name = "enabled", havingValue = "true")
+    @EnableConfigurationProperties(ReadWriteSplittingProperties.class)
+    static class ReadWriteSplittingConfiguration {
+
+        @Bean
+        public ReadWriteRouter readWriteRouter(ReadWriteSplittingProperties properties,
+                                               ObjectProvider<DynamicDataSourceRegistry<?>> registry) {
+            ReadWriteRouter router = new ReadWriteRouter(properties.getReplicas(),
+                                                         properties.getStrategy(),
+                                                         properties.getStickyPrimary().toMillis());
+            router.setLatencyHalfLife(properties.getLatencyHalfLife());
+            //不路由到健康检查失败的只读数据源
+            registry.ifAvailable(reg -> router.setAvailability(reg::isHealthy));
+            return router;
+        }
+
+        @Bean
+        public ReadWriteSplittingAdvisor readWriteSplittingAdvisor(ReadWriteRouter router,
+                                                                   ReadWriteSplittingProperties properties) {
+            ReadWriteSplittingAdvisor advisor = new ReadWriteSplittingAdvisor(router);
+            advisor.setOrder(properties.getOrder());
+            return advisor;
+        }
 
+        @Bean
+        @ConditionalOnClass(name = "org.springframework.web.server.WebFilter")
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+        public ReadWriteSplittingWebFilter readWriteSplittingWebFilter(ReadWriteRouter router) {
+            return new ReadWriteSplittingWebFilter(router);
+        }
+
+        @Bean
+        @ConditionalOnClass(name = "javax.servlet.Filter")
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+        public ReadWriteSplittingServletFilter readWriteSplittingServletFilter(ReadWriteRouter router) {
+            return new ReadWriteSplittingServletFilter(router);
+        }
+    }
 }
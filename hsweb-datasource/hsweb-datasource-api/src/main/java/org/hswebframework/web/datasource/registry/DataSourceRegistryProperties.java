@@ -0,0 +1,46 @@
+package org.hswebframework.web.datasource.registry;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 动态数据源注册中心配置
+ *
+ * <pre>{@code
+ * hsweb:
+ *   datasource:
+ *     registry:
+ *       idle-timeout: 30m
+ *       health-check-interval: 30s
+ * }</pre>
+ *
+ * @author zhouhao
+ * @see DynamicDataSourceRegistry
+ * @since 4.0.16
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hsweb.datasource.registry")
+public class DataSourceRegistryProperties {
+
+    //数据源在此时间内没有被使用时关闭连接池,再次使用时重新打开. 小于等于0时不关闭
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    //健康检查间隔,同时也是空闲检查间隔
+    private Duration healthCheckInterval = Duration.ofSeconds(30);
+
+    //健康检查时校验连接的超时时间,连接池已关闭时同时作为创建连接的登录超时时间
+    private Duration validationTimeout = Duration.ofSeconds(3);
+
+    //单个数据源健康检查的最长时间(包括获取连接以及校验连接),超时未完成时记为失败,各个数据源的检查并行执行
+    private Duration probeTimeout = Duration.ofSeconds(10);
+
+    //连续失败多少次后标记为不健康,不健康的数据源不会被读写分离路由选择
+    private int failureThreshold = 3;
+
+    //移除数据源时,等待正在使用的连接释放的最长时间,超时后强制关闭连接池
+    private Duration drainTimeout = Duration.ofSeconds(30);
+}
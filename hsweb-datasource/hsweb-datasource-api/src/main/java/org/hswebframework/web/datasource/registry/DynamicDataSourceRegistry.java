@@ -0,0 +1,307 @@
+package org.hswebframework.web.datasource.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.datasource.DynamicDataSource;
+import org.hswebframework.web.datasource.DynamicDataSourceService;
+import org.hswebframework.web.datasource.JdbcDataSource;
+import org.hswebframework.web.datasource.config.DynamicDataSourceConfig;
+import org.hswebframework.web.datasource.config.DynamicDataSourceConfigRepository;
+import org.hswebframework.web.datasource.exception.DataSourceNotFoundException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 动态数据源注册中心,根据{@link DynamicDataSourceConfigRepository}中的配置按需创建数据源.
+ * <ul>
+ *     <li>数据源空闲超过{@link DataSourceRegistryProperties#getIdleTimeout()}后关闭连接池,再次使用时重新打开</li>
+ *     <li>后台定时并行进行健康检查,连续失败的数据源标记为不健康,读写分离时不会路由到不健康的数据源</li>
+ *     <li>通过{@link #getLoadedDataSources()}获取每个数据源的连接数,获取连接耗时等信息</li>
+ * </ul>
+ * 使用时实现{@link #createDataSource(DynamicDataSourceConfig)}创建连接池,并注册为bean:
+ * <pre>{@code
+ * @Bean(destroyMethod = "dispose")
+ * public MyDataSourceRegistry myDataSourceRegistry(...) {
+ *     MyDataSourceRegistry registry = new MyDataSourceRegistry(...);
+ *     registry.start();
+ *     return registry;
+ * }
+ * }</pre>
+ *
+ * @param <C> 数据源配置类型
+ * @author zhouhao
+ * @see ManagedJdbcDataSource
+ * @see org.hswebframework.web.datasource.routing.ReadWriteRouter#setAvailability(java.util.function.Predicate)
+ * @since 4.0.16
+ */
+@Slf4j
+public abstract class DynamicDataSourceRegistry<C extends DynamicDataSourceConfig> implements DynamicDataSourceService {
+
+    private final DynamicDataSourceConfigRepository<C> repository;
+
+    private final DynamicDataSource<?> defaultDataSource;
+
+    private final DataSourceRegistryProperties properties;
+
+    private final Map<String, ManagedJdbcDataSource> dataSources = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    //执行健康检查的线程池,每个数据源使用独立的线程,防止单个数据源无响应时阻塞其他数据源的检查
+    private final ExecutorService probeExecutor;
+
+    public DynamicDataSourceRegistry(DynamicDataSourceConfigRepository<C> repository,
+                                     DynamicDataSource<?> defaultDataSource,
+                                     DataSourceRegistryProperties properties) {
+        this.repository = repository;
+        this.defaultDataSource = defaultDataSource;
+        this.properties = properties;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.probeExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hsweb-datasource-probe-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 根据配置创建连接池
+     *
+     * @param config 数据源配置
+     * @return 连接池
+     */
+    protected abstract DataSource createDataSource(C config);
+
+    /**
+     * 创建单个连接,用于连接池已关闭时对不健康的数据源进行健康检查,避免每次检查都重新打开连接池.
+     * <p>
+     * 默认创建临时的连接池获取连接,并设置连接池的登录超时时间,关闭连接时同时关闭临时连接池.
+     * 建议重写为通过驱动直接创建连接,并通过驱动的连接超时参数限制创建连接的时间.
+     *
+     * @param config         数据源配置
+     * @param timeoutSeconds 创建连接的超时时间
+     * @return 连接
+     * @throws SQLException 创建连接失败
+     */
+    protected Connection createConnection(C config, int timeoutSeconds) throws SQLException {
+        DataSource dataSource = createDataSource(config);
+        Connection connection;
+        try {
+            try {
+                dataSource.setLoginTimeout(timeoutSeconds);
+            } catch (SQLException | UnsupportedOperationException e) {
+                log.debug("datasource [{}] does not support login timeout", config.getId(), e);
+            }
+            connection = dataSource.getConnection();
+        } catch (Throwable e) {
+            closeDataSource(dataSource);
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                DynamicDataSourceRegistry.class.getClassLoader(),
+                new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                            closeDataSource(dataSource);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 关闭连接池,默认关闭实现了{@link AutoCloseable}的连接池
+     *
+     * @param dataSource 连接池
+     */
+    protected void closeDataSource(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("close datasource error", e);
+            }
+        }
+    }
+
+    @Override
+    public JdbcDataSource getDataSource(String dataSourceId) {
+        ManagedJdbcDataSource dataSource = dataSources.get(dataSourceId);
+        if (dataSource != null) {
+            return dataSource;
+        }
+        //在锁外加载配置,并发时可能加载多次,只使用第一个放入的数据源.
+        //加载时还未创建连接池,丢弃的数据源不需要关闭
+        ManagedJdbcDataSource loaded = load(dataSourceId);
+        dataSource = dataSources.putIfAbsent(dataSourceId, loaded);
+        return dataSource == null ? loaded : dataSource;
+    }
+
+    @Override
+    public DynamicDataSource getDefaultDataSource() {
+        return defaultDataSource;
+    }
+
+    private ManagedJdbcDataSource load(String dataSourceId) {
+        C config = repository.findById(dataSourceId);
+        if (config == null) {
+            throw new DataSourceNotFoundException(dataSourceId);
+        }
+        return new ManagedJdbcDataSource(dataSourceId,
+                                         config.getDatabaseType(),
+                                         () -> createDataSource(config),
+                                         this::closeDataSource,
+                                         () -> createConnection(config, validationTimeoutSeconds()));
+    }
+
+    /**
+     * 判断数据源是否健康,未加载的数据源认为是健康的
+     *
+     * @param dataSourceId 数据源ID
+     * @return 是否健康
+     */
+    public boolean isHealthy(String dataSourceId) {
+        ManagedJdbcDataSource dataSource = dataSources.get(dataSourceId);
+        return dataSource == null || dataSource.isHealthy();
+    }
+
+    /**
+     * @return 已加载的数据源, 包括已空闲关闭的数据源
+     */
+    public Collection<ManagedJdbcDataSource> getLoadedDataSources() {
+        return Collections.unmodifiableCollection(dataSources.values());
+    }
+
+    /**
+     * 移除并关闭数据源,配置修改后调用,再次获取数据源时使用新的配置创建.
+     * <p>
+     * 数据源有正在使用的连接时,等待连接释放后再关闭连接池,
+     * 最多等待{@link DataSourceRegistryProperties#getDrainTimeout()},超时后强制关闭.
+     *
+     * @param dataSourceId 数据源ID
+     */
+    public void remove(String dataSourceId) {
+        ManagedJdbcDataSource dataSource = dataSources.remove(dataSourceId);
+        if (dataSource != null) {
+            dataSource.dispose(properties.getDrainTimeout().toMillis());
+        }
+    }
+
+    /**
+     * 关闭空闲超时并且没有正在使用的连接的数据源
+     *
+     * @param now 当前时间
+     */
+    void evictIdle(long now) {
+        long idleTimeout = properties.getIdleTimeout().toMillis();
+        if (idleTimeout <= 0) {
+            return;
+        }
+        for (ManagedJdbcDataSource dataSource : dataSources.values()) {
+            if (dataSource.isOpen() && now - dataSource.getLastAccessTime() >= idleTimeout && dataSource.close()) {
+                log.info("datasource [{}] closed after idle {}ms", dataSource.getId(), now - dataSource.getLastAccessTime());
+            }
+        }
+    }
+
+    private int validationTimeoutSeconds() {
+        return (int) Math.max(1, properties.getValidationTimeout().getSeconds());
+    }
+
+    /**
+     * 并行对已打开以及不健康的数据源进行健康检查,超过{@link DataSourceRegistryProperties#getProbeTimeout()}未完成的检查记为失败.
+     */
+    void checkHealth() {
+        int timeout = validationTimeoutSeconds();
+        int threshold = Math.max(1, properties.getFailureThreshold());
+        List<ManagedJdbcDataSource> probing = new ArrayList<>();
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (ManagedJdbcDataSource dataSource : dataSources.values()) {
+            if (!dataSource.shouldProbe()) {
+                continue;
+            }
+            //上一次的检查仍未结束,不再重复检查
+            if (!dataSource.beginProbe()) {
+                dataSource.probeCompleted(false, new TimeoutException("previous health check not completed"), threshold);
+                continue;
+            }
+            probing.add(dataSource);
+            futures.add(probeExecutor.submit(() -> dataSource.probe(timeout)));
+        }
+        //所有检查共用截止时间,超时后不再等待,检查线程在驱动超时后自行结束
+        long deadline = System.nanoTime() + properties.getProbeTimeout().toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            ManagedJdbcDataSource dataSource = probing.get(i);
+            boolean valid = false;
+            Throwable error = null;
+            try {
+                valid = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (TimeoutException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            dataSource.probeCompleted(valid, error, threshold);
+        }
+    }
+
+    private void maintain() {
+        try {
+            evictIdle(System.currentTimeMillis());
+            checkHealth();
+        } catch (Throwable e) {
+            log.warn("maintain datasource error", e);
+        }
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        long interval = Math.max(1, properties.getHealthCheckInterval().toMillis());
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hsweb-datasource-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台检查并关闭所有数据源,等待正在使用的连接释放
+     */
+    public synchronized void dispose() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        probeExecutor.shutdownNow();
+        List<ManagedJdbcDataSource> removed = new ArrayList<>();
+        for (String dataSourceId : new ArrayList<>(dataSources.keySet())) {
+            ManagedJdbcDataSource dataSource = dataSources.remove(dataSourceId);
+            if (dataSource != null) {
+                //先全部标记为已移除,不再获取新的连接
+                dataSource.markDisposed();
+                removed.add(dataSource);
+            }
+        }
+        //所有数据源共用等待时间
+        long deadline = System.currentTimeMillis() + properties.getDrainTimeout().toMillis();
+        for (ManagedJdbcDataSource dataSource : removed) {
+            dataSource.dispose(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+}
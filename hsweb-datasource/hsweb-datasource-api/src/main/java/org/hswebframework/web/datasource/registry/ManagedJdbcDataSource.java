@@ -0,0 +1,404 @@
+package org.hswebframework.web.datasource.registry;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.datasource.DatabaseType;
+import org.hswebframework.web.datasource.JdbcDataSource;
+import org.hswebframework.web.datasource.exception.DataSourceClosedException;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * 由{@link DynamicDataSourceRegistry}管理的数据源,第一次获取连接时才创建连接池,空闲关闭后再次获取连接时重新创建.
+ * <p>
+ * 记录获取连接的数量,耗时以及健康检查的结果.
+ *
+ * @author zhouhao
+ * @see DynamicDataSourceRegistry
+ * @since 4.0.16
+ */
+@Slf4j
+public class ManagedJdbcDataSource implements JdbcDataSource {
+
+    private final String id;
+
+    private final Supplier<DataSource> opener;
+
+    private final Consumer<DataSource> closer;
+
+    //连接池未打开时,健康检查使用的单个连接
+    private final Callable<Connection> connector;
+
+    private final DataSource metered = new MeteredDataSource();
+
+    private volatile DatabaseType databaseType;
+
+    //实际的连接池,未打开或者已关闭时为null
+    private volatile DataSource target;
+
+    //已移除,不能再重新打开
+    private volatile boolean disposed;
+
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    private volatile boolean healthy = true;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    //正在使用中的连接数量,包括正在获取的连接
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final LongAdder acquiredConnections = new LongAdder();
+
+    private final LongAdder acquireFailures = new LongAdder();
+
+    //获取连接的平均耗时(纳秒)
+    private final AtomicLong acquireLatency = new AtomicLong();
+
+    //最近一次健康检查的耗时(纳秒)
+    private volatile long probeLatency;
+
+    //是否有正在执行的健康检查
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    //上一次健康检查完成时已获取的连接数量,用于判断连接池繁忙时是否仍然可以正常获取连接
+    private volatile long acquiredAtLastProbe;
+
+    ManagedJdbcDataSource(String id,
+                          DatabaseType databaseType,
+                          Supplier<DataSource> opener,
+                          Consumer<DataSource> closer,
+                          Callable<Connection> connector) {
+        this.id = id;
+        this.databaseType = databaseType;
+        this.opener = opener;
+        this.closer = closer;
+        this.connector = connector;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    @SneakyThrows
+    public DatabaseType getType() {
+        //未配置数据库类型时通过连接获取,不加锁,并发时可能获取多次
+        if (databaseType == null) {
+            try (Connection connection = metered.getConnection()) {
+                resolveType(connection);
+            }
+        }
+        return databaseType;
+    }
+
+    @Override
+    public DataSource getNative() {
+        lastAccessTime = System.currentTimeMillis();
+        return metered;
+    }
+
+    public boolean isOpen() {
+        return target != null;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public long getAcquiredConnections() {
+        return acquiredConnections.sum();
+    }
+
+    public long getAcquireFailures() {
+        return acquireFailures.sum();
+    }
+
+    public long getAcquireLatency() {
+        return acquireLatency.get();
+    }
+
+    public long getProbeLatency() {
+        return probeLatency;
+    }
+
+    private synchronized DataSource open() {
+        if (disposed) {
+            throw new DataSourceClosedException(id);
+        }
+        DataSource dataSource = target;
+        if (dataSource == null) {
+            log.debug("open datasource [{}]", id);
+            target = dataSource = opener.get();
+        }
+        return dataSource;
+    }
+
+    /**
+     * 关闭连接池,有正在使用的连接时不关闭
+     *
+     * @return 是否已关闭
+     */
+    synchronized boolean close() {
+        if (activeConnections.get() > 0) {
+            return false;
+        }
+        DataSource dataSource = target;
+        target = null;
+        if (dataSource != null) {
+            log.debug("close datasource [{}]", id);
+            closer.accept(dataSource);
+        }
+        return true;
+    }
+
+    /**
+     * 不再允许获取新的连接以及重新打开连接池
+     */
+    void markDisposed() {
+        disposed = true;
+    }
+
+    /**
+     * 不再允许获取新的连接,等待正在使用的连接释放后关闭连接池,超时后强制关闭
+     *
+     * @param drainTimeoutMillis 等待连接释放的最长时间
+     */
+    void dispose(long drainTimeoutMillis) {
+        markDisposed();
+        long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+        while (activeConnections.get() > 0 && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        int active = activeConnections.get();
+        if (active > 0) {
+            log.warn("datasource [{}] closed with {} connections still in use", id, active);
+        }
+        DataSource dataSource;
+        synchronized (this) {
+            dataSource = target;
+            target = null;
+        }
+        if (dataSource != null) {
+            closer.accept(dataSource);
+        }
+    }
+
+    /**
+     * 是否需要进行健康检查,不健康的数据源即使已经空闲关闭也会继续检查.
+     *
+     * @return 是否需要检查
+     */
+    boolean shouldProbe() {
+        return !disposed && (target != null || !healthy);
+    }
+
+    /**
+     * 开始健康检查,上一次检查还未结束时返回false
+     *
+     * @return 是否可以开始检查
+     */
+    boolean beginProbe() {
+        return probing.compareAndSet(false, true);
+    }
+
+    /**
+     * 执行健康检查,需要先调用{@link #beginProbe()}.
+     * 连接池已关闭时使用单个连接进行检查,不会重新打开连接池.
+     *
+     * @param timeoutSeconds 校验连接超时时间
+     * @return 连接是否有效
+     * @throws Exception 获取连接失败
+     */
+    boolean probe(int timeoutSeconds) throws Exception {
+        long startTime = System.nanoTime();
+        DataSource dataSource = target;
+        try (Connection connection = dataSource != null ? dataSource.getConnection() : connector.call()) {
+            boolean valid = connection.isValid(timeoutSeconds);
+            if (valid && databaseType == null) {
+                resolveType(connection);
+            }
+            return valid;
+        } finally {
+            probeLatency = System.nanoTime() - startTime;
+            probing.set(false);
+        }
+    }
+
+    /**
+     * 记录健康检查的结果,连接池繁忙导致的获取连接超时不计为失败.
+     *
+     * @param valid     连接是否有效
+     * @param error     检查失败的原因,没有时为null
+     * @param threshold 连续失败多少次后标记为不健康
+     */
+    void probeCompleted(boolean valid, Throwable error, int threshold) {
+        try {
+            if (valid) {
+                succeed();
+            } else if (error != null && isPoolBusy(error)) {
+                log.debug("datasource [{}] pool is busy, skip health check", id, error);
+            } else {
+                log.warn("datasource [{}] health check failed", id, error);
+                fail(threshold);
+            }
+        } finally {
+            acquiredAtLastProbe = acquiredConnections.sum();
+        }
+    }
+
+    //连接池有正在使用的连接,并且自上次检查以来仍然能够正常获取连接时,认为获取连接超时是由于连接池繁忙
+    private boolean isPoolBusy(Throwable error) {
+        boolean timeout = error instanceof SQLTransientConnectionException
+                || error instanceof SQLTimeoutException
+                || error instanceof TimeoutException;
+        return timeout
+                && target != null
+                && activeConnections.get() > 0
+                && acquiredConnections.sum() > acquiredAtLastProbe;
+    }
+
+    private void succeed() {
+        consecutiveFailures.set(0);
+        if (!healthy) {
+            log.info("datasource [{}] recovered", id);
+            healthy = true;
+        }
+    }
+
+    private void fail(int threshold) {
+        if (consecutiveFailures.incrementAndGet() >= threshold && healthy) {
+            log.warn("datasource [{}] marked as unhealthy", id);
+            healthy = false;
+        }
+    }
+
+    private void resolveType(Connection connection) throws SQLException {
+        databaseType = DatabaseType.fromJdbcUrl(connection.getMetaData().getURL());
+    }
+
+    private Connection acquire() throws SQLException {
+        lastAccessTime = System.currentTimeMillis();
+        //先计数,防止获取连接的过程中被空闲检查关闭
+        activeConnections.incrementAndGet();
+        long startTime = System.nanoTime();
+        Connection connection;
+        try {
+            connection = open().getConnection();
+        } catch (Throwable e) {
+            activeConnections.decrementAndGet();
+            acquireFailures.increment();
+            throw e;
+        }
+        long latency = System.nanoTime() - startTime;
+        //指数加权移动平均
+        acquireLatency.updateAndGet(old -> old == 0 ? latency : old + (latency - old) / 5);
+        acquiredConnections.increment();
+        return wrap(connection);
+    }
+
+    //关闭连接时减少使用中的连接数量
+    private Connection wrap(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ManagedJdbcDataSource.class.getClassLoader(),
+                new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0
+                            && closed.compareAndSet(false, true)) {
+                        activeConnections.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private class MeteredDataSource implements DataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return acquire();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            return open().unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || open().isWrapperFor(iface);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return open().getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            open().setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            open().setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return open().getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return open().getParentLogger();
+        }
+    }
+}
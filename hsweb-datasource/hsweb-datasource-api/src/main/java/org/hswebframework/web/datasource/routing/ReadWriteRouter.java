@@ -0,0 +1,406 @@
+package org.hswebframework.web.datasource.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 读写分离路由,只读操作路由到只读数据源,写操作以及写操作后{@link #getStickyMillis()}毫秒内的读操作使用主数据源.
+ * <p>
+ * JDBC使用ThreadLocal记录路由信息,写操作记录在最外层的切面调用结束或者{@link #endScope() 作用域结束}时清除;
+ * 响应式使用Reactor上下文记录路由信息.
+ * 通过{@link org.hswebframework.web.datasource.DataSourceHolder}切换了数据源时,优先使用切换的数据源.
+ *
+ * @author zhouhao
+ * @see ReadWriteSplittingAdvisor
+ * @see org.hswebframework.web.datasource.DataSourceHolder#currentDataSource()
+ * @see org.hswebframework.web.datasource.DataSourceHolder#currentR2dbc()
+ * @since 4.0.16
+ */
+@Slf4j
+public class ReadWriteRouter {
+
+    //响应式上下文中路由到的只读数据源ID
+    static final String ROUTE_KEY = ReadWriteRouter.class.getName() + ".route";
+
+    //响应式上下文中正在执行写操作的标记
+    static final String WRITE_KEY = ReadWriteRouter.class.getName() + ".write";
+
+    private final List<String> replicas;
+
+    private final Strategy strategy;
+
+    private final long stickyMillis;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    //只读数据源ID -> 延迟记录
+    private final Map<String, LatencyStats> latencies = new ConcurrentHashMap<>();
+
+    //延迟记录的半衰期,长时间没有新的记录时延迟逐渐降低,使偶尔一次慢查询的数据源能被重新选择
+    private volatile long latencyHalfLifeMillis = 10_000;
+
+    //JDBC: 当前线程路由到的只读数据源
+    private final ThreadLocal<String> route = new ThreadLocal<>();
+
+    //JDBC: 当前线程的写操作记录,最外层的切面调用或者作用域结束时清除
+    private final ThreadLocal<JdbcState> jdbcState = new ThreadLocal<>();
+
+    //判断只读数据源是否可用,不可用的数据源不会被选择
+    private volatile Predicate<String> availability = replica -> true;
+
+    public ReadWriteRouter(List<String> replicas, Strategy strategy, long stickyMillis) {
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.strategy = strategy;
+        this.stickyMillis = stickyMillis;
+        for (String replica : this.replicas) {
+            latencies.put(replica, new LatencyStats());
+        }
+    }
+
+    public long getStickyMillis() {
+        return stickyMillis;
+    }
+
+    /**
+     * 设置判断只读数据源是否可用的方法,如根据健康检查结果移除不可用的数据源
+     *
+     * @param availability 数据源ID -> 是否可用
+     * @see org.hswebframework.web.datasource.registry.DynamicDataSourceRegistry#isHealthy(String)
+     */
+    public void setAvailability(Predicate<String> availability) {
+        this.availability = availability;
+    }
+
+    /**
+     * 设置{@link Strategy#least_latency}策略下延迟记录的半衰期
+     *
+     * @param halfLife 半衰期
+     */
+    public void setLatencyHalfLife(Duration halfLife) {
+        this.latencyHalfLifeMillis = Math.max(1, halfLife.toMillis());
+    }
+
+    /**
+     * 选择一个只读数据源
+     *
+     * @return 只读数据源ID, 未配置只读数据源或者都不可用时返回null
+     */
+    public String select() {
+        return select(System.currentTimeMillis());
+    }
+
+    String select(long now) {
+        List<String> candidates = available();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        if (strategy == Strategy.least_latency) {
+            //随机选择两个数据源,使用延迟较低的一个(power of two choices),避免所有请求集中到同一个数据源
+            int size = candidates.size();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = (first + 1 + random.nextInt(size - 1)) % size;
+            String a = candidates.get(first), b = candidates.get(second);
+            return getLatency(b, now) < getLatency(a, now) ? b : a;
+        }
+        return candidates.get((counter.getAndIncrement() & Integer.MAX_VALUE) % candidates.size());
+    }
+
+    /**
+     * 获取只读数据源当前的延迟,距离最后一次记录每经过一个半衰期,延迟减半
+     *
+     * @param replica 只读数据源ID
+     * @param now     当前时间
+     * @return 延迟(纳秒)
+     */
+    long getLatency(String replica, long now) {
+        LatencyStats stats = latencies.get(replica);
+        if (stats == null) {
+            return 0;
+        }
+        long halfLives = Math.max(0, now - stats.updateTime) / latencyHalfLifeMillis;
+        return halfLives >= 63 ? 0 : stats.latency >> halfLives;
+    }
+
+    //全部可用时直接使用配置的列表,避免每次创建新的列表
+    private List<String> available() {
+        Predicate<String> availability = this.availability;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (!availability.test(replicas.get(i))) {
+                List<String> candidates = new ArrayList<>(replicas.size() - 1);
+                for (String replica : replicas) {
+                    if (availability.test(replica)) {
+                        candidates.add(replica);
+                    }
+                }
+                return candidates;
+            }
+        }
+        return replicas;
+    }
+
+    /**
+     * 记录只读数据源的延迟,用于{@link Strategy#least_latency}
+     *
+     * @param replica 只读数据源ID
+     * @param nanos   延迟(纳秒)
+     */
+    public void recordLatency(String replica, long nanos) {
+        recordLatency(replica, nanos, System.currentTimeMillis());
+    }
+
+    void recordLatency(String replica, long nanos, long now) {
+        LatencyStats stats = latencies.get(replica);
+        if (stats == null) {
+            return;
+        }
+        synchronized (stats) {
+            //在衰减后的延迟上进行指数加权移动平均
+            long old = getLatency(replica, now);
+            stats.latency = old == 0 ? nanos : old + (nanos - old) / 5;
+            stats.updateTime = now;
+        }
+    }
+
+    /* =========== JDBC =========== */
+
+    /**
+     * @return 当前线程路由到的只读数据源
+     */
+    public Optional<String> current() {
+        return Optional.ofNullable(route.get());
+    }
+
+    /**
+     * @return 当前线程是否必须使用主数据源
+     */
+    public boolean isPrimaryRequired() {
+        JdbcState state = jdbcState.get();
+        return state != null && (state.writing > 0 || System.currentTimeMillis() - state.lastWrite < stickyMillis);
+    }
+
+    /**
+     * 开始一个作用域(如一次HTTP请求),作用域中写操作后的读操作将使用主数据源,作用域结束时清除写操作记录.
+     * <p>
+     * 不在作用域中时,写操作记录只在最外层的切面调用中有效,避免线程池中的线程被后续无关的请求复用时仍然使用主数据源.
+     * 必须在同一个线程中调用{@link #endScope()}.
+     *
+     * @see ReadWriteSplittingServletFilter
+     */
+    public void beginScope() {
+        state().scopes++;
+    }
+
+    /**
+     * 结束作用域,最外层的作用域结束时清除当前线程的写操作记录
+     *
+     * @see #beginScope()
+     */
+    public void endScope() {
+        JdbcState state = jdbcState.get();
+        if (state != null && --state.scopes <= 0 && state.depth <= 0) {
+            jdbcState.remove();
+        }
+    }
+
+    //进入切面调用
+    void enter() {
+        state().depth++;
+    }
+
+    //退出切面调用,不在作用域中时,最外层的调用结束后清除写操作记录
+    void exit() {
+        JdbcState state = jdbcState.get();
+        if (state != null && --state.depth <= 0 && state.scopes <= 0) {
+            jdbcState.remove();
+        }
+    }
+
+    private JdbcState state() {
+        JdbcState state = jdbcState.get();
+        if (state == null) {
+            jdbcState.set(state = new JdbcState());
+        }
+        return state;
+    }
+
+    void route(String replica) {
+        if (replica == null) {
+            route.remove();
+        } else {
+            route.set(replica);
+        }
+    }
+
+    /**
+     * 开始写操作,写操作中的读操作也将使用主数据源
+     *
+     * @return 开始写操作前路由到的只读数据源, 调用{@link #endWrite(String)}时恢复
+     */
+    String beginWrite() {
+        String previous = route.get();
+        route.remove();
+        state().writing++;
+        return previous;
+    }
+
+    void endWrite(String previous) {
+        JdbcState state = state();
+        state.writing--;
+        state.lastWrite = System.currentTimeMillis();
+        route(previous);
+    }
+
+    /* =========== 响应式 =========== */
+
+    /**
+     * @return 当前上下文中路由到的只读数据源
+     */
+    public Mono<String> currentReactive() {
+        return Mono.deferContextual(ctx -> Mono.justOrEmpty(ctx.<String>getOrEmpty(ROUTE_KEY)));
+    }
+
+    /**
+     * 初始化写操作记录,同一个上下文中写操作后的读操作将使用主数据源
+     *
+     * @param context 上下文
+     * @return 上下文
+     */
+    public Context initState(Context context) {
+        return context.hasKey(StickyState.class) ? context : context.put(StickyState.class, new StickyState());
+    }
+
+    boolean isPrimaryRequired(ContextView context) {
+        if (context.hasKey(WRITE_KEY)) {
+            return true;
+        }
+        StickyState state = context.getOrDefault(StickyState.class, null);
+        return state != null && System.currentTimeMillis() - state.lastWrite < stickyMillis;
+    }
+
+    public <T> Flux<T> read(Flux<T> flux) {
+        return Flux
+                .deferContextual(ctx -> {
+                    if (ctx.hasKey(ROUTE_KEY) || isPrimaryRequired(ctx)) {
+                        return flux;
+                    }
+                    String replica = select();
+                    if (replica == null) {
+                        return flux;
+                    }
+                    LatencyRecorder recorder = new LatencyRecorder(replica);
+                    return flux
+                            .doOnEach(signal -> recorder.record())
+                            .contextWrite(Context.of(ROUTE_KEY, replica));
+                })
+                .contextWrite(this::initState);
+    }
+
+    public <T> Mono<T> read(Mono<T> mono) {
+        return Mono
+                .deferContextual(ctx -> {
+                    if (ctx.hasKey(ROUTE_KEY) || isPrimaryRequired(ctx)) {
+                        return mono;
+                    }
+                    String replica = select();
+                    if (replica == null) {
+                        return mono;
+                    }
+                    LatencyRecorder recorder = new LatencyRecorder(replica);
+                    return mono
+                            .doOnEach(signal -> recorder.record())
+                            .contextWrite(Context.of(ROUTE_KEY, replica));
+                })
+                .contextWrite(this::initState);
+    }
+
+    public <T> Flux<T> write(Flux<T> flux) {
+        return Flux
+                .deferContextual(ctx -> {
+                    StickyState state = ctx.get(StickyState.class);
+                    return flux
+                            .contextWrite(context -> context.delete(ROUTE_KEY).put(WRITE_KEY, true))
+                            //在信号传递到下游之前记录,保证后续的读操作能感知到
+                            .doOnEach(signal -> state.markWrite())
+                            .doOnCancel(state::markWrite);
+                })
+                .contextWrite(this::initState);
+    }
+
+    public <T> Mono<T> write(Mono<T> mono) {
+        return Mono
+                .deferContextual(ctx -> {
+                    StickyState state = ctx.get(StickyState.class);
+                    return mono
+                            .contextWrite(context -> context.delete(ROUTE_KEY).put(WRITE_KEY, true))
+                            //在信号传递到下游之前记录,保证后续的读操作能感知到
+                            .doOnEach(signal -> state.markWrite())
+                            .doOnCancel(state::markWrite);
+                })
+                .contextWrite(this::initState);
+    }
+
+    //记录订阅到第一个信号的时间
+    private class LatencyRecorder {
+        private final String replica;
+        private final long startTime = System.nanoTime();
+        private volatile boolean recorded;
+
+        private LatencyRecorder(String replica) {
+            this.replica = replica;
+        }
+
+        void record() {
+            if (!recorded) {
+                recorded = true;
+                recordLatency(replica, System.nanoTime() - startTime);
+            }
+        }
+    }
+
+    private static class LatencyStats {
+        //平均延迟(纳秒)
+        private volatile long latency;
+        //最后一次记录的时间
+        private volatile long updateTime;
+    }
+
+    private static class JdbcState {
+        //正在执行的写操作层级
+        private int writing;
+        //最后一次写操作的时间
+        private long lastWrite;
+        //切面调用层级
+        private int depth;
+        //作用域层级
+        private int scopes;
+    }
+
+    static class StickyState {
+        private volatile long lastWrite;
+
+        void markWrite() {
+            lastWrite = System.currentTimeMillis();
+        }
+    }
+
+    public enum Strategy {
+        //轮询
+        round_robin,
+        //随机选择两个数据源,使用平均延迟较低的一个,长时间未使用的数据源的延迟会逐渐衰减
+        least_latency
+    }
+}
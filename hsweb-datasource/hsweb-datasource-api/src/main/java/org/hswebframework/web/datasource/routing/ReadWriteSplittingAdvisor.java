@@ -0,0 +1,129 @@
+package org.hswebframework.web.datasource.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 根据{@link Transactional#readOnly()}进行读写分离,只读事务路由到只读数据源,其他事务使用主数据源.
+ * <p>
+ * 必须在事务拦截器之前执行,才能在事务获取连接前确定路由,默认顺序为{@link #DEFAULT_ORDER},
+ * 即在默认顺序({@link Ordered#LOWEST_PRECEDENCE})的事务拦截器之前,在其他指定了顺序的切面(如权限控制)之后.
+ * 通过{@link org.hswebframework.web.datasource.annotation.UseDataSource}切换数据源时,
+ * 在获取连接时优先使用切换的数据源,与此切面的执行顺序无关.
+ * 修改了事务拦截器的顺序时,需要通过{@code hsweb.datasource.read-write.order}设置比事务拦截器更高的优先级.
+ *
+ * @author zhouhao
+ * @see ReadWriteRouter
+ * @since 4.0.16
+ */
+public class ReadWriteSplittingAdvisor extends StaticMethodMatcherPointcutAdvisor {
+
+    private static final long serialVersionUID = -2374918305264174019L;
+
+    public static final int DEFAULT_ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private final transient ReadWriteRouter router;
+
+    //方法 -> 是否只读
+    private final transient Map<CacheKey, Boolean> readOnlyCache = new ConcurrentHashMap<>();
+
+    public ReadWriteSplittingAdvisor(ReadWriteRouter router) {
+        this.router = router;
+        setAdvice((MethodInterceptor) this::invoke);
+        setOrder(DEFAULT_ORDER);
+    }
+
+    @SuppressWarnings("all")
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        boolean readOnly = isReadOnly(ClassUtils.getUserClass(invocation.getThis()), invocation.getMethod());
+        Class<?> returnType = invocation.getMethod().getReturnType();
+
+        //响应式
+        if (Mono.class.isAssignableFrom(returnType) || Flux.class.isAssignableFrom(returnType)) {
+            Object result = invocation.proceed();
+            if (result instanceof Mono) {
+                return readOnly ? router.read((Mono<?>) result) : router.write((Mono<?>) result);
+            }
+            if (result instanceof Flux) {
+                return readOnly ? router.read((Flux<?>) result) : router.write((Flux<?>) result);
+            }
+            return result;
+        }
+
+        //JDBC
+        router.enter();
+        try {
+            return invokeJdbc(invocation, readOnly);
+        } finally {
+            router.exit();
+        }
+    }
+
+    private Object invokeJdbc(MethodInvocation invocation, boolean readOnly) throws Throwable {
+        if (readOnly) {
+            if (router.current().isPresent() || router.isPrimaryRequired()) {
+                return invocation.proceed();
+            }
+            String replica = router.select();
+            if (replica == null) {
+                return invocation.proceed();
+            }
+            long startTime = System.nanoTime();
+            router.route(replica);
+            try {
+                return invocation.proceed();
+            } finally {
+                router.route(null);
+                router.recordLatency(replica, System.nanoTime() - startTime);
+            }
+        }
+        String previous = router.beginWrite();
+        try {
+            return invocation.proceed();
+        } finally {
+            router.endWrite(previous);
+        }
+    }
+
+    private boolean isReadOnly(Class<?> targetClass, Method method) {
+        return readOnlyCache.computeIfAbsent(new CacheKey(targetClass, method), key -> {
+            Transactional transactional = findTransactional(key.type, key.method);
+            return transactional != null && transactional.readOnly();
+        });
+    }
+
+    private static Transactional findTransactional(Class<?> targetClass, Method method) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Transactional.class);
+        if (transactional == null) {
+            transactional = AnnotatedElementUtils.findMergedAnnotation(targetClass, Transactional.class);
+        }
+        return transactional;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return findTransactional(ClassUtils.getUserClass(targetClass), method) != null;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class CacheKey {
+        private Class<?> type;
+        private Method method;
+    }
+}
@@ -0,0 +1,51 @@
+package org.hswebframework.web.datasource.routing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置
+ *
+ * <pre>{@code
+ * hsweb:
+ *   datasource:
+ *     read-write:
+ *       enabled: true
+ *       replicas: read_db_01,read_db_02
+ *       strategy: least_latency
+ * }</pre>
+ *
+ * @author zhouhao
+ * @see ReadWriteRouter
+ * @since 4.0.16
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hsweb.datasource.read-write")
+public class ReadWriteSplittingProperties {
+
+    //开启读写分离
+    private boolean enabled = false;
+
+    //只读数据源ID
+    private List<String> replicas = new ArrayList<>();
+
+    //只读数据源选择策略
+    private ReadWriteRouter.Strategy strategy = ReadWriteRouter.Strategy.round_robin;
+
+    //写操作后,同一个请求中的读操作在此时间内继续使用主数据源,保证能读取到刚写入的数据.
+    //响应式按Reactor上下文记录;JDBC按线程记录,在请求(ReadWriteSplittingServletFilter)结束时清除,
+    //不在请求中时(如定时任务)只在最外层的@Transactional方法调用中有效
+    private Duration stickyPrimary = Duration.ofSeconds(1);
+
+    //least_latency策略下,延迟记录的半衰期,长时间未被选择的数据源延迟逐渐降低,从而被重新选择
+    private Duration latencyHalfLife = Duration.ofSeconds(10);
+
+    //读写分离切面的执行顺序,必须在事务拦截器之前执行
+    private int order = ReadWriteSplittingAdvisor.DEFAULT_ORDER;
+}
@@ -0,0 +1,29 @@
+package org.hswebframework.web.datasource.routing;
+
+import lombok.AllArgsConstructor;
+
+import javax.servlet.*;
+import java.io.IOException;
+
+/**
+ * 在请求中开启JDBC读写分离的作用域,同一个请求中写操作后的读操作将使用主数据源,请求结束后清除写操作记录
+ *
+ * @see ReadWriteRouter#beginScope()
+ * @see ReadWriteSplittingWebFilter
+ * @since 4.0.16
+ */
+@AllArgsConstructor
+public class ReadWriteSplittingServletFilter implements Filter {
+
+    private final ReadWriteRouter router;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        router.beginScope();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            router.endScope();
+        }
+    }
+}
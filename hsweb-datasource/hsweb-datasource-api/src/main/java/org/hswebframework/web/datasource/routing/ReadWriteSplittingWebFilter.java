@@ -0,0 +1,27 @@
+package org.hswebframework.web.datasource.routing;
+
+import lombok.AllArgsConstructor;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 在请求的上下文中初始化写操作记录,同一个请求中写操作后的读操作将使用主数据源
+ *
+ * @author zhouhao
+ * @see ReadWriteRouter#initState(reactor.util.context.Context)
+ * @since 4.0.16
+ */
+@AllArgsConstructor
+public class ReadWriteSplittingWebFilter implements WebFilter {
+
+    private final ReadWriteRouter router;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return chain
+                .filter(exchange)
+                .contextWrite(router::initState);
+    }
+}
@@ -0,0 +1,283 @@
+package org.hswebframework.web.datasource.registry;
+
+import org.hswebframework.web.datasource.DatabaseType;
+import org.hswebframework.web.datasource.JdbcDataSource;
+import org.hswebframework.web.datasource.R2dbcDataSource;
+import org.hswebframework.web.datasource.config.DynamicDataSourceConfig;
+import org.hswebframework.web.datasource.config.DynamicDataSourceConfigRepository;
+import org.hswebframework.web.datasource.exception.DataSourceNotFoundException;
+import org.hswebframework.web.datasource.routing.ReadWriteRouter;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DynamicDataSourceRegistryTest {
+
+    private final Map<String, DynamicDataSourceConfig> configs = new HashMap<>();
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private volatile boolean valid = true;
+
+    //获取连接时阻塞的数据源
+    private volatile String hangOn;
+
+    private final CountDownLatch hangLatch = new CountDownLatch(1);
+
+    //获取连接时抛出的异常
+    private volatile SQLException acquireError;
+
+    private TestRegistry registry;
+
+    @Before
+    public void init() {
+        for (String id : Arrays.asList("r1", "r2")) {
+            DynamicDataSourceConfig config = new DynamicDataSourceConfig();
+            config.setId(id);
+            config.setDatabaseType(DatabaseType.h2);
+            configs.put(id, config);
+        }
+        DataSourceRegistryProperties properties = new DataSourceRegistryProperties();
+        properties.setFailureThreshold(2);
+        properties.setProbeTimeout(Duration.ofMillis(500));
+        registry = new TestRegistry(new MapRepository(), properties);
+    }
+
+    @Test
+    public void testLazyOpenAndEvict() throws Exception {
+        JdbcDataSource dataSource = registry.getDataSource("r1");
+        assertSame(dataSource, registry.getDataSource("r1"));
+        assertEquals(DatabaseType.h2, dataSource.getType());
+        //获取连接时才打开
+        assertEquals(0, opened.get());
+
+        ManagedJdbcDataSource managed = (ManagedJdbcDataSource) dataSource;
+        Connection connection = dataSource.getNative().getConnection();
+        assertEquals(1, opened.get());
+        assertEquals(1, managed.getActiveConnections());
+
+        //有正在使用的连接时不关闭
+        registry.evictIdle(System.currentTimeMillis() + 3600_000);
+        assertTrue(managed.isOpen());
+
+        connection.close();
+        connection.close();
+        assertEquals(0, managed.getActiveConnections());
+        assertEquals(1, managed.getAcquiredConnections());
+
+        registry.evictIdle(System.currentTimeMillis() + 3600_000);
+        assertFalse(managed.isOpen());
+        assertEquals(1, closed.get());
+
+        //重新打开
+        dataSource.getNative().getConnection().close();
+        assertEquals(2, opened.get());
+    }
+
+    @Test(expected = DataSourceNotFoundException.class)
+    public void testNotFound() {
+        registry.getDataSource("not_exists");
+    }
+
+    @Test
+    public void testHealthCheck() throws Exception {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1", "r2"), ReadWriteRouter.Strategy.round_robin, 1000);
+        router.setAvailability(registry::isHealthy);
+
+        registry.getDataSource("r1").getNative().getConnection().close();
+        valid = false;
+        registry.checkHealth();
+        assertTrue(registry.isHealthy("r1"));
+        registry.checkHealth();
+        assertFalse(registry.isHealthy("r1"));
+
+        //不健康的数据源不参与路由
+        for (int i = 0; i < 4; i++) {
+            assertEquals("r2", router.select());
+        }
+
+        //空闲关闭后继续检查,恢复后重新参与路由
+        registry.evictIdle(System.currentTimeMillis() + 3600_000);
+        ManagedJdbcDataSource managed = (ManagedJdbcDataSource) registry.getDataSource("r1");
+        assertFalse(managed.isOpen());
+        registry.checkHealth();
+        assertFalse(registry.isHealthy("r1"));
+        valid = true;
+        registry.checkHealth();
+        assertTrue(registry.isHealthy("r1"));
+        //使用单个连接检查,不重新打开连接池
+        assertFalse(managed.isOpen());
+        Set<String> selected = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            selected.add(router.select());
+        }
+        assertEquals(2, selected.size());
+    }
+
+    @Test
+    public void testProbeTimeout() throws Exception {
+        registry.getDataSource("r1").getNative().getConnection().close();
+        registry.getDataSource("r2").getNative().getConnection().close();
+        ManagedJdbcDataSource r1 = (ManagedJdbcDataSource) registry.getDataSource("r1");
+        ManagedJdbcDataSource r2 = (ManagedJdbcDataSource) registry.getDataSource("r2");
+        hangOn = "r1";
+        try {
+            long startTime = System.currentTimeMillis();
+            registry.checkHealth();
+            //无响应的数据源不会阻塞其他数据源的检查
+            assertTrue(System.currentTimeMillis() - startTime < 2000);
+            assertEquals(1, r1.getConsecutiveFailures());
+            assertEquals(0, r2.getConsecutiveFailures());
+
+            //上一次检查仍未结束,直接记为失败
+            registry.checkHealth();
+            assertFalse(registry.isHealthy("r1"));
+            assertTrue(registry.isHealthy("r2"));
+        } finally {
+            hangLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testPoolBusyNotFailure() throws Exception {
+        ManagedJdbcDataSource managed = (ManagedJdbcDataSource) registry.getDataSource("r1");
+        Connection connection = managed.getNative().getConnection();
+        try {
+            acquireError = new SQLTransientConnectionException("Connection is not available, request timed out");
+            //连接池繁忙,但是仍然可以正常获取连接,不计为失败
+            registry.checkHealth();
+            assertEquals(0, managed.getConsecutiveFailures());
+
+            //上次检查以来没有获取到连接,计为失败
+            registry.checkHealth();
+            assertEquals(1, managed.getConsecutiveFailures());
+        } finally {
+            acquireError = null;
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testRemoveWaitForConnections() throws Exception {
+        Connection connection = registry.getDataSource("r1").getNative().getConnection();
+        Thread remover = new Thread(() -> registry.remove("r1"));
+        remover.start();
+        remover.join(200);
+        //有正在使用的连接时等待释放
+        assertTrue(remover.isAlive());
+        assertEquals(0, closed.get());
+
+        connection.close();
+        remover.join(5000);
+        assertFalse(remover.isAlive());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testConcurrentGet() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        Set<JdbcDataSource> loaded = Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> loaded.add(registry.getDataSource("r1")));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, loaded.size());
+    }
+
+    @Test
+    public void testDispose() throws Exception {
+        registry.getDataSource("r1").getNative().getConnection().close();
+        registry.getDataSource("r2");
+        registry.dispose();
+        assertEquals(1, closed.get());
+        assertTrue(registry.getLoadedDataSources().isEmpty());
+    }
+
+    private DataSource createPool(String id) {
+        opened.incrementAndGet();
+        return (DataSource) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{DataSource.class, AutoCloseable.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        if (id.equals(hangOn)) {
+                            hangLatch.await();
+                        }
+                        SQLException error = acquireError;
+                        if (error != null) {
+                            throw error;
+                        }
+                        return createConnection();
+                    }
+                    if ("close".equals(method.getName())) {
+                        closed.incrementAndGet();
+                    }
+                    return null;
+                });
+    }
+
+    private Connection createConnection() {
+        return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{Connection.class},
+                (proxy, method, args) -> "isValid".equals(method.getName()) ? valid : null);
+    }
+
+    class TestRegistry extends DynamicDataSourceRegistry<DynamicDataSourceConfig> {
+
+        TestRegistry(DynamicDataSourceConfigRepository<DynamicDataSourceConfig> repository,
+                     DataSourceRegistryProperties properties) {
+            super(repository, null, properties);
+        }
+
+        @Override
+        protected DataSource createDataSource(DynamicDataSourceConfig config) {
+            return createPool(config.getId());
+        }
+
+        @Override
+        public Mono<R2dbcDataSource> getR2dbcDataSource(String dataSourceId) {
+            return Mono.error(new DataSourceNotFoundException(dataSourceId));
+        }
+    }
+
+    class MapRepository implements DynamicDataSourceConfigRepository<DynamicDataSourceConfig> {
+        @Override
+        public List<DynamicDataSourceConfig> findAll() {
+            return new ArrayList<>(configs.values());
+        }
+
+        @Override
+        public DynamicDataSourceConfig findById(String dataSourceId) {
+            return configs.get(dataSourceId);
+        }
+
+        @Override
+        public DynamicDataSourceConfig add(DynamicDataSourceConfig config) {
+            return configs.put(config.getId(), config);
+        }
+
+        @Override
+        public DynamicDataSourceConfig remove(String dataSourceId) {
+            return configs.remove(dataSourceId);
+        }
+    }
+}
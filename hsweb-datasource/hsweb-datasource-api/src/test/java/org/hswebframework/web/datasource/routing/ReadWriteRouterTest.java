@@ -0,0 +1,147 @@
+package org.hswebframework.web.datasource.routing;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ReadWriteRouterTest {
+
+    @Test
+    public void testRoundRobin() {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1", "r2"), ReadWriteRouter.Strategy.round_robin, 1000);
+        assertEquals("r1", router.select());
+        assertEquals("r2", router.select());
+        assertEquals("r1", router.select());
+    }
+
+    @Test
+    public void testLeastLatency() {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1", "r2"), ReadWriteRouter.Strategy.least_latency, 1000);
+        router.recordLatency("r1", 100);
+        router.recordLatency("r2", 10);
+        assertEquals("r2", router.select());
+        for (int i = 0; i < 20; i++) {
+            router.recordLatency("r2", 1000);
+        }
+        assertEquals("r1", router.select());
+    }
+
+    @Test
+    public void testLeastLatencyDecay() {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1", "r2"), ReadWriteRouter.Strategy.least_latency, 1000);
+        router.setLatencyHalfLife(Duration.ofSeconds(10));
+        long now = System.currentTimeMillis();
+        //r1只有一次很慢的记录
+        router.recordLatency("r1", 1_000_000, now);
+        router.recordLatency("r2", 1_000, now);
+        assertEquals("r2", router.select(now));
+
+        //r2持续被选择并记录延迟,r1的延迟逐渐衰减后被重新选择
+        long time = now;
+        boolean reselected = false;
+        for (int i = 0; i < 200 && !reselected; i++) {
+            time += 1000;
+            String selected = router.select(time);
+            if ("r1".equals(selected)) {
+                reselected = true;
+            } else {
+                router.recordLatency(selected, 1_000, time);
+            }
+        }
+        assertTrue(reselected);
+        assertEquals(0, router.getLatency("r1", now + 630_000));
+    }
+
+    @Test
+    public void testLeastLatencyTwoChoices() {
+        List<String> replicas = Arrays.asList("r1", "r2", "r3", "r4");
+        ReadWriteRouter router = new ReadWriteRouter(replicas, ReadWriteRouter.Strategy.least_latency, 1000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            router.recordLatency(replicas.get(i), (i + 1) * 1000, now);
+        }
+        //随机选择两个比较,最慢的数据源永远不会被选择,其他数据源都有机会被选择
+        Set<String> selected = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            selected.add(router.select(now));
+        }
+        assertFalse(selected.contains("r4"));
+        assertEquals(3, selected.size());
+    }
+
+    @Test
+    public void testJdbcSticky() {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1"), ReadWriteRouter.Strategy.round_robin, 60000);
+        assertFalse(router.isPrimaryRequired());
+
+        router.route("r1");
+        String previous = router.beginWrite();
+        //写操作中不使用只读数据源
+        assertFalse(router.current().isPresent());
+        assertTrue(router.isPrimaryRequired());
+        router.endWrite(previous);
+
+        assertEquals("r1", router.current().orElse(null));
+        //写操作后继续使用主数据源
+        assertTrue(router.isPrimaryRequired());
+        router.route(null);
+    }
+
+    @Test
+    public void testJdbcStickyCleared() {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1"), ReadWriteRouter.Strategy.round_robin, 60000);
+
+        //不在作用域中时,最外层的调用结束后清除写操作记录
+        router.enter();
+        router.endWrite(router.beginWrite());
+        router.enter();
+        router.exit();
+        assertTrue(router.isPrimaryRequired());
+        router.exit();
+        assertFalse(router.isPrimaryRequired());
+
+        //作用域中的多次调用保持使用主数据源,作用域结束后清除
+        router.beginScope();
+        router.enter();
+        router.endWrite(router.beginWrite());
+        router.exit();
+        assertTrue(router.isPrimaryRequired());
+        router.endScope();
+        assertFalse(router.isPrimaryRequired());
+    }
+
+    @Test
+    public void testReactive() {
+        ReadWriteRouter router = new ReadWriteRouter(Arrays.asList("r1"), ReadWriteRouter.Strategy.round_robin, 60000);
+
+        router.read(router.currentReactive())
+              .as(StepVerifier::create)
+              .expectNext("r1")
+              .verifyComplete();
+
+        //写操作中的读操作使用主数据源
+        router.write(router.read(router.currentReactive()))
+              .as(StepVerifier::create)
+              .expectNextCount(0)
+              .verifyComplete();
+
+        //同一个上下文中写操作后的读操作使用主数据源
+        router.write(Mono.just(1))
+              .then(router.read(router.currentReactive()))
+              .contextWrite(router::initState)
+              .as(StepVerifier::create)
+              .expectNextCount(0)
+              .verifyComplete();
+
+        //不同的上下文不受影响
+        router.read(router.currentReactive())
+              .as(StepVerifier::create)
+              .expectNext("r1")
+              .verifyComplete();
+    }
+}
@@ -0,0 +1,71 @@
+package org.hswebframework.web.logging.aop;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 访问日志配置
+ *
+ * @author zhouhao
+ * @since 4.0.16
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hsweb.access-logger")
+public class AccessLoggerProperties {
+
+    private Async async = new Async();
+
+    //日志采样率,取值0-1,可通过@AccessLogger(sampleRate)单独设置
+    private double sampleRate = 1.0D;
+
+    private Parameter parameter = new Parameter();
+
+    @Getter
+    @Setter
+    public static class Parameter {
+        //Flux参数最多记录的元素数量,小于0表示不限制
+        private int maxElements = 1000;
+
+        //单个参数最多记录的字节数(估算值,包含嵌套的对象,集合和Map),小于0表示不限制
+        private long maxBytes = 1024 * 1024;
+
+        //只记录参数类型,不记录参数内容
+        private boolean metadataOnly = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+        //开启异步访问日志,日志放入缓冲队列后由独立的线程分批处理
+        private boolean enabled = false;
+
+        //缓冲队列大小
+        private int bufferSize = 8192;
+
+        //每批处理的最大数量
+        private int batchSize = 256;
+
+        //队列已满时的处理策略: drop(丢弃),sample(采样),block(阻塞).
+        //注意: block会阻塞发起请求的线程,在响应式(WebFlux)环境下为事件循环线程,阻塞期间该线程上的其他请求都无法处理
+        private AsyncAccessLoggerDispatcher.OverflowStrategy overflow = AsyncAccessLoggerDispatcher.OverflowStrategy.drop;
+
+        //overflow为sample时,队列使用率超过此值后开始采样
+        private float sampleThreshold = 0.8F;
+
+        //overflow为sample时,采样期间每多少条日志保留1条
+        private int sampleRate = 10;
+
+        //overflow为block时,请求线程的最长阻塞时间,超时后丢弃
+        private Duration blockTimeout = Duration.ofMillis(100);
+
+        //队列运行状态的报告间隔,期间有日志被丢弃或者采样忽略时输出警告日志,小于等于0时不报告
+        private Duration reportInterval = Duration.ofMinutes(1);
+
+        //是否继续在处理线程中发布AccessLoggerAfterEvent,兼容通过事件监听访问日志的方式
+        private boolean publishEvent = true;
+    }
+}
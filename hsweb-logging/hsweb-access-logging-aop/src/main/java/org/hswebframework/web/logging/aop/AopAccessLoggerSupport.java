@@ -34,6 +34,9 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired(required = false)
+    private AsyncAccessLoggerDispatcher dispatcher;
+
 
     public AopAccessLoggerSupport() {
         setAdvice((MethodInterceptor) methodInvocation -> {
@@ -50,7 +53,11 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
             } finally {
                 info.setResponseTime(System.currentTimeMillis());
                 //触发监听
-                eventPublisher.publishEvent(new AccessLoggerAfterEvent(info));
+                if (dispatcher != null) {
+                    dispatcher.dispatch(info);
+                } else {
+                    eventPublisher.publishEvent(new AccessLoggerAfterEvent(info));
+                }
             }
             return response;
         });
@@ -58,7 +65,7 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
 
     protected AccessLoggerInfo createLogger(MethodInterceptorHolder holder) {
         AccessLoggerInfo info = new AccessLoggerInfo();
-        info.setId(IDGenerator.MD5.generate());
+        info.setId(IDGenerator.TIME_ORDERED.generate());
 
         info.setRequestTime(System.currentTimeMillis());
         LoggerDefine define = loggerParsers.stream()
@@ -2,12 +2,18 @@ package org.hswebframework.web.logging.aop;
 
 
 import org.hswebframework.web.logging.AccessLoggerListener;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 
+import java.util.stream.Collectors;
+
 /**
  * AOP 访问日志记录自动配置
  *
@@ -17,8 +23,22 @@ import org.springframework.core.annotation.Order;
  */
 @ConditionalOnClass(AccessLoggerListener.class)
 @Configuration
+@EnableConfigurationProperties(AccessLoggerProperties.class)
 public class AopAccessLoggerSupportAutoConfiguration {
 
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = "hsweb.access-logger.async", name = "enabled", havingValue = "true")
+    public AsyncAccessLoggerDispatcher asyncAccessLoggerDispatcher(ObjectProvider<AccessLoggerListener> listeners,
+                                                                   ApplicationEventPublisher eventPublisher,
+                                                                   AccessLoggerProperties properties) {
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                listeners.orderedStream().collect(Collectors.toList()),
+                eventPublisher,
+                properties.getAsync());
+        dispatcher.start();
+        return dispatcher;
+    }
+
     @Bean
     @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public AopAccessLoggerSupport aopAccessLoggerSupport() {
@@ -0,0 +1,271 @@
+package org.hswebframework.web.logging.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.logging.AccessLoggerInfo;
+import org.hswebframework.web.logging.AccessLoggerListener;
+import org.hswebframework.web.logging.events.AccessLoggerAfterEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步访问日志分发器,请求线程只将日志放入有界的缓冲队列,由独立的线程分批调用{@link AccessLoggerListener#onLoggers(List)}.
+ * <p>
+ * 队列已满时根据{@link OverflowStrategy}进行处理,可通过{@link #getQueueSize()},{@link #getDroppedCount()}等方法获取运行状态.
+ * 项目中没有统一的指标收集组件,处理线程按{@link AccessLoggerProperties.Async#getReportInterval()}定时检查,
+ * 期间有日志被丢弃或者采样忽略时输出警告日志.
+ *
+ * @author zhouhao
+ * @see AccessLoggerProperties.Async
+ * @since 4.0.16
+ */
+@Slf4j
+public class AsyncAccessLoggerDispatcher {
+
+    private final BlockingQueue<Entry> queue;
+
+    private final List<AccessLoggerListener> listeners;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AccessLoggerProperties.Async config;
+
+    //开始采样的队列长度
+    private final int sampleThreshold;
+
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder sampled = new LongAdder();
+
+    private final LongAdder dispatched = new LongAdder();
+
+    //上一次报告时的丢弃和采样忽略数量
+    private long lastDropped, lastSampled;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public AsyncAccessLoggerDispatcher(List<AccessLoggerListener> listeners,
+                                       ApplicationEventPublisher eventPublisher,
+                                       AccessLoggerProperties.Async config) {
+        this.listeners = listeners;
+        this.eventPublisher = eventPublisher;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getBufferSize()));
+        this.sampleThreshold = (int) (Math.max(1, config.getBufferSize()) * config.getSampleThreshold());
+    }
+
+    /**
+     * 放入日志,由处理线程异步处理
+     *
+     * @param info 日志信息
+     * @return 是否成功放入队列, 被丢弃或者采样忽略时返回false
+     */
+    public boolean dispatch(AccessLoggerInfo info) {
+        return dispatch(info, Context.empty());
+    }
+
+    /**
+     * 放入日志,由处理线程异步处理,发布{@link AccessLoggerAfterEvent}时恢复请求的上下文
+     *
+     * @param info    日志信息
+     * @param context 请求的上下文
+     * @return 是否成功放入队列, 被丢弃或者采样忽略时返回false
+     */
+    public boolean dispatch(AccessLoggerInfo info, ContextView context) {
+        Entry entry = new Entry(info, context);
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        switch (config.getOverflow()) {
+            case sample:
+                if (queue.size() >= sampleThreshold
+                        && sampleCounter.incrementAndGet() % Math.max(1, config.getSampleRate()) != 0) {
+                    sampled.increment();
+                    return false;
+                }
+                return offer(entry);
+            case block:
+                try {
+                    if (queue.offer(entry, config.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                dropped.increment();
+                return false;
+            default:
+                return offer(entry);
+        }
+    }
+
+    private boolean offer(Entry entry) {
+        if (queue.offer(entry)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "hsweb-access-logger");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 停止处理线程,队列中剩余的日志将在停止前处理完成
+     */
+    public synchronized void dispose() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        int batchSize = Math.max(1, config.getBatchSize());
+        long reportInterval = config.getReportInterval() == null ? 0 : config.getReportInterval().toMillis();
+        long nextReport = System.currentTimeMillis() + reportInterval;
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (reportInterval > 0 && System.currentTimeMillis() >= nextReport) {
+                    nextReport = System.currentTimeMillis() + reportInterval;
+                    report();
+                }
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                handle(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (Throwable e) {
+                log.error("handle access logger error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void handle(List<Entry> batch) {
+        List<AccessLoggerInfo> infos = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            infos.add(entry.info);
+        }
+        List<AccessLoggerInfo> loggers = Collections.unmodifiableList(infos);
+        for (AccessLoggerListener listener : listeners) {
+            try {
+                listener.onLoggers(loggers);
+            } catch (Throwable e) {
+                log.error("handle access logger error", e);
+            }
+        }
+        if (config.isPublishEvent() && eventPublisher != null) {
+            for (Entry entry : batch) {
+                new AccessLoggerAfterEvent(entry.info)
+                        .publish(eventPublisher)
+                        .contextWrite(entry.context)
+                        .subscribe(null, error -> log.error("publish access logger event error", error));
+            }
+        }
+        dispatched.add(batch.size());
+    }
+
+    /**
+     * 自上次报告以来有日志被丢弃或者采样忽略时输出警告日志
+     *
+     * @return 是否有日志被丢弃或者采样忽略
+     */
+    boolean report() {
+        long dropped = getDroppedCount();
+        long sampled = getSampledCount();
+        long newDropped = dropped - lastDropped;
+        long newSampled = sampled - lastSampled;
+        lastDropped = dropped;
+        lastSampled = sampled;
+        if (newDropped == 0 && newSampled == 0) {
+            return false;
+        }
+        log.warn("access logger queue overflow: dropped {}, sampled {}, queue size {}/{}, total dispatched {}",
+                 newDropped, newSampled, getQueueSize(), config.getBufferSize(), getDispatchedCount());
+        return true;
+    }
+
+    /**
+     * @return 队列中等待处理的日志数量
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return 队列已满或者已经停止而丢弃的日志数量
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 采样时忽略的日志数量
+     */
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    /**
+     * @return 已经处理的日志数量
+     */
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    private static class Entry {
+        private final AccessLoggerInfo info;
+
+        //请求的上下文,发布事件时恢复,以便监听器获取认证信息等
+        private final ContextView context;
+
+        private Entry(AccessLoggerInfo info, ContextView context) {
+            this.info = info;
+            this.context = context;
+        }
+    }
+
+    public enum OverflowStrategy {
+        //队列已满时丢弃新的日志
+        drop,
+        //队列使用率超过阈值后按比例采样,队列已满时丢弃
+        sample,
+        //队列已满时阻塞请求线程直到超时,响应式环境下不建议使用
+        block
+    }
+}
@@ -0,0 +1,267 @@
+package org.hswebframework.web.logging.aop;
+
+import org.hswebframework.web.logging.AccessLogger;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 访问日志的参数记录策略,限制Flux参数记录的元素数量和字节数,防止流式接口的参数全部保存在内存中.
+ * <p>
+ * 参数的字节数为估算值,会递归计算对象的字段,集合以及Map中的元素,超过限制或者嵌套层级超过{@link #MAX_DEPTH}时停止计算并截断.
+ *
+ * @author zhouhao
+ * @see AccessLogger#maxElements()
+ * @see AccessLogger#maxBytes()
+ * @see AccessLoggerProperties.Parameter
+ * @since 4.0.16
+ */
+class ParameterCapture {
+
+    //超过限制后添加到参数中的截断标记
+    static final String TRUNCATED = "...(truncated)";
+
+    //计算参数大小时最大的嵌套层级,超过时视为超过字节数限制
+    static final int MAX_DEPTH = 16;
+
+    //数字,日期等固定大小的值的估算字节数
+    private static final int FIXED_SIZE = 8;
+
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentReferenceHashMap<>();
+
+    final int maxElements;
+
+    final long maxBytes;
+
+    final double sampleRate;
+
+    final boolean metadataOnly;
+
+    private ParameterCapture(int maxElements, long maxBytes, double sampleRate, boolean metadataOnly) {
+        this.maxElements = maxElements;
+        this.maxBytes = maxBytes;
+        this.sampleRate = sampleRate;
+        this.metadataOnly = metadataOnly;
+    }
+
+    static ParameterCapture of(AccessLogger ann, AccessLoggerProperties properties) {
+        AccessLoggerProperties.Parameter parameter = properties.getParameter();
+        if (ann == null) {
+            return new ParameterCapture(parameter.getMaxElements(),
+                                        parameter.getMaxBytes(),
+                                        properties.getSampleRate(),
+                                        parameter.isMetadataOnly());
+        }
+        //注解中小于0表示使用全局配置,AccessLogger.UNLIMITED表示不限制,统一转换为配置中的含义:小于0表示不限制
+        return new ParameterCapture(ann.maxElements() == AccessLogger.UNLIMITED ? -1
+                                            : ann.maxElements() < 0 ? parameter.getMaxElements() : ann.maxElements(),
+                                    ann.maxBytes() == AccessLogger.UNLIMITED ? -1
+                                            : ann.maxBytes() < 0 ? parameter.getMaxBytes() : ann.maxBytes(),
+                                    ann.sampleRate() < 0 ? properties.getSampleRate() : ann.sampleRate(),
+                                    ann.metadataOnly() || parameter.isMetadataOnly());
+    }
+
+    /**
+     * @return 本次请求是否记录日志
+     */
+    boolean sample() {
+        if (sampleRate >= 1) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * 获取单个参数需要记录的值,超过字节数限制时返回截断标记
+     *
+     * @param value 参数
+     * @return 记录的值
+     */
+    Object capture(Object value) {
+        if (maxBytes >= 0 && !(value instanceof DataBuffer) && sizeOf(value, maxBytes) > maxBytes) {
+            return TRUNCATED;
+        }
+        return snapshot(value);
+    }
+
+    //DataBuffer可能被释放或者复用,只记录大小
+    private static Object snapshot(Object value) {
+        if (value instanceof DataBuffer) {
+            return "DataBuffer(" + ((DataBuffer) value).readableByteCount() + " bytes)";
+        }
+        return value;
+    }
+
+    /**
+     * 记录Flux参数的元素到容器中,超过限制后不再记录并添加截断标记
+     *
+     * @param flux      参数
+     * @param container 记录元素的容器
+     * @return 包装后的Flux
+     */
+    Flux<?> capture(Flux<?> flux, List<Object> container) {
+        return Flux.defer(() -> {
+            long[] bytes = new long[1];
+            boolean[] truncated = new boolean[1];
+            return flux.doOnNext(element -> {
+                if (truncated[0]) {
+                    return;
+                }
+                if (maxBytes >= 0) {
+                    bytes[0] += sizeOf(element, maxBytes);
+                }
+                if ((maxElements >= 0 && container.size() >= maxElements)
+                        || (maxBytes >= 0 && bytes[0] > maxBytes)) {
+                    truncated[0] = true;
+                    container.add(TRUNCATED);
+                    return;
+                }
+                //累计的字节数未超过限制,单个元素也不会超过,不需要再次计算
+                container.add(snapshot(element));
+            });
+        });
+    }
+
+    /**
+     * 估算参数的字节数,超过限制后停止计算
+     *
+     * @param value 参数
+     * @param limit 字节数限制
+     * @return 字节数, 超过限制时返回的值大于limit
+     */
+    static long sizeOf(Object value, long limit) {
+        SizeEstimator estimator = new SizeEstimator(limit);
+        estimator.add(value, 0);
+        return estimator.size;
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return type.isPrimitive()
+                || name.startsWith("java.")
+                || name.startsWith("javax.")
+                || name.startsWith("sun.")
+                || name.startsWith("org.springframework.")
+                || name.startsWith("reactor.");
+    }
+
+    private static Field[] getFields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, clazz -> {
+            List<Field> fields = new ArrayList<>();
+            ReflectionUtils.doWithFields(clazz, field -> {
+                ReflectionUtils.makeAccessible(field);
+                fields.add(field);
+            }, field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()));
+            return fields.toArray(new Field[0]);
+        });
+    }
+
+    private static class SizeEstimator {
+        private final long limit;
+
+        private long size;
+
+        //已经计算过的对象,防止循环引用
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private SizeEstimator(long limit) {
+            this.limit = limit;
+        }
+
+        //返回false时表示已经超过限制
+        private boolean add(Object value, int depth) {
+            if (size > limit) {
+                return false;
+            }
+            if (value == null) {
+                return true;
+            }
+            if (depth > MAX_DEPTH) {
+                size = limit + 1;
+                return false;
+            }
+            if (value instanceof CharSequence) {
+                size += ((CharSequence) value).length();
+            } else if (value instanceof byte[]) {
+                size += ((byte[]) value).length;
+            } else if (value instanceof DataBuffer) {
+                size += ((DataBuffer) value).readableByteCount();
+            } else if (value instanceof ByteBuffer) {
+                size += ((ByteBuffer) value).remaining();
+            } else if (value instanceof Number
+                    || value instanceof Boolean
+                    || value instanceof Character
+                    || value instanceof Enum
+                    || value instanceof Date
+                    || value instanceof TemporalAccessor) {
+                size += FIXED_SIZE;
+            } else if (visited.add(value)) {
+                addComplex(value, depth + 1);
+            }
+            return size <= limit;
+        }
+
+        private void addComplex(Object value, int depth) {
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (!add(entry.getKey(), depth) || !add(entry.getValue(), depth)) {
+                        return;
+                    }
+                }
+                return;
+            }
+            if (value instanceof Collection) {
+                for (Object element : ((Collection<?>) value)) {
+                    if (!add(element, depth)) {
+                        return;
+                    }
+                }
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type.isArray()) {
+                int length = Array.getLength(value);
+                if (type.getComponentType().isPrimitive()) {
+                    size += (long) length * FIXED_SIZE;
+                    return;
+                }
+                for (int i = 0; i < length; i++) {
+                    if (!add(Array.get(value, i), depth)) {
+                        return;
+                    }
+                }
+                return;
+            }
+            //jdk以及框架中的类型,例如ServerWebExchange等不计算字段
+            if (isJdkType(type)) {
+                size += FIXED_SIZE;
+                return;
+            }
+            Field[] fields;
+            try {
+                fields = getFields(type);
+            } catch (Throwable e) {
+                size += FIXED_SIZE;
+                return;
+            }
+            for (Field field : fields) {
+                if (field.getType().isPrimitive()) {
+                    size += FIXED_SIZE;
+                    continue;
+                }
+                if (!add(ReflectionUtils.getField(field, value), depth)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -46,14 +46,26 @@ public class ReactiveAopAccessLoggerSupport extends StaticMethodMatcherPointcutA
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired(required = false)
+    private AsyncAccessLoggerDispatcher dispatcher;
+
+    @Autowired(required = false)
+    private AccessLoggerProperties properties = new AccessLoggerProperties();
+
     private final Map<CacheKey, LoggerDefine> defineCache = new ConcurrentReferenceHashMap<>();
 
+    private final Map<CacheKey, ParameterCapture> captureCache = new ConcurrentReferenceHashMap<>();
+
     private static final LoggerDefine UNSUPPORTED = new LoggerDefine();
 
     @SuppressWarnings("all")
     public ReactiveAopAccessLoggerSupport() {
         setAdvice((MethodInterceptor) methodInvocation -> {
             MethodInterceptorHolder methodInterceptorHolder = MethodInterceptorHolder.create(methodInvocation);
+            //未命中采样,不记录日志
+            if (!getCapture(methodInterceptorHolder).sample()) {
+                return methodInvocation.proceed();
+            }
             AccessLoggerInfo info = createLogger(methodInterceptorHolder);
             Object response = methodInvocation.proceed();
             if (response instanceof Mono) {
@@ -109,6 +121,11 @@ public class ReactiveAopAccessLoggerSupport extends StaticMethodMatcherPointcutA
 
     private void completeRequest(AccessLoggerInfo loggerInfo, ContextView ctx) {
         loggerInfo.setResponseTime(System.currentTimeMillis());
+        //开启了异步访问日志,交给独立的线程处理
+        if (dispatcher != null) {
+            dispatcher.dispatch(loggerInfo, ctx);
+            return;
+        }
         new AccessLoggerAfterEvent(loggerInfo)
                 .publish(eventPublisher)
                 .contextWrite(ctx)
@@ -129,10 +146,22 @@ public class ReactiveAopAccessLoggerSupport extends StaticMethodMatcherPointcutA
                 .orElse(UNSUPPORTED);
     }
 
+    private ParameterCapture getCapture(MethodInterceptorHolder holder) {
+        return captureCache.computeIfAbsent(new CacheKey(
+                ClassUtils.getUserClass(holder.getTarget()),
+                holder.getMethod()), key -> {
+            AccessLogger ann = AnnotationUtils.findAnnotation(key.method, AccessLogger.class);
+            if (ann == null) {
+                ann = AnnotationUtils.findAnnotation(key.type, AccessLogger.class);
+            }
+            return ParameterCapture.of(ann, properties);
+        });
+    }
+
     @SuppressWarnings("all")
     protected AccessLoggerInfo createLogger(MethodInterceptorHolder holder) {
         AccessLoggerInfo info = new AccessLoggerInfo();
-        info.setId(IDGenerator.MD5.generate());
+        info.setId(IDGenerator.TIME_ORDERED.generate());
         info.setRequestTime(System.currentTimeMillis());
 
         LoggerDefine define = defineCache.computeIfAbsent(new CacheKey(
@@ -150,6 +179,8 @@ public class ReactiveAopAccessLoggerSupport extends StaticMethodMatcherPointcutA
 
         Object[] args = holder.getArguments();
 
+        ParameterCapture capture = getCapture(holder);
+
         for (int i = 0; i < args.length; i++) {
             String name = names[i];
             Object val = args[i];
@@ -157,20 +188,22 @@ public class ReactiveAopAccessLoggerSupport extends StaticMethodMatcherPointcutA
                 value.put(name, "null");
                 continue;
             }
+            //只记录参数类型
+            if (capture.metadataOnly) {
+                value.put(name, holder.getMethod().getParameterTypes()[i].getSimpleName());
+                continue;
+            }
             if (val instanceof Mono) {
                 args[i] = ((Mono<?>) val)
                         .doOnNext(param -> {
-                            value.put(name, param);
+                            value.put(name, capture.capture(param));
                         });
             } else if (val instanceof Flux) {
                 List<Object> arr = new ArrayList<>();
                 value.put(name, arr);
-                args[i] = ((Flux<?>) val)
-                        .doOnNext(param -> {
-                            arr.add(param);
-                        });
+                args[i] = capture.capture((Flux<?>) val, arr);
             } else {
-                value.put(name, val);
+                value.put(name, capture.capture(val));
             }
         }
 
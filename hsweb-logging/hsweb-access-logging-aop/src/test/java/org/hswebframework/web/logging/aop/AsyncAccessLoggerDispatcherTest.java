@@ -0,0 +1,239 @@
+package org.hswebframework.web.logging.aop;
+
+import org.hswebframework.web.logging.AccessLoggerInfo;
+import org.hswebframework.web.logging.AccessLoggerListener;
+import org.hswebframework.web.logging.events.AccessLoggerAfterEvent;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class AsyncAccessLoggerDispatcherTest {
+
+    private AccessLoggerProperties.Async config(int bufferSize) {
+        AccessLoggerProperties.Async config = new AccessLoggerProperties.Async();
+        config.setBufferSize(bufferSize);
+        config.setBatchSize(1);
+        config.setPublishEvent(false);
+        return config;
+    }
+
+    //第一条日志开始处理后阻塞处理线程,直到释放
+    private static class BlockingListener implements AccessLoggerListener {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public void onLogger(AccessLoggerInfo loggerInfo) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignore) {
+            }
+            counter.incrementAndGet();
+        }
+
+        void releaseLater(long millis) {
+            new Thread(() -> {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException ignore) {
+                }
+                release.countDown();
+            }).start();
+        }
+
+        void awaitEntered() throws InterruptedException {
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testConcurrentDispatch() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        AccessLoggerProperties.Async config = config(100000);
+        config.setBatchSize(64);
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                Collections.<AccessLoggerListener>singletonList(info -> counter.incrementAndGet()), null, config);
+        dispatcher.start();
+
+        int threads = 8, size = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int success = 0;
+                for (int j = 0; j < size; j++) {
+                    if (dispatcher.dispatch(new AccessLoggerInfo())) {
+                        success++;
+                    }
+                }
+                return success;
+            }));
+        }
+        start.countDown();
+        int success = 0;
+        for (Future<Integer> future : futures) {
+            success += future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        dispatcher.dispose();
+
+        assertEquals(threads * size, success);
+        assertEquals(threads * size, counter.get());
+        assertEquals(threads * size, dispatcher.getDispatchedCount());
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void testDrop() throws Exception {
+        BlockingListener listener = new BlockingListener();
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                Collections.singletonList(listener), null, config(10));
+        dispatcher.start();
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+        listener.awaitEntered();
+
+        for (int i = 0; i < 15; i++) {
+            dispatcher.dispatch(new AccessLoggerInfo());
+        }
+        assertEquals(10, dispatcher.getQueueSize());
+        assertEquals(5, dispatcher.getDroppedCount());
+
+        listener.release.countDown();
+        dispatcher.dispose();
+        assertEquals(11, listener.counter.get());
+    }
+
+    @Test
+    public void testSample() throws Exception {
+        BlockingListener listener = new BlockingListener();
+        AccessLoggerProperties.Async config = config(10);
+        config.setOverflow(AsyncAccessLoggerDispatcher.OverflowStrategy.sample);
+        config.setSampleThreshold(0.5F);
+        config.setSampleRate(2);
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                Collections.singletonList(listener), null, config);
+        dispatcher.start();
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+        listener.awaitEntered();
+
+        //未达到阈值时全部放入队列
+        for (int i = 0; i < 5; i++) {
+            assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+        }
+        //超过阈值后每2条保留1条
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(new AccessLoggerInfo());
+        }
+        assertEquals(10, dispatcher.getQueueSize());
+        assertEquals(5, dispatcher.getSampledCount());
+        assertEquals(0, dispatcher.getDroppedCount());
+
+        listener.release.countDown();
+        dispatcher.dispose();
+        assertEquals(11, listener.counter.get());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        BlockingListener listener = new BlockingListener();
+        AccessLoggerProperties.Async config = config(1);
+        config.setOverflow(AsyncAccessLoggerDispatcher.OverflowStrategy.block);
+        config.setBlockTimeout(Duration.ofMillis(50));
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                Collections.singletonList(listener), null, config);
+        dispatcher.start();
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+        listener.awaitEntered();
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+
+        //队列已满,等待超时后丢弃
+        long time = System.nanoTime();
+        assertFalse(dispatcher.dispatch(new AccessLoggerInfo()));
+        assertTrue(System.nanoTime() - time >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, dispatcher.getDroppedCount());
+
+        //等待期间队列有空位时放入成功
+        config.setBlockTimeout(Duration.ofSeconds(10));
+        listener.releaseLater(50);
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+
+        dispatcher.dispose();
+        assertEquals(3, listener.counter.get());
+        assertEquals(1, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void testDisposeDrain() throws Exception {
+        BlockingListener listener = new BlockingListener();
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                Collections.singletonList(listener), null, config(1000));
+        dispatcher.start();
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+        listener.awaitEntered();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(dispatcher.dispatch(new AccessLoggerInfo()));
+        }
+
+        listener.releaseLater(50);
+        //停止时处理完队列中剩余的日志
+        dispatcher.dispose();
+        assertEquals(0, dispatcher.getQueueSize());
+        assertEquals(101, listener.counter.get());
+        assertEquals(101, dispatcher.getDispatchedCount());
+
+        //停止后丢弃
+        assertFalse(dispatcher.dispatch(new AccessLoggerInfo()));
+        assertEquals(1, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void testPublishEventWithContext() {
+        AtomicReference<Object> userId = new AtomicReference<>();
+        AccessLoggerProperties.Async config = config(10);
+        config.setPublishEvent(true);
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(
+                Collections.emptyList(),
+                event -> {
+                    if (event instanceof AccessLoggerAfterEvent) {
+                        ((AccessLoggerAfterEvent) event)
+                                .async(Mono.deferContextual(ctx -> {
+                                    userId.set(ctx.getOrDefault("userId", null));
+                                    return Mono.empty();
+                                }));
+                    }
+                },
+                config);
+        dispatcher.start();
+        assertTrue(dispatcher.dispatch(new AccessLoggerInfo(), Context.of("userId", "test")));
+        dispatcher.dispose();
+
+        //在处理线程中发布事件时恢复请求的上下文
+        assertEquals("test", userId.get());
+    }
+
+    @Test
+    public void testReportOverflow() {
+        AsyncAccessLoggerDispatcher dispatcher = new AsyncAccessLoggerDispatcher(Collections.emptyList(), null, config(1));
+        assertFalse(dispatcher.report());
+
+        //未启动时丢弃
+        assertFalse(dispatcher.dispatch(new AccessLoggerInfo()));
+        assertTrue(dispatcher.report());
+        //只报告上次报告之后的丢弃
+        assertFalse(dispatcher.report());
+    }
+}
@@ -0,0 +1,147 @@
+package org.hswebframework.web.logging.aop;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.logging.AccessLogger;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParameterCaptureTest {
+
+    private ParameterCapture create(int maxElements, long maxBytes, double sampleRate) {
+        AccessLoggerProperties properties = new AccessLoggerProperties();
+        properties.getParameter().setMaxElements(maxElements);
+        properties.getParameter().setMaxBytes(maxBytes);
+        properties.setSampleRate(sampleRate);
+        return ParameterCapture.of(null, properties);
+    }
+
+    @Test
+    public void testMaxBytes() {
+        ParameterCapture capture = create(-1, 10, 1);
+        assertEquals("test", capture.capture("test"));
+        assertEquals(ParameterCapture.TRUNCATED, capture.capture("test-test-test"));
+        assertEquals(ParameterCapture.TRUNCATED, capture.capture(new byte[11]));
+
+        //不限制
+        String value = String.join("", Collections.nCopies(100, "test"));
+        assertSame(value, create(-1, -1, 1).capture(value));
+    }
+
+    @Test
+    public void testNestedMaxBytes() {
+        ParameterCapture capture = create(-1, 100, 1);
+
+        Node small = new Node();
+        small.setName("small");
+        small.setAttributes(Collections.singletonMap("key", "value"));
+        assertSame(small, capture.capture(small));
+
+        //嵌套在对象中的Map
+        Node large = new Node();
+        large.setName("large");
+        large.setAttributes(Collections.singletonMap("key", String.join("", Collections.nCopies(100, "v"))));
+        assertEquals(ParameterCapture.TRUNCATED, capture.capture(large));
+
+        //嵌套在集合中的对象
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Node node = new Node();
+            node.setName("node-" + i);
+            nodes.add(node);
+        }
+        assertEquals(ParameterCapture.TRUNCATED, capture.capture(nodes));
+        assertEquals(ParameterCapture.TRUNCATED, capture.capture(Collections.singletonMap("nodes", nodes)));
+    }
+
+    @Test
+    public void testMaxDepth() {
+        ParameterCapture capture = create(-1, 1024 * 1024, 1);
+
+        Node root = new Node();
+        Node node = root;
+        for (int i = 0; i < ParameterCapture.MAX_DEPTH * 2; i++) {
+            Node next = new Node();
+            node.setNext(next);
+            node = next;
+        }
+        assertEquals(ParameterCapture.TRUNCATED, capture.capture(root));
+
+        //循环引用
+        Node cycle = new Node();
+        cycle.setName("cycle");
+        cycle.setNext(cycle);
+        assertSame(cycle, capture.capture(cycle));
+    }
+
+    @Test
+    public void testFluxMaxElements() {
+        ParameterCapture capture = create(2, -1, 1);
+        List<Object> container = new ArrayList<>();
+        capture.capture(Flux.just("1", "2", "3", "4"), container)
+               .as(StepVerifier::create)
+               .expectNext("1", "2", "3", "4")
+               .verifyComplete();
+        assertEquals(Arrays.asList("1", "2", ParameterCapture.TRUNCATED), container);
+    }
+
+    @Test
+    public void testFluxMaxBytes() {
+        ParameterCapture capture = create(-1, 10, 1);
+        List<Object> container = new ArrayList<>();
+        capture.capture(Flux.just("12345", "12345", "12345"), container)
+               .as(StepVerifier::create)
+               .expectNextCount(3)
+               .verifyComplete();
+        assertEquals(Arrays.asList("12345", "12345", ParameterCapture.TRUNCATED), container);
+    }
+
+    @Test
+    @AccessLogger(maxElements = 10, maxBytes = AccessLogger.UNLIMITED)
+    public void testAnnotation() throws Exception {
+        AccessLoggerProperties properties = new AccessLoggerProperties();
+        AccessLogger ann = getClass().getMethod("testAnnotation").getAnnotation(AccessLogger.class);
+        ParameterCapture capture = ParameterCapture.of(ann, properties);
+        assertEquals(10, capture.maxElements);
+        assertTrue(capture.maxBytes < 0);
+
+        //小于0时使用全局配置
+        ParameterCapture global = ParameterCapture.of(getClass().getMethod("testSample").getAnnotation(AccessLogger.class), properties);
+        assertEquals(properties.getParameter().getMaxElements(), global.maxElements);
+        assertEquals(properties.getParameter().getMaxBytes(), global.maxBytes);
+    }
+
+    @Test
+    @AccessLogger
+    public void testSample() {
+        assertTrue(create(-1, -1, 1).sample());
+
+        ParameterCapture none = create(-1, -1, 0);
+        ParameterCapture half = create(-1, -1, 0.5);
+        int sampled = 0, size = 10000;
+        for (int i = 0; i < size; i++) {
+            assertFalse(none.sample());
+            if (half.sample()) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > size * 0.4 && sampled < size * 0.6);
+    }
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String name;
+
+        private int age;
+
+        private Map<String, Object> attributes;
+
+        private Node next;
+    }
+}
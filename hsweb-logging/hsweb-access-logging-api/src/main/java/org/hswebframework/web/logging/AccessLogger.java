@@ -29,6 +29,13 @@ import java.lang.annotation.*;
 @Inherited
 public @interface AccessLogger {
 
+    /**
+     * 用于{@link #maxElements()}和{@link #maxBytes()},表示不限制
+     *
+     * @since 4.0.16
+     */
+    int UNLIMITED = Integer.MAX_VALUE;
+
     /**
      * @return 对类或方法的简单说明
      * @see AccessLoggerInfo#getAction()
@@ -45,4 +52,28 @@ public @interface AccessLogger {
      * @return 是否取消日志记录, 如果不想记录某些方法或者类, 设置为true即可
      */
     boolean ignore() default false;
+
+    /**
+     * @return Flux参数最多记录的元素数量, 超过后不再记录并添加截断标记, 小于0时使用全局配置, {@link #UNLIMITED}表示不限制
+     * @since 4.0.16
+     */
+    int maxElements() default -1;
+
+    /**
+     * @return 单个参数最多记录的字节数(估算值, 包含嵌套的对象, 集合和Map), 小于0时使用全局配置, {@link #UNLIMITED}表示不限制
+     * @since 4.0.16
+     */
+    long maxBytes() default -1;
+
+    /**
+     * @return 日志采样率, 取值0-1, 例如0.1表示只记录10%的请求, 小于0时使用全局配置
+     * @since 4.0.16
+     */
+    double sampleRate() default -1;
+
+    /**
+     * @return 是否只记录参数类型等元数据, 不记录参数内容, 适用于上传导入等参数较大的接口
+     * @since 4.0.16
+     */
+    boolean metadataOnly() default false;
 }
@@ -2,6 +2,8 @@ package org.hswebframework.web.logging;
 
 import org.hswebframework.web.logging.events.AccessLoggerAfterEvent;
 
+import java.util.List;
+
 /**
  * 访问日志监听器,实现此接口并注入到spring容器即可获取访问日志信息
  *
@@ -19,6 +21,20 @@ public interface AccessLoggerListener {
      */
     void onLogger(AccessLoggerInfo loggerInfo);
 
+    /**
+     * 批量处理访问日志,启用异步访问日志(<code>hsweb.access-logger.async.enabled=true</code>)时,
+     * 将在独立的线程中分批调用此方法.默认逐条调用{@link #onLogger(AccessLoggerInfo)},
+     * 可重写此方法进行批量保存等操作.
+     *
+     * @param loggers 日志信息
+     * @since 4.0.16
+     */
+    default void onLoggers(List<AccessLoggerInfo> loggers) {
+        for (AccessLoggerInfo logger : loggers) {
+            onLogger(logger);
+        }
+    }
+
     default void onLogBefore(AccessLoggerInfo loggerInfo) {
     }
 }
@@ -3,9 +3,11 @@ package org.hswebframework.web.system.authorization.defaults.configuration;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
 import org.hswebframework.web.authorization.ReactiveAuthenticationInitializeService;
 import org.hswebframework.web.authorization.ReactiveAuthenticationManagerProvider;
+import org.hswebframework.web.authorization.builder.DataAccessConfigBuilderFactory;
 import org.hswebframework.web.authorization.define.AuthorizeDefinitionCustomizer;
 import org.hswebframework.web.authorization.define.CompositeAuthorizeDefinitionCustomizer;
 import org.hswebframework.web.authorization.simple.DefaultAuthorizationAutoConfiguration;
+import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
 import org.hswebframework.web.authorization.token.UserTokenManager;
 import org.hswebframework.web.system.authorization.api.UserDimensionProvider;
 import org.hswebframework.web.system.authorization.api.entity.PermissionEntity;
@@ -34,8 +36,11 @@ public class AuthorizationServiceAutoConfiguration {
 
         @Bean
         @ConditionalOnBean(ReactiveUserService.class)
-        public ReactiveAuthenticationManagerProvider defaultReactiveAuthenticationManager() {
-            return new DefaultReactiveAuthenticationManager();
+        public ReactiveAuthenticationManagerProvider defaultReactiveAuthenticationManager(PermissionProperties properties) {
+            DefaultReactiveAuthenticationManager manager = new DefaultReactiveAuthenticationManager();
+            manager.setWarmUpEnabled(properties.getWarmUp().isEnabled());
+            manager.setWarmUpBatchSize(properties.getWarmUp().getBatchSize());
+            return manager;
         }
 
         @Bean
@@ -44,6 +49,17 @@ public class AuthorizationServiceAutoConfiguration {
             return new DefaultReactiveAuthenticationInitializeService();
         }
 
+        @Bean
+        @ConditionalOnBean(ReactiveUserService.class)
+        public PermissionCatalog permissionCatalog(ReactiveRepository<PermissionEntity, String> permissionRepository,
+                                                   ObjectProvider<DataAccessConfigBuilderFactory> builderFactory,
+                                                   PermissionProperties properties) {
+            PermissionCatalog catalog = new PermissionCatalog(permissionRepository,
+                                                              builderFactory.getIfAvailable(SimpleDataAccessConfigBuilderFactory::new));
+            catalog.setTtl(properties.getCatalogTtl());
+            return catalog;
+        }
+
         @Bean
         public PermissionSynchronization permissionSynchronization(ReactiveRepository<PermissionEntity, String> permissionRepository,
                                                                    ObjectProvider<AuthorizeDefinitionCustomizer> customizer) {
@@ -11,6 +11,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -22,6 +23,21 @@ public class PermissionProperties {
 
     private PermissionFilter filter = new PermissionFilter();
 
+    //权限目录全量重新加载的间隔,集群部署时其他节点的权限变更最迟在此时间后生效
+    private Duration catalogTtl = Duration.ofMinutes(5);
+
+    //预先加载已登录用户的权限信息
+    private AuthenticationWarmUp warmUp = new AuthenticationWarmUp();
+
+    @Getter
+    @Setter
+    public static class AuthenticationWarmUp {
+        //启动时预先加载已登录用户的权限信息到缓存中
+        private boolean enabled = false;
+        //每批加载的用户数量
+        private int batchSize = 200;
+    }
+
     @Getter
     @Setter
     public static class PermissionFilter {
@@ -20,11 +20,13 @@ import org.hswebframework.web.system.authorization.api.event.DimensionDeletedEve
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -102,6 +104,71 @@ public class DefaultDimensionService
                 );
     }
 
+    @Override
+    public Flux<Tuple2<String, Dimension>> getDimensionsByUserId(Collection<String> userIdList) {
+        if (CollectionUtils.isEmpty(userIdList)) {
+            return Flux.empty();
+        }
+        return getAllType()
+                .collect(Collectors.toMap(DimensionType::getId, Function.identity()))
+                .flatMapMany(typeGrouping -> dimensionUserRepository
+                        .createQuery()
+                        .in(DimensionUserEntity::getUserId, userIdList)
+                        .fetch()
+                        .collectList()
+                        .filter(CollectionUtils::isNotEmpty)
+                        .flatMapMany(binds -> this
+                                //一次查询出全部用户绑定的维度以及子维度
+                                .queryIncludeChildren(binds
+                                                              .stream()
+                                                              .map(DimensionUserEntity::getDimensionId)
+                                                              .collect(Collectors.toSet()))
+                                .collectList()
+                                .flatMapIterable(dimensions -> groupByUser(binds, dimensions, typeGrouping))));
+    }
+
+    //根据绑定关系将维度分配给用户,绑定了上级维度的用户同时拥有全部子维度
+    private List<Tuple2<String, Dimension>> groupByUser(List<DimensionUserEntity> binds,
+                                                        List<DimensionEntity> dimensions,
+                                                        Map<String, DimensionTypeEntity> typeGrouping) {
+        Map<String, DimensionEntity> mapping = dimensions
+                .stream()
+                .collect(Collectors.toMap(DimensionEntity::getId, Function.identity(), (left, right) -> left));
+        //维度ID -> 维度以及子维度,多个用户绑定相同的维度时只计算一次
+        Map<String, List<DimensionEntity>> children = new HashMap<>();
+        Map<String, Map<String, DimensionEntity>> userDimensions = new LinkedHashMap<>();
+        for (DimensionUserEntity bind : binds) {
+            List<DimensionEntity> include = children.computeIfAbsent(bind.getDimensionId(), id -> {
+                DimensionEntity root = mapping.get(id);
+                if (root == null) {
+                    return Collections.emptyList();
+                }
+                if (StringUtils.isEmpty(root.getPath())) {
+                    return Collections.singletonList(root);
+                }
+                return dimensions
+                        .stream()
+                        .filter(dimension -> dimension == root
+                                || (dimension.getPath() != null && dimension.getPath().startsWith(root.getPath())))
+                        .collect(Collectors.toList());
+            });
+            Map<String, DimensionEntity> distinct = userDimensions.computeIfAbsent(bind.getUserId(), ignore -> new LinkedHashMap<>());
+            for (DimensionEntity dimension : include) {
+                distinct.putIfAbsent(dimension.getId(), dimension);
+            }
+        }
+        List<Tuple2<String, Dimension>> result = new ArrayList<>();
+        userDimensions.forEach((userId, distinct) -> {
+            for (DimensionEntity dimension : distinct.values()) {
+                DimensionTypeEntity type = typeGrouping.get(dimension.getTypeId());
+                if (type != null) {
+                    result.add(Tuples.of(userId, DynamicDimension.of(dimension, type)));
+                }
+            }
+        });
+        return result;
+    }
+
     @Override
     public Flux<DimensionUserBind> getDimensionBindInfo(Collection<String> userIdList) {
         return dimensionUserRepository
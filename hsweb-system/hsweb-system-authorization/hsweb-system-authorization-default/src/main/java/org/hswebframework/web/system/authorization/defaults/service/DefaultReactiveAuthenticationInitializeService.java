@@ -1,8 +1,11 @@
 package org.hswebframework.web.system.authorization.defaults.service;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.web.api.crud.entity.QueryParamEntity;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.Dimension;
 import org.hswebframework.web.authorization.Permission;
@@ -11,12 +14,14 @@ import org.hswebframework.web.authorization.access.DataAccessConfig;
 import org.hswebframework.web.authorization.access.DataAccessType;
 import org.hswebframework.web.authorization.builder.DataAccessConfigBuilderFactory;
 import org.hswebframework.web.authorization.events.AuthorizationInitializeEvent;
+import org.hswebframework.web.authorization.simple.IndexedAuthentication;
 import org.hswebframework.web.authorization.simple.SimpleAuthentication;
 import org.hswebframework.web.authorization.simple.SimplePermission;
 import org.hswebframework.web.authorization.simple.SimpleUser;
 import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
 import org.hswebframework.web.authorization.DimensionProvider;
 import org.hswebframework.web.system.authorization.api.entity.AuthorizationSettingEntity;
+import org.hswebframework.web.system.authorization.api.entity.DataAccessEntity;
 import org.hswebframework.web.system.authorization.api.entity.ParentPermission;
 import org.hswebframework.web.system.authorization.api.entity.PermissionEntity;
 import org.hswebframework.web.system.authorization.api.entity.UserEntity;
@@ -53,45 +58,98 @@ public class DefaultReactiveAuthenticationInitializeService
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired(required = false)
+    private PermissionCatalog permissionCatalog;
+
+    /**
+     * 批量初始化时每批的用户数量以及查询赋权信息时in条件的最大数量
+     */
+    @Getter
+    @Setter
+    private int batchSize = 500;
+
     @Override
     public Mono<Authentication> initUserAuthorization(String userId) {
         return doInit(userService.findById(userId));
     }
 
+    @Override
+    public Flux<Authentication> initUserAuthorization(Collection<String> userIdList) {
+        if (CollectionUtils.isEmpty(userIdList)) {
+            return Flux.empty();
+        }
+        return Flux
+                .fromIterable(new LinkedHashSet<>(userIdList))
+                .buffer(batchSize)
+                .concatMap(idList -> QueryParamEntity
+                        .newQuery()
+                        .in("id", idList)
+                        .noPaging()
+                        .execute(userService::findUser)
+                        .map(this::createAuthentication)
+                        .collectList()
+                        .filter(CollectionUtils::isNotEmpty)
+                        .flatMapMany(this::doInit));
+    }
+
     public Mono<Authentication> doInit(Mono<UserEntity> userEntityMono) {
 
         return userEntityMono.flatMap(user -> {
-            SimpleAuthentication authentication = new SimpleAuthentication();
-            authentication.setUser(SimpleUser
-                                           .builder()
-                                           .id(user.getId())
-                                           .name(user.getName())
-                                           .username(user.getUsername())
-                                           .userType(user.getType())
-                                           .build());
-
-            return initPermission(authentication)
-                    .defaultIfEmpty(authentication)
-                    .onErrorResume(err -> {
-                        log.warn(err.getMessage(), err);
-                        return Mono.just(authentication);
-                    })
-                    .flatMap(auth -> {
-                        AuthorizationInitializeEvent event = new AuthorizationInitializeEvent(auth);
-                        return event
-                                .publish(eventPublisher)
-                                .then(Mono.fromSupplier(event::getAuthentication));
-                    });
+            SimpleAuthentication authentication = createAuthentication(user);
+
+            return complete(authentication, initPermission(authentication));
         });
     }
 
+    protected Flux<Authentication> doInit(List<SimpleAuthentication> authentications) {
+        return initPermission(authentications)
+                .onErrorResume(err -> {
+                    log.warn(err.getMessage(), err);
+                    return Mono.empty();
+                })
+                .thenMany(Flux.fromIterable(authentications))
+                .concatMap(authentication -> complete(authentication, Mono.just(authentication)));
+    }
+
+    protected SimpleAuthentication createAuthentication(UserEntity user) {
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.setUser(SimpleUser
+                                       .builder()
+                                       .id(user.getId())
+                                       .name(user.getName())
+                                       .username(user.getUsername())
+                                       .userType(user.getType())
+                                       .build());
+        return authentication;
+    }
+
+    //初始化完成,发布初始化事件并建立索引
+    private Mono<Authentication> complete(SimpleAuthentication authentication, Mono<Authentication> init) {
+        return init
+                .defaultIfEmpty(authentication)
+                .onErrorResume(err -> {
+                    log.warn(err.getMessage(), err);
+                    return Mono.just(authentication);
+                })
+                .flatMap(auth -> {
+                    AuthorizationInitializeEvent event = new AuthorizationInitializeEvent(auth);
+                    return event
+                            .publish(eventPublisher)
+                            .then(Mono.fromSupplier(event::getAuthentication));
+                })
+                //建立索引,后续权限判断不再遍历权限和维度列表
+                .map(IndexedAuthentication::of);
+    }
+
     protected Flux<AuthorizationSettingEntity> getSettings(List<Dimension> dimensions) {
         return Flux.fromIterable(dimensions)
                    .filter(dimension -> dimension.getType() != null)
                    .groupBy(d -> d.getType().getId(), (Function<Dimension, Object>) Dimension::getId)
                    .flatMap(group ->
-                                    group.collectList()
-                                         .flatMapMany(list -> settingRepository
+                                    //维度较多时分批查询,防止in条件过长
+                                    group.distinct()
+                                         .buffer(batchSize)
+                                         .flatMap(list -> settingRepository
                                                  .createQuery()
                                                  .where(AuthorizationSettingEntity::getState, 1)
                                                  .and(AuthorizationSettingEntity::getDimensionType, group.key())
@@ -99,6 +157,76 @@ public class DefaultReactiveAuthenticationInitializeService
                                                  .fetch()));
     }
 
+    /**
+     * 批量初始化多个用户的维度和权限,全部用户的维度和赋权信息分别只查询一次.
+     *
+     * @param authentications 权限信息
+     * @return void
+     * @since 4.0.16
+     */
+    protected Mono<Void> initPermission(List<SimpleAuthentication> authentications) {
+        Map<String, SimpleAuthentication> mapping = authentications
+                .stream()
+                .collect(Collectors.toMap(auth -> auth.getUser().getId(), Function.identity(), (left, right) -> left));
+
+        return Flux.fromIterable(dimensionProviders)
+                   .flatMap(provider -> provider.getDimensionsByUserId(mapping.keySet()))
+                   .doOnNext(tp2 -> {
+                       SimpleAuthentication authentication = mapping.get(tp2.getT1());
+                       if (authentication != null) {
+                           authentication.addDimension(tp2.getT2());
+                       }
+                   })
+                   .then(Mono.defer(() -> {
+                       //全部用户的维度去重后一起查询赋权信息
+                       Map<String, Dimension> dimensions = new LinkedHashMap<>();
+                       for (SimpleAuthentication authentication : authentications) {
+                           for (Dimension dimension : authentication.getDimensions()) {
+                               if (dimension.getType() != null) {
+                                   dimensions.putIfAbsent(settingKey(dimension.getType().getId(), dimension.getId()), dimension);
+                               }
+                           }
+                       }
+                       return Mono
+                               .zip(getAllPermission(),
+                                    getSettings(new ArrayList<>(dimensions.values()))
+                                            .collect(Collectors.groupingBy(setting -> settingKey(setting.getDimensionType(), setting.getDimensionTarget()))),
+                                    (permissions, settings) -> {
+                                        for (SimpleAuthentication authentication : authentications) {
+                                            handlePermission(authentication, permissions, getSettings(authentication, settings));
+                                        }
+                                        return authentications;
+                                    });
+                   }))
+                   .then();
+    }
+
+    //从全部的赋权信息中获取用户的赋权信息,按权限分组
+    private Map<String, List<AuthorizationSettingEntity>> getSettings(SimpleAuthentication authentication,
+                                                                      Map<String, List<AuthorizationSettingEntity>> settings) {
+        Map<String, List<AuthorizationSettingEntity>> grouping = new HashMap<>();
+        Set<String> handled = new HashSet<>();
+        for (Dimension dimension : authentication.getDimensions()) {
+            if (dimension.getType() == null) {
+                continue;
+            }
+            String key = settingKey(dimension.getType().getId(), dimension.getId());
+            List<AuthorizationSettingEntity> dimensionSettings = settings.get(key);
+            if (dimensionSettings == null || !handled.add(key)) {
+                continue;
+            }
+            for (AuthorizationSettingEntity setting : dimensionSettings) {
+                grouping.computeIfAbsent(setting.getPermission(), ignore -> new ArrayList<>())
+                        .add(setting);
+            }
+        }
+        return grouping;
+    }
+
+    private static String settingKey(String dimensionType, Object dimensionTarget) {
+        return dimensionType + ":" + dimensionTarget;
+    }
+
     protected Mono<Authentication> initPermission(SimpleAuthentication authentication) {
         return Flux.fromIterable(dimensionProviders)
                    .flatMap(provider -> provider.getDimensionByUserId(authentication.getUser().getId()))
@@ -143,16 +271,7 @@ public class DefaultReactiveAuthenticationInitializeService
                     if (permissionSetting.getDataAccesses() != null) {
                         permissionSetting.getDataAccesses()
                                          .stream()
-                                         .map(conf -> {
-                                             DataAccessConfig config = builderFactory
-                                                     .create()
-                                                     .fromMap(conf.toMap())
-                                                     .build();
-                                             if (config == null) {
-                                                 log.warn("unsupported data access:{}", conf.toMap());
-                                             }
-                                             return config;
-                                         })
+                                         .map(this::createDataAccessConfig)
                                          .filter(Objects::nonNull)
                                          .forEach(configs::add);
                     }
@@ -202,8 +321,27 @@ public class DefaultReactiveAuthenticationInitializeService
         return authentication;
     }
 
-    protected Mono<Map<String, PermissionEntity>> getAllPermission() {
+    protected DataAccessConfig createDataAccessConfig(DataAccessEntity conf) {
+        //使用权限目录中构造好的配置
+        if (permissionCatalog != null) {
+            return permissionCatalog
+                    .getDataAccessConfig(conf)
+                    .orElse(null);
+        }
+        DataAccessConfig config = builderFactory
+                .create()
+                .fromMap(conf.toMap())
+                .build();
+        if (config == null) {
+            log.warn("unsupported data access:{}", conf.toMap());
+        }
+        return config;
+    }
 
+    protected Mono<Map<String, PermissionEntity>> getAllPermission() {
+        if (permissionCatalog != null) {
+            return permissionCatalog.getPermissions();
+        }
         return permissionRepository
                 .createQuery()
                 .where(PermissionEntity::getStatus, 1)
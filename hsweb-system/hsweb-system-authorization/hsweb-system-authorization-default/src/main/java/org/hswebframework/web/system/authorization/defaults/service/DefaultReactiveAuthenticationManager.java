@@ -1,20 +1,36 @@
 package org.hswebframework.web.system.authorization.defaults.service;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.AuthenticationRequest;
 import org.hswebframework.web.authorization.ReactiveAuthenticationInitializeService;
 import org.hswebframework.web.authorization.ReactiveAuthenticationManagerProvider;
+import org.hswebframework.web.authorization.simple.IndexedAuthentication;
 import org.hswebframework.web.authorization.simple.PlainTextUsernamePasswordAuthenticationRequest;
+import org.hswebframework.web.authorization.token.UserToken;
+import org.hswebframework.web.authorization.token.UserTokenManager;
+import org.hswebframework.web.cache.ReactiveCache;
 import org.hswebframework.web.cache.ReactiveCacheManager;
 import org.hswebframework.web.system.authorization.api.entity.UserEntity;
 import org.hswebframework.web.system.authorization.api.event.ClearUserAuthorizationCacheEvent;
 import org.hswebframework.web.system.authorization.api.service.reactive.ReactiveUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Order(100)
 public class DefaultReactiveAuthenticationManager implements ReactiveAuthenticationManagerProvider {
@@ -28,8 +44,36 @@ public class DefaultReactiveAuthenticationManager implements ReactiveAuthenticat
     @Autowired(required = false)
     private ReactiveCacheManager cacheManager;
 
+    @Autowired(required = false)
+    private UserTokenManager userTokenManager;
+
+    /**
+     * 启动时在后台预先加载已登录用户的权限信息.
+     * <p>
+     * 清空缓存时不预先加载,因为清空缓存可能在权限变更的事务提交前执行,此时加载到的是变更前的权限.
+     */
+    @Getter
+    @Setter
+    private boolean warmUpEnabled = false;
+
+    /**
+     * 预先加载时每批的用户数量
+     */
+    @Getter
+    @Setter
+    private int warmUpBatchSize = 200;
+
+    //每次清空缓存时递增,预先加载期间清空过缓存时,不使用已经加载到的权限信息
+    private final AtomicLong cacheGeneration = new AtomicLong();
+
+    //正在预先加载的用户,防止重复加载
+    private final Set<String> warmingUsers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean warmingLoggedUser = new AtomicBoolean();
+
     @EventListener
     public void handleClearAuthCache(ClearUserAuthorizationCacheEvent event) {
+        cacheGeneration.incrementAndGet();
         if (cacheManager != null) {
             Mono<Void> operator;
             if (event.isAll()) {
@@ -78,6 +122,101 @@ public class DefaultReactiveAuthenticationManager implements ReactiveAuthenticat
         return cacheManager
                 .<Authentication>getCache("user-auth")
                 .mono(userId)
-                .onCacheMissResume(() -> initializeService.initUserAuthorization(userId));
+                .onCacheMissResume(() -> initializeService.initUserAuthorization(userId))
+                //缓存中可能是序列化后的SimpleAuthentication
+                .map(IndexedAuthentication::of);
+    }
+
+    /**
+     * 批量加载用户的权限信息到缓存中,已经在缓存中以及正在加载的用户将被忽略.
+     * <p>
+     * 加载期间清空过权限缓存时,不写入加载到的权限信息,防止覆盖变更后的权限.
+     *
+     * @param userIdList 用户ID
+     * @return 加载的用户数量
+     * @since 4.0.16
+     */
+    public Mono<Integer> warmUp(Collection<String> userIdList) {
+        if (cacheManager == null || userIdList.isEmpty()) {
+            return Mono.just(0);
+        }
+        ReactiveCache<Authentication> cache = cacheManager.getCache("user-auth");
+        return Mono.defer(() -> {
+            long generation = cacheGeneration.get();
+            List<String> claimed = userIdList
+                    .stream()
+                    .distinct()
+                    .filter(warmingUsers::add)
+                    .collect(Collectors.toList());
+            return Flux
+                    .fromIterable(claimed)
+                    .filterWhen(userId -> cache.getMono(userId).hasElement().map(exists -> !exists))
+                    .collectList()
+                    .filter(list -> !list.isEmpty())
+                    .flatMapMany(list -> initializeService.initUserAuthorization(list))
+                    .concatMap(auth -> put(cache, auth, generation))
+                    .reduce(0, (total, success) -> success ? total + 1 : total)
+                    .doFinally(signal -> claimed.forEach(warmingUsers::remove));
+        });
+    }
+
+    private Mono<Boolean> put(ReactiveCache<Authentication> cache, Authentication auth, long generation) {
+        String userId = auth.getUser().getId();
+        if (cacheGeneration.get() != generation) {
+            return Mono.just(false);
+        }
+        return cache
+                .getMono(userId)
+                .hasElement()
+                //已经被getByUserId加载
+                .flatMap(exists -> exists
+                        ? Mono.just(false)
+                        : cache.put(userId, Mono.just(auth)).thenReturn(true))
+                //写入期间清空了缓存,删除可能已经过期的权限信息
+                .flatMap(success -> success && cacheGeneration.get() != generation
+                        ? cache.evict(userId).thenReturn(false)
+                        : Mono.just(success));
+    }
+
+    /**
+     * 分批加载全部已登录用户的权限信息到缓存中,已经在加载时直接返回0.
+     *
+     * @return 加载的用户数量
+     * @since 4.0.16
+     */
+    public Mono<Integer> warmUpLoggedUser() {
+        if (userTokenManager == null || cacheManager == null) {
+            return Mono.just(0);
+        }
+        return Mono.defer(() -> {
+            if (!warmingLoggedUser.compareAndSet(false, true)) {
+                return Mono.just(0);
+            }
+            return userTokenManager
+                    .allLoggedUser()
+                    .filter(UserToken::isNormal)
+                    .map(UserToken::getUserId)
+                    .distinct()
+                    .buffer(warmUpBatchSize)
+                    .concatMap(this::warmUp)
+                    .reduce(0, Integer::sum)
+                    .doFinally(signal -> warmingLoggedUser.set(false));
+        });
+    }
+
+    @EventListener
+    public void handleApplicationReady(ApplicationReadyEvent event) {
+        warmUpLoggedUserInBackground();
+    }
+
+    private void warmUpLoggedUserInBackground() {
+        if (!warmUpEnabled) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        warmUpLoggedUser()
+                .subscribe(
+                        total -> log.info("warm up {} user authentication cache in {}ms", total, System.currentTimeMillis() - time),
+                        err -> log.warn("warm up user authentication cache error", err));
     }
 }
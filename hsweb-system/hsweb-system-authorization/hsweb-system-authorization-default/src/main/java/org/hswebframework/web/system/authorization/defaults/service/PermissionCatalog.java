@@ -0,0 +1,226 @@
+package org.hswebframework.web.system.authorization.defaults.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.web.authorization.access.DataAccessConfig;
+import org.hswebframework.web.authorization.builder.DataAccessConfigBuilderFactory;
+import org.hswebframework.web.crud.events.EntityCreatedEvent;
+import org.hswebframework.web.crud.events.EntityDeletedEvent;
+import org.hswebframework.web.crud.events.EntityModifyEvent;
+import org.hswebframework.web.crud.events.EntitySavedEvent;
+import org.hswebframework.web.system.authorization.api.entity.AuthorizationSettingEntity;
+import org.hswebframework.web.system.authorization.api.entity.DataAccessEntity;
+import org.hswebframework.web.system.authorization.api.entity.PermissionEntity;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 节点本地的权限目录,缓存全部启用的权限以及构造好的数据权限配置,在全部用户初始化权限信息时共享.
+ * <p>
+ * 权限发生变化时(实体事件),只重新加载变化的权限.为了防止集群中其他节点的变更无法感知,
+ * 超过{@link #getTtl()}后将重新加载全部权限.
+ *
+ * @author zhouhao
+ * @see DefaultReactiveAuthenticationInitializeService
+ * @since 4.0.16
+ */
+@Slf4j
+public class PermissionCatalog {
+
+    //数据权限配置缓存的最大数量
+    static final int MAX_DATA_ACCESS_CACHE_SIZE = 10000;
+
+    private final ReactiveRepository<PermissionEntity, String> permissionRepository;
+
+    private final DataAccessConfigBuilderFactory builderFactory;
+
+    /**
+     * 全量重新加载的间隔
+     */
+    @Getter
+    @Setter
+    private Duration ttl = Duration.ofMinutes(5);
+
+    //已经加载的权限,为null时表示未加载
+    private volatile Map<String, PermissionEntity> permissions;
+
+    private volatile long loadTime;
+
+    //发生了变化,需要重新加载的权限ID
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    //正在进行的加载,多个并发的初始化共享同一次加载
+    private volatile Mono<Map<String, PermissionEntity>> loading;
+
+    //数据权限配置 -> 构造好的配置,相同的配置共享同一个实例
+    private final Map<Map<String, Object>, Optional<DataAccessConfig>> dataAccesses = new ConcurrentHashMap<>();
+
+    public PermissionCatalog(ReactiveRepository<PermissionEntity, String> permissionRepository,
+                             DataAccessConfigBuilderFactory builderFactory) {
+        this.permissionRepository = permissionRepository;
+        this.builderFactory = builderFactory;
+    }
+
+    /**
+     * 获取全部启用的权限
+     *
+     * @return 权限ID -> 权限, 不可修改
+     */
+    public Mono<Map<String, PermissionEntity>> getPermissions() {
+        Map<String, PermissionEntity> loaded = this.permissions;
+        if (loaded != null && changed.isEmpty() && !isExpired()) {
+            return Mono.just(loaded);
+        }
+        return Mono.defer(this::load);
+    }
+
+    /**
+     * 根据数据权限配置获取构造好的{@link DataAccessConfig},配置内容相同时返回同一个实例.
+     *
+     * @param entity 数据权限配置
+     * @return 数据权限配置, 不支持的配置返回empty
+     */
+    public Optional<DataAccessConfig> getDataAccessConfig(DataAccessEntity entity) {
+        Map<String, Object> key = entity.toMap();
+        Optional<DataAccessConfig> config = dataAccesses.get(key);
+        if (config != null) {
+            return config;
+        }
+        if (dataAccesses.size() >= MAX_DATA_ACCESS_CACHE_SIZE) {
+            dataAccesses.clear();
+        }
+        return dataAccesses.computeIfAbsent(key, conf -> {
+            DataAccessConfig built = builderFactory
+                    .create()
+                    .fromMap(new HashMap<>(conf))
+                    .build();
+            if (built == null) {
+                log.warn("unsupported data access:{}", conf);
+            }
+            return Optional.ofNullable(built);
+        });
+    }
+
+    /**
+     * 使全部缓存失效,下一次获取时重新加载
+     */
+    public void invalidate() {
+        permissions = null;
+        dataAccesses.clear();
+    }
+
+    /**
+     * 使指定的权限失效,下一次获取时只重新加载这些权限
+     *
+     * @param idList 权限ID
+     */
+    public void invalidate(Collection<String> idList) {
+        changed.addAll(idList);
+    }
+
+    private boolean isExpired() {
+        return ttl != null && System.currentTimeMillis() - loadTime > ttl.toMillis();
+    }
+
+    private synchronized Mono<Map<String, PermissionEntity>> load() {
+        Mono<Map<String, PermissionEntity>> current = loading;
+        if (current != null) {
+            return current;
+        }
+        Map<String, PermissionEntity> loaded = this.permissions;
+        boolean full = loaded == null || isExpired();
+        Set<String> idList = new HashSet<>(changed);
+
+        return loading = (full ? loadAll() : reload(loaded, idList))
+                .doOnNext(map -> {
+                    if (full) {
+                        loadTime = System.currentTimeMillis();
+                    }
+                    permissions = map;
+                    //加载过程中发生的变化在下一次获取时处理
+                    changed.removeAll(idList);
+                })
+                .doFinally(ignore -> loading = null)
+                .cache();
+    }
+
+    private Mono<Map<String, PermissionEntity>> loadAll() {
+        return permissionRepository
+                .createQuery()
+                .where(PermissionEntity::getStatus, 1)
+                .fetch()
+                .collect(Collectors.toMap(PermissionEntity::getId, Function.identity()))
+                .<Map<String, PermissionEntity>>map(Collections::unmodifiableMap)
+                .switchIfEmpty(Mono.fromSupplier(Collections::emptyMap));
+    }
+
+    private Mono<Map<String, PermissionEntity>> reload(Map<String, PermissionEntity> loaded, Set<String> idList) {
+        if (idList.isEmpty()) {
+            return Mono.just(loaded);
+        }
+        return permissionRepository
+                .findById(idList)
+                .filter(permission -> Objects.equals(permission.getStatus(), (byte) 1))
+                .collectList()
+                .map(list -> {
+                    Map<String, PermissionEntity> copy = new HashMap<>(loaded);
+                    copy.keySet().removeAll(idList);
+                    for (PermissionEntity permission : list) {
+                        copy.put(permission.getId(), permission);
+                    }
+                    log.debug("reload permissions:{}", idList);
+                    return Collections.unmodifiableMap(copy);
+                });
+    }
+
+    private void invalidatePermissions(List<PermissionEntity> permissions) {
+        if (permissions == null) {
+            return;
+        }
+        invalidate(permissions
+                           .stream()
+                           .map(PermissionEntity::getId)
+                           .filter(Objects::nonNull)
+                           .collect(Collectors.toSet()));
+    }
+
+    @EventListener
+    public void handlePermissionCreated(EntityCreatedEvent<PermissionEntity> event) {
+        invalidatePermissions(event.getEntity());
+    }
+
+    @EventListener
+    public void handlePermissionSaved(EntitySavedEvent<PermissionEntity> event) {
+        invalidatePermissions(event.getEntity());
+    }
+
+    @EventListener
+    public void handlePermissionModified(EntityModifyEvent<PermissionEntity> event) {
+        invalidatePermissions(event.getBefore());
+        invalidatePermissions(event.getAfter());
+    }
+
+    @EventListener
+    public void handlePermissionDeleted(EntityDeletedEvent<PermissionEntity> event) {
+        invalidatePermissions(event.getEntity());
+    }
+
+    //数据权限配置按内容缓存,赋权变化后清空防止缓存无限增长
+    @EventListener
+    public void handleSettingChanged(EntityModifyEvent<AuthorizationSettingEntity> event) {
+        dataAccesses.clear();
+    }
+
+    @EventListener
+    public void handleSettingDeleted(EntityDeletedEvent<AuthorizationSettingEntity> event) {
+        dataAccesses.clear();
+    }
+}
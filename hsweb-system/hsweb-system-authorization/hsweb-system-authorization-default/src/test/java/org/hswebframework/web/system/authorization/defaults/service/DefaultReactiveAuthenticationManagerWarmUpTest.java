@@ -0,0 +1,153 @@
+package org.hswebframework.web.system.authorization.defaults.service;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.ReactiveAuthenticationInitializeService;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.hswebframework.web.authorization.simple.SimpleUser;
+import org.hswebframework.web.cache.ReactiveCache;
+import org.hswebframework.web.cache.ReactiveCacheManager;
+import org.hswebframework.web.system.authorization.api.event.ClearUserAuthorizationCacheEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DefaultReactiveAuthenticationManagerWarmUpTest {
+
+    private final DefaultReactiveAuthenticationManager manager = new DefaultReactiveAuthenticationManager();
+
+    private final MapReactiveCache cache = new MapReactiveCache();
+
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    //加载权限时执行的操作,用于模拟加载期间清空缓存
+    private volatile Runnable onLoad = () -> {
+    };
+
+    @Before
+    public void init() {
+        ReactiveCacheManager cacheManager = new ReactiveCacheManager() {
+            @Override
+            @SuppressWarnings("all")
+            public <E> ReactiveCache<E> getCache(String name) {
+                return (ReactiveCache) cache;
+            }
+        };
+        ReactiveAuthenticationInitializeService initializeService = new ReactiveAuthenticationInitializeService() {
+            @Override
+            public Mono<Authentication> initUserAuthorization(String userId) {
+                return initUserAuthorization(Arrays.asList(userId)).singleOrEmpty();
+            }
+
+            @Override
+            public Flux<Authentication> initUserAuthorization(Collection<String> userIdList) {
+                return Flux
+                        .fromIterable(userIdList)
+                        .doOnSubscribe(ignore -> onLoad.run())
+                        .map(DefaultReactiveAuthenticationManagerWarmUpTest.this::createAuthentication);
+            }
+        };
+        ReflectionTestUtils.setField(manager, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(manager, "initializeService", initializeService);
+    }
+
+    private Authentication createAuthentication(String userId) {
+        loaded.incrementAndGet();
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.setUser(SimpleUser.builder().id(userId).name(userId).build());
+        return authentication;
+    }
+
+    @Test
+    public void testWarmUp() {
+        assertEquals(Integer.valueOf(2), manager.warmUp(Arrays.asList("u1", "u2", "u1")).block());
+        assertTrue(cache.values.containsKey("u1"));
+        assertTrue(cache.values.containsKey("u2"));
+
+        //已经在缓存中的用户不重复加载
+        assertEquals(Integer.valueOf(0), manager.warmUp(Arrays.asList("u1", "u2")).block());
+        assertEquals(2, loaded.get());
+    }
+
+    @Test
+    public void testClearDuringWarmUp() {
+        //加载期间权限变更并清空了缓存
+        onLoad = () -> manager.handleClearAuthCache(ClearUserAuthorizationCacheEvent.of("u1"));
+
+        assertEquals(Integer.valueOf(0), manager.warmUp(Arrays.asList("u1", "u2")).block());
+        assertTrue(cache.values.isEmpty());
+    }
+
+    @Test
+    public void testClearAllNotWarmUp() {
+        manager.setWarmUpEnabled(true);
+        manager.warmUp(Arrays.asList("u1")).block();
+        manager.handleClearAuthCache(ClearUserAuthorizationCacheEvent.all());
+        assertTrue(cache.values.isEmpty());
+        assertEquals(1, loaded.get());
+    }
+
+    @Test
+    public void testConcurrentWarmUp() {
+        //第一次加载期间发起的加载请求,忽略正在加载的用户
+        AtomicInteger nested = new AtomicInteger(-1);
+        onLoad = () -> {
+            if (nested.get() < 0) {
+                nested.set(0);
+                nested.set(manager.warmUp(Arrays.asList("u1")).block());
+            }
+        };
+        assertEquals(Integer.valueOf(1), manager.warmUp(Arrays.asList("u1")).block());
+        assertEquals(0, nested.get());
+        assertEquals(1, loaded.get());
+    }
+
+    static class MapReactiveCache implements ReactiveCache<Authentication> {
+        private final Map<Object, Authentication> values = new ConcurrentHashMap<>();
+
+        @Override
+        public Flux<Authentication> getFlux(Object key) {
+            return getMono(key).flux();
+        }
+
+        @Override
+        public Mono<Authentication> getMono(Object key) {
+            return Mono.fromSupplier(() -> values.get(key));
+        }
+
+        @Override
+        public Mono<Void> put(Object key, Publisher<Authentication> data) {
+            return Mono.from(data).doOnNext(value -> values.put(key, value)).then();
+        }
+
+        @Override
+        public Mono<Void> evict(Object key) {
+            return Mono.fromRunnable(() -> values.remove(key));
+        }
+
+        @Override
+        public Flux<Authentication> getAll(Object... keys) {
+            return Flux.fromArray(keys).flatMap(this::getMono);
+        }
+
+        @Override
+        public Mono<Void> evictAll(Iterable<?> key) {
+            return Flux.fromIterable(key).flatMap(this::evict).then();
+        }
+
+        @Override
+        public Mono<Void> clear() {
+            return Mono.fromRunnable(values::clear);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.hswebframework.web.system.authorization.defaults.service.reactive;
 
 import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
 import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.ReactiveAuthenticationInitializeService;
 import org.hswebframework.web.authorization.ReactiveAuthenticationManager;
 import org.hswebframework.web.authorization.User;
 import org.hswebframework.web.authorization.simple.PlainTextUsernamePasswordAuthenticationRequest;
@@ -16,11 +17,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = ReactiveTestApplication.class)
@@ -38,6 +47,9 @@ public class DefaultReactiveAuthenticationManagerTest {
     @Autowired
     private ReactiveRepository<AuthorizationSettingEntity, String> settingRepository;
 
+    @Autowired
+    private ReactiveAuthenticationInitializeService initializeService;
+
     @Test
     public void test() {
         UserEntity entity = new UserEntity();
@@ -109,4 +121,91 @@ public class DefaultReactiveAuthenticationManagerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testBatchInit() {
+        List<UserEntity> users = Flux
+                .range(0, 3)
+                .map(i -> {
+                    UserEntity entity = new UserEntity();
+                    entity.setName("batch-" + i);
+                    entity.setUsername("batch-" + i);
+                    entity.setPassword("batch-" + i);
+                    return entity;
+                })
+                .concatMap(entity -> userService.saveUser(Mono.just(entity)).thenReturn(entity))
+                .collectList()
+                .block();
+        assertNotNull(users);
+
+        permissionRepository
+                .newInstance()
+                .map(permission -> {
+                    permission.setId("batch-test");
+                    permission.setName("批量测试");
+                    permission.setActions(Arrays.asList(ActionEntity.builder().action("query").describe("查询").build(),
+                                                        ActionEntity.builder().action("save").describe("保存").build()));
+                    permission.setStatus((byte) 1);
+                    return permission;
+                })
+                .as(permissionRepository::insert)
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        //第一个用户只有查询权限,第二个用户有查询和保存权限,第三个用户没有权限
+        Flux.range(0, 2)
+            .flatMap(i -> settingRepository
+                    .newInstance()
+                    .map(setting -> {
+                        setting.setPermission("batch-test");
+                        setting.setActions(i == 0
+                                                   ? Collections.singleton("query")
+                                                   : new HashSet<>(Arrays.asList("query", "save")));
+                        setting.setDimensionType("user");
+                        setting.setDimensionTypeName("用户");
+                        setting.setDimensionTarget(users.get(i).getId());
+                        setting.setDimensionTargetName(users.get(i).getName());
+                        setting.setState((byte) 1);
+                        return setting;
+                    }))
+            .as(settingRepository::insert)
+            .as(StepVerifier::create)
+            .expectNext(2)
+            .verifyComplete();
+
+        List<String> idList = users.stream().map(UserEntity::getId).collect(Collectors.toList());
+
+        Map<String, Authentication> authentications = initializeService
+                .initUserAuthorization(Arrays.asList(idList.get(0), idList.get(1), idList.get(2), "not-exists"))
+                .collect(Collectors.toMap(auth -> auth.getUser().getId(), Function.identity()))
+                .block();
+
+        assertNotNull(authentications);
+        assertEquals(3, authentications.size());
+        assertTrue(authentications.get(idList.get(0)).hasPermission("batch-test", "query"));
+        assertFalse(authentications.get(idList.get(0)).hasPermission("batch-test", "save"));
+        assertTrue(authentications.get(idList.get(1)).hasPermission("batch-test", "query", "save"));
+        assertFalse(authentications.get(idList.get(2)).hasPermission("batch-test"));
+
+        //与单个初始化的结果一致
+        for (String id : idList) {
+            Authentication single = initializeService.initUserAuthorization(id).block();
+            assertNotNull(single);
+            Authentication batch = authentications.get(id);
+            assertEquals(single.getPermissions().size(), batch.getPermissions().size());
+            assertEquals(single.getDimensions().size(), batch.getDimensions().size());
+        }
+
+        Flux.fromIterable(idList)
+            .flatMap(userService::deleteUser)
+            .as(StepVerifier::create)
+            .expectNext(true, true, true)
+            .verifyComplete();
+
+        permissionRepository
+                .deleteById("batch-test")
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,102 @@
+package org.hswebframework.web.system.authorization.defaults.service.reactive;
+
+import org.hswebframework.ezorm.rdb.mapping.ReactiveRepository;
+import org.hswebframework.web.authorization.access.DataAccessConfig;
+import org.hswebframework.web.system.authorization.api.entity.DataAccessEntity;
+import org.hswebframework.web.system.authorization.api.entity.PermissionEntity;
+import org.hswebframework.web.system.authorization.defaults.service.PermissionCatalog;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ReactiveTestApplication.class)
+public class PermissionCatalogTest {
+
+    @Autowired
+    private PermissionCatalog catalog;
+
+    @Autowired
+    private ReactiveRepository<PermissionEntity, String> permissionRepository;
+
+    @Test
+    public void testPermissions() {
+        catalog.getPermissions()
+               .map(map -> map.containsKey("catalog-test"))
+               .as(StepVerifier::create)
+               .expectNext(false)
+               .verifyComplete();
+
+        PermissionEntity permission = new PermissionEntity();
+        permission.setId("catalog-test");
+        permission.setName("权限目录测试");
+        permission.setStatus((byte) 1);
+
+        permissionRepository
+                .insert(permission)
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        //新增的权限通过实体事件加载
+        catalog.getPermissions()
+               .map(map -> map.containsKey("catalog-test"))
+               .as(StepVerifier::create)
+               .expectNext(true)
+               .verifyComplete();
+
+        permissionRepository
+                .createUpdate()
+                .set(PermissionEntity::getStatus, (byte) 0)
+                .where(PermissionEntity::getId, "catalog-test")
+                .execute()
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        //禁用后移除
+        catalog.getPermissions()
+               .map(map -> map.containsKey("catalog-test"))
+               .as(StepVerifier::create)
+               .expectNext(false)
+               .verifyComplete();
+
+        permissionRepository
+                .deleteById("catalog-test")
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testDataAccessConfig() {
+        DataAccessEntity entity = new DataAccessEntity();
+        entity.setAction("query");
+        entity.setType("DENY_FIELDS");
+        entity.setConfig(Collections.singletonMap("fields", Arrays.asList("password", "salt")));
+
+        DataAccessEntity same = new DataAccessEntity();
+        same.setAction("query");
+        same.setType("DENY_FIELDS");
+        same.setConfig(Collections.singletonMap("fields", Arrays.asList("password", "salt")));
+
+        Optional<DataAccessConfig> config = catalog.getDataAccessConfig(entity);
+        assertTrue(config.isPresent());
+        //相同的配置共享同一个实例
+        assertSame(config.get(), catalog.getDataAccessConfig(same).orElse(null));
+
+        DataAccessEntity unsupported = new DataAccessEntity();
+        unsupported.setAction("query");
+        unsupported.setType("unsupported");
+        assertFalse(catalog.getDataAccessConfig(unsupported).isPresent());
+    }
+}